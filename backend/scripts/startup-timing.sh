@@ -0,0 +1,99 @@
+#!/usr/bin/env bash
+# Measures time-to-ready and time-to-first-fast-response of the backend.
+#
+# Usage: scripts/startup-timing.sh [plain|fast-start] [runs]
+#
+#   plain       java -jar target/analytics-dashboard-0.0.1-SNAPSHOT.jar (mvn package)
+#   fast-start  AOT context + CDS archive from target/fast-start (mvn -Pfast-start package)
+#
+# Each run starts the application, polls /actuator/health/readiness until it reports UP
+# (time-to-ready), then requests the default dashboard endpoints until every one answers
+# faster than FAST_MS (time-to-first-fast-response). Times are milliseconds since the JVM
+# was launched. Prints one CSV line per run: mode,run,ready_ms,fast_ms
+#
+# Environment: PORT (8080), FAST_MS (50), TIMEOUT_S (180), JAVA (java)
+set -euo pipefail
+
+MODE="${1:-plain}"
+RUNS="${2:-5}"
+PORT="${PORT:-8080}"
+FAST_MS="${FAST_MS:-50}"
+TIMEOUT_S="${TIMEOUT_S:-180}"
+JAVA="${JAVA:-java}"
+BASE="http://localhost:${PORT}"
+JAR="analytics-dashboard-0.0.1-SNAPSHOT.jar"
+ENDPOINTS=(
+  "/api/dashboard/stats"
+  "/api/dashboard/stats/filtered"
+  "/api/dashboard/analytics/daily"
+  "/api/dashboard/analytics/payment-methods"
+  "/api/dashboard/analytics/hourly-traffic"
+)
+
+cd "$(dirname "$0")/.."
+
+case "$MODE" in
+  plain)
+    WORKDIR="target"
+    JAVA_ARGS=(-jar "$JAR")
+    ;;
+  fast-start)
+    WORKDIR="target/fast-start"
+    JAVA_ARGS=(-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$JAR")
+    ;;
+  *)
+    echo "unknown mode: $MODE (expected plain or fast-start)" >&2
+    exit 2
+    ;;
+esac
+
+now_ms() { date +%s%3N; }
+
+echo "mode,run,ready_ms,fast_ms"
+for run in $(seq 1 "$RUNS"); do
+  log="$(mktemp)"
+  start=$(now_ms)
+  (cd "$WORKDIR" && exec "$JAVA" "${JAVA_ARGS[@]}" --server.port="$PORT") >"$log" 2>&1 &
+  pid=$!
+  trap 'kill "$pid" 2>/dev/null || true' EXIT
+
+  ready_ms=""
+  while [ -z "$ready_ms" ]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "application exited during startup, see $log" >&2
+      exit 1
+    fi
+    if [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+      echo "not ready after ${TIMEOUT_S}s, see $log" >&2
+      exit 1
+    fi
+    if curl -fs "${BASE}/actuator/health/readiness" 2>/dev/null | grep -q '"UP"'; then
+      ready_ms=$(( $(now_ms) - start ))
+    else
+      sleep 0.05
+    fi
+  done
+
+  fast_ms=""
+  while [ -z "$fast_ms" ]; do
+    if [ $(( $(now_ms) - start )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+      echo "no fast response after ${TIMEOUT_S}s" >&2
+      exit 1
+    fi
+    slowest=0
+    for endpoint in "${ENDPOINTS[@]}"; do
+      seconds=$(curl -fs -o /dev/null -w '%{time_total}' "${BASE}${endpoint}" || echo 999)
+      ms=$(awk -v s="$seconds" 'BEGIN { printf "%d", s * 1000 }')
+      [ "$ms" -gt "$slowest" ] && slowest=$ms
+    done
+    if [ "$slowest" -lt "$FAST_MS" ]; then
+      fast_ms=$(( $(now_ms) - start ))
+    fi
+  done
+
+  echo "${MODE},${run},${ready_ms},${fast_ms}"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+  rm -f "$log"
+done
@@ -0,0 +1,43 @@
+package com.toucanus.analytics_dashboard.config;
+
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-lane concurrency budgets. The sum of {@code max-concurrent} across lanes
+ * (plus the report executor threads) should stay within the Hikari pool size.
+ */
+@Data
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * Date ranges longer than this many days are routed to the HEAVY lane.
+     */
+    private int heavyRangeDays = 92;
+
+    private Map<QueryLane, Lane> lanes = new EnumMap<>(QueryLane.class);
+
+    @Data
+    public static class Lane {
+
+        private int maxConcurrent = 4;
+
+        /**
+         * Requests waiting for a permit beyond this are rejected immediately.
+         */
+        private int maxQueue = 10;
+
+        private Duration maxWait = Duration.ofSeconds(2);
+
+        /**
+         * Applied as PostgreSQL {@code statement_timeout} for queries in this lane.
+         */
+        private Duration statementTimeout = Duration.ofSeconds(30);
+    }
+}
@@ -1,6 +1,12 @@
 package com.toucanus.analytics_dashboard.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.toucanus.analytics_dashboard.service.cache.SharedCacheStore;
+import com.toucanus.analytics_dashboard.service.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -11,21 +17,37 @@ import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(SharedCacheProperties.class)
 public class CacheConfig {
 
+    /**
+     * The Caffeine caches, used as near caches of the shared tier when
+     * {@code cache.shared.enabled} is set.
+     */
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(ObjectProvider<SharedCacheStore> sharedCacheStore,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager(
             "dashboardStats",
             "filteredDashboardStats",
             "dailyAnalytics",
             "paymentStats",
-            "hourlyTraffic"
+            "hourlyTraffic",
+            "approximateAnalytics",
+            "dashboardComparison",
+            "dailyComparison",
+            "cohortRetention",
+            "activeUsers"
         );
         cacheManager.setCaffeine(Caffeine.newBuilder()
             .expireAfterWrite(30, TimeUnit.SECONDS)  // Cache for 30 seconds
             .maximumSize(100)
             .recordStats());
-        return cacheManager;
+        SharedCacheStore store = sharedCacheStore.getIfAvailable();
+        if (store == null) {
+            return cacheManager;
+        }
+        return new TwoLevelCacheManager(cacheManager, store, objectMapper, meterRegistry);
     }
 }
@@ -0,0 +1,9 @@
+package com.toucanus.analytics_dashboard.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(MerchantCacheProperties.class)
+public class MerchantCacheConfig {
+}
@@ -0,0 +1,32 @@
+package com.toucanus.analytics_dashboard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizing of the per-merchant analytics cache.
+ */
+@Data
+@ConfigurationProperties(prefix = "merchant-cache")
+public class MerchantCacheProperties {
+
+    /**
+     * Entries shared out equally among active merchants.
+     */
+    private int maxEntries = 20_000;
+
+    /**
+     * Merchants with a partition at once; beyond this whole partitions are evicted.
+     */
+    private int maxTenants = 5_000;
+
+    /**
+     * Floor on each merchant's share when many merchants are active, so the cache can
+     * hold up to max-tenants * min-entries-per-tenant entries.
+     */
+    private int minEntriesPerTenant = 4;
+
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,37 @@
+package com.toucanus.analytics_dashboard.config;
+
+import com.toucanus.analytics_dashboard.service.query.LaneBoundDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Wraps the primary pool so that transactions only borrow a connection (and, for
+ * submitted queries, a lane permit) when they run their first statement.
+ */
+@Configuration
+public class QueryDataSourceConfig {
+
+    @Bean
+    static BeanPostProcessor laneBoundDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy();
+                lazy.setTargetDataSource(new LaneBoundDataSource(dataSource));
+                // Pool defaults, so the proxy does not borrow a connection to look them up
+                lazy.setDefaultAutoCommit(true);
+                lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                lazy.afterPropertiesSet();
+                return lazy;
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.toucanus.analytics_dashboard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * The shared (PostgreSQL) tier behind the Caffeine caches, for running several instances.
+ */
+@Data
+@ConfigurationProperties(prefix = "cache.shared")
+public class SharedCacheProperties {
+
+    private boolean enabled;
+
+    /**
+     * How long a shared entry is served; matches the Caffeine expiry by default.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+
+    /**
+     * How long the instance computing a missing entry holds it before another may take
+     * over (should cover the heaviest lane's statement timeout).
+     */
+    private Duration lease = Duration.ofMinutes(2);
+
+    /**
+     * How often an instance waiting for another's result re-reads the table in case a
+     * notification was missed.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    private Duration cleanupInterval = Duration.ofMinutes(1);
+
+    /**
+     * Connections of the tier's own pool (one more is held for LISTEN). Separate from the
+     * main pool because cached work already holds a connection in a read-only transaction.
+     */
+    private int poolSize = 4;
+
+    private String channel = "analytics_cache";
+}
@@ -0,0 +1,43 @@
+package com.toucanus.analytics_dashboard.config;
+
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sizing of the per-user velocity counters and the default "over threshold" limits.
+ */
+@Data
+@ConfigurationProperties(prefix = "velocity")
+public class VelocityProperties {
+
+    /**
+     * Users tracked at once; events for new users beyond this are dropped (and counted)
+     * until idle users are evicted. Each tracked user costs roughly 350 bytes.
+     */
+    private int maxUsers = 1_000_000;
+
+    private int stripes = 64;
+
+    /**
+     * Users without a transaction for this long are evicted (at least the longest window).
+     */
+    private Duration idleAfter = Duration.ofHours(24);
+
+    private Duration sweepInterval = Duration.ofMinutes(5);
+
+    private Map<VelocityWindow, Threshold> thresholds = new EnumMap<>(VelocityWindow.class);
+
+    @Data
+    public static class Threshold {
+
+        private long count = Long.MAX_VALUE;
+
+        private BigDecimal amount;
+    }
+}
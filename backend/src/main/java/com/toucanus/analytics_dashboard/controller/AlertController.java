@@ -0,0 +1,53 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.dto.alert.AlertDTO;
+import com.toucanus.analytics_dashboard.service.alert.FailureRateDetector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin
+@RequiredArgsConstructor
+public class AlertController {
+
+    private final FailureRateDetector failureRateDetector;
+
+    /**
+     * Active alerts, or the most recent raised/resolved alerts with {@code history=true}.
+     */
+    @GetMapping
+    public ResponseEntity<List<AlertDTO>> getAlerts(@RequestParam(defaultValue = "false") boolean history) {
+        return ResponseEntity.ok(history
+                ? failureRateDetector.getRecentAlerts()
+                : failureRateDetector.getActiveAlerts());
+    }
+
+    /**
+     * Server-sent events: one "alert" event per raised or resolved alert.
+     */
+    @GetMapping("/stream")
+    public SseEmitter streamAlerts() {
+        SseEmitter emitter = new SseEmitter(0L);
+        Runnable unsubscribe = failureRateDetector.subscribe(alert -> {
+            try {
+                emitter.send(SseEmitter.event().name("alert").data(alert));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+}
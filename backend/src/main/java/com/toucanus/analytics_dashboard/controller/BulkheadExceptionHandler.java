@@ -0,0 +1,30 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadFullException;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Lane rejections become 429 with a {@code Retry-After} of the lane's max-wait (rounded up
+ * to whole seconds), roughly how long a permit takes to turn over.
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class BulkheadExceptionHandler {
+
+    private final BulkheadRegistry bulkheads;
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ProblemDetail> handleBulkheadFull(BulkheadFullException e) {
+        long retryAfterSeconds = Math.max(1, (bulkheads.settings(e.getLane()).getMaxWait().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.dto.cohort.ActiveUsersDTO;
+import com.toucanus.analytics_dashboard.dto.cohort.RetentionCohortDTO;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import com.toucanus.analytics_dashboard.service.cohort.CohortService;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cohorts")
+@CrossOrigin
+@Validated
+@RequiredArgsConstructor
+public class CohortController {
+
+    private final CohortService cohortService;
+    private final QueryExecutionService queries;
+
+    @GetMapping("/retention")
+    public DeferredResult<ResponseEntity<List<RetentionCohortDTO>>> getRetention(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "8") @Min(1) @Max(52) int weeks,
+            HttpServletRequest request
+    ) {
+        return QueryResponses.defer(queries, QueryLane.ANALYTICS, request,
+                () -> cohortService.getRetention(endDate, weeks));
+    }
+
+    @GetMapping("/active-users")
+    public DeferredResult<ResponseEntity<List<ActiveUsersDTO>>> getActiveUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request
+    ) {
+        return QueryResponses.defer(queries, QueryLane.ANALYTICS, request,
+                () -> cohortService.getActiveUsers(startDate, endDate));
+    }
+}
@@ -1,12 +1,22 @@
 package com.toucanus.analytics_dashboard.controller;
 
+import com.toucanus.analytics_dashboard.dto.DashboardComparisonDTO;
 import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.dto.graph.DailyComparisonDTO;
 import com.toucanus.analytics_dashboard.dto.graph.DailyStatusDTO;
 import com.toucanus.analytics_dashboard.dto.graph.HourlyStatDTO;
 import com.toucanus.analytics_dashboard.dto.graph.PaymentStatDTO;
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
 import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.approx.ApproximateAnalyticsService;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadRegistry;
 import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import com.toucanus.analytics_dashboard.service.zone.QuarterHourBuckets;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,8 +24,12 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -26,49 +40,126 @@ public class DashboardController {
 
     private final DashboardService dashboardService;
     private final GraphAnalyticsService graphAnalyticsService;
+    private final ApproximateAnalyticsService analyticsService;
+    private final BulkheadRegistry bulkheads;
+    private final QueryExecutionService queries;
+    private final QuarterHourBuckets quarterHourBuckets;
 
     @GetMapping("/stats")
-    public ResponseEntity<DashboardStatsDTO> getDashboardStats() {
-        return ResponseEntity.ok(dashboardService.getDashboardStats());
+    public DeferredResult<ResponseEntity<DashboardStatsDTO>> getDashboardStats(HttpServletRequest request) {
+        // All-time aggregate: always the heavy lane
+        return QueryResponses.defer(queries, QueryLane.HEAVY, request, dashboardService::getDashboardStats);
     }
 
     @GetMapping("/stats/filtered")
-    public ResponseEntity<DashboardStatsDTO> getFilteredDashboardStats(
+    public DeferredResult<ResponseEntity<DashboardStatsDTO>> getFilteredDashboardStats(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Boolean approx,
+            @RequestParam(required = false) ZoneId tz,
+            HttpServletRequest request
     ) {
-        return ResponseEntity.ok(dashboardService.getDashboardStats(startDate, endDate));
+        requireZoneRange(startDate, endDate, tz);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> tz != null ? dashboardService.getDashboardStats(startDate, endDate, tz)
+                        : analyticsService.getDashboardStats(startDate, endDate, approx));
+    }
+
+    @GetMapping("/stats/compare")
+    public DeferredResult<ResponseEntity<DashboardComparisonDTO>> getDashboardStatsComparison(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "PREVIOUS_PERIOD") ComparisonPeriod compareTo,
+            @RequestParam(required = false) ZoneId tz,
+            HttpServletRequest request
+    ) {
+        requireZoneRange(startDate, endDate, tz);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> tz != null ? dashboardService.getDashboardStatsComparison(startDate, endDate, compareTo, tz)
+                        : dashboardService.getDashboardStatsComparison(startDate, endDate, compareTo));
     }
 
     @GetMapping("/analytics/daily")
-    public ResponseEntity<List<DailyStatusDTO>> getDailyAnalytics(
+    public DeferredResult<ResponseEntity<List<DailyStatusDTO>>> getDailyAnalytics(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Boolean approx,
+            @RequestParam(required = false) ZoneId tz,
+            HttpServletRequest request
+    ) {
+        requireZoneRange(startDate, endDate, tz);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> tz != null ? graphAnalyticsService.getDailyStatusStats(startDate, endDate, tz)
+                        : analyticsService.getDailyStatusStats(startDate, endDate, approx));
+    }
+
+    @GetMapping("/analytics/daily/compare")
+    public DeferredResult<ResponseEntity<DailyComparisonDTO>> getDailyAnalyticsComparison(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "PREVIOUS_PERIOD") ComparisonPeriod compareTo,
+            @RequestParam(required = false) ZoneId tz,
+            HttpServletRequest request
     ) {
-        return ResponseEntity.ok(graphAnalyticsService.getDailyStatusStats(startDate, endDate));
+        requireZoneRange(startDate, endDate, tz);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> tz != null ? graphAnalyticsService.getDailyStatusComparison(startDate, endDate, compareTo, tz)
+                        : graphAnalyticsService.getDailyStatusComparison(startDate, endDate, compareTo));
     }
 
     @GetMapping("/analytics/payment-methods")
-    public ResponseEntity<List<PaymentStatDTO>> getPaymentMethodAnalytics(
+    public DeferredResult<ResponseEntity<List<PaymentStatDTO>>> getPaymentMethodAnalytics(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Boolean approx,
+            @RequestParam(required = false) ZoneId tz,
+            HttpServletRequest request
     ) {
-        return ResponseEntity.ok(graphAnalyticsService.getPaymentStats(startDate, endDate));
+        requireZoneRange(startDate, endDate, tz);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> tz != null ? graphAnalyticsService.getPaymentStats(startDate, endDate, tz)
+                        : analyticsService.getPaymentStats(startDate, endDate, approx));
     }
 
     @GetMapping("/analytics/daily-status")
-    public ResponseEntity<List<DailyStatusDTO>> getDailyStatusAnalytics(
+    public DeferredResult<ResponseEntity<List<DailyStatusDTO>>> getDailyStatusAnalytics(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Boolean approx,
+            @RequestParam(required = false) ZoneId tz,
+            HttpServletRequest request
     ) {
-        return ResponseEntity.ok(graphAnalyticsService.getDailyStatusStats(startDate, endDate));
+        requireZoneRange(startDate, endDate, tz);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> tz != null ? graphAnalyticsService.getDailyStatusStats(startDate, endDate, tz)
+                        : analyticsService.getDailyStatusStats(startDate, endDate, approx));
     }
 
     @GetMapping("/analytics/hourly-traffic")
-    public ResponseEntity<List<HourlyStatDTO>> getHourlyTrafficAnalytics(
+    public DeferredResult<ResponseEntity<List<HourlyStatDTO>>> getHourlyTrafficAnalytics(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Boolean approx,
+            @RequestParam(required = false) ZoneId tz,
+            HttpServletRequest request
     ) {
-        return ResponseEntity.ok(graphAnalyticsService.getHourlyTrafficStats(startDate, endDate));
+        requireZoneRange(startDate, endDate, tz);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> tz != null ? graphAnalyticsService.getHourlyTrafficStats(startDate, endDate, tz)
+                        : analyticsService.getHourlyTrafficStats(startDate, endDate, approx));
+    }
+
+    /**
+     * With tz, ranges are local days in that zone (approx is ignored), at most zone-buckets.max-range-days long.
+     */
+    private void requireZoneRange(LocalDate startDate, LocalDate endDate, ZoneId tz) {
+        if (tz == null || startDate == null) {
+            return;
+        }
+        LocalDate end = endDate != null ? endDate : LocalDate.now(tz);
+        if (ChronoUnit.DAYS.between(startDate, end) >= quarterHourBuckets.maxRangeDays()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Ranges with tz are limited to " + quarterHourBuckets.maxRangeDays() + " days");
+        }
     }
 }
@@ -0,0 +1,93 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.dto.graph.DailyStatusDTO;
+import com.toucanus.analytics_dashboard.dto.graph.HourlyStatDTO;
+import com.toucanus.analytics_dashboard.dto.graph.PaymentStatDTO;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadRegistry;
+import com.toucanus.analytics_dashboard.service.merchant.MerchantAnalyticsService;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The dashboard analytics scoped to one merchant's transactions.
+ */
+@RestController
+@RequestMapping("/api/merchants/{merchantId}/dashboard")
+@CrossOrigin
+@RequiredArgsConstructor
+public class MerchantDashboardController {
+
+    private final MerchantAnalyticsService merchantAnalyticsService;
+    private final BulkheadRegistry bulkheads;
+    private final QueryExecutionService queries;
+
+    @GetMapping("/stats")
+    public DeferredResult<ResponseEntity<DashboardStatsDTO>> getDashboardStats(
+            @PathVariable Long merchantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request
+    ) {
+        requireMerchant(merchantId);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> merchantAnalyticsService.getDashboardStats(merchantId, startDate, endDate));
+    }
+
+    @GetMapping("/analytics/daily")
+    public DeferredResult<ResponseEntity<List<DailyStatusDTO>>> getDailyAnalytics(
+            @PathVariable Long merchantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request
+    ) {
+        requireMerchant(merchantId);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> merchantAnalyticsService.getDailyStatusStats(merchantId, startDate, endDate));
+    }
+
+    @GetMapping("/analytics/hourly-traffic")
+    public DeferredResult<ResponseEntity<List<HourlyStatDTO>>> getHourlyTrafficAnalytics(
+            @PathVariable Long merchantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request
+    ) {
+        requireMerchant(merchantId);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> merchantAnalyticsService.getHourlyTrafficStats(merchantId, startDate, endDate));
+    }
+
+    @GetMapping("/analytics/payment-methods")
+    public DeferredResult<ResponseEntity<List<PaymentStatDTO>>> getPaymentMethodAnalytics(
+            @PathVariable Long merchantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletRequest request
+    ) {
+        requireMerchant(merchantId);
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> merchantAnalyticsService.getPaymentStats(merchantId, startDate, endDate));
+    }
+
+    private void requireMerchant(Long merchantId) {
+        if (!merchantAnalyticsService.isMerchant(merchantId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Merchant not found");
+        }
+    }
+}
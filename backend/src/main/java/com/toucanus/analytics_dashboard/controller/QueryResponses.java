@@ -0,0 +1,60 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Adapts {@link QueryExecutionService} futures to Spring MVC async responses so that an
+ * async timeout or a client disconnect cancels the running query.
+ */
+final class QueryResponses {
+
+    static final String SUPERSEDE_HEADER = "X-Supersede-Key";
+
+    private QueryResponses() {
+    }
+
+    static <T> DeferredResult<ResponseEntity<T>> defer(QueryExecutionService queries, QueryLane lane,
+                                                       HttpServletRequest request, Supplier<T> work) {
+        CompletableFuture<T> future = queries.submit(lane, supersedeKey(request), work);
+        DeferredResult<ResponseEntity<T>> result = new DeferredResult<>(queries.responseTimeout(lane).toMillis());
+        result.onTimeout(() -> {
+            queries.cancel(future, "timeout");
+            result.setErrorResult(new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Request timed out"));
+        });
+        result.onError(error -> queries.cancel(future, "disconnected"));
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.setResult(ResponseEntity.ok(value));
+            } else if (error instanceof CancellationException) {
+                result.setErrorResult(new ResponseStatusException(HttpStatus.CONFLICT, "Request was cancelled"));
+            } else {
+                result.setErrorResult(error);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * One key per client scope and endpoint, so only a newer call to the same endpoint
+     * supersedes. The query string is left out on purpose, since a range change has to
+     * replace the call for the old range; clients only send the header for calls that a
+     * newer one makes obsolete.
+     */
+    private static String supersedeKey(HttpServletRequest request) {
+        String clientKey = request.getHeader(SUPERSEDE_HEADER);
+        if (clientKey == null || clientKey.isBlank()) {
+            return null;
+        }
+        return clientKey + ":" + request.getRequestURI();
+    }
+}
@@ -0,0 +1,90 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.dto.report.ReportJobDTO;
+import com.toucanus.analytics_dashboard.dto.report.ReportRequestDTO;
+import com.toucanus.analytics_dashboard.enums.ReportJobStatus;
+import com.toucanus.analytics_dashboard.service.report.ReportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Asynchronous report jobs: submit, poll (or subscribe), then fetch the result.
+ */
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin
+@RequiredArgsConstructor
+public class ReportController {
+
+    private static final long EVENT_STREAM_TIMEOUT_MS = 10 * 60 * 1000L;
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping
+    public ResponseEntity<ReportJobDTO> submitReport(@Valid @RequestBody ReportRequestDTO request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submit(request));
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable String id) {
+        return ResponseEntity.ok(findJob(id));
+    }
+
+    /**
+     * Returns 200 with the result once completed, or 202 with the job status while it is still running.
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> getReportResult(@PathVariable String id) {
+        ReportJobDTO job = findJob(id);
+        if (job.getStatus() == ReportJobStatus.FAILED) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, job.getError());
+        }
+        return reportJobService.getResult(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.ACCEPTED).body(job));
+    }
+
+    /**
+     * Server-sent events: the current job status, then the final status once the job finishes.
+     */
+    @GetMapping("/{id}/events")
+    public SseEmitter streamReportJob(@PathVariable String id) throws IOException {
+        ReportJobDTO job = findJob(id);
+        SseEmitter emitter = new SseEmitter(EVENT_STREAM_TIMEOUT_MS);
+        emitter.send(SseEmitter.event().name("status").data(job));
+        reportJobService.onFinished(id).ifPresentOrElse(
+                finished -> finished.whenComplete((done, error) -> {
+                    try {
+                        emitter.send(SseEmitter.event().name("status").data(done));
+                        emitter.complete();
+                    } catch (IOException e) {
+                        emitter.completeWithError(e);
+                    }
+                }),
+                emitter::complete);
+        return emitter;
+    }
+
+    private ReportJobDTO findJob(String id) {
+        return reportJobService.getJob(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown report job: " + id));
+    }
+}
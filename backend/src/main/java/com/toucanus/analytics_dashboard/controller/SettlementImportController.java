@@ -0,0 +1,54 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.dto.settlement.SettlementImportDTO;
+import com.toucanus.analytics_dashboard.dto.settlement.SettlementImportRequestDTO;
+import com.toucanus.analytics_dashboard.service.settlement.SettlementImportService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Settlement file imports: submit (or resume) a file from the settlement directory, then poll its progress.
+ */
+@RestController
+@RequestMapping("/api/imports/settlements")
+@CrossOrigin
+@RequiredArgsConstructor
+public class SettlementImportController {
+
+    private final SettlementImportService settlementImportService;
+
+    @PostMapping
+    public ResponseEntity<SettlementImportDTO> submitImport(@Valid @RequestBody SettlementImportRequestDTO request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(settlementImportService.submit(request));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SettlementImportDTO>> getRecentImports() {
+        return ResponseEntity.ok(settlementImportService.getRecentImports());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<SettlementImportDTO> getImport(@PathVariable Long id) {
+        return ResponseEntity.ok(settlementImportService.getImport(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown settlement import: " + id)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.dto.top.TopUserDTO;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TopMetric;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadRegistry;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import com.toucanus.analytics_dashboard.service.topn.TopNService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/top")
+@CrossOrigin
+@Validated
+@RequiredArgsConstructor
+public class TopController {
+
+    private final TopNService topNService;
+    private final QueryExecutionService queries;
+    private final BulkheadRegistry bulkheads;
+
+    @GetMapping("/users")
+    public DeferredResult<ResponseEntity<List<TopUserDTO>>> getTopUsers(
+            @RequestParam(defaultValue = "GTV") TopMetric metric,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) TxnStatus status,
+            @RequestParam(required = false) PaymentMethod paymentMethod,
+            HttpServletRequest request
+    ) {
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> topNService.getTopUsers(startDate, endDate, false, metric, status, paymentMethod, limit));
+    }
+
+    @GetMapping("/merchants")
+    public DeferredResult<ResponseEntity<List<TopUserDTO>>> getTopMerchants(
+            @RequestParam(defaultValue = "GTV") TopMetric metric,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) TxnStatus status,
+            @RequestParam(required = false) PaymentMethod paymentMethod,
+            HttpServletRequest request
+    ) {
+        return QueryResponses.defer(queries, bulkheads.laneFor(startDate, endDate), request,
+                () -> topNService.getTopUsers(startDate, endDate, true, metric, status, paymentMethod, limit));
+    }
+}
@@ -0,0 +1,38 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.dto.user.UserSuggestionDTO;
+import com.toucanus.analytics_dashboard.service.user.UserDimension;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/users")
+@CrossOrigin
+@Validated
+@RequiredArgsConstructor
+public class UserController {
+
+    private final UserDimension userDimension;
+
+    /**
+     * Autocomplete for the email filter, served from memory (no bulkhead lane needed).
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<UserSuggestionDTO>> suggest(
+            @RequestParam @NotBlank String q,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit
+    ) {
+        return ResponseEntity.ok(userDimension.suggest(q, limit));
+    }
+}
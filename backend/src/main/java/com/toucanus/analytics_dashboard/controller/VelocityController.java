@@ -0,0 +1,57 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.dto.velocity.UserVelocityDTO;
+import com.toucanus.analytics_dashboard.dto.velocity.VelocityBreachDTO;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+import com.toucanus.analytics_dashboard.service.velocity.VelocityService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Per-user velocity, served from memory (no bulkhead lane needed).
+ */
+@RestController
+@RequestMapping("/api/velocity")
+@CrossOrigin
+@Validated
+@RequiredArgsConstructor
+public class VelocityController {
+
+    private final VelocityService velocityService;
+
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<UserVelocityDTO> getUserVelocity(@PathVariable Long userId) {
+        return velocityService.getUserVelocity(userId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Users currently over the count or amount threshold; limits not given default to the
+     * configured {@code velocity.thresholds}.
+     */
+    @GetMapping("/over-threshold")
+    public ResponseEntity<List<VelocityBreachDTO>> getBreaches(
+            @RequestParam(defaultValue = "ONE_HOUR") VelocityWindow window,
+            @RequestParam(required = false) TxnType type,
+            @RequestParam(required = false) @Min(1) Long minCount,
+            @RequestParam(required = false) @PositiveOrZero BigDecimal minAmount,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit
+    ) {
+        return ResponseEntity.ok(velocityService.getBreaches(window, type, minCount, minAmount, limit));
+    }
+}
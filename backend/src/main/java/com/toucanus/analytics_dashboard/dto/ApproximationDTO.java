@@ -0,0 +1,34 @@
+package com.toucanus.analytics_dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Attached to a response computed from a table sample instead of a full scan.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApproximationDTO {
+
+    /**
+     * Fraction of table blocks read (TABLESAMPLE SYSTEM), 0 to 1.
+     */
+    private Double sampleRate;
+
+    private Double confidenceLevel;
+
+    /**
+     * Half-width of the confidence interval per field name: value ± margin.
+     */
+    private Map<String, BigDecimal> margins;
+
+    /**
+     * Report job computing the exact answer; fetch it from /api/reports/{id}/result.
+     */
+    private String exactJobId;
+}
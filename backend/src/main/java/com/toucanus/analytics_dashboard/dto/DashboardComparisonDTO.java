@@ -0,0 +1,43 @@
+package com.toucanus.analytics_dashboard.dto;
+
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * KPIs for a range alongside the comparable previous range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardComparisonDTO {
+
+    private ComparisonPeriod compareTo;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private LocalDate previousStartDate;
+
+    private LocalDate previousEndDate;
+
+    private DashboardStatsDTO current;
+
+    private DashboardStatsDTO previous;
+
+    /**
+     * current - previous, per KPI field name.
+     */
+    private Map<String, BigDecimal> deltas;
+
+    /**
+     * Relative change in percent per KPI field name; null when the previous value is zero.
+     */
+    private Map<String, Double> percentChanges;
+}
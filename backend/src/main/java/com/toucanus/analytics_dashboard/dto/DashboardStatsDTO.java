@@ -1,5 +1,6 @@
 package com.toucanus.analytics_dashboard.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -44,4 +45,10 @@ public class DashboardStatsDTO {
      * Percentage of SUCCESS transactions vs total transactions.
      */
     private Double successRate;
+
+    /**
+     * Present only when the values are estimated from a sample.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ApproximationDTO approximation;
 }
@@ -0,0 +1,45 @@
+package com.toucanus.analytics_dashboard.dto.alert;
+
+import com.toucanus.analytics_dashboard.enums.AlertMetric;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDTO {
+
+    private String id;
+
+    private PaymentMethod paymentMethod;
+
+    private AlertMetric metric;
+
+    /**
+     * Rate over the rolling window when the alert was raised (or last updated), 0 to 1.
+     */
+    private Double observedRate;
+
+    /**
+     * EWMA baseline of the rate before the spike.
+     */
+    private Double baselineRate;
+
+    /**
+     * Rate above which the alert fired.
+     */
+    private Double threshold;
+
+    private Long windowTxns;
+
+    private Instant startedAt;
+
+    /**
+     * Null while the alert is active.
+     */
+    private Instant resolvedAt;
+}
@@ -0,0 +1,4 @@
+/**
+ * DTOs for operational alerts.
+ */
+package com.toucanus.analytics_dashboard.dto.alert;
@@ -0,0 +1,24 @@
+package com.toucanus.analytics_dashboard.dto.cohort;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Distinct transacting users for the day, and the trailing 7 and 30 days ending on it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActiveUsersDTO {
+
+    private LocalDate date;
+
+    private Long dau;
+
+    private Long wau;
+
+    private Long mau;
+}
@@ -0,0 +1,32 @@
+package com.toucanus.analytics_dashboard.dto.cohort;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One row of the retention matrix: users who signed up in the week starting
+ * {@code cohortStart}, and how many of them transacted in each following week.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionCohortDTO {
+
+    private LocalDate cohortStart;
+
+    private Long cohortSize;
+
+    /**
+     * Active cohort members in week 0, 1, 2, ... after signup.
+     */
+    private List<Long> activeUsers;
+
+    /**
+     * activeUsers as a percentage of cohortSize.
+     */
+    private List<Double> retention;
+}
@@ -0,0 +1,4 @@
+/**
+ * DTOs for cohort retention and active-user metrics.
+ */
+package com.toucanus.analytics_dashboard.dto.cohort;
@@ -0,0 +1,44 @@
+package com.toucanus.analytics_dashboard.dto.graph;
+
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily series for a range and the comparable previous range, aligned by index.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyComparisonDTO {
+
+    private ComparisonPeriod compareTo;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private LocalDate previousStartDate;
+
+    private LocalDate previousEndDate;
+
+    private List<DailyStatusDTO> current;
+
+    private List<DailyStatusDTO> previous;
+
+    /**
+     * current - previous of the range totals (txnCount, totalAmount, successCount, failedCount, pendingCount).
+     */
+    private Map<String, BigDecimal> deltas;
+
+    /**
+     * Relative change in percent of the range totals; null when the previous total is zero.
+     */
+    private Map<String, Double> percentChanges;
+}
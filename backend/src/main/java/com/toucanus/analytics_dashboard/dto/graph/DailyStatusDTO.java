@@ -1,5 +1,7 @@
 package com.toucanus.analytics_dashboard.dto.graph;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.toucanus.analytics_dashboard.dto.ApproximationDTO;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,4 +19,6 @@ public class DailyStatusDTO {
     private Long pendingCount;
     private BigDecimal totalAmount;
     private Long txnCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ApproximationDTO approximation;
 }
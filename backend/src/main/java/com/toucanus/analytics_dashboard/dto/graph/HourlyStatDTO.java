@@ -1,5 +1,7 @@
 package com.toucanus.analytics_dashboard.dto.graph;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.toucanus.analytics_dashboard.dto.ApproximationDTO;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,4 +14,6 @@ public class HourlyStatDTO {
     private Long successCount;
     private Long failedCount;
     private Long pendingCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ApproximationDTO approximation;
 }
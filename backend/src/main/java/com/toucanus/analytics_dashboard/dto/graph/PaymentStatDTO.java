@@ -1,5 +1,7 @@
 package com.toucanus.analytics_dashboard.dto.graph;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.toucanus.analytics_dashboard.dto.ApproximationDTO;
 import com.toucanus.analytics_dashboard.enums.PaymentMethod;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,4 +15,14 @@ public class PaymentStatDTO {
     private PaymentMethod paymentMethod;
 
     private Long count;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ApproximationDTO approximation;
+
+    /**
+     * Used by the JPQL constructor expressions in TransactionRepository.
+     */
+    public PaymentStatDTO(PaymentMethod paymentMethod, Long count) {
+        this(paymentMethod, count, null);
+    }
 }
@@ -0,0 +1,45 @@
+package com.toucanus.analytics_dashboard.dto.report;
+
+import com.toucanus.analytics_dashboard.enums.ReportJobStatus;
+import com.toucanus.analytics_dashboard.enums.ReportPriority;
+import com.toucanus.analytics_dashboard.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Status snapshot of an asynchronous report job.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+
+    private String id;
+
+    private ReportType type;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private ReportPriority priority;
+
+    private ReportJobStatus status;
+
+    private Instant submittedAt;
+
+    private Instant startedAt;
+
+    private Instant completedAt;
+
+    /**
+     * When the stored result stops being served; null until the job completes.
+     */
+    private Instant expiresAt;
+
+    private String error;
+}
@@ -0,0 +1,28 @@
+package com.toucanus.analytics_dashboard.dto.report;
+
+import com.toucanus.analytics_dashboard.enums.ReportPriority;
+import com.toucanus.analytics_dashboard.enums.ReportType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportRequestDTO {
+
+    @NotNull
+    private ReportType type;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    /**
+     * Defaults to NORMAL when not provided.
+     */
+    private ReportPriority priority;
+}
@@ -0,0 +1,4 @@
+/**
+ * DTOs for asynchronous report jobs.
+ */
+package com.toucanus.analytics_dashboard.dto.report;
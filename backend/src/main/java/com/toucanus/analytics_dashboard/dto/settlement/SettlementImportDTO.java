@@ -0,0 +1,58 @@
+package com.toucanus.analytics_dashboard.dto.settlement;
+
+import com.toucanus.analytics_dashboard.enums.ImportStatus;
+import com.toucanus.analytics_dashboard.enums.SettlementFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status and progress of a settlement file import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementImportDTO {
+
+    private Long id;
+
+    private String fileName;
+
+    private SettlementFormat format;
+
+    private ImportStatus status;
+
+    private long fileSize;
+
+    /**
+     * Bytes parsed and committed, including those committed by earlier attempts.
+     */
+    private long bytesProcessed;
+
+    private double percentComplete;
+
+    private long rowsImported;
+
+    private long rowsDuplicate;
+
+    private long rowsRejected;
+
+    /**
+     * Rows parsed per second by the current attempt; 0 when not running.
+     */
+    private double rowsPerSecond;
+
+    /**
+     * The first few rejected rows (byte offset and reason) of the current attempt.
+     */
+    private List<String> rejections;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+}
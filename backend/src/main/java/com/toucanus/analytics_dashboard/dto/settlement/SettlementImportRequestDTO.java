@@ -0,0 +1,24 @@
+package com.toucanus.analytics_dashboard.dto.settlement;
+
+import com.toucanus.analytics_dashboard.enums.SettlementFormat;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementImportRequestDTO {
+
+    /**
+     * File name within {@code settlement.directory}.
+     */
+    @NotBlank
+    private String fileName;
+
+    /**
+     * Defaults to the file extension ({@code .csv}, otherwise NDJSON).
+     */
+    private SettlementFormat format;
+}
@@ -0,0 +1,4 @@
+/**
+ * DTOs for settlement file imports.
+ */
+package com.toucanus.analytics_dashboard.dto.settlement;
@@ -0,0 +1,31 @@
+package com.toucanus.analytics_dashboard.dto.top;
+
+import com.toucanus.analytics_dashboard.enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a top-N ranking. Counts and amounts are exact.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopUserDTO {
+
+    private Integer rank;
+
+    private Long userId;
+
+    private String email;
+
+    private String fullName;
+
+    private Role role;
+
+    private Long txnCount;
+
+    private BigDecimal gtv;
+}
@@ -0,0 +1,4 @@
+/**
+ * DTOs for top-N user and merchant rankings.
+ */
+package com.toucanus.analytics_dashboard.dto.top;
@@ -0,0 +1,23 @@
+package com.toucanus.analytics_dashboard.dto.user;
+
+import com.toucanus.analytics_dashboard.enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One autocomplete match for the user email filter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestionDTO {
+
+    private Long id;
+
+    private String email;
+
+    private String fullName;
+
+    private Role role;
+}
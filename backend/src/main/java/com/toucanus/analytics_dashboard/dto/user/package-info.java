@@ -0,0 +1,4 @@
+/**
+ * DTOs for user search.
+ */
+package com.toucanus.analytics_dashboard.dto.user;
@@ -0,0 +1,17 @@
+package com.toucanus.analytics_dashboard.dto.velocity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserVelocityDTO {
+
+    private Long userId;
+
+    private List<VelocityWindowDTO> windows;
+}
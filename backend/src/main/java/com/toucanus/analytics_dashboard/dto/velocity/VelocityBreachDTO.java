@@ -0,0 +1,29 @@
+package com.toucanus.analytics_dashboard.dto.velocity;
+
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * A user currently over the count or amount threshold of a window.
+ * A null type means all transaction types together.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VelocityBreachDTO {
+
+    private Long userId;
+
+    private VelocityWindow window;
+
+    private TxnType type;
+
+    private Long txnCount;
+
+    private BigDecimal amount;
+}
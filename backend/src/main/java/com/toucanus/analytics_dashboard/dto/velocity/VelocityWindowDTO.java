@@ -0,0 +1,29 @@
+package com.toucanus.analytics_dashboard.dto.velocity;
+
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Estimated transactions and amount over the trailing window, in total and per type.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VelocityWindowDTO {
+
+    private VelocityWindow window;
+
+    private Long txnCount;
+
+    private BigDecimal amount;
+
+    private Map<TxnType, Long> countByType;
+
+    private Map<TxnType, BigDecimal> amountByType;
+}
@@ -0,0 +1,4 @@
+/**
+ * DTOs for per-user transaction velocity.
+ */
+package com.toucanus.analytics_dashboard.dto.velocity;
@@ -0,0 +1,72 @@
+package com.toucanus.analytics_dashboard.entity;
+
+import com.toucanus.analytics_dashboard.enums.ImportStatus;
+import com.toucanus.analytics_dashboard.enums.SettlementFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One import of a settlement file; identified by file name, size and modification time
+ * so that resubmitting the same file resumes it.
+ */
+@Entity
+@Table(name = "settlement_imports", indexes = {
+    @Index(name = "idx_settlement_import_file", columnList = "file_name, file_size, file_modified_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementImport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    @Column(name = "file_modified_at", nullable = false)
+    private LocalDateTime fileModifiedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SettlementFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status;
+
+    /**
+     * Every line before this byte offset has been committed; a resumed import starts here.
+     */
+    @Column(name = "committed_offset", nullable = false)
+    private long committedOffset;
+
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+
+    @Column(name = "rows_duplicate", nullable = false)
+    private long rowsDuplicate;
+
+    @Column(name = "rows_rejected", nullable = false)
+    private long rowsRejected;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,38 @@
+package com.toucanus.analytics_dashboard.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized set of ids of users who transacted on a given day.
+ */
+@Entity
+@Table(name = "user_activity_bitmaps")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityBitmap {
+
+    @Id
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private byte[] bitmap;
+
+    /**
+     * True once the day was closed and rebuilt from the transactions table.
+     */
+    @Column(nullable = false)
+    private boolean complete;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package com.toucanus.analytics_dashboard.enums;
+
+public enum ComparisonPeriod {
+    PREVIOUS_PERIOD,
+    PREVIOUS_WEEK,
+    PREVIOUS_YEAR
+}
@@ -0,0 +1,8 @@
+package com.toucanus.analytics_dashboard.enums;
+
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.toucanus.analytics_dashboard.enums;
+
+public enum QueryLane {
+    INTERACTIVE,
+    ANALYTICS,
+    HEAVY
+}
@@ -0,0 +1,8 @@
+package com.toucanus.analytics_dashboard.enums;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.toucanus.analytics_dashboard.enums;
+
+public enum ReportPriority {
+    HIGH,
+    NORMAL,
+    LOW
+}
@@ -0,0 +1,8 @@
+package com.toucanus.analytics_dashboard.enums;
+
+public enum ReportType {
+    FILTERED_STATS,
+    DAILY_STATUS,
+    HOURLY_TRAFFIC,
+    PAYMENT_METHODS
+}
@@ -0,0 +1,6 @@
+package com.toucanus.analytics_dashboard.enums;
+
+public enum SettlementFormat {
+    CSV,
+    NDJSON
+}
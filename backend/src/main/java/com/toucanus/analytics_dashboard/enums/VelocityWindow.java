@@ -0,0 +1,17 @@
+package com.toucanus.analytics_dashboard.enums;
+
+public enum VelocityWindow {
+    ONE_MINUTE(60),
+    ONE_HOUR(3_600),
+    ONE_DAY(86_400);
+
+    private final int seconds;
+
+    VelocityWindow(int seconds) {
+        this.seconds = seconds;
+    }
+
+    public int getSeconds() {
+        return seconds;
+    }
+}
@@ -0,0 +1,21 @@
+package com.toucanus.analytics_dashboard.repository;
+
+import com.toucanus.analytics_dashboard.entity.SettlementImport;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SettlementImportRepository extends JpaRepository<SettlementImport, Long> {
+
+	Optional<SettlementImport> findFirstByFileNameAndFileSizeAndFileModifiedAtOrderByIdDesc(String fileName, long fileSize,
+			LocalDateTime fileModifiedAt);
+
+	List<SettlementImport> findAllByOrderByIdDesc(Pageable pageable);
+
+	Optional<SettlementImport> findFirstByOrderByUpdatedAtDesc();
+}
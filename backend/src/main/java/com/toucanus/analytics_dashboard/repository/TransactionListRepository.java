@@ -0,0 +1,16 @@
+package com.toucanus.analytics_dashboard.repository;
+
+import com.toucanus.analytics_dashboard.dto.TransactionListItemDTO;
+import com.toucanus.analytics_dashboard.entity.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Transaction list queries that select the list columns straight into DTOs, so no
+ * managed entities (or dirty-checking snapshots) are created.
+ */
+public interface TransactionListRepository {
+
+	Page<TransactionListItemDTO> findListItems(Specification<Transaction> spec, Pageable pageable);
+}
@@ -0,0 +1,74 @@
+package com.toucanus.analytics_dashboard.repository;
+
+import com.toucanus.analytics_dashboard.dto.TransactionListItemDTO;
+import com.toucanus.analytics_dashboard.entity.Transaction;
+import com.toucanus.analytics_dashboard.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+class TransactionListRepositoryImpl implements TransactionListRepository {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Page<TransactionListItemDTO> findListItems(Specification<Transaction> spec, Pageable pageable) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+		CriteriaQuery<TransactionListItemDTO> query = cb.createQuery(TransactionListItemDTO.class);
+		Root<Transaction> root = query.from(Transaction.class);
+		Join<Transaction, User> user = root.join("user", JoinType.INNER);
+		query.select(cb.construct(TransactionListItemDTO.class,
+				root.get("id"),
+				user.get("id"),
+				user.get("email"),
+				user.get("fullName"),
+				root.get("amount"),
+				root.get("currency"),
+				root.get("type"),
+				root.get("status"),
+				root.get("paymentMethod"),
+				root.get("createdAt")));
+		Predicate predicate = spec.toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		if (pageable.getSort().isSorted()) {
+			query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+		}
+
+		TypedQuery<TransactionListItemDTO> typed = entityManager.createQuery(query);
+		if (pageable.isPaged()) {
+			typed.setFirstResult((int) pageable.getOffset());
+			typed.setMaxResults(pageable.getPageSize());
+		}
+		List<TransactionListItemDTO> content = typed.getResultList();
+		return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+	}
+
+	private long count(Specification<Transaction> spec) {
+		CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Long> query = cb.createQuery(Long.class);
+		Root<Transaction> root = query.from(Transaction.class);
+		query.select(cb.count(root));
+		Predicate predicate = spec.toPredicate(root, query, cb);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		return entityManager.createQuery(query).getSingleResult();
+	}
+}
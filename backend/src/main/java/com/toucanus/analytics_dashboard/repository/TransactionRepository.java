@@ -3,10 +3,6 @@ package com.toucanus.analytics_dashboard.repository;
 import com.toucanus.analytics_dashboard.dto.graph.PaymentStatDTO;
 import com.toucanus.analytics_dashboard.enums.TxnStatus;
 import com.toucanus.analytics_dashboard.entity.Transaction;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -15,15 +11,14 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction> {
-
-	@Override
-	@EntityGraph(attributePaths = "user")
-	Page<Transaction> findAll(Specification<Transaction> spec, Pageable pageable);
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, JpaSpecificationExecutor<Transaction>,
+		TransactionListRepository {
 
 	/**
 	 * Single optimized query to get all dashboard stats at once.
@@ -61,6 +56,41 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>,
 	List<Object[]> getAggregatedStatsInRange(@Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate);
 
+	/**
+	 * Dashboard stats for two periods in a single scan of their union.
+	 * Returns [totalTxns, successCount, pendingCount, failedCount, successAmount,
+	 * failedAmount] for the current period followed by the same six for the previous.
+	 */
+	@Query(value = """
+			SELECT
+			    COUNT(*) FILTER (WHERE cur) as totalTxns,
+			    COUNT(*) FILTER (WHERE cur AND status = 'SUCCESS') as successCount,
+			    COUNT(*) FILTER (WHERE cur AND status = 'PENDING') as pendingCount,
+			    COUNT(*) FILTER (WHERE cur AND status = 'FAILED') as failedCount,
+			    COALESCE(SUM(amount) FILTER (WHERE cur AND status = 'SUCCESS'), 0) as successAmount,
+			    COALESCE(SUM(amount) FILTER (WHERE cur AND status = 'FAILED'), 0) as failedAmount,
+			    COUNT(*) FILTER (WHERE prev) as prevTotalTxns,
+			    COUNT(*) FILTER (WHERE prev AND status = 'SUCCESS') as prevSuccessCount,
+			    COUNT(*) FILTER (WHERE prev AND status = 'PENDING') as prevPendingCount,
+			    COUNT(*) FILTER (WHERE prev AND status = 'FAILED') as prevFailedCount,
+			    COALESCE(SUM(amount) FILTER (WHERE prev AND status = 'SUCCESS'), 0) as prevSuccessAmount,
+			    COALESCE(SUM(amount) FILTER (WHERE prev AND status = 'FAILED'), 0) as prevFailedAmount
+			FROM (
+			    SELECT
+			        status,
+			        amount,
+			        (created_at >= :startDate AND created_at < :endDate) as cur,
+			        (created_at >= :prevStartDate AND created_at < :prevEndDate) as prev
+			    FROM transactions
+			    WHERE (created_at >= :startDate AND created_at < :endDate)
+			       OR (created_at >= :prevStartDate AND created_at < :prevEndDate)
+			) t
+			""", nativeQuery = true)
+	List<Object[]> getAggregatedStatsForPeriods(@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate,
+			@Param("prevStartDate") LocalDateTime prevStartDate,
+			@Param("prevEndDate") LocalDateTime prevEndDate);
+
 	@Query("select coalesce(sum(t.amount), 0) from Transaction t where t.status = :status")
 	BigDecimal selectSumAmountByStatus(@Param("status") TxnStatus status);
 
@@ -102,6 +132,30 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>,
 	List<Object[]> selectOptimizedDailyStats(@Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate);
 
+	/**
+	 * Daily stats over the union of two periods in a single scan; the caller splits
+	 * days into periods.
+	 * Returns [date, txnCount, totalAmount, successCount, failedCount, pendingCount].
+	 */
+	@Query(value = """
+			SELECT
+			    created_at::date as day,
+			    COUNT(*) as txnCount,
+			    COALESCE(SUM(amount), 0) as totalAmount,
+			    COUNT(*) FILTER (WHERE status = 'SUCCESS') as successCount,
+			    COUNT(*) FILTER (WHERE status = 'FAILED') as failedCount,
+			    COUNT(*) FILTER (WHERE status = 'PENDING') as pendingCount
+			FROM transactions
+			WHERE (created_at >= :startDate AND created_at < :endDate)
+			   OR (created_at >= :prevStartDate AND created_at < :prevEndDate)
+			GROUP BY created_at::date
+			ORDER BY day
+			""", nativeQuery = true)
+	List<Object[]> selectOptimizedDailyStatsForPeriods(@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate,
+			@Param("prevStartDate") LocalDateTime prevStartDate,
+			@Param("prevEndDate") LocalDateTime prevEndDate);
+
 	@Query(value = """
 			select cast(t.created_at as date) as day,
 			coalesce(sum(t.amount), 0) as totalAmount,
@@ -187,4 +241,332 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>,
 			""", nativeQuery = true)
 	List<Object[]> selectHourlyTrafficStatsInRange(@Param("startDate") LocalDateTime startDate,
 			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Dashboard stats for one merchant over a date range (index-only on
+	 * idx_txn_user_created_cover).
+	 * Returns [totalTxns, successCount, pendingCount, failedCount, successAmount,
+	 * failedAmount]
+	 */
+	@Query(value = """
+			SELECT
+			    COUNT(*) as totalTxns,
+			    COUNT(*) FILTER (WHERE status = 'SUCCESS') as successCount,
+			    COUNT(*) FILTER (WHERE status = 'PENDING') as pendingCount,
+			    COUNT(*) FILTER (WHERE status = 'FAILED') as failedCount,
+			    COALESCE(SUM(amount) FILTER (WHERE status = 'SUCCESS'), 0) as successAmount,
+			    COALESCE(SUM(amount) FILTER (WHERE status = 'FAILED'), 0) as failedAmount
+			FROM transactions
+			WHERE user_id = :merchantId AND created_at >= :startDate AND created_at < :endDate
+			""", nativeQuery = true)
+	List<Object[]> getMerchantAggregatedStatsInRange(@Param("merchantId") Long merchantId,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Daily stats for one merchant.
+	 * Returns [date, txnCount, totalAmount, successCount, failedCount, pendingCount].
+	 */
+	@Query(value = """
+			SELECT
+			    created_at::date as day,
+			    COUNT(*) as txnCount,
+			    COALESCE(SUM(amount), 0) as totalAmount,
+			    COUNT(*) FILTER (WHERE status = 'SUCCESS') as successCount,
+			    COUNT(*) FILTER (WHERE status = 'FAILED') as failedCount,
+			    COUNT(*) FILTER (WHERE status = 'PENDING') as pendingCount
+			FROM transactions
+			WHERE user_id = :merchantId AND created_at >= :startDate AND created_at < :endDate
+			GROUP BY created_at::date
+			ORDER BY day
+			""", nativeQuery = true)
+	List<Object[]> selectMerchantDailyStats(@Param("merchantId") Long merchantId,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Hourly traffic for one merchant.
+	 * Returns [hour, successCount, failedCount, pendingCount].
+	 */
+	@Query(value = """
+			SELECT
+			    EXTRACT(HOUR FROM created_at)::int as hour,
+			    COUNT(*) FILTER (WHERE status = 'SUCCESS') as successCount,
+			    COUNT(*) FILTER (WHERE status = 'FAILED') as failedCount,
+			    COUNT(*) FILTER (WHERE status = 'PENDING') as pendingCount
+			FROM transactions
+			WHERE user_id = :merchantId AND created_at >= :startDate AND created_at < :endDate
+			GROUP BY EXTRACT(HOUR FROM created_at)
+			ORDER BY hour
+			""", nativeQuery = true)
+	List<Object[]> selectMerchantHourlyStats(@Param("merchantId") Long merchantId,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	@Query("select new com.toucanus.analytics_dashboard.dto.graph.PaymentStatDTO(t.paymentMethod, count(t)) " +
+			"from Transaction t where t.user.id = :merchantId and t.createdAt >= :startDate and t.createdAt < :endDate " +
+			"group by t.paymentMethod")
+	List<PaymentStatDTO> selectMerchantPaymentMethodStats(@Param("merchantId") Long merchantId,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Planner row estimate for the whole table; -1 if the table was never analyzed.
+	 */
+	@Query(value = "SELECT reltuples::bigint FROM pg_class WHERE relname = 'transactions'", nativeQuery = true)
+	Long estimateTotalRows();
+
+	/**
+	 * Returns [minCreatedAt, maxCreatedAt] (index-only).
+	 */
+	@Query("select min(t.createdAt), max(t.createdAt) from Transaction t")
+	List<Object[]> selectCreatedAtBounds();
+
+	/**
+	 * Block-sampled dashboard stats. Per-block sums (t, s, p, g, h) are aggregated
+	 * with their squares so the caller can derive confidence intervals.
+	 * Returns [blocks, t, s, p, g, h, tt, ss, pp, gg, hh, st, gs] where
+	 * t = total, s = success, p = pending, g = success amount, h = failed amount.
+	 */
+	@Query(value = """
+			SELECT
+			    COUNT(*),
+			    COALESCE(SUM(t), 0), COALESCE(SUM(s), 0), COALESCE(SUM(p), 0),
+			    COALESCE(SUM(g), 0), COALESCE(SUM(h), 0),
+			    COALESCE(SUM(t * t), 0), COALESCE(SUM(s * s), 0), COALESCE(SUM(p * p), 0),
+			    COALESCE(SUM(g * g), 0), COALESCE(SUM(h * h), 0),
+			    COALESCE(SUM(s * t), 0), COALESCE(SUM(g * s), 0)
+			FROM (
+			    SELECT
+			        (ctid::text::point)[0] as blk,
+			        COUNT(*) as t,
+			        COUNT(*) FILTER (WHERE status = 'SUCCESS') as s,
+			        COUNT(*) FILTER (WHERE status = 'PENDING') as p,
+			        COALESCE(SUM(amount) FILTER (WHERE status = 'SUCCESS'), 0) as g,
+			        COALESCE(SUM(amount) FILTER (WHERE status = 'FAILED'), 0) as h
+			    FROM transactions TABLESAMPLE SYSTEM (:percent)
+			    WHERE created_at >= :startDate AND created_at < :endDate
+			    GROUP BY 1
+			) b
+			""", nativeQuery = true)
+	List<Object[]> getSampledAggregatedStatsInRange(@Param("percent") double percent,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Block-sampled daily stats.
+	 * Returns [date, t, a, s, f, p, tt, aa, ss, ff, pp] where a = total amount.
+	 */
+	@Query(value = """
+			SELECT
+			    day,
+			    SUM(t), SUM(a), SUM(s), SUM(f), SUM(p),
+			    SUM(t * t), SUM(a * a), SUM(s * s), SUM(f * f), SUM(p * p)
+			FROM (
+			    SELECT
+			        created_at::date as day,
+			        (ctid::text::point)[0] as blk,
+			        COUNT(*) as t,
+			        COALESCE(SUM(amount), 0) as a,
+			        COUNT(*) FILTER (WHERE status = 'SUCCESS') as s,
+			        COUNT(*) FILTER (WHERE status = 'FAILED') as f,
+			        COUNT(*) FILTER (WHERE status = 'PENDING') as p
+			    FROM transactions TABLESAMPLE SYSTEM (:percent)
+			    WHERE created_at >= :startDate AND created_at < :endDate
+			    GROUP BY 1, 2
+			) b
+			GROUP BY day
+			ORDER BY day
+			""", nativeQuery = true)
+	List<Object[]> selectSampledDailyStats(@Param("percent") double percent,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Block-sampled hourly stats.
+	 * Returns [hour, s, f, p, ss, ff, pp].
+	 */
+	@Query(value = """
+			SELECT
+			    hour,
+			    SUM(s), SUM(f), SUM(p),
+			    SUM(s * s), SUM(f * f), SUM(p * p)
+			FROM (
+			    SELECT
+			        EXTRACT(HOUR FROM created_at)::int as hour,
+			        (ctid::text::point)[0] as blk,
+			        COUNT(*) FILTER (WHERE status = 'SUCCESS') as s,
+			        COUNT(*) FILTER (WHERE status = 'FAILED') as f,
+			        COUNT(*) FILTER (WHERE status = 'PENDING') as p
+			    FROM transactions TABLESAMPLE SYSTEM (:percent)
+			    WHERE created_at >= :startDate AND created_at < :endDate
+			    GROUP BY 1, 2
+			) b
+			GROUP BY hour
+			ORDER BY hour
+			""", nativeQuery = true)
+	List<Object[]> selectSampledHourlyStats(@Param("percent") double percent,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Block-sampled payment method counts.
+	 * Returns [paymentMethod, n, nn].
+	 */
+	@Query(value = """
+			SELECT payment_method, SUM(n), SUM(n * n)
+			FROM (
+			    SELECT payment_method, (ctid::text::point)[0] as blk, COUNT(*) as n
+			    FROM transactions TABLESAMPLE SYSTEM (:percent)
+			    WHERE created_at >= :startDate AND created_at < :endDate
+			    GROUP BY 1, 2
+			) b
+			GROUP BY payment_method
+			""", nativeQuery = true)
+	List<Object[]> selectSampledPaymentMethodStats(@Param("percent") double percent,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * New transactions after a (created_at, id) keyset position, oldest first.
+	 * Returns [id, userId, amount, type, status, paymentMethod, createdAt].
+	 */
+	@Query(value = """
+			SELECT id, user_id, amount, type, status, payment_method, created_at
+			FROM transactions
+			WHERE (created_at, id) > (:createdAt, :id)
+			ORDER BY created_at, id
+			LIMIT :limit
+			""", nativeQuery = true)
+	List<Object[]> selectCreatedAfter(@Param("createdAt") LocalDateTime createdAt,
+			@Param("id") UUID id,
+			@Param("limit") int limit);
+
+	/**
+	 * Ids of users with at least one transaction in the range.
+	 */
+	@Query(value = """
+			SELECT DISTINCT user_id
+			FROM transactions
+			WHERE created_at >= :startDate AND created_at < :endDate
+			""", nativeQuery = true)
+	List<Long> selectDistinctUserIdsInRange(@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Per-user count and amount for a range, rolled up with GROUPING SETS so that a null
+	 * status / payment method means "any". Returns
+	 * [userId, isMerchant, status, paymentMethod, txnCount, totalAmount].
+	 */
+	@Query(value = """
+			SELECT
+			    t.user_id,
+			    (u.role = 'MERCHANT') as merchant,
+			    t.status,
+			    t.payment_method,
+			    COUNT(*) as txnCount,
+			    COALESCE(SUM(t.amount), 0) as totalAmount
+			FROM transactions t
+			JOIN users u ON u.id = t.user_id
+			WHERE t.created_at >= :startDate AND t.created_at < :endDate
+			GROUP BY GROUPING SETS (
+			    (t.user_id, u.role, t.status, t.payment_method),
+			    (t.user_id, u.role, t.status),
+			    (t.user_id, u.role, t.payment_method),
+			    (t.user_id, u.role)
+			)
+			""", nativeQuery = true)
+	Stream<Object[]> streamUserAggregatesInRange(@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Exact per-user totals for a candidate set. Null status / payment method match any.
+	 * Returns [userId, txnCount, totalAmount].
+	 */
+	@Query(value = """
+			SELECT t.user_id, COUNT(*) as txnCount, COALESCE(SUM(t.amount), 0) as totalAmount
+			FROM transactions t
+			WHERE t.user_id IN (:userIds)
+			  AND t.created_at >= :startDate AND t.created_at < :endDate
+			  AND (CAST(:status AS text) IS NULL OR t.status = CAST(:status AS text))
+			  AND (CAST(:paymentMethod AS text) IS NULL OR t.payment_method = CAST(:paymentMethod AS text))
+			GROUP BY t.user_id
+			""", nativeQuery = true)
+	List<Object[]> selectUserTotals(@Param("userIds") Collection<Long> userIds,
+			@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate,
+			@Param("status") String status,
+			@Param("paymentMethod") String paymentMethod);
+
+	/**
+	 * Exact top users for a range, ranked by amount or count. Only used when the
+	 * heavy-hitter summaries cannot guarantee the answer.
+	 * Returns [userId, txnCount, totalAmount].
+	 */
+	@Query(value = """
+			SELECT t.user_id, COUNT(*) as txnCount, COALESCE(SUM(t.amount), 0) as totalAmount
+			FROM transactions t
+			JOIN users u ON u.id = t.user_id
+			WHERE t.created_at >= :startDate AND t.created_at < :endDate
+			  AND (:merchantsOnly = false OR u.role = 'MERCHANT')
+			  AND (CAST(:status AS text) IS NULL OR t.status = CAST(:status AS text))
+			  AND (CAST(:paymentMethod AS text) IS NULL OR t.payment_method = CAST(:paymentMethod AS text))
+			GROUP BY t.user_id
+			ORDER BY CASE WHEN :byAmount THEN COALESCE(SUM(t.amount), 0) ELSE COUNT(*) END DESC
+			LIMIT :limit
+			""", nativeQuery = true)
+	List<Object[]> selectTopUsers(@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate,
+			@Param("merchantsOnly") boolean merchantsOnly,
+			@Param("status") String status,
+			@Param("paymentMethod") String paymentMethod,
+			@Param("byAmount") boolean byAmount,
+			@Param("limit") int limit);
+
+	/**
+	 * Quarter-hour buckets for re-bucketing into other time zones. Bounds are compared on the
+	 * plain column so the created_at indexes apply.
+	 * Returns [bucketStart, paymentMethod, status, count, amount, maxCreatedAt].
+	 */
+	@Query(value = """
+			SELECT date_bin('15 minutes', created_at, TIMESTAMP '2000-01-01') as bucket,
+			    payment_method,
+			    status,
+			    COUNT(*) as cnt,
+			    COALESCE(SUM(amount), 0) as amount,
+			    MAX(created_at) as last_created
+			FROM transactions
+			WHERE created_at >= :startDate AND created_at < :endDate
+			GROUP BY 1, 2, 3
+			""", nativeQuery = true)
+	List<Object[]> selectQuarterHourStats(@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Change marker of each day: row count per status and the latest created_at, read with an
+	 * index-only scan on (created_at, status).
+	 * Returns [day, status, count, maxCreatedAt].
+	 */
+	@Query(value = """
+			SELECT CAST(created_at AS date) as day,
+			    status,
+			    COUNT(*) as cnt,
+			    MAX(created_at) as last_created
+			FROM transactions
+			WHERE created_at >= :startDate AND created_at < :endDate
+			GROUP BY 1, 2
+			""", nativeQuery = true)
+	List<Object[]> selectDailyChangeMarkers(@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Column names and types of the transactions table, for detecting schema changes.
+	 */
+	@Query(value = """
+			SELECT column_name || ' ' || data_type || ' ' || COALESCE(numeric_scale, -1)
+			FROM information_schema.columns
+			WHERE table_schema = current_schema() AND table_name = 'transactions'
+			ORDER BY column_name
+			""", nativeQuery = true)
+	List<String> selectTransactionColumns();
 }
@@ -0,0 +1,14 @@
+package com.toucanus.analytics_dashboard.repository;
+
+import com.toucanus.analytics_dashboard.entity.UserActivityBitmap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserActivityBitmapRepository extends JpaRepository<UserActivityBitmap, LocalDate> {
+
+	List<UserActivityBitmap> findByDayGreaterThanEqual(LocalDate day);
+}
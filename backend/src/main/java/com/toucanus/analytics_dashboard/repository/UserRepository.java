@@ -1,13 +1,53 @@
 package com.toucanus.analytics_dashboard.repository;
 
 import com.toucanus.analytics_dashboard.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
 	long countByCreatedAtAfter(LocalDateTime date);
+
+	@Query("select u.id from User u where u.createdAt >= :startDate and u.createdAt < :endDate")
+	List<Long> selectIdsCreatedInRange(@Param("startDate") LocalDateTime startDate,
+			@Param("endDate") LocalDateTime endDate);
+
+	/**
+	 * Keyset page of ids, for the settlement import's user id set.
+	 */
+	@Query("select u.id from User u where u.id > :afterId order by u.id")
+	List<Long> selectIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+	/**
+	 * Display columns only, without hydrating entities.
+	 * Returns [id, email, fullName, role].
+	 */
+	@Query("select u.id, u.email, u.fullName, u.role from User u where u.id in :ids")
+	List<Object[]> selectDisplayData(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Keyset page of display columns by ascending id, for loading the user dimension.
+	 * Returns [id, email, fullName, role].
+	 */
+	@Query("select u.id, u.email, u.fullName, u.role from User u where u.id > :afterId order by u.id")
+	List<Object[]> selectDisplayDataAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+	/**
+	 * Fallback for the suggest endpoint while the in-memory dimension is loading.
+	 * Returns [id, email, fullName, role].
+	 */
+	@Query("""
+			select u.id, u.email, u.fullName, u.role from User u
+			where lower(u.email) like concat(:prefix, '%') or lower(u.fullName) like concat(:prefix, '%')
+			order by u.email
+			""")
+	List<Object[]> selectDisplayDataByPrefix(@Param("prefix") String prefix, Pageable pageable);
 }
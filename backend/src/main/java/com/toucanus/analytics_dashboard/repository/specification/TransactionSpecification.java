@@ -9,6 +9,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public final class TransactionSpecification {
 
@@ -16,6 +17,14 @@ public final class TransactionSpecification {
     }
 
     public static Specification<Transaction> getSpec(TransactionSearchCriteria criteria) {
+        return getSpec(criteria, null);
+    }
+
+    /**
+     * @param userIds ids the email filter was already resolved to; when non-null it replaces
+     *                the join on users
+     */
+    public static Specification<Transaction> getSpec(TransactionSearchCriteria criteria, Collection<Long> userIds) {
         return (root, query, criteriaBuilder) -> {
             if (criteria == null) {
                 return criteriaBuilder.conjunction();
@@ -34,7 +43,9 @@ public final class TransactionSpecification {
             }
 
             String userEmail = criteria.getUserEmail();
-            if (userEmail != null && !userEmail.trim().isEmpty()) {
+            if (userIds != null) {
+                predicate = criteriaBuilder.and(predicate, root.get("user").get("id").in(userIds));
+            } else if (userEmail != null && !userEmail.trim().isEmpty()) {
                 Join<Transaction, User> userJoin = root.join("user", JoinType.INNER);
                 predicate = criteriaBuilder.and(predicate,
                         criteriaBuilder.equal(userJoin.get("email"), userEmail.trim()));
@@ -0,0 +1,35 @@
+package com.toucanus.analytics_dashboard.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * Delta helpers for period-over-period comparisons.
+ */
+public final class Comparisons {
+
+    private Comparisons() {
+    }
+
+    public static void put(Map<String, BigDecimal> deltas, Map<String, Double> percentChanges,
+                           String field, BigDecimal current, BigDecimal previous) {
+        BigDecimal cur = current != null ? current : BigDecimal.ZERO;
+        BigDecimal prev = previous != null ? previous : BigDecimal.ZERO;
+        BigDecimal delta = cur.subtract(prev);
+        deltas.put(field, delta);
+        percentChanges.put(field, prev.signum() == 0
+                ? null
+                : delta.multiply(BigDecimal.valueOf(100))
+                        .divide(prev.abs(), new MathContext(16, RoundingMode.HALF_UP))
+                        .doubleValue());
+    }
+
+    public static void put(Map<String, BigDecimal> deltas, Map<String, Double> percentChanges,
+                           String field, Number current, Number previous) {
+        put(deltas, percentChanges, field,
+                current != null ? new BigDecimal(current.toString()) : null,
+                previous != null ? new BigDecimal(previous.toString()) : null);
+    }
+}
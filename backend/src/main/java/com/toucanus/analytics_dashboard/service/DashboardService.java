@@ -1,8 +1,11 @@
 package com.toucanus.analytics_dashboard.service;
 
+import com.toucanus.analytics_dashboard.dto.DashboardComparisonDTO;
 import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
 import com.toucanus.analytics_dashboard.repository.TransactionRepository;
 import com.toucanus.analytics_dashboard.repository.UserRepository;
+import com.toucanus.analytics_dashboard.service.zone.QuarterHourBuckets;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -12,7 +15,10 @@ import java.math.MathContext;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -20,52 +26,31 @@ public class DashboardService {
 
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
+    private final QuarterHourBuckets quarterHourBuckets;
 
-    @Cacheable(value = "dashboardStats")
+    @Cacheable(value = "dashboardStats", sync = true)
     public DashboardStatsDTO getDashboardStats() {
         // Single optimized query for all transaction stats
         List<Object[]> result = transactionRepository.getAggregatedStats();
         Object[] stats = result.isEmpty() ? new Object[] { 0L, 0L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO }
                 : result.get(0);
 
-        long totalTxns = ((Number) stats[0]).longValue();
-        long successTxns = ((Number) stats[1]).longValue();
-        long pendingTxns = ((Number) stats[2]).longValue();
-        BigDecimal totalGtv = stats[4] instanceof BigDecimal bd ? bd : new BigDecimal(stats[4].toString());
-        BigDecimal totalFailedVolume = stats[5] instanceof BigDecimal bd ? bd : new BigDecimal(stats[5].toString());
-
         // User stats (these are fast)
         long totalUsers = userRepository.count();
         long newUsersToday = userRepository.countByCreatedAtAfter(LocalDateTime.now().minusDays(1));
 
-        BigDecimal averageTicketSize = BigDecimal.ZERO;
-        if (successTxns > 0) {
-            averageTicketSize = totalGtv.divide(BigDecimal.valueOf(successTxns),
-                    new MathContext(16, RoundingMode.HALF_UP));
-        }
-
-        double successRate = (totalTxns == 0)
-                ? 0.0
-                : (successTxns * 100.0) / totalTxns;
-
-        return new DashboardStatsDTO(
-                totalUsers,
-                newUsersToday,
-                totalTxns,
-                pendingTxns,
-                totalGtv,
-                averageTicketSize,
-                totalFailedVolume,
-                successRate);
+        return toDashboardStats(stats, 0, totalUsers, newUsersToday);
     }
 
     /**
-     * Get dashboard stats filtered by date range.
+     * Get dashboard stats filtered by date range. Ranges the quarter-hour buckets cover are
+     * answered from them in the server zone, so closed days need no scan.
      *
      * @param startDate the start date (inclusive)
      * @param endDate   the end date (inclusive)
      */
-    @Cacheable(value = "filteredDashboardStats", key = "#startDate.toString() + '-' + #endDate.toString()")
+    @Cacheable(value = "filteredDashboardStats",
+            key = "#startDate.toString() + '-' + #endDate.toString()", sync = true)
     public DashboardStatsDTO getDashboardStats(LocalDate startDate, LocalDate endDate) {
         if (endDate == null) {
             endDate = LocalDate.now();
@@ -73,6 +58,9 @@ public class DashboardService {
         if (startDate == null) {
             startDate = endDate.minusDays(30);
         }
+        if (quarterHourBuckets.covers(startDate, endDate)) {
+            return getDashboardStats(startDate, endDate, quarterHourBuckets.storageZone());
+        }
 
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
@@ -82,16 +70,170 @@ public class DashboardService {
         Object[] stats = result.isEmpty() ? new Object[] { 0L, 0L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO }
                 : result.get(0);
 
-        long totalTxns = ((Number) stats[0]).longValue();
-        long successTxns = ((Number) stats[1]).longValue();
-        long pendingTxns = ((Number) stats[2]).longValue();
-        BigDecimal totalGtv = stats[4] instanceof BigDecimal bd ? bd : new BigDecimal(stats[4].toString());
-        BigDecimal totalFailedVolume = stats[5] instanceof BigDecimal bd ? bd : new BigDecimal(stats[5].toString());
-
         // User stats
         long totalUsers = userRepository.count();
         long newUsersToday = userRepository.countByCreatedAtAfter(LocalDateTime.now().minusDays(1));
 
+        return toDashboardStats(stats, 0, totalUsers, newUsersToday);
+    }
+
+    /**
+     * Dashboard stats for a date range and its comparison range, from the quarter-hour
+     * buckets in the server zone when they cover both, otherwise from one scan.
+     *
+     * @param startDate the start date (inclusive); defaults to 30 days before endDate if null
+     * @param endDate   the end date (inclusive); defaults to today if null
+     * @param compareTo which range to compare against; defaults to the previous period of equal length
+     */
+    @Cacheable(value = "dashboardComparison",
+            key = "#startDate?.toString() + '-' + #endDate?.toString() + '-' + #compareTo", sync = true)
+    public DashboardComparisonDTO getDashboardStatsComparison(LocalDate startDate, LocalDate endDate,
+                                                              ComparisonPeriod compareTo) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(30);
+        }
+        if (compareTo == null) {
+            compareTo = ComparisonPeriod.PREVIOUS_PERIOD;
+        }
+        DateRange range = new DateRange(startDate, endDate);
+        DateRange previousRange = range.previous(compareTo);
+        if (quarterHourBuckets.covers(range.start(), range.end())
+                && quarterHourBuckets.covers(previousRange.start(), previousRange.end())) {
+            return getDashboardStatsComparison(startDate, endDate, compareTo, quarterHourBuckets.storageZone());
+        }
+
+        List<Object[]> result = transactionRepository.getAggregatedStatsForPeriods(
+                range.startDateTime(), range.endDateTime(),
+                previousRange.startDateTime(), previousRange.endDateTime());
+        Object[] stats = result.isEmpty()
+                ? new Object[] { 0L, 0L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO, 0L, 0L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO }
+                : result.get(0);
+
+        return toComparison(compareTo, range, previousRange, stats);
+    }
+
+    /**
+     * Dashboard stats for a range of local days in {@code zone}, from the cached quarter-hour
+     * buckets rather than a scan per zone.
+     *
+     * @param startDate the start date (inclusive); defaults to 30 days before endDate if null
+     * @param endDate   the end date (inclusive); defaults to today in {@code zone} if null
+     */
+    @Cacheable(value = "filteredDashboardStats",
+            key = "#startDate?.toString() + '-' + #endDate?.toString() + '-' + #zone.id", sync = true)
+    public DashboardStatsDTO getDashboardStats(LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        if (endDate == null) {
+            endDate = LocalDate.now(zone);
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(30);
+        }
+        Object[] stats = quarterHourBuckets.aggregatedStats(startDate, endDate, zone);
+
+        long totalUsers = userRepository.count();
+        long newUsersToday = userRepository.countByCreatedAtAfter(LocalDateTime.now().minusDays(1));
+
+        return toDashboardStats(stats, 0, totalUsers, newUsersToday);
+    }
+
+    /**
+     * Comparison of two ranges of local days in {@code zone}.
+     *
+     * @param startDate the start date (inclusive); defaults to 30 days before endDate if null
+     * @param endDate   the end date (inclusive); defaults to today in {@code zone} if null
+     * @param compareTo which range to compare against; defaults to the previous period of equal length
+     */
+    @Cacheable(value = "dashboardComparison",
+            key = "#startDate?.toString() + '-' + #endDate?.toString() + '-' + #compareTo + '-' + #zone.id",
+            sync = true)
+    public DashboardComparisonDTO getDashboardStatsComparison(LocalDate startDate, LocalDate endDate,
+                                                              ComparisonPeriod compareTo, ZoneId zone) {
+        if (endDate == null) {
+            endDate = LocalDate.now(zone);
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(30);
+        }
+        if (compareTo == null) {
+            compareTo = ComparisonPeriod.PREVIOUS_PERIOD;
+        }
+        DateRange range = new DateRange(startDate, endDate);
+        DateRange previousRange = range.previous(compareTo);
+
+        Object[] current = quarterHourBuckets.aggregatedStats(range.start(), range.end(), zone);
+        Object[] previous = quarterHourBuckets.aggregatedStats(previousRange.start(), previousRange.end(), zone);
+        Object[] stats = new Object[current.length + previous.length];
+        System.arraycopy(current, 0, stats, 0, current.length);
+        System.arraycopy(previous, 0, stats, current.length, previous.length);
+
+        return toComparison(compareTo, range, previousRange, stats);
+    }
+
+    /**
+     * Build the comparison from twelve aggregate columns: the current range's six, then the
+     * previous range's.
+     */
+    private DashboardComparisonDTO toComparison(ComparisonPeriod compareTo, DateRange range,
+                                                DateRange previousRange, Object[] stats) {
+        long totalUsers = userRepository.count();
+        long newUsersToday = userRepository.countByCreatedAtAfter(LocalDateTime.now().minusDays(1));
+
+        DashboardStatsDTO current = toDashboardStats(stats, 0, totalUsers, newUsersToday);
+        DashboardStatsDTO previous = toDashboardStats(stats, 6, totalUsers, newUsersToday);
+
+        Map<String, BigDecimal> deltas = new LinkedHashMap<>();
+        Map<String, Double> percentChanges = new LinkedHashMap<>();
+        Comparisons.put(deltas, percentChanges, "totalTxns", current.getTotalTxns(), previous.getTotalTxns());
+        Comparisons.put(deltas, percentChanges, "pendingTrxns", current.getPendingTrxns(), previous.getPendingTrxns());
+        Comparisons.put(deltas, percentChanges, "totalGtv", current.getTotalGtv(), previous.getTotalGtv());
+        Comparisons.put(deltas, percentChanges, "averageTicketSize",
+                current.getAverageTicketSize(), previous.getAverageTicketSize());
+        Comparisons.put(deltas, percentChanges, "totalFailedVolume",
+                current.getTotalFailedVolume(), previous.getTotalFailedVolume());
+        Comparisons.put(deltas, percentChanges, "successRate", current.getSuccessRate(), previous.getSuccessRate());
+
+        return new DashboardComparisonDTO(compareTo, range.start(), range.end(),
+                previousRange.start(), previousRange.end(), current, previous, deltas, percentChanges);
+    }
+
+    /**
+     * Dashboard stats for one merchant's transactions. User counts are platform-wide, so
+     * they are left null here. Not cached with {@code @Cacheable}: merchant results go
+     * through the per-tenant cache in {@code MerchantAnalyticsService}.
+     *
+     * @param startDate the start date (inclusive); defaults to 30 days before endDate if null
+     * @param endDate   the end date (inclusive); defaults to today if null
+     */
+    public DashboardStatsDTO getMerchantDashboardStats(long merchantId, LocalDate startDate, LocalDate endDate) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(30);
+        }
+        List<Object[]> result = transactionRepository.getMerchantAggregatedStatsInRange(merchantId,
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+        Object[] stats = result.isEmpty() ? new Object[] { 0L, 0L, 0L, 0L, BigDecimal.ZERO, BigDecimal.ZERO }
+                : result.get(0);
+        return toDashboardStats(stats, 0, null, null);
+    }
+
+    /**
+     * Build the DTO from six aggregate columns starting at {@code offset}:
+     * [totalTxns, successCount, pendingCount, failedCount, successAmount, failedAmount].
+     */
+    private DashboardStatsDTO toDashboardStats(Object[] stats, int offset, Long totalUsers, Long newUsersToday) {
+        long totalTxns = ((Number) stats[offset]).longValue();
+        long successTxns = ((Number) stats[offset + 1]).longValue();
+        long pendingTxns = ((Number) stats[offset + 2]).longValue();
+        BigDecimal totalGtv = stats[offset + 4] instanceof BigDecimal bd ? bd
+                : new BigDecimal(stats[offset + 4].toString());
+        BigDecimal totalFailedVolume = stats[offset + 5] instanceof BigDecimal bd ? bd
+                : new BigDecimal(stats[offset + 5].toString());
+
         BigDecimal averageTicketSize = BigDecimal.ZERO;
         if (successTxns > 0) {
             averageTicketSize = totalGtv.divide(BigDecimal.valueOf(successTxns),
@@ -110,6 +252,7 @@ public class DashboardService {
                 totalGtv,
                 averageTicketSize,
                 totalFailedVolume,
-                successRate);
+                successRate,
+                null);
     }
 }
@@ -0,0 +1,43 @@
+package com.toucanus.analytics_dashboard.service;
+
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Inclusive range of calendar days.
+ */
+public record DateRange(LocalDate start, LocalDate end) {
+
+    public long days() {
+        return ChronoUnit.DAYS.between(start, end) + 1;
+    }
+
+    public LocalDateTime startDateTime() {
+        return start.atStartOfDay();
+    }
+
+    /**
+     * Exclusive upper bound: the start of the day after {@code end}.
+     */
+    public LocalDateTime endDateTime() {
+        return end.plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * The range this one is compared against.
+     */
+    public DateRange previous(ComparisonPeriod period) {
+        return switch (period) {
+            case PREVIOUS_PERIOD -> new DateRange(start.minusDays(days()), start.minusDays(1));
+            case PREVIOUS_WEEK -> new DateRange(start.minusWeeks(1), end.minusWeeks(1));
+            case PREVIOUS_YEAR -> new DateRange(start.minusYears(1), end.minusYears(1));
+        };
+    }
+
+    public boolean contains(LocalDate day) {
+        return !day.isBefore(start) && !day.isAfter(end);
+    }
+}
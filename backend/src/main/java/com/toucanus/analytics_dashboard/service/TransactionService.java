@@ -0,0 +1,39 @@
+package com.toucanus.analytics_dashboard.service;
+
+import com.toucanus.analytics_dashboard.dto.TransactionListItemDTO;
+import com.toucanus.analytics_dashboard.dto.TransactionSearchCriteria;
+import com.toucanus.analytics_dashboard.entity.Transaction;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.repository.specification.TransactionSpecification;
+import com.toucanus.analytics_dashboard.service.user.UserDimension;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionService {
+
+    private final TransactionRepository transactionRepository;
+    private final UserDimension userDimension;
+
+    @Transactional(readOnly = true)
+    public Page<TransactionListItemDTO> getTransactions(TransactionSearchCriteria criteria, Pageable pageable) {
+        // Resolve the email filter in memory so it becomes a user_id predicate, not a join.
+        // A miss may be a user created since the last refresh, so it falls back to the join.
+        List<Long> userIds = null;
+        String userEmail = criteria != null ? criteria.getUserEmail() : null;
+        if (userEmail != null && !userEmail.trim().isEmpty()) {
+            userIds = userDimension.idsByEmail(userEmail)
+                    .filter(ids -> !ids.isEmpty())
+                    .orElse(null);
+        }
+        Specification<Transaction> spec = TransactionSpecification.getSpec(criteria, userIds);
+        return transactionRepository.findListItems(spec, pageable);
+    }
+}
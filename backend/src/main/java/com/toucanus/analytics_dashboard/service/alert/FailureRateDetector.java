@@ -0,0 +1,217 @@
+package com.toucanus.analytics_dashboard.service.alert;
+
+import com.toucanus.analytics_dashboard.dto.alert.AlertDTO;
+import com.toucanus.analytics_dashboard.enums.AlertMetric;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEvent;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEventListener;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Detects failure-rate and pending-rate spikes per {@link PaymentMethod}.
+ * <p>
+ * Each transaction event increments a rolling per-second window (O(1), lock-free, no DB
+ * access). Once a second the window rates are compared against an EWMA baseline and its
+ * EWMA variance; an alert fires when the rate exceeds {@code baseline + sigma * stddev}
+ * (and at least {@code min-rate-increase} above baseline) over a window with enough
+ * traffic, and resolves once the rate drops back below half that margin. The baseline is
+ * frozen while an alert is active so the spike is not learned as normal, and it learns
+ * from one window rate per window length only: fed every second, the overlapping windows
+ * would let it follow a step change up the ramp, its variance growing with the lag, and
+ * the alert would never fire.
+ * <p>
+ * Subscribers (the SSE stream) are called on a publisher thread of their own, in alert
+ * order, so a slow client never delays the evaluation tick.
+ */
+@Slf4j
+@Service
+public class FailureRateDetector implements TransactionEventListener {
+
+    private static final int MAX_RECENT_ALERTS = 100;
+
+    private final Map<PaymentMethod, RollingStatusWindow> windows = new EnumMap<>(PaymentMethod.class);
+    private final Map<PaymentMethod, Map<AlertMetric, Baseline>> baselines = new EnumMap<>(PaymentMethod.class);
+    private final Map<String, AlertDTO> activeAlerts = new ConcurrentHashMap<>();
+    private final Deque<AlertDTO> recentAlerts = new ArrayDeque<>();
+    private final List<Consumer<AlertDTO>> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("alert-publisher").daemon().factory());
+
+    private final long windowSeconds;
+    private final double alpha;
+    private final double sigma;
+    private final long minWindowTxns;
+    private final double minRateIncrease;
+
+    public FailureRateDetector(@Value("${alerts.window:PT60S}") Duration window,
+                               @Value("${alerts.ewma-alpha:0.05}") double alpha,
+                               @Value("${alerts.sigma:4}") double sigma,
+                               @Value("${alerts.min-window-txns:50}") long minWindowTxns,
+                               @Value("${alerts.min-rate-increase:0.05}") double minRateIncrease) {
+        this.windowSeconds = window.toSeconds();
+        this.alpha = alpha;
+        this.sigma = sigma;
+        this.minWindowTxns = minWindowTxns;
+        this.minRateIncrease = minRateIncrease;
+        for (PaymentMethod method : PaymentMethod.values()) {
+            windows.put(method, new RollingStatusWindow((int) window.toSeconds()));
+            Map<AlertMetric, Baseline> perMetric = new EnumMap<>(AlertMetric.class);
+            for (AlertMetric metric : AlertMetric.values()) {
+                perMetric.put(metric, new Baseline());
+            }
+            baselines.put(method, perMetric);
+        }
+    }
+
+    @Override
+    public void onTransaction(TransactionEvent event) {
+        onTransaction(event, Instant.now().getEpochSecond());
+    }
+
+    void onTransaction(TransactionEvent event, long nowSecond) {
+        long second = event.createdAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+        windows.get(event.paymentMethod()).record(event.status(), second, nowSecond);
+    }
+
+    public List<AlertDTO> getActiveAlerts() {
+        return new ArrayList<>(activeAlerts.values());
+    }
+
+    public List<AlertDTO> getRecentAlerts() {
+        synchronized (recentAlerts) {
+            return new ArrayList<>(recentAlerts);
+        }
+    }
+
+    /**
+     * Register for raised and resolved alerts; returns a handle that unsubscribes.
+     */
+    public Runnable subscribe(Consumer<AlertDTO> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * The scheduler pool has several threads, but fixed-rate runs of one task never overlap
+     * and each run happens-after the previous one, so baseline state needs no
+     * synchronization as long as nothing else calls this.
+     */
+    @Scheduled(fixedRateString = "${alerts.evaluation-interval:PT1S}")
+    public void evaluate() {
+        evaluate(Instant.now().getEpochSecond());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    void evaluate(long now) {
+        for (PaymentMethod method : PaymentMethod.values()) {
+            long[] totals = windows.get(method).totals(now);
+            long n = 0;
+            for (long count : totals) {
+                n += count;
+            }
+            if (n < minWindowTxns) {
+                continue;
+            }
+            evaluate(method, AlertMetric.FAILURE_RATE, (double) totals[TxnStatus.FAILED.ordinal()] / n, n, now);
+            evaluate(method, AlertMetric.PENDING_RATE, (double) totals[TxnStatus.PENDING.ordinal()] / n, n, now);
+        }
+    }
+
+    private void evaluate(PaymentMethod method, AlertMetric metric, double rate, long n, long now) {
+        Baseline baseline = baselines.get(method).get(metric);
+        String key = method + ":" + metric;
+        AlertDTO active = activeAlerts.get(key);
+
+        if (!baseline.initialized) {
+            baseline.mean = rate;
+            baseline.variance = 0.0;
+            baseline.initialized = true;
+            baseline.updatedAt = now;
+            return;
+        }
+
+        double margin = Math.max(sigma * Math.sqrt(baseline.variance), minRateIncrease);
+        double threshold = baseline.mean + margin;
+
+        if (active == null) {
+            if (rate > threshold) {
+                AlertDTO alert = new AlertDTO(UUID.randomUUID().toString(), method, metric, rate,
+                        baseline.mean, threshold, n, Instant.now(), null);
+                activeAlerts.put(key, alert);
+                log.warn("{} {} spike: {} over baseline {}", method, metric, rate, baseline.mean);
+                publish(alert);
+            } else if (now - baseline.updatedAt >= windowSeconds) {
+                baseline.update(rate, alpha);
+                baseline.updatedAt = now;
+            }
+        } else if (rate < baseline.mean + margin / 2) {
+            activeAlerts.remove(key);
+            AlertDTO resolved = new AlertDTO(active.getId(), method, metric, rate, active.getBaselineRate(),
+                    active.getThreshold(), n, active.getStartedAt(), Instant.now());
+            publish(resolved);
+        }
+    }
+
+    private void publish(AlertDTO alert) {
+        synchronized (recentAlerts) {
+            recentAlerts.addFirst(alert);
+            if (recentAlerts.size() > MAX_RECENT_ALERTS) {
+                recentAlerts.removeLast();
+            }
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        publisher.execute(() -> {
+            for (Consumer<AlertDTO> subscriber : subscribers) {
+                try {
+                    subscriber.accept(alert);
+                } catch (RuntimeException e) {
+                    log.warn("Alert subscriber failed on {}", alert.getId(), e);
+                }
+            }
+        });
+    }
+
+    private static final class Baseline {
+
+        private boolean initialized;
+        private double mean;
+        private double variance;
+        private long updatedAt;
+
+        /**
+         * EWMA of the mean and of the squared deviation.
+         */
+        private void update(double value, double alpha) {
+            double diff = value - mean;
+            mean += alpha * diff;
+            variance = (1 - alpha) * (variance + alpha * diff * diff);
+        }
+    }
+}
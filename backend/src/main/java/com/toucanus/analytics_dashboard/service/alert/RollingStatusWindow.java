@@ -0,0 +1,68 @@
+package com.toucanus.analytics_dashboard.service.alert;
+
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-status counts over the last {@code size} seconds, as a ring of one-second buckets.
+ * Recording is O(1) and lock-free: each bucket holds striped {@link LongAdder}s and is
+ * recycled by CAS on its epoch second. An event racing with a bucket recycle can be
+ * lost, which is acceptable for rate estimation.
+ */
+final class RollingStatusWindow {
+
+    private static final int STATUSES = TxnStatus.values().length;
+
+    private final int size;
+    private final AtomicLongArray bucketSecond;
+    private final LongAdder[][] counts;
+
+    RollingStatusWindow(int size) {
+        this.size = size;
+        this.bucketSecond = new AtomicLongArray(size);
+        this.counts = new LongAdder[size][STATUSES];
+        for (int i = 0; i < size; i++) {
+            bucketSecond.set(i, Long.MIN_VALUE);
+            for (int s = 0; s < STATUSES; s++) {
+                counts[i][s] = new LongAdder();
+            }
+        }
+    }
+
+    void record(TxnStatus status, long second, long nowSecond) {
+        if (second <= nowSecond - size || second > nowSecond) {
+            return;
+        }
+        int idx = (int) Math.floorMod(second, (long) size);
+        long current = bucketSecond.get(idx);
+        if (current != second) {
+            if (current > second) {
+                return; // bucket already reused by a newer second
+            }
+            if (bucketSecond.compareAndSet(idx, current, second)) {
+                for (LongAdder adder : counts[idx]) {
+                    adder.reset();
+                }
+            }
+        }
+        counts[idx][status.ordinal()].increment();
+    }
+
+    /**
+     * Counts per {@link TxnStatus} ordinal over the window ending at {@code nowSecond}.
+     */
+    long[] totals(long nowSecond) {
+        long[] totals = new long[STATUSES];
+        for (int i = 0; i < size; i++) {
+            long second = bucketSecond.get(i);
+            if (second > nowSecond - size && second <= nowSecond) {
+                for (int s = 0; s < STATUSES; s++) {
+                    totals[s] += counts[i][s].sum();
+                }
+            }
+        }
+        return totals;
+    }
+}
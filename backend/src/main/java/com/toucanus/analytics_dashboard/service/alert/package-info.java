@@ -0,0 +1,4 @@
+/**
+ * Streaming anomaly detection and alerting.
+ */
+package com.toucanus.analytics_dashboard.service.alert;
@@ -0,0 +1,392 @@
+package com.toucanus.analytics_dashboard.service.approx;
+
+import com.toucanus.analytics_dashboard.dto.ApproximationDTO;
+import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.dto.graph.DailyStatusDTO;
+import com.toucanus.analytics_dashboard.dto.graph.HourlyStatDTO;
+import com.toucanus.analytics_dashboard.dto.graph.PaymentStatDTO;
+import com.toucanus.analytics_dashboard.dto.report.ReportRequestDTO;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.ReportPriority;
+import com.toucanus.analytics_dashboard.enums.ReportType;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import com.toucanus.analytics_dashboard.service.report.ReportJobService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Approximate answers for the KPI and chart endpoints using {@code TABLESAMPLE SYSTEM}.
+ * <p>
+ * The sample rate adapts to the estimated number of rows in the range so that roughly
+ * {@code approx.target-sample-rows} rows of the range are read. SYSTEM picks blocks from
+ * the whole table and cannot use the created_at index, so the sample reads rate × table
+ * rows against the exact query's range rows; ranges too small a share of the table for
+ * that to pay off ({@code approx.max-scan-share}) are answered exactly. The row estimate
+ * comes from table statistics refreshed every {@code approx.estimate-ttl}, so deciding
+ * costs no query on most requests. Totals are Horvitz-Thompson scaled
+ * by 1/rate; because SYSTEM samples whole blocks, variances are computed from per-block
+ * sums, and ratios (success rate, average ticket) use the linearized ratio variance.
+ * Each approximate response carries the id of a low-priority report job computing the
+ * exact answer, for progressive refinement.
+ */
+@Service
+public class ApproximateAnalyticsService {
+
+    private static final double Z_95 = 1.96;
+    private static final MathContext MC = new MathContext(16, RoundingMode.HALF_UP);
+
+    private final TransactionRepository transactionRepository;
+    private final UserRepository userRepository;
+    private final DashboardService dashboardService;
+    private final GraphAnalyticsService graphAnalyticsService;
+    private final ReportJobService reportJobService;
+    private final Cache cache;
+    private final long targetSampleRows;
+    private final double minSampleRate;
+    private final long autoThresholdRows;
+    private final double maxScanShare;
+    private final long estimateTtlNanos;
+    private volatile TableEstimate tableEstimate;
+
+    public ApproximateAnalyticsService(TransactionRepository transactionRepository,
+                                       UserRepository userRepository,
+                                       DashboardService dashboardService,
+                                       GraphAnalyticsService graphAnalyticsService,
+                                       ReportJobService reportJobService,
+                                       CacheManager cacheManager,
+                                       @Value("${approx.target-sample-rows:200000}") long targetSampleRows,
+                                       @Value("${approx.min-sample-rate:0.001}") double minSampleRate,
+                                       @Value("${approx.auto-threshold-rows:5000000}") long autoThresholdRows,
+                                       @Value("${approx.max-scan-share:0.5}") double maxScanShare,
+                                       @Value("${approx.estimate-ttl:PT1M}") Duration estimateTtl) {
+        this.transactionRepository = transactionRepository;
+        this.userRepository = userRepository;
+        this.dashboardService = dashboardService;
+        this.graphAnalyticsService = graphAnalyticsService;
+        this.reportJobService = reportJobService;
+        this.cache = cacheManager.getCache("approximateAnalytics");
+        this.targetSampleRows = targetSampleRows;
+        this.minSampleRate = minSampleRate;
+        this.autoThresholdRows = autoThresholdRows;
+        this.maxScanShare = maxScanShare;
+        this.estimateTtlNanos = estimateTtl.toNanos();
+    }
+
+    /**
+     * @param approx true samples whenever that reads less than the exact query, false forces
+     *               an exact scan, null samples only when the range is also estimated above
+     *               {@code approx.auto-threshold-rows}
+     */
+    public DashboardStatsDTO getDashboardStats(LocalDate startDate, LocalDate endDate, Boolean approx) {
+        Range range = resolve(ReportType.FILTERED_STATS, startDate, endDate);
+        double rate = samplingRate(approx, range);
+        if (rate >= 1.0) {
+            return dashboardService.getDashboardStats(range.start(), range.end());
+        }
+        return cached(ReportType.FILTERED_STATS, range, () -> sampledDashboardStats(range, rate));
+    }
+
+    public List<DailyStatusDTO> getDailyStatusStats(LocalDate startDate, LocalDate endDate, Boolean approx) {
+        Range range = resolve(ReportType.DAILY_STATUS, startDate, endDate);
+        double rate = samplingRate(approx, range);
+        if (rate >= 1.0) {
+            return graphAnalyticsService.getDailyStatusStats(range.start(), range.end());
+        }
+        return cached(ReportType.DAILY_STATUS, range, () -> sampledDailyStatusStats(range, rate));
+    }
+
+    public List<HourlyStatDTO> getHourlyTrafficStats(LocalDate startDate, LocalDate endDate, Boolean approx) {
+        Range range = resolve(ReportType.HOURLY_TRAFFIC, startDate, endDate);
+        double rate = samplingRate(approx, range);
+        if (rate >= 1.0) {
+            return graphAnalyticsService.getHourlyTrafficStats(range.start(), range.end());
+        }
+        return cached(ReportType.HOURLY_TRAFFIC, range, () -> sampledHourlyTrafficStats(range, rate));
+    }
+
+    public List<PaymentStatDTO> getPaymentStats(LocalDate startDate, LocalDate endDate, Boolean approx) {
+        Range range = resolve(ReportType.PAYMENT_METHODS, startDate, endDate);
+        double rate = samplingRate(approx, range);
+        if (rate >= 1.0) {
+            return graphAnalyticsService.getPaymentStats(range.start(), range.end());
+        }
+        return cached(ReportType.PAYMENT_METHODS, range, () -> sampledPaymentStats(range, rate));
+    }
+
+    private DashboardStatsDTO sampledDashboardStats(Range range, double rate) {
+        List<Object[]> result = transactionRepository.getSampledAggregatedStatsInRange(
+                rate * 100, range.startDateTime(), range.endDateTime());
+        // [blocks, t, s, p, g, h, tt, ss, pp, gg, hh, st, gs]
+        double[] v = result.isEmpty() ? new double[13] : toDoubles(result.get(0));
+        double t = v[1], s = v[2], p = v[3], g = v[4], h = v[5];
+
+        double averageTicketSize = s > 0 ? g / s : 0.0;
+        double successRate = t > 0 ? s * 100.0 / t : 0.0;
+
+        Map<String, BigDecimal> margins = new LinkedHashMap<>();
+        margins.put("totalTxns", margin(v[6], rate));
+        margins.put("pendingTrxns", margin(v[8], rate));
+        margins.put("totalGtv", margin(v[9], rate));
+        margins.put("totalFailedVolume", margin(v[10], rate));
+        margins.put("averageTicketSize", ratioMargin(g, s, v[9], v[7], v[12], rate));
+        margins.put("successRate", ratioMargin(s, t, v[7], v[6], v[11], rate).multiply(BigDecimal.valueOf(100)));
+
+        return new DashboardStatsDTO(
+                userRepository.count(),
+                userRepository.countByCreatedAtAfter(LocalDateTime.now().minusDays(1)),
+                Math.round(t / rate),
+                Math.round(p / rate),
+                scaledAmount(g, rate),
+                BigDecimal.valueOf(averageTicketSize).round(MC),
+                scaledAmount(h, rate),
+                successRate,
+                approximation(ReportType.FILTERED_STATS, range, rate, margins));
+    }
+
+    private List<DailyStatusDTO> sampledDailyStatusStats(Range range, double rate) {
+        List<Object[]> rows = transactionRepository.selectSampledDailyStats(
+                rate * 100, range.startDateTime(), range.endDateTime());
+        ApproximationDTO empty = approximation(ReportType.DAILY_STATUS, range, rate, Map.of());
+
+        Map<LocalDate, DailyStatusDTO> map = new LinkedHashMap<>();
+        for (LocalDate d = range.start(); !d.isAfter(range.end()); d = d.plusDays(1)) {
+            map.put(d, new DailyStatusDTO(d, 0L, 0L, 0L, BigDecimal.ZERO, 0L, empty));
+        }
+
+        // [date, t, a, s, f, p, tt, aa, ss, ff, pp]
+        for (Object[] row : rows) {
+            DailyStatusDTO dto = map.get(parseLocalDate(row[0]));
+            if (dto == null) {
+                continue;
+            }
+            double[] v = toDoubles(row);
+            Map<String, BigDecimal> margins = new LinkedHashMap<>();
+            margins.put("txnCount", margin(v[6], rate));
+            margins.put("totalAmount", margin(v[7], rate));
+            margins.put("successCount", margin(v[8], rate));
+            margins.put("failedCount", margin(v[9], rate));
+            margins.put("pendingCount", margin(v[10], rate));
+
+            dto.setTxnCount(Math.round(v[1] / rate));
+            dto.setTotalAmount(scaledAmount(v[2], rate));
+            dto.setSuccessCount(Math.round(v[3] / rate));
+            dto.setFailedCount(Math.round(v[4] / rate));
+            dto.setPendingCount(Math.round(v[5] / rate));
+            dto.setApproximation(new ApproximationDTO(rate, 0.95, margins, empty.getExactJobId()));
+        }
+        return new ArrayList<>(map.values());
+    }
+
+    private List<HourlyStatDTO> sampledHourlyTrafficStats(Range range, double rate) {
+        List<Object[]> rows = transactionRepository.selectSampledHourlyStats(
+                rate * 100, range.startDateTime(), range.endDateTime());
+        ApproximationDTO empty = approximation(ReportType.HOURLY_TRAFFIC, range, rate, Map.of());
+
+        Map<Integer, HourlyStatDTO> hourMap = new LinkedHashMap<>();
+        for (int h = 0; h < 24; h++) {
+            hourMap.put(h, new HourlyStatDTO(h, 0L, 0L, 0L, empty));
+        }
+
+        // [hour, s, f, p, ss, ff, pp]
+        for (Object[] row : rows) {
+            HourlyStatDTO dto = hourMap.get(((Number) row[0]).intValue());
+            if (dto == null) {
+                continue;
+            }
+            double[] v = toDoubles(row);
+            Map<String, BigDecimal> margins = new LinkedHashMap<>();
+            margins.put("successCount", margin(v[4], rate));
+            margins.put("failedCount", margin(v[5], rate));
+            margins.put("pendingCount", margin(v[6], rate));
+
+            dto.setSuccessCount(Math.round(v[1] / rate));
+            dto.setFailedCount(Math.round(v[2] / rate));
+            dto.setPendingCount(Math.round(v[3] / rate));
+            dto.setApproximation(new ApproximationDTO(rate, 0.95, margins, empty.getExactJobId()));
+        }
+        return new ArrayList<>(hourMap.values());
+    }
+
+    private List<PaymentStatDTO> sampledPaymentStats(Range range, double rate) {
+        List<Object[]> rows = transactionRepository.selectSampledPaymentMethodStats(
+                rate * 100, range.startDateTime(), range.endDateTime());
+        String exactJobId = submitExactJob(ReportType.PAYMENT_METHODS, range);
+
+        // [paymentMethod, n, nn]
+        List<PaymentStatDTO> stats = new ArrayList<>();
+        for (Object[] row : rows) {
+            double n = ((Number) row[1]).doubleValue();
+            double nn = ((Number) row[2]).doubleValue();
+            stats.add(new PaymentStatDTO(
+                    PaymentMethod.valueOf(String.valueOf(row[0])),
+                    Math.round(n / rate),
+                    new ApproximationDTO(rate, 0.95, Map.of("count", margin(nn, rate)), exactJobId)));
+        }
+        return stats;
+    }
+
+    /**
+     * 1.0 means "run exactly".
+     */
+    double samplingRate(Boolean approx, LocalDate start, LocalDate end) {
+        if (Boolean.FALSE.equals(approx)) {
+            return 1.0;
+        }
+        TableEstimate table = tableEstimate();
+        double rangeRows = table.rowsIn(new Range(start, end));
+        if (rangeRows <= 0 || (approx == null && rangeRows < autoThresholdRows)) {
+            return 1.0;
+        }
+        double rate = Math.min(1.0, Math.max(minSampleRate, targetSampleRows / rangeRows));
+        if (rate * table.rows() > maxScanShare * rangeRows) {
+            return 1.0;
+        }
+        return rate;
+    }
+
+    private double samplingRate(Boolean approx, Range range) {
+        return samplingRate(approx, range.start(), range.end());
+    }
+
+    private TableEstimate tableEstimate() {
+        TableEstimate estimate = tableEstimate;
+        long now = System.nanoTime();
+        if (estimate == null || now - estimate.loadedAt() >= estimateTtlNanos) {
+            estimate = loadTableEstimate(now);
+            tableEstimate = estimate;
+        }
+        return estimate;
+    }
+
+    private TableEstimate loadTableEstimate(long now) {
+        Long totalRows = transactionRepository.estimateTotalRows();
+        if (totalRows == null || totalRows <= 0) {
+            return new TableEstimate(-1, null, null, now);
+        }
+        List<Object[]> bounds = transactionRepository.selectCreatedAtBounds();
+        if (bounds.isEmpty() || bounds.get(0)[0] == null) {
+            return new TableEstimate(0, null, null, now);
+        }
+        return new TableEstimate(totalRows, (LocalDateTime) bounds.get(0)[0], (LocalDateTime) bounds.get(0)[1], now);
+    }
+
+    private ApproximationDTO approximation(ReportType type, Range range, double rate, Map<String, BigDecimal> margins) {
+        return new ApproximationDTO(rate, 0.95, margins, submitExactJob(type, range));
+    }
+
+    private String submitExactJob(ReportType type, Range range) {
+        try {
+            return reportJobService.submit(
+                    new ReportRequestDTO(type, range.start(), range.end(), ReportPriority.LOW)).getId();
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(ReportType type, Range range, Supplier<T> loader) {
+        return (T) cache.get(type + ":" + range.start() + ":" + range.end(), loader::get);
+    }
+
+    /**
+     * 95% half-width of a scaled total, from the sum of squared per-block values.
+     */
+    private static BigDecimal margin(double sumOfSquares, double rate) {
+        double variance = (1 - rate) * sumOfSquares / (rate * rate);
+        return BigDecimal.valueOf(Z_95 * Math.sqrt(variance)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 95% half-width of num/den using the linearized (delta-method) ratio variance.
+     */
+    private static BigDecimal ratioMargin(double num, double den, double numSq, double denSq,
+                                          double cross, double rate) {
+        if (den <= 0) {
+            return BigDecimal.ZERO;
+        }
+        double r = num / den;
+        double residual = Math.max(0, numSq - 2 * r * cross + r * r * denSq);
+        double variance = (1 - rate) * residual / (den * den);
+        return BigDecimal.valueOf(Z_95 * Math.sqrt(variance)).round(MC);
+    }
+
+    private static BigDecimal scaledAmount(double sampledAmount, double rate) {
+        return BigDecimal.valueOf(sampledAmount / rate).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static double[] toDoubles(Object[] row) {
+        double[] values = new double[row.length];
+        for (int i = 0; i < row.length; i++) {
+            values[i] = row[i] instanceof Number n ? n.doubleValue() : 0.0;
+        }
+        return values;
+    }
+
+    private static LocalDate parseLocalDate(Object obj) {
+        if (obj instanceof LocalDate ld) {
+            return ld;
+        } else if (obj instanceof Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return LocalDate.parse(String.valueOf(obj));
+    }
+
+    private static Range resolve(ReportType type, LocalDate startDate, LocalDate endDate) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : ReportJobService.defaultStartDate(type, end);
+        return new Range(start, end);
+    }
+
+    /**
+     * Planner row count of the table and its created_at bounds; -1 rows if never analyzed.
+     */
+    private record TableEstimate(long rows, LocalDateTime min, LocalDateTime max, long loadedAt) {
+
+        /**
+         * Rows scaled by the share of the table's time span the range covers.
+         */
+        double rowsIn(Range range) {
+            if (rows <= 0) {
+                return rows;
+            }
+            long span = Duration.between(min, max).getSeconds();
+            if (span <= 0) {
+                return rows;
+            }
+            LocalDateTime from = range.startDateTime().isAfter(min) ? range.startDateTime() : min;
+            LocalDateTime to = range.endDateTime().isBefore(max) ? range.endDateTime() : max;
+            long overlap = Math.max(0, Duration.between(from, to).getSeconds());
+            return rows * ((double) overlap / span);
+        }
+    }
+
+    private record Range(LocalDate start, LocalDate end) {
+
+        LocalDateTime startDateTime() {
+            return start.atStartOfDay();
+        }
+
+        LocalDateTime endDateTime() {
+            return end.plusDays(1).atStartOfDay();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Sample-based approximate analytics with confidence intervals.
+ */
+package com.toucanus.analytics_dashboard.service.approx;
@@ -0,0 +1,95 @@
+package com.toucanus.analytics_dashboard.service.bulkhead;
+
+import com.toucanus.analytics_dashboard.config.BulkheadProperties;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore-bounded lane with a bounded wait queue and fast rejection.
+ */
+final class Bulkhead {
+
+    private final QueryLane lane;
+    private final Semaphore permits;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    Bulkhead(QueryLane lane, BulkheadProperties.Lane settings, MeterRegistry meterRegistry) {
+        this.lane = lane;
+        this.permits = new Semaphore(settings.getMaxConcurrent(), true);
+        this.maxQueue = settings.getMaxQueue();
+        this.maxWaitNanos = settings.getMaxWait().toNanos();
+
+        String tag = lane.name().toLowerCase();
+        this.waitTimer = Timer.builder("bulkhead.wait")
+                .description("Time spent waiting for a lane permit")
+                .tag("lane", tag)
+                .register(meterRegistry);
+        this.queueFullRejections = Counter.builder("bulkhead.rejected")
+                .tag("lane", tag).tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.timeoutRejections = Counter.builder("bulkhead.rejected")
+                .tag("lane", tag).tag("reason", "timeout")
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", waiting, AtomicInteger::get).tag("lane", tag).register(meterRegistry);
+        Gauge.builder("bulkhead.active", active, AtomicInteger::get).tag("lane", tag).register(meterRegistry);
+    }
+
+    <T> T execute(Supplier<T> work) {
+        acquire();
+        try {
+            return work.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Takes a permit, waiting in the queue if needed; pair with {@link #release()}.
+     */
+    void acquire() {
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            active.incrementAndGet();
+            return;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            queueFullRejections.increment();
+            throw new BulkheadFullException(lane, "queue full");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                timeoutRejections.increment();
+                throw new BulkheadFullException(lane, "timed out waiting for a permit");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(lane, "interrupted");
+        } finally {
+            waiting.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        active.incrementAndGet();
+    }
+
+    void release() {
+        active.decrementAndGet();
+        permits.release();
+    }
+}
@@ -0,0 +1,21 @@
+package com.toucanus.analytics_dashboard.service.bulkhead;
+
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a lane has no free permit and its wait queue is full (or the wait timed out).
+ */
+@Getter
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class BulkheadFullException extends RuntimeException {
+
+    private final QueryLane lane;
+
+    public BulkheadFullException(QueryLane lane, String reason) {
+        super("Lane " + lane + " rejected request: " + reason);
+        this.lane = lane;
+    }
+}
@@ -0,0 +1,77 @@
+package com.toucanus.analytics_dashboard.service.bulkhead;
+
+import com.toucanus.analytics_dashboard.config.BulkheadProperties;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Admission control per {@link QueryLane}. Cheap list queries run in INTERACTIVE,
+ * bounded-range aggregates in ANALYTICS, and unbounded or long-range aggregates in
+ * HEAVY, so that a few year-long analytics requests cannot starve the transaction list
+ * of database connections.
+ */
+@Service
+public class BulkheadRegistry {
+
+    private final Map<QueryLane, Bulkhead> bulkheads = new EnumMap<>(QueryLane.class);
+    private final Map<QueryLane, BulkheadProperties.Lane> settings = new EnumMap<>(QueryLane.class);
+    private final int heavyRangeDays;
+
+    public BulkheadRegistry(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.heavyRangeDays = properties.getHeavyRangeDays();
+        for (QueryLane lane : QueryLane.values()) {
+            BulkheadProperties.Lane laneSettings = properties.getLanes()
+                    .getOrDefault(lane, new BulkheadProperties.Lane());
+            settings.put(lane, laneSettings);
+            bulkheads.put(lane, new Bulkhead(lane, laneSettings, meterRegistry));
+        }
+    }
+
+    /**
+     * Estimate query cost from the date-range length. A missing range falls back to the
+     * endpoint's default window (at most a month), which is ANALYTICS.
+     */
+    public QueryLane laneFor(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null) {
+            return QueryLane.ANALYTICS;
+        }
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        long days = ChronoUnit.DAYS.between(startDate, end) + 1;
+        return days > heavyRangeDays ? QueryLane.HEAVY : QueryLane.ANALYTICS;
+    }
+
+    public BulkheadProperties.Lane settings(QueryLane lane) {
+        return settings.get(lane);
+    }
+
+    /**
+     * Run {@code work} holding a permit of the given lane.
+     *
+     * @throws BulkheadFullException if the lane's queue is full or the wait times out
+     */
+    public <T> T execute(QueryLane lane, Supplier<T> work) {
+        return bulkheads.get(lane).execute(work);
+    }
+
+    /**
+     * Take a permit of the given lane for work whose extent is not a single call, e.g. a
+     * borrowed connection; every successful acquire must be followed by one
+     * {@link #release}.
+     *
+     * @throws BulkheadFullException if the lane's queue is full or the wait times out
+     */
+    public void acquire(QueryLane lane) {
+        bulkheads.get(lane).acquire();
+    }
+
+    public void release(QueryLane lane) {
+        bulkheads.get(lane).release();
+    }
+}
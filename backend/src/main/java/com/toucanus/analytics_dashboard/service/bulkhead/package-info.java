@@ -0,0 +1,4 @@
+/**
+ * Bulkheads that separate interactive queries from heavy analytics.
+ */
+package com.toucanus.analytics_dashboard.service.bulkhead;
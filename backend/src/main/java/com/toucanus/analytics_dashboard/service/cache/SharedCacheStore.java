@@ -0,0 +1,337 @@
+package com.toucanus.analytics_dashboard.service.cache;
+
+import com.toucanus.analytics_dashboard.config.SharedCacheProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cache entries shared by all instances, in an {@code UNLOGGED} table (not WAL-logged, and
+ * emptied after a crash, which is fine for a cache). Every change is announced with
+ * {@code NOTIFY} so other instances drop their near-cache copy, and missing entries are
+ * computed once across instances: the first to insert a lease row computes, the others
+ * wait for its notification (or the lease to lapse).
+ * <p>
+ * The tier has its own small pool: cached work runs inside a lane's read-only transaction,
+ * which can neither write here nor borrow a second connection from a pool sized to the
+ * lanes. One of its connections is held for {@code LISTEN}. Expiry uses the database
+ * clock, so instances need not agree on time.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache.shared.enabled", havingValue = "true")
+public class SharedCacheStore {
+
+    /**
+     * NOTIFY payloads are limited to 8000 bytes; longer keys are announced as a clear.
+     */
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final SharedCacheProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, CompletableFuture<Void>> waiters = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread listenerThread;
+    private final Counter errors;
+    private volatile boolean running = true;
+
+    /**
+     * Changes made by other instances.
+     */
+    public interface Listener {
+
+        void evicted(String cacheName, String key);
+
+        void cleared(String cacheName);
+
+        /**
+         * Notifications may have been missed (listener connection lost).
+         */
+        void reset();
+    }
+
+    public SharedCacheStore(DataSourceProperties dataSourceProperties,
+                            SharedCacheProperties properties,
+                            MeterRegistry meterRegistry) {
+        if (!properties.getChannel().matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("cache.shared.channel must be a lower-case SQL identifier");
+        }
+        this.properties = properties;
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("shared-cache");
+        this.dataSource.setMaximumPoolSize(properties.getPoolSize() + 1);
+        this.dataSource.setMinimumIdle(1);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.errors = Counter.builder("cache.shared.errors")
+                .description("Shared cache operations that failed and fell back to the near cache")
+                .register(meterRegistry);
+        jdbcTemplate.execute("""
+                CREATE UNLOGGED TABLE IF NOT EXISTS shared_cache (
+                    cache_name text NOT NULL,
+                    cache_key text NOT NULL,
+                    value bytea,
+                    expires_at timestamptz,
+                    lease_owner text,
+                    lease_expires_at timestamptz,
+                    PRIMARY KEY (cache_name, cache_key)
+                )
+                """);
+        this.listenerThread = Thread.ofPlatform().name("shared-cache-listener").daemon().start(this::listen);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * The live value, or null.
+     */
+    public byte[] read(String cacheName, String key) {
+        List<byte[]> rows = jdbcTemplate.query("""
+                SELECT value FROM shared_cache
+                WHERE cache_name = ? AND cache_key = ? AND value IS NOT NULL AND expires_at > now()
+                """, (rs, i) -> rs.getBytes(1), cacheName, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Claims the right to compute a missing or expired entry; false while another instance
+     * holds an unexpired lease or a live value exists.
+     */
+    public boolean tryLease(String cacheName, String key) {
+        return jdbcTemplate.update("""
+                INSERT INTO shared_cache AS c (cache_name, cache_key, lease_owner, lease_expires_at)
+                VALUES (?, ?, ?, now() + make_interval(secs => ?))
+                ON CONFLICT (cache_name, cache_key) DO UPDATE
+                SET value = NULL, expires_at = NULL,
+                    lease_owner = EXCLUDED.lease_owner, lease_expires_at = EXCLUDED.lease_expires_at
+                WHERE (c.value IS NULL OR c.expires_at <= now())
+                  AND (c.lease_expires_at IS NULL OR c.lease_expires_at <= now())
+                """, cacheName, key, nodeId, seconds(properties.getLease())) == 1;
+    }
+
+    /**
+     * Stores the value (releasing any lease) and announces it in the same statement.
+     */
+    public void write(String cacheName, String key, byte[] value) {
+        jdbcTemplate.query("""
+                WITH written AS (
+                    INSERT INTO shared_cache (cache_name, cache_key, value, expires_at)
+                    VALUES (?, ?, ?, now() + make_interval(secs => ?))
+                    ON CONFLICT (cache_name, cache_key) DO UPDATE
+                    SET value = EXCLUDED.value, expires_at = EXCLUDED.expires_at,
+                        lease_owner = NULL, lease_expires_at = NULL
+                    RETURNING 1
+                )
+                SELECT pg_notify(?, ?) FROM written
+                """, rs -> null, cacheName, key, value, seconds(properties.getTtl()),
+                properties.getChannel(), payload('P', cacheName, key));
+    }
+
+    /**
+     * Gives up this instance's lease after a failed computation, waking the waiters.
+     */
+    public void release(String cacheName, String key) {
+        jdbcTemplate.update("""
+                UPDATE shared_cache SET lease_owner = NULL, lease_expires_at = NULL
+                WHERE cache_name = ? AND cache_key = ? AND lease_owner = ?
+                """, cacheName, key, nodeId);
+        notify(payload('R', cacheName, key));
+    }
+
+    public void delete(String cacheName, String key) {
+        jdbcTemplate.update("DELETE FROM shared_cache WHERE cache_name = ? AND cache_key = ?", cacheName, key);
+        notify(payload('E', cacheName, key));
+    }
+
+    public void deleteAll(String cacheName) {
+        jdbcTemplate.update("DELETE FROM shared_cache WHERE cache_name = ?", cacheName);
+        notify(payload('C', cacheName, null));
+    }
+
+    /**
+     * Completes when another instance writes, evicts or releases the key (or clears its
+     * cache). Register before checking the table so a notification in between is not missed.
+     */
+    public CompletableFuture<Void> changeOf(String cacheName, String key) {
+        return waiters.computeIfAbsent(waiterKey(cacheName, key), k -> new CompletableFuture<>());
+    }
+
+    /**
+     * Waits for {@code change} (from {@link #changeOf}, possibly combined with a cancellation)
+     * up to the poll interval, and never past {@code deadlineNanos}; false on timeout.
+     */
+    public boolean await(CompletableFuture<?> change, long deadlineNanos) throws InterruptedException {
+        long timeoutNanos = Math.min(properties.getPollInterval().toNanos(), deadlineNanos - System.nanoTime());
+        if (timeoutNanos <= 0) {
+            return false;
+        }
+        try {
+            change.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (CancellationException e) {
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    public void stopWaiting(String cacheName, String key, CompletableFuture<Void> change) {
+        waiters.remove(waiterKey(cacheName, key), change);
+    }
+
+    public Duration lease() {
+        return properties.getLease();
+    }
+
+    public void recordError(String operation, RuntimeException e) {
+        errors.increment();
+        log.warn("Shared cache {} failed, using the near cache only: {}", operation, e.getMessage());
+    }
+
+    @Scheduled(initialDelayString = "${cache.shared.cleanup-interval:PT1M}",
+            fixedDelayString = "${cache.shared.cleanup-interval:PT1M}")
+    public void deleteExpired() {
+        try {
+            jdbcTemplate.update("""
+                    DELETE FROM shared_cache
+                    WHERE (value IS NULL OR expires_at <= now())
+                      AND (lease_expires_at IS NULL OR lease_expires_at <= now())
+                    """);
+        } catch (RuntimeException e) {
+            recordError("cleanup", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        listenerThread.interrupt();
+        dataSource.close();
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, properties.getChannel(), payload);
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                if (reconnect) {
+                    listeners.forEach(Listener::reset);
+                    wakeAll(null);
+                }
+                reconnect = true;
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Shared cache listener disconnected, retrying: {}", e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Payload is {@code node \t op \t cache [\t key]}; changes made here are skipped, the
+     * near cache having been updated directly.
+     */
+    private void dispatch(String payload) {
+        String[] parts = payload.split("\t", 4);
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        char op = parts[1].charAt(0);
+        String cacheName = parts[2];
+        if (op == 'C' || parts.length < 4) {
+            listeners.forEach(listener -> listener.cleared(cacheName));
+            wakeAll(cacheName);
+            return;
+        }
+        String key = parts[3];
+        if (op != 'R') {
+            listeners.forEach(listener -> listener.evicted(cacheName, key));
+        }
+        CompletableFuture<Void> waiter = waiters.remove(waiterKey(cacheName, key));
+        if (waiter != null) {
+            waiter.complete(null);
+        }
+    }
+
+    private void wakeAll(String cacheName) {
+        String prefix = cacheName == null ? "" : cacheName + '\0';
+        waiters.entrySet().removeIf(entry -> {
+            if (entry.getKey().startsWith(prefix)) {
+                entry.getValue().complete(null);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private String payload(char op, String cacheName, String key) {
+        String payload = nodeId + '\t' + op + '\t' + cacheName;
+        if (key == null) {
+            return payload;
+        }
+        payload = payload + '\t' + key;
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            return nodeId + "\tC\t" + cacheName;
+        }
+        return payload;
+    }
+
+    private static String waiterKey(String cacheName, String key) {
+        return cacheName + '\0' + key;
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,246 @@
+package com.toucanus.analytics_dashboard.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toucanus.analytics_dashboard.service.query.QueryContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A Caffeine near cache in front of the {@link SharedCacheStore}. Keys are stored by their
+ * string form. On a near miss ({@code @Cacheable(sync = true)} or {@code get(key, loader)})
+ * the shared value is used if live; otherwise one instance computes it under a lease while
+ * the others wait for it, each instance single-flighting its own callers through Caffeine.
+ * A wait is bounded by the calling request's deadline and ends when that request is cancelled.
+ * If the shared tier fails, the value is computed and kept in the near cache only.
+ */
+class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> near;
+    private final SharedCacheStore store;
+    private final ObjectMapper mapper;
+    private final Counter sharedHits;
+    private final Counter computed;
+    private final Counter waited;
+    private final Counter fallbacks;
+
+    TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> near,
+                  SharedCacheStore store, ObjectMapper mapper, MeterRegistry meterRegistry) {
+        super(true);
+        this.name = name;
+        this.near = near;
+        this.store = store;
+        this.mapper = mapper;
+        this.sharedHits = outcome(meterRegistry, "hit");
+        this.computed = outcome(meterRegistry, "computed");
+        this.waited = outcome(meterRegistry, "waited");
+        this.fallbacks = outcome(meterRegistry, "fallback");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return near;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String k = String.valueOf(key);
+        Object value = near.getIfPresent(k);
+        if (value != null) {
+            return value;
+        }
+        try {
+            value = readShared(k);
+        } catch (RuntimeException e) {
+            store.recordError("read", e);
+            return null;
+        }
+        if (value != null) {
+            sharedHits.increment();
+            near.put(k, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) fromStoreValue(near.get(String.valueOf(key), k -> load((String) k, valueLoader)));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String k = String.valueOf(key);
+        Object storeValue = toStoreValue(value);
+        near.put(k, storeValue);
+        try {
+            writeShared(k, storeValue);
+        } catch (RuntimeException e) {
+            store.recordError("write", e);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        String k = String.valueOf(key);
+        near.invalidate(k);
+        try {
+            store.delete(name, k);
+        } catch (RuntimeException e) {
+            store.recordError("evict", e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        near.invalidateAll();
+        try {
+            store.deleteAll(name);
+        } catch (RuntimeException e) {
+            store.recordError("clear", e);
+        }
+    }
+
+    void evictNear(String key) {
+        near.invalidate(key);
+    }
+
+    void clearNear() {
+        near.invalidateAll();
+    }
+
+    /**
+     * Runs inside Caffeine's compute and usually inside a lane's transaction, which may
+     * already hold a permit and connection, so a request only waits for another instance
+     * for half of its remaining statement timeout, leaving the rest to compute locally, and
+     * stops waiting as soon as it is cancelled.
+     */
+    private Object load(String key, Callable<?> valueLoader) {
+        QueryContext query = QueryContext.current();
+        long deadline = System.nanoTime() + (query != null
+                ? Math.min(2 * store.lease().toNanos(), Math.max(0, query.remainingNanos() / 2))
+                : 2 * store.lease().toNanos());
+        boolean waiting = false;
+        boolean leased = false;
+        try {
+            while (!leased && System.nanoTime() < deadline) {
+                CompletableFuture<Void> change = store.changeOf(name, key);
+                try {
+                    Object value = readShared(key);
+                    if (value != null) {
+                        (waiting ? waited : sharedHits).increment();
+                        return value;
+                    }
+                    leased = store.tryLease(name, key);
+                    if (!leased) {
+                        store.await(query != null ? CompletableFuture.anyOf(change, query.future()) : change,
+                                deadline);
+                        waiting = true;
+                        if (query != null && query.isCancelled()) {
+                            throw new CancellationException("Cancelled while waiting for " + name + " entry " + key);
+                        }
+                    }
+                } finally {
+                    store.stopWaiting(name, key, change);
+                }
+            }
+        } catch (CancellationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            store.recordError("load", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (leased) {
+            return compute(key, valueLoader);
+        }
+        fallbacks.increment();
+        return toStoreValue(call(key, valueLoader));
+    }
+
+    private Object compute(String key, Callable<?> valueLoader) {
+        Object value;
+        try {
+            value = toStoreValue(call(key, valueLoader));
+        } catch (RuntimeException e) {
+            release(key);
+            throw e;
+        }
+        computed.increment();
+        try {
+            writeShared(key, value);
+        } catch (RuntimeException e) {
+            store.recordError("write", e);
+            release(key);
+        }
+        return value;
+    }
+
+    private void release(String key) {
+        try {
+            store.release(name, key);
+        } catch (RuntimeException e) {
+            store.recordError("release", e);
+        }
+    }
+
+    /**
+     * Null results are kept in the near cache only; the lease is released instead.
+     */
+    private void writeShared(String key, Object storeValue) {
+        if (storeValue == NullValue.INSTANCE) {
+            store.release(name, key);
+            return;
+        }
+        byte[] bytes;
+        try {
+            bytes = mapper.writeValueAsBytes(storeValue);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize " + storeValue.getClass().getName(), e);
+        }
+        store.write(name, key, bytes);
+    }
+
+    private Object readShared(String key) {
+        byte[] bytes = store.read(name, key);
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(bytes, Object.class);
+        } catch (IOException e) {
+            // e.g. written by an instance running different DTO classes
+            throw new IllegalStateException("Cannot deserialize " + name + " entry " + key, e);
+        }
+    }
+
+    private static Object call(String key, Callable<?> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cache.shared.requests")
+                .description("Near-cache misses by how the value was obtained")
+                .tag("cache", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
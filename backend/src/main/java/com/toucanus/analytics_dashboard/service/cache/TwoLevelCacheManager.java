@@ -0,0 +1,88 @@
+package com.toucanus.analytics_dashboard.service.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the Caffeine caches of a {@link CaffeineCacheManager} as near caches of a
+ * {@link SharedCacheStore}, and applies other instances' changes to them.
+ * <p>
+ * Values are stored as JSON with their class names, restricted to this application's DTOs
+ * and JDK value types.
+ */
+public class TwoLevelCacheManager implements CacheManager, SharedCacheStore.Listener {
+
+    private final CaffeineCacheManager nearCaches;
+    private final SharedCacheStore store;
+    private final ObjectMapper mapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CaffeineCacheManager nearCaches, SharedCacheStore store,
+                                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.nearCaches = nearCaches;
+        this.store = store;
+        this.meterRegistry = meterRegistry;
+        this.mapper = objectMapper.copy().activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder()
+                        .allowIfSubType("com.toucanus.analytics_dashboard.")
+                        .allowIfSubType("java.util.")
+                        .allowIfSubType("java.math.")
+                        .allowIfSubType("java.time.")
+                        .build(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        store.addListener(this);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        if (!(nearCaches.getCache(name) instanceof CaffeineCache near)) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> {
+            CaffeineCacheMetrics.monitor(meterRegistry, near.getNativeCache(), n);
+            return new TwoLevelCache(n, near.getNativeCache(), store, mapper, meterRegistry);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return nearCaches.getCacheNames();
+    }
+
+    @Override
+    public void evicted(String cacheName, String key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictNear(key);
+        }
+    }
+
+    @Override
+    public void cleared(String cacheName) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearNear();
+        }
+    }
+
+    @Override
+    public void reset() {
+        caches.values().forEach(TwoLevelCache::clearNear);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Two-level caching: per-instance Caffeine caches in front of a table shared by all instances.
+ */
+package com.toucanus.analytics_dashboard.service.cache;
@@ -0,0 +1,97 @@
+package com.toucanus.analytics_dashboard.service.cohort;
+
+import com.toucanus.analytics_dashboard.dto.cohort.ActiveUsersDTO;
+import com.toucanus.analytics_dashboard.dto.cohort.RetentionCohortDTO;
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cohort retention and DAU/WAU/MAU from the daily activity bitmaps. Every matrix cell is
+ * an intersection cardinality, so no query against transactions is needed.
+ */
+@Service
+@RequiredArgsConstructor
+public class CohortService {
+
+    private final UserActivityIndex activityIndex;
+    private final UserRepository userRepository;
+
+    /**
+     * Weekly signup cohorts (weeks start on Monday) ending with the week containing endDate.
+     *
+     * @param endDate the last day considered; defaults to today if null
+     * @param weeks   number of cohorts (and of follow-up weeks for the oldest one)
+     */
+    @Cacheable(value = "cohortRetention", key = "#endDate?.toString() + '-' + #weeks", sync = true)
+    public List<RetentionCohortDTO> getRetention(LocalDate endDate, int weeks) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        LocalDate lastWeekStart = endDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate firstWeekStart = lastWeekStart.minusWeeks(weeks - 1L);
+
+        // Active users per calendar week, shared by all cohorts
+        List<UserBitmap> activeByWeek = new ArrayList<>(weeks);
+        for (int w = 0; w < weeks; w++) {
+            LocalDate weekStart = firstWeekStart.plusWeeks(w);
+            LocalDate weekEnd = weekStart.plusDays(6).isAfter(endDate) ? endDate : weekStart.plusDays(6);
+            activeByWeek.add(activityIndex.union(weekStart, weekEnd));
+        }
+
+        List<RetentionCohortDTO> cohorts = new ArrayList<>(weeks);
+        for (int c = 0; c < weeks; c++) {
+            LocalDate cohortStart = firstWeekStart.plusWeeks(c);
+            UserBitmap cohort = new UserBitmap();
+            for (Long userId : userRepository.selectIdsCreatedInRange(
+                    cohortStart.atStartOfDay(), cohortStart.plusWeeks(1).atStartOfDay())) {
+                cohort.add(userId);
+            }
+            long size = cohort.cardinality();
+
+            List<Long> active = new ArrayList<>();
+            List<Double> retention = new ArrayList<>();
+            for (int w = c; w < weeks; w++) {
+                long count = cohort.andCardinality(activeByWeek.get(w));
+                active.add(count);
+                retention.add(size == 0 ? 0.0 : count * 100.0 / size);
+            }
+            cohorts.add(new RetentionCohortDTO(cohortStart, size, active, retention));
+        }
+        return cohorts;
+    }
+
+    /**
+     * @param startDate the start date (inclusive); defaults to 29 days before endDate if null
+     * @param endDate   the end date (inclusive); defaults to today if null
+     */
+    @Cacheable(value = "activeUsers",
+            key = "#startDate?.toString() + '-' + #endDate?.toString()", sync = true)
+    public List<ActiveUsersDTO> getActiveUsers(LocalDate startDate, LocalDate endDate) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(29);
+        }
+        if (startDate.isBefore(activityIndex.horizonStart())) {
+            startDate = activityIndex.horizonStart();
+        }
+
+        List<ActiveUsersDTO> result = new ArrayList<>();
+        for (LocalDate d = startDate; !d.isAfter(endDate); d = d.plusDays(1)) {
+            result.add(new ActiveUsersDTO(d,
+                    activityIndex.get(d).cardinality(),
+                    activityIndex.union(d.minusDays(6), d).cardinality(),
+                    activityIndex.union(d.minusDays(29), d).cardinality()));
+        }
+        return result;
+    }
+}
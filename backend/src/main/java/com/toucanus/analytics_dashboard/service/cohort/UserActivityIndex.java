@@ -0,0 +1,214 @@
+package com.toucanus.analytics_dashboard.service.cohort;
+
+import com.toucanus.analytics_dashboard.entity.UserActivityBitmap;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.repository.UserActivityBitmapRepository;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEvent;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEventListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link UserBitmap} of active user ids per day, kept in memory for
+ * {@code cohorts.horizon-days} and persisted to {@code user_activity_bitmaps}.
+ * <p>
+ * Closed days are built once from the transactions table and marked complete. Today and
+ * yesterday are "live": they are updated from the transaction feed, and today is also
+ * rebuilt from the table on every backfill; since bitmaps are sets, overlap between the two
+ * sources is harmless. Live bitmaps are guarded by their own monitor and handed to readers
+ * as copies. Closed-day bitmaps are handed out as they are, so merges never mutate a
+ * published bitmap: they publish a new one in its place.
+ */
+@Slf4j
+@Service
+public class UserActivityIndex implements TransactionEventListener {
+
+    private final TransactionRepository transactionRepository;
+    private final UserActivityBitmapRepository bitmapRepository;
+    private final int horizonDays;
+
+    private final Map<LocalDate, UserBitmap> days = new ConcurrentHashMap<>();
+    private final Set<LocalDate> completeDays = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    public UserActivityIndex(TransactionRepository transactionRepository,
+                             UserActivityBitmapRepository bitmapRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${cohorts.horizon-days:400}") int horizonDays) {
+        this.transactionRepository = transactionRepository;
+        this.bitmapRepository = bitmapRepository;
+        this.horizonDays = horizonDays;
+        Gauge.builder("cohort.bitmap.bytes", this, UserActivityIndex::sizeInBytes)
+                .description("Approximate heap used by daily activity bitmaps")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onTransaction(TransactionEvent event) {
+        LocalDate day = event.createdAt().toLocalDate();
+        if (day.isBefore(LocalDate.now().minusDays(1))) {
+            return; // closed days are rebuilt from the table
+        }
+        while (true) {
+            UserBitmap bitmap = days.computeIfAbsent(day, d -> new UserBitmap());
+            synchronized (bitmap) {
+                // A merge may have replaced it meanwhile; add to the current one
+                if (days.get(day) == bitmap) {
+                    bitmap.add(event.userId());
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Active users on {@code day}; an empty bitmap if the day is outside the horizon.
+     * The result must not be mutated.
+     */
+    public UserBitmap get(LocalDate day) {
+        UserBitmap bitmap = days.get(day);
+        if (bitmap == null) {
+            return new UserBitmap();
+        }
+        if (isLive(day)) {
+            synchronized (bitmap) {
+                return bitmap.copy();
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Union of the active users over [start, end].
+     */
+    public UserBitmap union(LocalDate start, LocalDate end) {
+        UserBitmap result = new UserBitmap();
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            result.or(get(d));
+        }
+        return result;
+    }
+
+    public LocalDate horizonStart() {
+        return LocalDate.now().minusDays(horizonDays);
+    }
+
+    /**
+     * Marks the closed days in [start, end] incomplete so that the next backfill rebuilds
+     * them from the table, e.g. after rows were added to them.
+     */
+    public void invalidate(LocalDate start, LocalDate end) {
+        completeDays.removeIf(day -> !day.isBefore(start) && !day.isAfter(end));
+    }
+
+    /**
+     * Loads persisted bitmaps, then builds any missing or incomplete day in the horizon.
+     */
+    @Scheduled(initialDelayString = "${cohorts.backfill-initial-delay:PT10S}",
+            fixedDelayString = "${cohorts.backfill-interval:PT1H}")
+    public void backfill() {
+        LocalDate today = LocalDate.now();
+        LocalDate horizonStart = horizonStart();
+        if (!loaded) {
+            for (UserActivityBitmap stored : bitmapRepository.findByDayGreaterThanEqual(horizonStart)) {
+                merge(stored.getDay(), UserBitmap.deserialize(stored.getBitmap()));
+                if (stored.isComplete()) {
+                    completeDays.add(stored.getDay());
+                }
+            }
+            loaded = true;
+        }
+
+        days.keySet().removeIf(day -> day.isBefore(horizonStart));
+        completeDays.removeIf(day -> day.isBefore(horizonStart));
+
+        for (LocalDate day = horizonStart; !day.isAfter(today); day = day.plusDays(1)) {
+            boolean closed = day.isBefore(today);
+            if (closed && completeDays.contains(day)) {
+                continue;
+            }
+            UserBitmap merged = merge(day, build(day));
+            if (closed) {
+                completeDays.add(day);
+            }
+            persist(day, merged, closed);
+        }
+        log.debug("Activity bitmaps ready for {} days", days.size());
+    }
+
+    /**
+     * Persists the live days so a restart does not need to rebuild them.
+     */
+    @Scheduled(fixedDelayString = "${cohorts.flush-interval:PT5M}")
+    public void flushLiveDays() {
+        LocalDate today = LocalDate.now();
+        for (LocalDate day : new LocalDate[] { today.minusDays(1), today }) {
+            UserBitmap bitmap = days.get(day);
+            if (bitmap != null) {
+                persist(day, bitmap, completeDays.contains(day));
+            }
+        }
+    }
+
+    /**
+     * Publishes {@code fresh} united with the day's current bitmap, which is left untouched
+     * for the readers holding it. Done under the current bitmap's monitor, so a feed update
+     * either lands in it before the union or sees the replacement and retries on that.
+     */
+    private UserBitmap merge(LocalDate day, UserBitmap fresh) {
+        while (true) {
+            UserBitmap current = days.putIfAbsent(day, fresh);
+            if (current == null) {
+                return fresh;
+            }
+            synchronized (current) {
+                if (days.get(day) == current) {
+                    fresh.or(current);
+                    days.put(day, fresh);
+                    return fresh;
+                }
+            }
+        }
+    }
+
+    private UserBitmap build(LocalDate day) {
+        UserBitmap bitmap = new UserBitmap();
+        for (Long userId : transactionRepository.selectDistinctUserIdsInRange(
+                day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+            bitmap.add(userId);
+        }
+        return bitmap;
+    }
+
+    private void persist(LocalDate day, UserBitmap bitmap, boolean complete) {
+        byte[] bytes;
+        synchronized (bitmap) {
+            bytes = bitmap.serialize();
+        }
+        bitmapRepository.save(new UserActivityBitmap(day, bytes, complete, LocalDateTime.now()));
+    }
+
+    private boolean isLive(LocalDate day) {
+        return !day.isBefore(LocalDate.now().minusDays(1));
+    }
+
+    private double sizeInBytes() {
+        long total = 0;
+        for (UserBitmap bitmap : days.values()) {
+            synchronized (bitmap) {
+                total += bitmap.sizeInBytes();
+            }
+        }
+        return total;
+    }
+}
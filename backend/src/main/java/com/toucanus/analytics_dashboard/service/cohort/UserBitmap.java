@@ -0,0 +1,341 @@
+package com.toucanus.analytics_dashboard.service.cohort;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative int user ids, in the style of a Roaring bitmap.
+ * <p>
+ * Ids are split by their high 16 bits into containers; a container holds the low 16 bits
+ * either as a sorted {@code char[]} (up to 4096 values) or as a 65536-bit {@code long[]}
+ * bitmap. Intersections only count (no materialization), which is all cohort cells need.
+ * Not thread-safe: mutate from one thread and hand readers a {@link #copy()}.
+ */
+public final class UserBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final byte TYPE_ARRAY = 0;
+    private static final byte TYPE_BITMAP = 1;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    public void add(long userId) {
+        if (userId < 0 || userId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("User id out of bitmap range: " + userId);
+        }
+        int id = (int) userId;
+        char high = (char) (id >>> 16);
+        char low = (char) id;
+        int idx = Arrays.binarySearch(keys, 0, size, high);
+        if (idx < 0) {
+            idx = -idx - 1;
+            insertContainer(idx, high, new ArrayContainer());
+        }
+        containers[idx] = containers[idx].add(low);
+    }
+
+    public long cardinality() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality;
+        }
+        return total;
+    }
+
+    /**
+     * |this ∩ other| without building the intersection.
+     */
+    public long andCardinality(UserBitmap other) {
+        long total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Union into this bitmap.
+     */
+    public void or(UserBitmap other) {
+        for (int j = 0; j < other.size; j++) {
+            char key = other.keys[j];
+            int idx = Arrays.binarySearch(keys, 0, size, key);
+            if (idx < 0) {
+                insertContainer(-idx - 1, key, other.containers[j].copy());
+            } else {
+                containers[idx] = containers[idx].or(other.containers[j]);
+            }
+        }
+    }
+
+    public UserBitmap copy() {
+        UserBitmap copy = new UserBitmap();
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.containers = new Container[size];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Approximate heap footprint in bytes.
+     */
+    public long sizeInBytes() {
+        long bytes = 16L + keys.length * 2L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i] instanceof BitmapContainer ? BITMAP_WORDS * 8L : containers[i].cardinality * 2L;
+        }
+        return bytes;
+    }
+
+    /**
+     * Format: [int containers] then per container [char key][byte type][int cardinality][payload].
+     */
+    public byte[] serialize() {
+        int length = 4;
+        for (int i = 0; i < size; i++) {
+            length += 7 + (containers[i] instanceof BitmapContainer ? BITMAP_WORDS * 8 : containers[i].cardinality * 2);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putChar(keys[i]);
+            Container container = containers[i];
+            if (container instanceof BitmapContainer bitmap) {
+                buffer.put(TYPE_BITMAP).putInt(bitmap.cardinality);
+                for (long word : bitmap.words) {
+                    buffer.putLong(word);
+                }
+            } else {
+                ArrayContainer array = (ArrayContainer) container;
+                buffer.put(TYPE_ARRAY).putInt(array.cardinality);
+                for (int k = 0; k < array.cardinality; k++) {
+                    buffer.putChar(array.values[k]);
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    public static UserBitmap deserialize(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        UserBitmap bitmap = new UserBitmap();
+        int count = buffer.getInt();
+        bitmap.keys = new char[count];
+        bitmap.containers = new Container[count];
+        for (int i = 0; i < count; i++) {
+            bitmap.keys[i] = buffer.getChar();
+            byte type = buffer.get();
+            int cardinality = buffer.getInt();
+            if (type == TYPE_BITMAP) {
+                long[] words = new long[BITMAP_WORDS];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] = buffer.getLong();
+                }
+                bitmap.containers[i] = new BitmapContainer(words, cardinality);
+            } else {
+                char[] values = new char[cardinality];
+                for (int k = 0; k < cardinality; k++) {
+                    values[k] = buffer.getChar();
+                }
+                bitmap.containers[i] = new ArrayContainer(values, cardinality);
+            }
+        }
+        bitmap.size = count;
+        return bitmap;
+    }
+
+    private void insertContainer(int idx, char key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, idx, keys, idx + 1, size - idx);
+        System.arraycopy(containers, idx, containers, idx + 1, size - idx);
+        keys[idx] = key;
+        containers[idx] = container;
+        size++;
+    }
+
+    private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+
+        int cardinality;
+
+        abstract Container add(char value);
+
+        abstract boolean contains(char value);
+
+        abstract long andCardinality(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+
+        ArrayContainer() {
+            this.values = new char[4];
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int idx = Arrays.binarySearch(values, 0, cardinality, value);
+            if (idx >= 0) {
+                return this;
+            }
+            if (cardinality >= ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            idx = -idx - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+            }
+            System.arraycopy(values, idx, values, idx + 1, cardinality - idx);
+            values[idx] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        long andCardinality(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.andCardinality(this);
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            long count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < that.cardinality) {
+                if (values[i] < that.values[j]) {
+                    i++;
+                } else if (values[i] > that.values[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            Container result = other instanceof BitmapContainer ? other.copy() : this;
+            ArrayContainer source = result == this ? (ArrayContainer) other : this;
+            for (int k = 0; k < source.cardinality; k++) {
+                result = result.add(source.values[k]);
+            }
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 4)), cardinality);
+        }
+
+        private BitmapContainer toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int k = 0; k < cardinality; k++) {
+                words[values[k] >>> 6] |= 1L << values[k];
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int w = value >>> 6;
+            long bit = 1L << value;
+            if ((words[w] & bit) == 0) {
+                words[w] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        long andCardinality(Container other) {
+            long count = 0;
+            if (other instanceof BitmapContainer that) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    count += Long.bitCount(words[w] & that.words[w]);
+                }
+            } else {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int k = 0; k < that.cardinality; k++) {
+                    if (contains(that.values[k])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer that) {
+                int count = 0;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] |= that.words[w];
+                    count += Long.bitCount(words[w]);
+                }
+                cardinality = count;
+                return this;
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            for (int k = 0; k < that.cardinality; k++) {
+                add(that.values[k]);
+            }
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(Arrays.copyOf(words, BITMAP_WORDS), cardinality);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Bitmap-based user activity, cohort retention and active-user analytics.
+ */
+package com.toucanus.analytics_dashboard.service.cohort;
@@ -1,9 +1,14 @@
 package com.toucanus.analytics_dashboard.service.graph;
 
+import com.toucanus.analytics_dashboard.dto.graph.DailyComparisonDTO;
 import com.toucanus.analytics_dashboard.dto.graph.DailyStatusDTO;
 import com.toucanus.analytics_dashboard.dto.graph.HourlyStatDTO;
 import com.toucanus.analytics_dashboard.dto.graph.PaymentStatDTO;
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
 import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.service.Comparisons;
+import com.toucanus.analytics_dashboard.service.DateRange;
+import com.toucanus.analytics_dashboard.service.zone.QuarterHourBuckets;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -12,6 +17,7 @@ import java.math.BigDecimal;
 import java.sql.Date;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -25,14 +31,17 @@ import java.util.Map;
 public class GraphAnalyticsService {
 
     private final TransactionRepository transactionRepository;
+    private final QuarterHourBuckets quarterHourBuckets;
 
     /**
-     * Payment method distribution chart.
+     * Payment method distribution chart. This and the other charts without a zone read the
+     * quarter-hour buckets in the server zone for ranges they cover.
      *
      * @param startDate the start date (inclusive); defaults to 30 days ago if null
      * @param endDate   the end date (inclusive); defaults to today if null
      */
-    @Cacheable(value = "paymentStats", key = "#startDate?.toString() + '-' + #endDate?.toString()")
+    @Cacheable(value = "paymentStats",
+            key = "#startDate?.toString() + '-' + #endDate?.toString()", sync = true)
     public List<PaymentStatDTO> getPaymentStats(LocalDate startDate, LocalDate endDate) {
         if (endDate == null) {
             endDate = LocalDate.now();
@@ -40,11 +49,50 @@ public class GraphAnalyticsService {
         if (startDate == null) {
             startDate = endDate.minusDays(30);
         }
+        if (quarterHourBuckets.covers(startDate, endDate)) {
+            return getPaymentStats(startDate, endDate, quarterHourBuckets.storageZone());
+        }
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
         return transactionRepository.selectPaymentMethodStatsInRange(startDateTime, endDateTime);
     }
 
+    /**
+     * Payment method distribution for local days in {@code zone}.
+     *
+     * @param startDate the start date (inclusive); defaults to 30 days ago if null
+     * @param endDate   the end date (inclusive); defaults to today in {@code zone} if null
+     */
+    @Cacheable(value = "paymentStats",
+            key = "#startDate?.toString() + '-' + #endDate?.toString() + '-' + #zone.id", sync = true)
+    public List<PaymentStatDTO> getPaymentStats(LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        if (endDate == null) {
+            endDate = LocalDate.now(zone);
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(30);
+        }
+        return quarterHourBuckets.paymentMethodStats(startDate, endDate, zone);
+    }
+
+    /**
+     * Payment method distribution for one merchant; not cached here (see
+     * {@code MerchantAnalyticsService}).
+     *
+     * @param startDate the start date (inclusive); defaults to 30 days ago if null
+     * @param endDate   the end date (inclusive); defaults to today if null
+     */
+    public List<PaymentStatDTO> getMerchantPaymentStats(long merchantId, LocalDate startDate, LocalDate endDate) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(30);
+        }
+        return transactionRepository.selectMerchantPaymentMethodStats(merchantId,
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+    }
+
     /**
      * Stacked bar chart: daily counts for SUCCESS, FAILED, PENDING.
      *
@@ -52,7 +100,8 @@ public class GraphAnalyticsService {
      *                  endDate if null
      * @param endDate   the end date (inclusive); defaults to today if null
      */
-    @Cacheable(value = "dailyAnalytics", key = "#startDate?.toString() + '-' + #endDate?.toString()")
+    @Cacheable(value = "dailyAnalytics",
+            key = "#startDate?.toString() + '-' + #endDate?.toString()", sync = true)
     public List<DailyStatusDTO> getDailyStatusStats(LocalDate startDate, LocalDate endDate) {
         if (endDate == null) {
             endDate = LocalDate.now();
@@ -60,15 +109,59 @@ public class GraphAnalyticsService {
         if (startDate == null) {
             startDate = endDate.minusDays(6);
         }
-
-        // Calculate the number of days in the range
-        long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate);
+        if (quarterHourBuckets.covers(startDate, endDate)) {
+            return getDailyStatusStats(startDate, endDate, quarterHourBuckets.storageZone());
+        }
 
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
 
         // Single optimized query that returns all data at once
         List<Object[]> rows = transactionRepository.selectOptimizedDailyStats(startDateTime, endDateTime);
+        return toDailySeries(startDate, endDate, rows);
+    }
+
+    /**
+     * Stacked bar chart over local days in {@code zone}; DST days are 23 or 25 hours long.
+     *
+     * @param startDate the start date (inclusive); defaults to 7 days before
+     *                  endDate if null
+     * @param endDate   the end date (inclusive); defaults to today in {@code zone} if null
+     */
+    @Cacheable(value = "dailyAnalytics",
+            key = "#startDate?.toString() + '-' + #endDate?.toString() + '-' + #zone.id", sync = true)
+    public List<DailyStatusDTO> getDailyStatusStats(LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        if (endDate == null) {
+            endDate = LocalDate.now(zone);
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(6);
+        }
+        return toDailySeries(startDate, endDate, quarterHourBuckets.dailyStats(startDate, endDate, zone));
+    }
+
+    /**
+     * Daily series for one merchant; not cached here (see {@code MerchantAnalyticsService}).
+     *
+     * @param startDate the start date (inclusive); defaults to 7 days before
+     *                  endDate if null
+     * @param endDate   the end date (inclusive); defaults to today if null
+     */
+    public List<DailyStatusDTO> getMerchantDailyStatusStats(long merchantId, LocalDate startDate, LocalDate endDate) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(6);
+        }
+        List<Object[]> rows = transactionRepository.selectMerchantDailyStats(merchantId,
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+        return toDailySeries(startDate, endDate, rows);
+    }
+
+    private List<DailyStatusDTO> toDailySeries(LocalDate startDate, LocalDate endDate, List<Object[]> rows) {
+        // Calculate the number of days in the range
+        long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate);
 
         // Build a map day -> DailyStatusDTO
         Map<LocalDate, DailyStatusDTO> map = new LinkedHashMap<>();
@@ -76,7 +169,7 @@ public class GraphAnalyticsService {
         // Pre-fill all days in the range with zero counts
         for (long i = daysBetween; i >= 0; i--) {
             LocalDate d = endDate.minusDays(i);
-            map.put(d, new DailyStatusDTO(d, 0L, 0L, 0L, BigDecimal.ZERO, 0L));
+            map.put(d, new DailyStatusDTO(d, 0L, 0L, 0L, BigDecimal.ZERO, 0L, null));
         }
 
         // Parse optimized query results: [date, txnCount, totalAmount, successCount,
@@ -87,23 +180,125 @@ public class GraphAnalyticsService {
             if (dto == null)
                 continue;
 
-            dto.setTxnCount(((Number) row[1]).longValue());
-            dto.setTotalAmount(row[2] instanceof BigDecimal bd ? bd : new BigDecimal(row[2].toString()));
-            dto.setSuccessCount(((Number) row[3]).longValue());
-            dto.setFailedCount(((Number) row[4]).longValue());
-            dto.setPendingCount(((Number) row[5]).longValue());
+            applyDailyRow(dto, row);
         }
 
         return new ArrayList<>(map.values());
     }
 
+    /**
+     * Daily series for a date range and its comparison range, both from one scan.
+     *
+     * @param startDate the start date (inclusive); defaults to 7 days before
+     *                  endDate if null
+     * @param endDate   the end date (inclusive); defaults to today if null
+     * @param compareTo which range to compare against; defaults to the previous
+     *                  period of equal length
+     */
+    @Cacheable(value = "dailyComparison",
+            key = "#startDate?.toString() + '-' + #endDate?.toString() + '-' + #compareTo", sync = true)
+    public DailyComparisonDTO getDailyStatusComparison(LocalDate startDate, LocalDate endDate,
+                                                       ComparisonPeriod compareTo) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(6);
+        }
+        if (compareTo == null) {
+            compareTo = ComparisonPeriod.PREVIOUS_PERIOD;
+        }
+        DateRange range = new DateRange(startDate, endDate);
+        DateRange previousRange = range.previous(compareTo);
+        if (quarterHourBuckets.covers(range.start(), range.end())
+                && quarterHourBuckets.covers(previousRange.start(), previousRange.end())) {
+            return getDailyStatusComparison(startDate, endDate, compareTo, quarterHourBuckets.storageZone());
+        }
+
+        List<Object[]> rows = transactionRepository.selectOptimizedDailyStatsForPeriods(
+                range.startDateTime(), range.endDateTime(),
+                previousRange.startDateTime(), previousRange.endDateTime());
+        return toComparison(compareTo, range, previousRange, rows);
+    }
+
+    /**
+     * Daily series for a range of local days in {@code zone} and its comparison range.
+     *
+     * @param startDate the start date (inclusive); defaults to 7 days before
+     *                  endDate if null
+     * @param endDate   the end date (inclusive); defaults to today in {@code zone} if null
+     * @param compareTo which range to compare against; defaults to the previous
+     *                  period of equal length
+     */
+    @Cacheable(value = "dailyComparison",
+            key = "#startDate?.toString() + '-' + #endDate?.toString() + '-' + #compareTo + '-' + #zone.id",
+            sync = true)
+    public DailyComparisonDTO getDailyStatusComparison(LocalDate startDate, LocalDate endDate,
+                                                       ComparisonPeriod compareTo, ZoneId zone) {
+        if (endDate == null) {
+            endDate = LocalDate.now(zone);
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(6);
+        }
+        if (compareTo == null) {
+            compareTo = ComparisonPeriod.PREVIOUS_PERIOD;
+        }
+        DateRange range = new DateRange(startDate, endDate);
+        DateRange previousRange = range.previous(compareTo);
+
+        List<Object[]> rows = new ArrayList<>(quarterHourBuckets.dailyStats(range.start(), range.end(), zone));
+        rows.addAll(quarterHourBuckets.dailyStats(previousRange.start(), previousRange.end(), zone));
+        return toComparison(compareTo, range, previousRange, rows);
+    }
+
+    /**
+     * Split daily rows between the two ranges and compare their totals.
+     */
+    private DailyComparisonDTO toComparison(ComparisonPeriod compareTo, DateRange range, DateRange previousRange,
+                                            List<Object[]> rows) {
+        Map<LocalDate, DailyStatusDTO> current = zeroFilledDays(range);
+        Map<LocalDate, DailyStatusDTO> previous = zeroFilledDays(previousRange);
+
+        // A day can belong to both periods when they overlap (e.g. PREVIOUS_WEEK on a long range)
+        for (Object[] row : rows) {
+            LocalDate day = parseLocalDate(row[0]);
+            if (current.containsKey(day)) {
+                applyDailyRow(current.get(day), row);
+            }
+            if (previous.containsKey(day)) {
+                applyDailyRow(previous.get(day), row);
+            }
+        }
+
+        DailyStatusDTO currentTotal = total(current.values());
+        DailyStatusDTO previousTotal = total(previous.values());
+        Map<String, BigDecimal> deltas = new LinkedHashMap<>();
+        Map<String, Double> percentChanges = new LinkedHashMap<>();
+        Comparisons.put(deltas, percentChanges, "txnCount", currentTotal.getTxnCount(), previousTotal.getTxnCount());
+        Comparisons.put(deltas, percentChanges, "totalAmount",
+                currentTotal.getTotalAmount(), previousTotal.getTotalAmount());
+        Comparisons.put(deltas, percentChanges, "successCount",
+                currentTotal.getSuccessCount(), previousTotal.getSuccessCount());
+        Comparisons.put(deltas, percentChanges, "failedCount",
+                currentTotal.getFailedCount(), previousTotal.getFailedCount());
+        Comparisons.put(deltas, percentChanges, "pendingCount",
+                currentTotal.getPendingCount(), previousTotal.getPendingCount());
+
+        return new DailyComparisonDTO(compareTo, range.start(), range.end(),
+                previousRange.start(), previousRange.end(),
+                new ArrayList<>(current.values()), new ArrayList<>(previous.values()),
+                deltas, percentChanges);
+    }
+
     /**
      * Hourly heatmap: counts per hour of day (0-23) for a date range.
      *
      * @param startDate the start date (inclusive); defaults to today if null
      * @param endDate   the end date (inclusive); defaults to today if null
      */
-    @Cacheable(value = "hourlyTraffic", key = "#startDate?.toString() + '-' + #endDate?.toString()")
+    @Cacheable(value = "hourlyTraffic",
+            key = "#startDate?.toString() + '-' + #endDate?.toString()", sync = true)
     public List<HourlyStatDTO> getHourlyTrafficStats(LocalDate startDate, LocalDate endDate) {
         if (endDate == null) {
             endDate = LocalDate.now();
@@ -111,17 +306,59 @@ public class GraphAnalyticsService {
         if (startDate == null) {
             startDate = endDate;
         }
+        if (quarterHourBuckets.covers(startDate, endDate)) {
+            return getHourlyTrafficStats(startDate, endDate, quarterHourBuckets.storageZone());
+        }
 
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
 
         // Single optimized query: [hour, successCount, failedCount, pendingCount]
         List<Object[]> rows = transactionRepository.selectOptimizedHourlyStats(startDateTime, endDateTime);
+        return toHourlySeries(rows);
+    }
 
+    /**
+     * Hourly heatmap by local hour of day in {@code zone}.
+     *
+     * @param startDate the start date (inclusive); defaults to today in {@code zone} if null
+     * @param endDate   the end date (inclusive); defaults to today in {@code zone} if null
+     */
+    @Cacheable(value = "hourlyTraffic",
+            key = "#startDate?.toString() + '-' + #endDate?.toString() + '-' + #zone.id", sync = true)
+    public List<HourlyStatDTO> getHourlyTrafficStats(LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        if (endDate == null) {
+            endDate = LocalDate.now(zone);
+        }
+        if (startDate == null) {
+            startDate = endDate;
+        }
+        return toHourlySeries(quarterHourBuckets.hourlyStats(startDate, endDate, zone));
+    }
+
+    /**
+     * Hourly heatmap for one merchant; not cached here (see {@code MerchantAnalyticsService}).
+     *
+     * @param startDate the start date (inclusive); defaults to today if null
+     * @param endDate   the end date (inclusive); defaults to today if null
+     */
+    public List<HourlyStatDTO> getMerchantHourlyTrafficStats(long merchantId, LocalDate startDate, LocalDate endDate) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate;
+        }
+        List<Object[]> rows = transactionRepository.selectMerchantHourlyStats(merchantId,
+                startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+        return toHourlySeries(rows);
+    }
+
+    private List<HourlyStatDTO> toHourlySeries(List<Object[]> rows) {
         // Pre-fill 0-23 with zero counts per status
         Map<Integer, HourlyStatDTO> hourMap = new LinkedHashMap<>();
         for (int h = 0; h < 24; h++) {
-            hourMap.put(h, new HourlyStatDTO(h, 0L, 0L, 0L));
+            hourMap.put(h, new HourlyStatDTO(h, 0L, 0L, 0L, null));
         }
 
         for (Object[] row : rows) {
@@ -137,6 +374,37 @@ public class GraphAnalyticsService {
         return new ArrayList<>(hourMap.values());
     }
 
+    private Map<LocalDate, DailyStatusDTO> zeroFilledDays(DateRange range) {
+        Map<LocalDate, DailyStatusDTO> map = new LinkedHashMap<>();
+        for (LocalDate d = range.start(); !d.isAfter(range.end()); d = d.plusDays(1)) {
+            map.put(d, new DailyStatusDTO(d, 0L, 0L, 0L, BigDecimal.ZERO, 0L, null));
+        }
+        return map;
+    }
+
+    /**
+     * Copy [date, txnCount, totalAmount, successCount, failedCount, pendingCount] into the DTO.
+     */
+    private void applyDailyRow(DailyStatusDTO dto, Object[] row) {
+        dto.setTxnCount(((Number) row[1]).longValue());
+        dto.setTotalAmount(row[2] instanceof BigDecimal bd ? bd : new BigDecimal(row[2].toString()));
+        dto.setSuccessCount(((Number) row[3]).longValue());
+        dto.setFailedCount(((Number) row[4]).longValue());
+        dto.setPendingCount(((Number) row[5]).longValue());
+    }
+
+    private DailyStatusDTO total(Iterable<DailyStatusDTO> days) {
+        DailyStatusDTO total = new DailyStatusDTO(null, 0L, 0L, 0L, BigDecimal.ZERO, 0L, null);
+        for (DailyStatusDTO day : days) {
+            total.setTxnCount(total.getTxnCount() + day.getTxnCount());
+            total.setTotalAmount(total.getTotalAmount().add(day.getTotalAmount()));
+            total.setSuccessCount(total.getSuccessCount() + day.getSuccessCount());
+            total.setFailedCount(total.getFailedCount() + day.getFailedCount());
+            total.setPendingCount(total.getPendingCount() + day.getPendingCount());
+        }
+        return total;
+    }
+
     private LocalDate parseLocalDate(Object obj) {
         if (obj instanceof LocalDate ld) {
             return ld;
@@ -0,0 +1,147 @@
+package com.toucanus.analytics_dashboard.service.merchant;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.toucanus.analytics_dashboard.config.MerchantCacheProperties;
+import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.dto.graph.DailyStatusDTO;
+import com.toucanus.analytics_dashboard.dto.graph.HourlyStatDTO;
+import com.toucanus.analytics_dashboard.dto.graph.PaymentStatDTO;
+import com.toucanus.analytics_dashboard.enums.Role;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.cache.SharedCacheStore;
+import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import com.toucanus.analytics_dashboard.service.user.UserDirectory;
+import com.toucanus.analytics_dashboard.service.user.UserDisplay;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Dashboard analytics for a single merchant (a user with the MERCHANT role).
+ * <p>
+ * Results are cached per merchant rather than in the shared Spring caches, whose 100
+ * entries a few busy merchants would churn through: each merchant gets a fair share of
+ * {@code merchant-cache.max-entries} and only evicts its own entries (see
+ * {@link TenantCache}).
+ * <p>
+ * The cache lives in each instance. With the shared tier enabled, {@link #invalidateAll()}
+ * is announced through the {@link SharedCacheStore} so other instances clear theirs too;
+ * otherwise they keep serving their copies until {@code merchant-cache.ttl} expires them.
+ */
+@Service
+public class MerchantAnalyticsService {
+
+    /**
+     * Name under which clears are announced; no entries are stored under it.
+     */
+    static final String SHARED_CACHE_NAME = "merchantAnalytics";
+
+    private final DashboardService dashboardService;
+    private final GraphAnalyticsService graphAnalyticsService;
+    private final UserDirectory userDirectory;
+    private final TenantCache<MerchantQuery, Object> cache;
+    private final SharedCacheStore sharedCacheStore;
+
+    public MerchantAnalyticsService(DashboardService dashboardService,
+                                    GraphAnalyticsService graphAnalyticsService,
+                                    UserDirectory userDirectory,
+                                    MerchantCacheProperties properties,
+                                    ObjectProvider<SharedCacheStore> sharedCacheStore,
+                                    MeterRegistry meterRegistry) {
+        this.dashboardService = dashboardService;
+        this.graphAnalyticsService = graphAnalyticsService;
+        this.userDirectory = userDirectory;
+        this.cache = new TenantCache<>(properties.getMaxEntries(), properties.getMaxTenants(),
+                properties.getMinEntriesPerTenant(), properties.getTtl(), Ticker.systemTicker());
+        FunctionCounter.builder("merchant.cache.requests", cache, TenantCache::hitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("merchant.cache.requests", cache, TenantCache::missCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("merchant.cache.tenants", cache, TenantCache::tenantCount)
+                .description("Merchants with cached analytics")
+                .register(meterRegistry);
+        Gauge.builder("merchant.cache.entries", cache, TenantCache::entryCount)
+                .description("Cached merchant analytics results")
+                .register(meterRegistry);
+        this.sharedCacheStore = sharedCacheStore.getIfAvailable();
+        if (this.sharedCacheStore != null) {
+            this.sharedCacheStore.addListener(new SharedCacheStore.Listener() {
+                @Override
+                public void evicted(String cacheName, String key) {
+                }
+
+                @Override
+                public void cleared(String cacheName) {
+                    if (SHARED_CACHE_NAME.equals(cacheName)) {
+                        cache.invalidateAll();
+                    }
+                }
+
+                @Override
+                public void reset() {
+                    cache.invalidateAll();
+                }
+            });
+        }
+    }
+
+    public boolean isMerchant(long merchantId) {
+        UserDisplay user = userDirectory.getAll(List.of(merchantId)).get(merchantId);
+        return user != null && user.role() == Role.MERCHANT;
+    }
+
+    public DashboardStatsDTO getDashboardStats(long merchantId, LocalDate startDate, LocalDate endDate) {
+        return cached(merchantId, new MerchantQuery("stats", startDate, endDate),
+                () -> dashboardService.getMerchantDashboardStats(merchantId, startDate, endDate));
+    }
+
+    public List<DailyStatusDTO> getDailyStatusStats(long merchantId, LocalDate startDate, LocalDate endDate) {
+        return cached(merchantId, new MerchantQuery("daily", startDate, endDate),
+                () -> graphAnalyticsService.getMerchantDailyStatusStats(merchantId, startDate, endDate));
+    }
+
+    public List<HourlyStatDTO> getHourlyTrafficStats(long merchantId, LocalDate startDate, LocalDate endDate) {
+        return cached(merchantId, new MerchantQuery("hourly", startDate, endDate),
+                () -> graphAnalyticsService.getMerchantHourlyTrafficStats(merchantId, startDate, endDate));
+    }
+
+    public List<PaymentStatDTO> getPaymentStats(long merchantId, LocalDate startDate, LocalDate endDate) {
+        return cached(merchantId, new MerchantQuery("payment-methods", startDate, endDate),
+                () -> graphAnalyticsService.getMerchantPaymentStats(merchantId, startDate, endDate));
+    }
+
+    /**
+     * Drops every merchant's cached results, e.g. after a bulk import, on every instance
+     * when the shared tier is enabled.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        if (sharedCacheStore != null) {
+            try {
+                sharedCacheStore.deleteAll(SHARED_CACHE_NAME);
+            } catch (RuntimeException e) {
+                sharedCacheStore.recordError("clear", e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(long merchantId, MerchantQuery query, Supplier<T> loader) {
+        return (T) cache.get(merchantId, query, q -> loader.get());
+    }
+
+    /**
+     * Cache key within a merchant's partition; null dates are kept as given, like the
+     * {@code @Cacheable} keys of the platform-wide endpoints.
+     */
+    private record MerchantQuery(String view, LocalDate startDate, LocalDate endDate) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.toucanus.analytics_dashboard.service.merchant;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache partitioned by tenant with fair eviction. Each tenant is entitled to an equal share
+ * of {@code maxEntries} (but never fewer than {@code minEntriesPerTenant}) and may borrow
+ * capacity other tenants leave unused. Once the cache is full, room is made by evicting the
+ * least recently used entries of tenants over their share, so a tenant cycling through many
+ * distinct queries gives up its borrowed entries first and cannot push others below their
+ * share. Tenants idle for the TTL are dropped whole, and beyond {@code maxTenants} Caffeine
+ * evicts partitions by its usual frequency policy.
+ */
+final class TenantCache<K, V> {
+
+    private final Cache<Long, Partition> partitions;
+    private final int maxEntries;
+    private final int minEntriesPerTenant;
+    private final long ttlNanos;
+    private final Ticker ticker;
+    private final AtomicLong entries = new AtomicLong();
+    private final Queue<Partition> overShare = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    TenantCache(int maxEntries, int maxTenants, int minEntriesPerTenant, Duration ttl, Ticker ticker) {
+        this.maxEntries = maxEntries;
+        this.minEntriesPerTenant = Math.max(1, minEntriesPerTenant);
+        this.ttlNanos = ttl.toNanos();
+        this.ticker = ticker;
+        this.partitions = Caffeine.newBuilder()
+                .maximumSize(maxTenants)
+                .expireAfterAccess(ttl)
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .<Long, Partition>removalListener((tenant, partition, cause) -> {
+                    if (partition != null) {
+                        partition.detach();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * The cached value for the tenant's key, loading it on a miss. Concurrent misses on
+     * the same key each load (as with {@code @Cacheable} without {@code sync}).
+     */
+    V get(long tenant, K key, Function<? super K, ? extends V> loader) {
+        Partition partition = partitions.get(tenant, id -> new Partition());
+        int share = share();
+        V value = partition.get(key, ticker.read(), share);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = loader.apply(key);
+        if (value != null) {
+            partition.put(key, value, ticker.read() + ttlNanos, share);
+            makeRoom(share);
+        }
+        return value;
+    }
+
+    /**
+     * Evicts from tenants over their share until the cache is back within
+     * {@code maxEntries}. When every tenant is within its share only the per-tenant floor
+     * can have pushed it over, and that overshoot is left alone.
+     */
+    private void makeRoom(int share) {
+        while (entries.get() > maxEntries) {
+            Partition victim = overShare.poll();
+            if (victim == null) {
+                return;
+            }
+            victim.evictOverShare(share);
+        }
+    }
+
+    void invalidateAll() {
+        partitions.invalidateAll();
+    }
+
+    int share() {
+        long tenants = Math.max(1, partitions.estimatedSize());
+        return (int) Math.max(minEntriesPerTenant, maxEntries / tenants);
+    }
+
+    long tenantCount() {
+        return partitions.estimatedSize();
+    }
+
+    long entryCount() {
+        return entries.get();
+    }
+
+    /**
+     * Entries held by one tenant, or 0 if it has no partition.
+     */
+    int entryCount(long tenant) {
+        Partition partition = partitions.getIfPresent(tenant);
+        return partition == null ? 0 : partition.size();
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    /**
+     * One tenant's entries in access order. Queued in {@code overShare} while it holds more
+     * than its share, and detached once the partition itself is evicted, after which puts
+     * from requests still holding it are dropped.
+     */
+    private final class Partition {
+
+        private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+        private boolean queued;
+        private boolean detached;
+
+        synchronized V get(K key, long now, int share) {
+            // Shares shrink as tenants arrive, so a partition can end up over its share
+            // without growing
+            enqueueIfOverShare(share);
+            Entry<V> entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() - now <= 0) {
+                map.remove(key);
+                entries.decrementAndGet();
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized void put(K key, V value, long expiresAt, int share) {
+            if (detached) {
+                return;
+            }
+            removeExpired(expiresAt - ttlNanos);
+            if (map.put(key, new Entry<>(value, expiresAt)) == null) {
+                entries.incrementAndGet();
+            }
+            enqueueIfOverShare(share);
+        }
+
+        /**
+         * Drops the least recently used entry if still over the share, and stays queued
+         * while over it.
+         */
+        synchronized void evictOverShare(int share) {
+            if (!detached && map.size() > share) {
+                Iterator<Entry<V>> it = map.values().iterator();
+                it.next();
+                it.remove();
+                entries.decrementAndGet();
+            }
+            if (!detached && map.size() > share) {
+                overShare.add(this);
+            } else {
+                queued = false;
+            }
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized void detach() {
+            detached = true;
+            entries.addAndGet(-map.size());
+            map.clear();
+        }
+
+        private void enqueueIfOverShare(int share) {
+            if (!queued && map.size() > share) {
+                queued = true;
+                overShare.add(this);
+            }
+        }
+
+        /**
+         * Expired entries at the cold end; others are dropped when next read.
+         */
+        private void removeExpired(long now) {
+            Iterator<Entry<V>> it = map.values().iterator();
+            while (it.hasNext() && it.next().expiresAt() - now <= 0) {
+                it.remove();
+                entries.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Merchant-scoped analytics behind a cache partitioned per merchant.
+ */
+package com.toucanus.analytics_dashboard.service.merchant;
@@ -0,0 +1,54 @@
+package com.toucanus.analytics_dashboard.service.query;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * The application's pool as seen by {@link QueryExecutionService} work: inside
+ * {@link #run} the physical connection is handed out by the running query, which takes its
+ * lane's permit first and sets up the session on first use. Outside it, connections come
+ * straight from the pool.
+ * <p>
+ * Wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * so a request that never issues a statement (a cache hit) never reaches this class.
+ */
+public class LaneBoundDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<Session> SESSION = new ThreadLocal<>();
+
+    public LaneBoundDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Session session = SESSION.get();
+        return session != null ? session.open(obtainTargetDataSource()) : super.getConnection();
+    }
+
+    /**
+     * Runs {@code work} on the calling thread with connections opened through {@code session}.
+     */
+    static <T> T run(Session session, Supplier<T> work) {
+        Session outer = SESSION.get();
+        SESSION.set(session);
+        try {
+            return work.get();
+        } finally {
+            if (outer != null) {
+                SESSION.set(outer);
+            } else {
+                SESSION.remove();
+            }
+        }
+    }
+
+    interface Session {
+
+        Connection open(DataSource target) throws SQLException;
+    }
+}
@@ -0,0 +1,47 @@
+package com.toucanus.analytics_dashboard.service.query;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The request a {@link QueryExecutionService} worker is running: when its statement timeout
+ * runs out ({@link System#nanoTime()} based) and its future, which completes early if the
+ * request is cancelled. Lets code that blocks on something other than the database give up
+ * in time.
+ */
+public record QueryContext(long deadlineNanos, CompletableFuture<?> future) {
+
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The request running on the calling thread, or null outside submitted work.
+     */
+    public static QueryContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs {@code work} on the calling thread as this request.
+     */
+    public <T> T run(Supplier<T> work) {
+        QueryContext outer = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+}
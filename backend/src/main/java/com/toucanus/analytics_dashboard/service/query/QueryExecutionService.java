@@ -0,0 +1,349 @@
+package com.toucanus.analytics_dashboard.service.query;
+
+import com.toucanus.analytics_dashboard.config.BulkheadProperties;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs request work off the servlet thread in a read-only transaction whose connection is
+ * only borrowed when the work runs its first statement (see {@link LaneBoundDataSource}).
+ * The lane's bulkhead permit is taken at that point, and the lane's statement timeout is
+ * applied to the transaction ({@code set_config('statement_timeout', ..., true)}) in the
+ * same round trip that identifies the backend. Work answered from a cache takes neither a
+ * permit nor a connection.
+ * <p>
+ * The returned future can be cancelled (client disconnect, async timeout); a query still
+ * running in PostgreSQL is then stopped with {@code pg_cancel_backend}, sent through a
+ * small pool of its own ({@code query.cancel-pool-size}) so that it never waits behind the
+ * lanes for a connection. The backend is matched by pid and transaction start, so a cancel
+ * arriving after the connection went back to the pool hits nothing. Submitting work
+ * with the same supersede key as an in-flight request cancels the older one, which is how
+ * a date-range change aborts the previous batch of dashboard calls.
+ */
+@Slf4j
+@Service
+public class QueryExecutionService {
+
+    private static final String QUERY_CANCELED_SQL_STATE = "57014";
+
+    private final BulkheadRegistry bulkheads;
+    private final TransactionTemplate transactionTemplate;
+    private final HikariDataSource cancelDataSource;
+    private final JdbcTemplate cancelJdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, RunningQuery> inFlightByKey = new ConcurrentHashMap<>();
+
+    public QueryExecutionService(BulkheadRegistry bulkheads,
+                                 PlatformTransactionManager transactionManager,
+                                 DataSourceProperties dataSourceProperties,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${query.cancel-pool-size:2}") int cancelPoolSize) {
+        this.bulkheads = bulkheads;
+        this.cancelDataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.cancelDataSource.setPoolName("query-cancel");
+        this.cancelDataSource.setMaximumPoolSize(cancelPoolSize);
+        this.cancelDataSource.setMinimumIdle(0);
+        this.cancelJdbcTemplate = new JdbcTemplate(cancelDataSource);
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @param supersedeKey optional; an in-flight request with the same key is cancelled
+     */
+    public <T> CompletableFuture<T> submit(QueryLane lane, String supersedeKey, Supplier<T> work) {
+        RunningQuery query = new RunningQuery(lane);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                query.cancelBackend();
+            }
+        });
+
+        if (supersedeKey != null && !supersedeKey.isBlank()) {
+            RunningQuery previous = inFlightByKey.put(supersedeKey, query);
+            if (previous != null) {
+                previous.supersede();
+            }
+            future.whenComplete((result, error) -> inFlightByKey.remove(supersedeKey, query));
+        }
+        query.future = future;
+
+        executor.execute(() -> {
+            try {
+                future.complete(runInSession(query, work));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(translate(query, e));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Upper bound for the whole request: waiting for a permit plus the statement timeout.
+     */
+    public Duration responseTimeout(QueryLane lane) {
+        BulkheadProperties.Lane settings = bulkheads.settings(lane);
+        return settings.getMaxWait().plus(settings.getStatementTimeout()).plusSeconds(1);
+    }
+
+    /**
+     * Cancel a request on behalf of the web layer (disconnect or async timeout).
+     */
+    public void cancel(CompletableFuture<?> future, String reason) {
+        if (future.cancel(false)) {
+            meterRegistry.counter("query.cancelled", "reason", reason).increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        cancelDataSource.close();
+    }
+
+    private <T> T runInSession(RunningQuery query, Supplier<T> work) {
+        if (query.future.isDone()) {
+            throw new CancellationException("Cancelled before start");
+        }
+        long deadline = System.nanoTime() + query.statementTimeoutMs() * 1_000_000;
+        return LaneBoundDataSource.run(query, () -> transactionTemplate.execute(status ->
+                new QueryContext(deadline, query.future).run(work)));
+    }
+
+    /**
+     * Cancels the statement running on backend {@code pid}, but only while it is still in
+     * the transaction that started at {@code transactionStart}.
+     */
+    void cancelBackend(int pid, OffsetDateTime transactionStart) {
+        try {
+            cancelJdbcTemplate.query("""
+                    select pg_cancel_backend(pid) from pg_stat_activity
+                    where pid = ? and xact_start = ?
+                    """, rs -> { }, pid, transactionStart);
+        } catch (DataAccessException e) {
+            log.warn("Failed to cancel backend {}", pid, e);
+        }
+    }
+
+    private RuntimeException translate(RunningQuery query, RuntimeException e) {
+        if (query.future.isCancelled()) {
+            return new CancellationException("Query cancelled");
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && QUERY_CANCELED_SQL_STATE.equals(sql.getSQLState())) {
+                meterRegistry.counter("query.timeouts", "lane", query.lane.name().toLowerCase()).increment();
+                return new StatementTimeoutException(query.lane, e);
+            }
+        }
+        return e;
+    }
+
+    /**
+     * A session and the transaction it is running ({@code now()} is the transaction start).
+     */
+    private record Backend(int pid, OffsetDateTime transactionStart) {
+    }
+
+    private final class RunningQuery implements LaneBoundDataSource.Session {
+
+        private final QueryLane lane;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile CompletableFuture<?> future;
+        private Backend backend;
+        // Only touched by the worker thread
+        private boolean bound;
+
+        private RunningQuery(QueryLane lane) {
+            this.lane = lane;
+        }
+
+        private long statementTimeoutMs() {
+            return bulkheads.settings(lane).getStatementTimeout().toMillis();
+        }
+
+        /**
+         * The first connection of the request holds the lane permit until it is closed; a
+         * nested one (e.g. a REQUIRES_NEW transaction) comes straight from the pool, as
+         * waiting for a second permit while holding one could deadlock the lane.
+         */
+        @Override
+        public Connection open(DataSource target) throws SQLException {
+            if (bound) {
+                return target.getConnection();
+            }
+            if (future.isDone()) {
+                throw new CancellationException("Cancelled before start");
+            }
+            bulkheads.acquire(lane);
+            Connection connection;
+            try {
+                connection = target.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                bulkheads.release(lane);
+                throw e;
+            }
+            bound = true;
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new SessionConnection(connection));
+        }
+
+        private void attach(Backend backend) {
+            lock.lock();
+            try {
+                this.backend = backend;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void detach() {
+            lock.lock();
+            try {
+                backend = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void supersede() {
+            CompletableFuture<?> f = future;
+            if (f != null) {
+                cancel(f, "superseded");
+            }
+        }
+
+        /**
+         * Reads the backend under the lock but cancels after releasing it, so detach never
+         * waits on a database round trip. If the transaction has ended meanwhile, its start
+         * no longer matches and nothing is cancelled.
+         */
+        private void cancelBackend() {
+            Backend target;
+            lock.lock();
+            try {
+                target = backend;
+            } finally {
+                lock.unlock();
+            }
+            if (target != null) {
+                QueryExecutionService.this.cancelBackend(target.pid(), target.transactionStart());
+            }
+        }
+
+        /**
+         * The lane's connection: the session is set up right before the first statement,
+         * when the transaction has already turned autocommit off, so the timeout is local to
+         * it and {@code now()} matches {@code xact_start}. Closing it frees the permit.
+         */
+        private final class SessionConnection implements InvocationHandler {
+
+            private final Connection target;
+            private boolean started;
+            private boolean closed;
+
+            private SessionConnection(Connection target) {
+                this.target = target;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "isClosed" -> {
+                        if (closed) {
+                            return true;
+                        }
+                    }
+                    case "close" -> {
+                        close();
+                        return null;
+                    }
+                    case "createStatement", "prepareStatement", "prepareCall" -> {
+                        if (!started) {
+                            started = true;
+                            start();
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+
+            private void start() throws SQLException {
+                if (target.getAutoCommit()) {
+                    return;
+                }
+                try (PreparedStatement statement = target.prepareStatement(
+                        "select pg_backend_pid(), now(), set_config('statement_timeout', ?, true)")) {
+                    statement.setString(1, Long.toString(statementTimeoutMs()));
+                    try (ResultSet rs = statement.executeQuery()) {
+                        rs.next();
+                        attach(new Backend(rs.getInt(1), rs.getObject(2, OffsetDateTime.class)));
+                    }
+                }
+                // A cancel that came before attach found no backend to stop
+                if (future.isDone()) {
+                    throw new CancellationException("Cancelled before start");
+                }
+            }
+
+            private void close() throws SQLException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                detach();
+                bound = false;
+                try {
+                    target.close();
+                } finally {
+                    bulkheads.release(lane);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.toucanus.analytics_dashboard.service.query;
+
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when PostgreSQL aborts a query because the lane's statement timeout elapsed.
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class StatementTimeoutException extends RuntimeException {
+
+    public StatementTimeoutException(QueryLane lane, Throwable cause) {
+        super("Query in lane " + lane + " exceeded its statement timeout", cause);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Cancellable, time-bounded execution of database-backed requests.
+ */
+package com.toucanus.analytics_dashboard.service.query;
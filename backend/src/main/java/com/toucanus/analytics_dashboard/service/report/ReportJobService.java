@@ -0,0 +1,243 @@
+package com.toucanus.analytics_dashboard.service.report;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.toucanus.analytics_dashboard.dto.report.ReportJobDTO;
+import com.toucanus.analytics_dashboard.dto.report.ReportRequestDTO;
+import com.toucanus.analytics_dashboard.enums.ReportJobStatus;
+import com.toucanus.analytics_dashboard.enums.ReportPriority;
+import com.toucanus.analytics_dashboard.enums.ReportType;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs long-range analytics reports off the request thread.
+ * <p>
+ * Jobs are executed on a bounded pool ordered by {@link ReportPriority}; identical
+ * requests (same type and resolved date range) share a single job while it is
+ * queued, running, or its result is still retained. Results are kept in memory for
+ * {@code reports.result-ttl} after completion.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private static final Comparator<Job> JOB_ORDER = Comparator
+            .comparing((Job job) -> job.priority)
+            .thenComparingLong(job -> job.sequence);
+
+    private final DashboardService dashboardService;
+    private final GraphAnalyticsService graphAnalyticsService;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final Duration resultTtl;
+
+    private final Cache<String, Job> jobs;
+    private final Map<String, String> jobIdsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ReportJobService(DashboardService dashboardService,
+                            GraphAnalyticsService graphAnalyticsService,
+                            @Value("${reports.executor.threads:2}") int threads,
+                            @Value("${reports.executor.queue-capacity:50}") int queueCapacity,
+                            @Value("${reports.result-ttl:PT1H}") Duration resultTtl) {
+        this.dashboardService = dashboardService;
+        this.graphAnalyticsService = graphAnalyticsService;
+        this.queueCapacity = queueCapacity;
+        this.resultTtl = resultTtl;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(queueCapacity, (a, b) -> JOB_ORDER.compare((Job) a, (Job) b)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        // Active jobs never expire; finished jobs (and their results) expire after the TTL.
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Job>() {
+                    @Override
+                    public long expireAfterCreate(String id, Job job, long currentTime) {
+                        return job.isFinished() ? resultTtl.toNanos() : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Job job, long currentTime, long currentDuration) {
+                        return job.isFinished() ? resultTtl.toNanos() : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Job job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((String id, Job job, RemovalCause cause) -> {
+                    if (job != null) {
+                        jobIdsByKey.remove(job.key, id);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Submit a report, or return the existing job for an identical request.
+     *
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public synchronized ReportJobDTO submit(ReportRequestDTO request) {
+        ReportType type = request.getType();
+        LocalDate endDate = request.getEndDate() != null ? request.getEndDate() : LocalDate.now();
+        LocalDate startDate = request.getStartDate() != null ? request.getStartDate() : defaultStartDate(type, endDate);
+        ReportPriority priority = request.getPriority() != null ? request.getPriority() : ReportPriority.NORMAL;
+        String key = type + ":" + startDate + ":" + endDate;
+
+        String existingId = jobIdsByKey.get(key);
+        if (existingId != null) {
+            Job existing = jobs.getIfPresent(existingId);
+            if (existing != null && existing.status != ReportJobStatus.FAILED) {
+                return existing.toDto();
+            }
+        }
+
+        if (executor.getQueue().size() >= queueCapacity) {
+            throw new RejectedExecutionException("Report queue is full");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), key, type, startDate, endDate, priority,
+                sequence.incrementAndGet());
+        jobs.put(job.id, job);
+        jobIdsByKey.put(key, job.id);
+        executor.execute(job);
+        return job.toDto();
+    }
+
+    public Optional<ReportJobDTO> getJob(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id)).map(Job::toDto);
+    }
+
+    /**
+     * Result of a completed job; empty if the job is unknown, expired or not finished.
+     */
+    public Optional<Object> getResult(String id) {
+        Job job = jobs.getIfPresent(id);
+        if (job == null || job.status != ReportJobStatus.COMPLETED) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(job.result);
+    }
+
+    /**
+     * Completes with the final job snapshot once the job has finished (successfully or not).
+     */
+    public Optional<CompletableFuture<ReportJobDTO>> onFinished(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id)).map(job -> job.finished);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Object compute(ReportType type, LocalDate startDate, LocalDate endDate) {
+        return switch (type) {
+            case FILTERED_STATS -> dashboardService.getDashboardStats(startDate, endDate);
+            case DAILY_STATUS -> graphAnalyticsService.getDailyStatusStats(startDate, endDate);
+            case HOURLY_TRAFFIC -> graphAnalyticsService.getHourlyTrafficStats(startDate, endDate);
+            case PAYMENT_METHODS -> graphAnalyticsService.getPaymentStats(startDate, endDate);
+        };
+    }
+
+    /**
+     * Mirrors the defaults applied by the synchronous endpoints so that dedup keys match.
+     */
+    public static LocalDate defaultStartDate(ReportType type, LocalDate endDate) {
+        return switch (type) {
+            case FILTERED_STATS, PAYMENT_METHODS -> endDate.minusDays(30);
+            case DAILY_STATUS -> endDate.minusDays(6);
+            case HOURLY_TRAFFIC -> endDate;
+        };
+    }
+
+    private final class Job implements Runnable {
+
+        private final String id;
+        private final String key;
+        private final ReportType type;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final ReportPriority priority;
+        private final long sequence;
+        private final Instant submittedAt = Instant.now();
+        private final CompletableFuture<ReportJobDTO> finished = new CompletableFuture<>();
+
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant completedAt;
+        private volatile Object result;
+        private volatile String error;
+
+        private Job(String id, String key, ReportType type, LocalDate startDate, LocalDate endDate,
+                    ReportPriority priority, long sequence) {
+            this.id = id;
+            this.key = key;
+            this.type = type;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            startedAt = Instant.now();
+            status = ReportJobStatus.RUNNING;
+            try {
+                result = compute(type, startDate, endDate);
+                status = ReportJobStatus.COMPLETED;
+            } catch (RuntimeException e) {
+                log.warn("Report job {} ({}) failed", id, key, e);
+                error = e.getMessage();
+                status = ReportJobStatus.FAILED;
+            } finally {
+                completedAt = Instant.now();
+                // Re-put so the expiry policy switches from "active" to the result TTL
+                jobs.put(id, this);
+                finished.complete(toDto());
+            }
+        }
+
+        private boolean isFinished() {
+            return status == ReportJobStatus.COMPLETED || status == ReportJobStatus.FAILED;
+        }
+
+        private ReportJobDTO toDto() {
+            Instant done = completedAt;
+            return new ReportJobDTO(id, type, startDate, endDate, priority, status,
+                    submittedAt, startedAt, done, done != null ? done.plus(resultTtl) : null, error);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Asynchronous report job execution.
+ */
+package com.toucanus.analytics_dashboard.service.report;
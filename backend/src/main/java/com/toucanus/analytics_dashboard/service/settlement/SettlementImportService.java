@@ -0,0 +1,529 @@
+package com.toucanus.analytics_dashboard.service.settlement;
+
+import com.toucanus.analytics_dashboard.dto.settlement.SettlementImportDTO;
+import com.toucanus.analytics_dashboard.dto.settlement.SettlementImportRequestDTO;
+import com.toucanus.analytics_dashboard.entity.SettlementImport;
+import com.toucanus.analytics_dashboard.enums.ImportStatus;
+import com.toucanus.analytics_dashboard.enums.SettlementFormat;
+import com.toucanus.analytics_dashboard.repository.SettlementImportRepository;
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import com.toucanus.analytics_dashboard.service.cohort.UserActivityIndex;
+import com.toucanus.analytics_dashboard.service.merchant.MerchantAnalyticsService;
+import com.toucanus.analytics_dashboard.service.topn.TopNService;
+import com.toucanus.analytics_dashboard.service.zone.QuarterHourBuckets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Imports processor settlement files (CSV or NDJSON) from {@code settlement.directory}
+ * into {@code transactions}.
+ * <p>
+ * A file is split into {@code settlement.chunk-size} chunks aligned to line boundaries.
+ * Chunks are memory-mapped and parsed by {@code settlement.parallelism} workers, each
+ * streaming COPY rows into a temporary staging table on its own connection and then
+ * inserting them with {@code ON CONFLICT (external_id) DO NOTHING}, one transaction per
+ * chunk. Invalid rows (bad enums, unknown users checked against an in-memory id set, ...)
+ * are rejected individually and counted.
+ * <p>
+ * The byte offset up to which all chunks are committed is stored with the import, so
+ * resubmitting the same file (name, size, modification time) after a failure or restart
+ * resumes there; chunks committed past that offset are re-read and skipped as duplicates.
+ * Imports run one at a time.
+ */
+@Slf4j
+@Service
+public class SettlementImportService {
+
+    private static final String CREATE_STAGE = """
+            CREATE TEMP TABLE settlement_stage (
+                external_id varchar(64), user_id bigint, amount numeric(38,2), currency varchar(255),
+                type varchar(255), status varchar(255), payment_method varchar(255), created_at timestamp(6)
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_STAGE = "COPY settlement_stage ("
+            + String.join(", ", SettlementParser.FIELD_NAMES) + ") FROM STDIN";
+    private static final String INSERT_STAGED = """
+            INSERT INTO transactions (id, external_id, user_id, amount, currency, type, status, payment_method, created_at)
+            SELECT gen_random_uuid(), external_id, user_id, amount, currency, type, status, payment_method, created_at
+            FROM settlement_stage
+            ON CONFLICT (external_id) DO NOTHING
+            """;
+    private static final int MAX_REJECTIONS_SHOWN = 20;
+    private static final int RECENT_IMPORTS = 20;
+
+    private final SettlementImportRepository importRepository;
+    private final UserRepository userRepository;
+    private final DataSource dataSource;
+    private final TopNService topNService;
+    private final UserActivityIndex userActivityIndex;
+    private final QuarterHourBuckets quarterHourBuckets;
+    private final CacheManager cacheManager;
+    private final MerchantAnalyticsService merchantAnalyticsService;
+    private final Path directory;
+    private final int parallelism;
+    private final long chunkSize;
+    private final int maxLineBytes;
+    private final int flushBytes;
+    private final Duration userIdsTtl;
+    private final int userIdPageSize;
+
+    private final ThreadPoolExecutor coordinator;
+    private final ExecutorService workers;
+    private final Map<Long, Job> activeJobs = new ConcurrentHashMap<>();
+    private final Counter rowsImported;
+    private final Counter rowsDuplicate;
+    private final Counter rowsRejected;
+
+    private UserIdSet userIds;
+    private long userIdsLoadedAt;
+
+    public SettlementImportService(SettlementImportRepository importRepository,
+                                   UserRepository userRepository,
+                                   DataSource dataSource,
+                                   TopNService topNService,
+                                   UserActivityIndex userActivityIndex,
+                                   QuarterHourBuckets quarterHourBuckets,
+                                   CacheManager cacheManager,
+                                   MerchantAnalyticsService merchantAnalyticsService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${settlement.directory:settlements}") String directory,
+                                   @Value("${settlement.parallelism:2}") int parallelism,
+                                   @Value("${settlement.chunk-size:67108864}") long chunkSize,
+                                   @Value("${settlement.max-line-bytes:65536}") int maxLineBytes,
+                                   @Value("${settlement.copy-buffer-bytes:1048576}") int flushBytes,
+                                   @Value("${settlement.queue-capacity:10}") int queueCapacity,
+                                   @Value("${settlement.user-ids-ttl:PT5M}") Duration userIdsTtl,
+                                   @Value("${settlement.user-id-page-size:100000}") int userIdPageSize) {
+        if (chunkSize <= maxLineBytes || chunkSize + maxLineBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("settlement.chunk-size must be above settlement.max-line-bytes and below 2 GB");
+        }
+        this.importRepository = importRepository;
+        this.userRepository = userRepository;
+        this.dataSource = dataSource;
+        this.topNService = topNService;
+        this.userActivityIndex = userActivityIndex;
+        this.quarterHourBuckets = quarterHourBuckets;
+        this.cacheManager = cacheManager;
+        this.merchantAnalyticsService = merchantAnalyticsService;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.maxLineBytes = maxLineBytes;
+        this.flushBytes = flushBytes;
+        this.userIdsTtl = userIdsTtl;
+        this.userIdPageSize = userIdPageSize;
+
+        this.coordinator = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "settlement-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "settlement-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.rowsImported = rowsCounter(meterRegistry, "imported");
+        this.rowsDuplicate = rowsCounter(meterRegistry, "duplicate");
+        this.rowsRejected = rowsCounter(meterRegistry, "rejected");
+    }
+
+    /**
+     * Starts (or resumes) importing a file; returns the running import if the same file is
+     * already queued or running, or the finished one if it was completed.
+     *
+     * @throws IllegalArgumentException   if the file is not a regular file in the settlement directory
+     * @throws RejectedExecutionException if the import queue is full
+     */
+    public synchronized SettlementImportDTO submit(SettlementImportRequestDTO request) {
+        Path file = directory.resolve(request.getFileName()).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No settlement file named " + request.getFileName());
+        }
+        String fileName = directory.relativize(file).toString();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LocalDateTime modifiedAt = LocalDateTime.ofInstant(attributes.lastModifiedTime().toInstant(), ZoneId.systemDefault());
+
+        SettlementImport record = importRepository
+                .findFirstByFileNameAndFileSizeAndFileModifiedAtOrderByIdDesc(fileName, attributes.size(), modifiedAt)
+                .orElse(null);
+        if (record != null) {
+            Job active = activeJobs.get(record.getId());
+            if (active != null) {
+                return active.toDto();
+            }
+            if (record.getStatus() == ImportStatus.COMPLETED) {
+                return toDto(record);
+            }
+            // FAILED, or left QUEUED/RUNNING by a stopped instance: resume from the committed offset
+        } else {
+            SettlementFormat format = request.getFormat() != null ? request.getFormat()
+                    : fileName.toLowerCase(Locale.ROOT).endsWith(".csv") ? SettlementFormat.CSV : SettlementFormat.NDJSON;
+            LocalDateTime now = LocalDateTime.now();
+            record = new SettlementImport(null, fileName, attributes.size(), modifiedAt, format,
+                    ImportStatus.QUEUED, 0, 0, 0, 0, null, now, now, null);
+        }
+
+        if (coordinator.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("Settlement import queue is full");
+        }
+        record.setStatus(ImportStatus.QUEUED);
+        record.setError(null);
+        record.setUpdatedAt(LocalDateTime.now());
+        record = importRepository.save(record);
+        Job job = new Job(record, file);
+        activeJobs.put(record.getId(), job);
+        coordinator.execute(job);
+        return job.toDto();
+    }
+
+    public Optional<SettlementImportDTO> getImport(long id) {
+        Job active = activeJobs.get(id);
+        if (active != null) {
+            return Optional.of(active.toDto());
+        }
+        return importRepository.findById(id).map(this::toDto);
+    }
+
+    public List<SettlementImportDTO> getRecentImports() {
+        return importRepository.findAllByOrderByIdDesc(PageRequest.ofSize(RECENT_IMPORTS)).stream()
+                .map(record -> getImport(record.getId()).orElseGet(() -> toDto(record)))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private SettlementImportDTO toDto(SettlementImport record) {
+        return new SettlementImportDTO(record.getId(), record.getFileName(), record.getFormat(), record.getStatus(),
+                record.getFileSize(), record.getCommittedOffset(), percent(record.getCommittedOffset(), record.getFileSize()),
+                record.getRowsImported(), record.getRowsDuplicate(), record.getRowsRejected(), 0, List.of(),
+                record.getError(), record.getCreatedAt(), record.getCompletedAt());
+    }
+
+    private static double percent(long done, long total) {
+        return total == 0 ? 100 : Math.min(100, Math.round(done * 1000.0 / total) / 10.0);
+    }
+
+    /**
+     * Called only from the coordinator thread.
+     */
+    private UserIdSet userIds() {
+        if (userIds == null || System.nanoTime() - userIdsLoadedAt > userIdsTtl.toNanos()) {
+            long started = System.nanoTime();
+            userIds = UserIdSet.load(userRepository, userIdPageSize);
+            userIdsLoadedAt = System.nanoTime();
+            log.info("Loaded {} user ids for settlement validation in {} ms", userIds.size(),
+                    (userIdsLoadedAt - started) / 1_000_000);
+        }
+        return userIds;
+    }
+
+    private static Counter rowsCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("settlement.rows")
+                .description("Settlement file rows by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Offset just after the first line break at or after {@code index} (or {@code index}
+     * itself if a line starts there).
+     *
+     * @throws IllegalStateException if no line break is mapped after {@code index}
+     */
+    private int lineStartAt(ByteBuffer buffer, int index, boolean mappedToEndOfFile) {
+        if (index == 0 || buffer.get(index - 1) == '\n') {
+            return index;
+        }
+        int eol = SettlementParser.indexOf(buffer, (byte) '\n', index, buffer.limit());
+        if (eol >= 0) {
+            return eol + 1;
+        }
+        if (mappedToEndOfFile) {
+            return buffer.limit();
+        }
+        throw new IllegalStateException("Line longer than settlement.max-line-bytes (" + maxLineBytes + ")");
+    }
+
+    private final class Job implements Runnable {
+
+        private final SettlementImport record;
+        private final Path file;
+        private final LongAdder parsedRows = new LongAdder();
+        private final LongAdder parsedBytes = new LongAdder();
+        private final List<String> rejections = new ArrayList<>();
+
+        private volatile ImportStatus status = ImportStatus.QUEUED;
+        private volatile long startedAt;
+        private volatile long startOffset;
+        private volatile boolean failed;
+
+        // Guarded by "this"
+        private boolean[] committed;
+        private long[] chunkEnds;
+        private int nextUncommitted;
+        private long minDay = Long.MAX_VALUE;
+        private long maxDay = Long.MIN_VALUE;
+
+        private Job(SettlementImport record, Path file) {
+            this.record = record;
+            this.file = file;
+            this.startOffset = record.getCommittedOffset();
+        }
+
+        @Override
+        public void run() {
+            startedAt = System.nanoTime();
+            status = ImportStatus.RUNNING;
+            update(ImportStatus.RUNNING, null);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size != record.getFileSize()) {
+                    throw new IllegalStateException("File changed since it was submitted");
+                }
+                int[] csvColumns = null;
+                long start = record.getCommittedOffset();
+                if (record.getFormat() == SettlementFormat.CSV) {
+                    if (size == 0) {
+                        throw new IllegalStateException("CSV file has no header");
+                    }
+                    MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, maxLineBytes));
+                    int headerEnd = lineStartAt(head, 1, size <= maxLineBytes);
+                    byte[] header = new byte[headerEnd];
+                    head.get(0, header);
+                    csvColumns = SettlementParser.csvColumns(new String(header, StandardCharsets.UTF_8));
+                    start = Math.max(start, headerEnd);
+                }
+                startOffset = start;
+                importChunks(channel, size, start, csvColumns, userIds());
+                update(ImportStatus.COMPLETED, null);
+                log.info("Imported {}: {} rows, {} duplicates, {} rejected", record.getFileName(),
+                        record.getRowsImported(), record.getRowsDuplicate(), record.getRowsRejected());
+            } catch (Exception e) {
+                Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                log.warn("Settlement import {} ({}) failed at offset {}", record.getId(), record.getFileName(),
+                        record.getCommittedOffset(), cause);
+                update(ImportStatus.FAILED, String.valueOf(cause.getMessage()));
+            } finally {
+                status = record.getStatus();
+                activeJobs.remove(record.getId());
+                invalidateImportedDays();
+            }
+        }
+
+        private void importChunks(FileChannel channel, long size, long start, int[] csvColumns, UserIdSet ids)
+                throws InterruptedException, ExecutionException {
+            int chunks = (int) ((size - start + chunkSize - 1) / chunkSize);
+            synchronized (this) {
+                committed = new boolean[chunks];
+                chunkEnds = new long[chunks];
+            }
+            AtomicInteger nextChunk = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < Math.min(parallelism, chunks); i++) {
+                futures.add(workers.submit(() -> {
+                    int chunk;
+                    try {
+                        while (!failed && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                            importChunk(channel, size, start, chunk, csvColumns, ids);
+                        }
+                    } catch (Exception e) {
+                        failed = true;
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            ExecutionException failure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failure = failure != null ? failure : e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void importChunk(FileChannel channel, long size, long start, int chunk, int[] csvColumns,
+                                 UserIdSet ids) throws IOException, SQLException {
+            long nominalStart = start + chunk * chunkSize;
+            long nominalEnd = Math.min(size, nominalStart + chunkSize);
+            long mapStart = chunk == 0 ? nominalStart : nominalStart - 1;
+            long mapEnd = Math.min(size, nominalEnd + maxLineBytes);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+            int from = chunk == 0 ? 0 : lineStartAt(buffer, 1, mapEnd == size);
+            int to = nominalEnd == size ? buffer.limit() : lineStartAt(buffer, (int) (nominalEnd - mapStart), mapEnd == size);
+
+            SettlementParser parser = new SettlementParser(record.getFormat(), csvColumns, ids, this::rejected,
+                    parsedRows, parsedBytes, flushBytes);
+            long staged;
+            int inserted;
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGE);
+                }
+                CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGE);
+                try {
+                    parser.parse(buffer, from, to, mapStart, copy::writeToCopy);
+                    staged = copy.endCopy();
+                } finally {
+                    if (copy.isActive()) {
+                        copy.cancelCopy();
+                    }
+                }
+                try (Statement statement = connection.createStatement()) {
+                    inserted = statement.executeUpdate(INSERT_STAGED);
+                }
+                connection.commit();
+            }
+            committed(chunk, mapStart + to, inserted, staged - inserted, parser);
+        }
+
+        private void rejected(long offset, String reason) {
+            synchronized (rejections) {
+                if (rejections.size() < MAX_REJECTIONS_SHOWN) {
+                    rejections.add("offset " + offset + ": " + reason);
+                }
+            }
+        }
+
+        /**
+         * Records a committed chunk and advances the committed offset over every chunk
+         * committed so far without a gap.
+         */
+        private synchronized void committed(int chunk, long end, long inserted, long duplicates, SettlementParser parser) {
+            committed[chunk] = true;
+            chunkEnds[chunk] = end;
+            while (nextUncommitted < committed.length && committed[nextUncommitted]) {
+                record.setCommittedOffset(chunkEnds[nextUncommitted++]);
+            }
+            record.setRowsImported(record.getRowsImported() + inserted);
+            record.setRowsDuplicate(record.getRowsDuplicate() + duplicates);
+            record.setRowsRejected(record.getRowsRejected() + parser.rejected());
+            record.setUpdatedAt(LocalDateTime.now());
+            importRepository.save(record);
+            rowsImported.increment(inserted);
+            rowsDuplicate.increment(duplicates);
+            rowsRejected.increment(parser.rejected());
+            if (inserted > 0) {
+                minDay = Math.min(minDay, parser.minDay());
+                maxDay = Math.max(maxDay, parser.maxDay());
+            }
+        }
+
+        private synchronized void update(ImportStatus status, String error) {
+            record.setStatus(status);
+            record.setError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            record.setUpdatedAt(LocalDateTime.now());
+            if (status == ImportStatus.COMPLETED || status == ImportStatus.FAILED) {
+                record.setCompletedAt(record.getUpdatedAt());
+            }
+            importRepository.save(record);
+        }
+
+        /**
+         * Imported rows may land on closed days, whose summaries are otherwise kept.
+         */
+        private synchronized void invalidateImportedDays() {
+            if (minDay > maxDay) {
+                return;
+            }
+            LocalDate first = LocalDate.ofEpochDay(minDay);
+            LocalDate last = LocalDate.ofEpochDay(maxDay);
+            topNService.invalidate(first, last);
+            userActivityIndex.invalidate(first, last);
+            quarterHourBuckets.invalidate(first, last);
+            for (String name : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            merchantAnalyticsService.invalidateAll();
+        }
+
+        private SettlementImportDTO toDto() {
+            long bytes;
+            long imported;
+            long duplicates;
+            long rejectedRows;
+            synchronized (this) {
+                bytes = Math.min(record.getFileSize(), startOffset + parsedBytes.sum());
+                imported = record.getRowsImported();
+                duplicates = record.getRowsDuplicate();
+                rejectedRows = record.getRowsRejected();
+            }
+            long started = startedAt;
+            double seconds = started == 0 ? 0 : (System.nanoTime() - started) / 1e9;
+            List<String> sample;
+            synchronized (rejections) {
+                sample = List.copyOf(rejections);
+            }
+            return new SettlementImportDTO(record.getId(), record.getFileName(), record.getFormat(), status,
+                    record.getFileSize(), bytes, percent(bytes, record.getFileSize()), imported, duplicates,
+                    rejectedRows, seconds > 0 ? Math.round(parsedRows.sum() / seconds) : 0, sample,
+                    record.getError(), record.getCreatedAt(), record.getCompletedAt());
+        }
+    }
+}
@@ -0,0 +1,643 @@
+package com.toucanus.analytics_dashboard.service.settlement;
+
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.SettlementFormat;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parses settlement lines straight from a (memory-mapped) buffer into PostgreSQL COPY text
+ * rows. Fields are located as byte offsets, validated in place and copied byte for byte,
+ * so a valid row allocates nothing; only rejected rows build a message.
+ * <p>
+ * CSV: comma-separated with a header naming the columns (any order, extra columns ignored);
+ * fields may be double-quoted but may not contain quotes. NDJSON: one flat object per
+ * line; string values may not contain escapes. Timestamps are local date-times
+ * ({@code yyyy-MM-dd[T ]HH:mm:ss[.ffffff]}) like {@code transactions.created_at}.
+ * <p>
+ * Not thread-safe: one parser per worker.
+ */
+final class SettlementParser {
+
+    static final int EXTERNAL_ID = 0;
+    static final int USER_ID = 1;
+    static final int AMOUNT = 2;
+    static final int CURRENCY = 3;
+    static final int TYPE = 4;
+    static final int STATUS = 5;
+    static final int PAYMENT_METHOD = 6;
+    static final int CREATED_AT = 7;
+
+    static final String[] FIELD_NAMES = {
+            "external_id", "user_id", "amount", "currency", "type", "status", "payment_method", "created_at"
+    };
+
+    static final int MAX_EXTERNAL_ID_LENGTH = 64;
+
+    private static final int FIELDS = FIELD_NAMES.length;
+    private static final byte[][] FIELD_KEYS = ascii(Arrays.stream(FIELD_NAMES)
+            .map(name -> name.toUpperCase(Locale.ROOT))
+            .toArray(String[]::new));
+    private static final byte[][] TYPE_NAMES = names(TxnType.values());
+    private static final byte[][] STATUS_NAMES = names(TxnStatus.values());
+    private static final byte[][] PAYMENT_METHOD_NAMES = names(PaymentMethod.values());
+    private static final byte[] NULL = {'N', 'U', 'L', 'L'};
+    private static final boolean[] EXTERNAL_ID_CHARS = new boolean[256];
+    private static final int MAX_INTEGER_DIGITS = 36;
+
+    static {
+        for (int c = 0; c < 256; c++) {
+            EXTERNAL_ID_CHARS[c] = (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+                    || c == '.' || c == '_' || c == ':' || c == '/' || c == '-';
+        }
+    }
+
+    private static final String MISSING_FIELD = "missing field";
+    private static final String BAD_QUOTE = "malformed quoted field";
+    private static final String MALFORMED_JSON = "malformed JSON object";
+    private static final String ESCAPED_STRING = "escaped JSON strings are not supported";
+    private static final String NESTED_VALUE = "nested JSON values are not supported";
+    private static final String BAD_EXTERNAL_ID = "external_id must be 1-64 characters of [A-Za-z0-9._:/-]";
+    private static final String BAD_USER_ID = "user_id is not a positive integer";
+    private static final String UNKNOWN_USER = "unknown user_id";
+    private static final String BAD_AMOUNT = "amount is not a decimal with at most 2 fraction digits";
+    private static final String BAD_CURRENCY = "currency is not a 3-letter code";
+    private static final String BAD_TYPE = "unknown type";
+    private static final String BAD_STATUS = "unknown status";
+    private static final String BAD_PAYMENT_METHOD = "unknown payment_method";
+    private static final String BAD_CREATED_AT = "created_at is not a valid local date-time";
+
+    /**
+     * Receives COPY text data in blocks of whole rows.
+     */
+    interface Sink {
+
+        void write(byte[] bytes, int offset, int length) throws SQLException;
+    }
+
+    /**
+     * Called for each rejected line with its byte offset in the file.
+     */
+    interface RejectListener {
+
+        void rejected(long fileOffset, String reason);
+    }
+
+    private final SettlementFormat format;
+    private final int[] csvColumns;
+    private final UserIdSet userIds;
+    private final RejectListener rejectListener;
+    private final LongAdder parsedRows;
+    private final LongAdder parsedBytes;
+    private final int flushBytes;
+
+    private final int[] starts = new int[FIELDS];
+    private final int[] ends = new int[FIELDS];
+    private byte[] out;
+    private int outLength;
+
+    private long rows;
+    private long rejected;
+    private long minDay = Long.MAX_VALUE;
+    private long maxDay = Long.MIN_VALUE;
+    private long unreportedRows;
+    private int unreportedBytes;
+
+    /**
+     * @param csvColumns  for CSV, the field of each file column (-1 to ignore); see {@link #csvColumns}
+     * @param parsedRows  incremented (in batches) with the rows parsed, for progress
+     * @param parsedBytes incremented (in batches) with the bytes parsed, for progress
+     */
+    SettlementParser(SettlementFormat format, int[] csvColumns, UserIdSet userIds, RejectListener rejectListener,
+                     LongAdder parsedRows, LongAdder parsedBytes, int flushBytes) {
+        this.format = format;
+        this.csvColumns = csvColumns;
+        this.userIds = userIds;
+        this.rejectListener = rejectListener;
+        this.parsedRows = parsedRows;
+        this.parsedBytes = parsedBytes;
+        this.flushBytes = flushBytes;
+        this.out = new byte[flushBytes + 512];
+    }
+
+    /**
+     * Maps CSV header columns to fields.
+     *
+     * @throws IllegalArgumentException if a required column is missing
+     */
+    static int[] csvColumns(String header) {
+        String[] names = header.replace("\uFEFF", "").strip().split(",", -1);
+        int[] columns = new int[names.length];
+        boolean[] present = new boolean[FIELDS];
+        for (int column = 0; column < names.length; column++) {
+            String name = names[column].strip().replace("\"", "").toLowerCase(Locale.ROOT);
+            columns[column] = Arrays.asList(FIELD_NAMES).indexOf(name);
+            if (columns[column] >= 0) {
+                present[columns[column]] = true;
+            }
+        }
+        for (int field = 0; field < FIELDS; field++) {
+            if (!present[field]) {
+                throw new IllegalArgumentException("CSV header has no '" + FIELD_NAMES[field] + "' column");
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Parses the lines in {@code [from, to)} of {@code buffer}; {@code to} must be a line
+     * boundary (or the end of the file). Remaining output is flushed before returning.
+     *
+     * @param baseOffset file offset of buffer index 0, for reporting rejections
+     */
+    void parse(ByteBuffer buffer, int from, int to, long baseOffset, Sink sink) throws SQLException {
+        int pos = from;
+        while (pos < to) {
+            int eol = indexOf(buffer, (byte) '\n', pos, to);
+            int next = eol < 0 ? to : eol + 1;
+            int end = eol < 0 ? to : eol;
+            if (end > pos && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end > pos) {
+                String error = format == SettlementFormat.CSV ? splitCsv(buffer, pos, end) : splitJson(buffer, pos, end);
+                if (error == null) {
+                    error = appendRow(buffer);
+                }
+                if (error == null) {
+                    rows++;
+                    unreportedRows++;
+                } else {
+                    rejected++;
+                    rejectListener.rejected(baseOffset + pos, error);
+                }
+            }
+            unreportedBytes += next - pos;
+            pos = next;
+            if (outLength >= flushBytes) {
+                flush(sink);
+            }
+        }
+        flush(sink);
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Earliest created_at day (epoch day) of the parsed rows; {@code Long.MAX_VALUE} if none.
+     */
+    long minDay() {
+        return minDay;
+    }
+
+    long maxDay() {
+        return maxDay;
+    }
+
+    private void flush(Sink sink) throws SQLException {
+        if (outLength > 0) {
+            sink.write(out, 0, outLength);
+            outLength = 0;
+        }
+        parsedRows.add(unreportedRows);
+        parsedBytes.add(unreportedBytes);
+        unreportedRows = 0;
+        unreportedBytes = 0;
+    }
+
+    private String splitCsv(ByteBuffer b, int pos, int end) {
+        Arrays.fill(starts, -1);
+        int column = 0;
+        while (true) {
+            int fieldStart;
+            int fieldEnd;
+            if (pos < end && b.get(pos) == '"') {
+                fieldStart = pos + 1;
+                fieldEnd = indexOf(b, (byte) '"', fieldStart, end);
+                if (fieldEnd < 0) {
+                    return BAD_QUOTE;
+                }
+                pos = fieldEnd + 1;
+                if (pos < end && b.get(pos) != ',') {
+                    return BAD_QUOTE;
+                }
+            } else {
+                fieldStart = pos;
+                while (pos < end && b.get(pos) != ',') {
+                    pos++;
+                }
+                fieldEnd = pos;
+            }
+            if (column < csvColumns.length && csvColumns[column] >= 0) {
+                starts[csvColumns[column]] = fieldStart;
+                ends[csvColumns[column]] = fieldEnd;
+            }
+            column++;
+            if (pos >= end) {
+                break;
+            }
+            pos++;
+        }
+        return missingField();
+    }
+
+    private String splitJson(ByteBuffer b, int pos, int end) {
+        Arrays.fill(starts, -1);
+        pos = skipWhitespace(b, pos, end);
+        if (pos >= end || b.get(pos) != '{') {
+            return MALFORMED_JSON;
+        }
+        pos = skipWhitespace(b, pos + 1, end);
+        if (pos < end && b.get(pos) == '}') {
+            pos++;
+        } else {
+            while (true) {
+                if (pos >= end || b.get(pos) != '"') {
+                    return MALFORMED_JSON;
+                }
+                int keyStart = pos + 1;
+                int keyEnd = indexOf(b, (byte) '"', keyStart, end);
+                if (keyEnd < 0) {
+                    return MALFORMED_JSON;
+                }
+                int field = fieldForKey(b, keyStart, keyEnd);
+                pos = skipWhitespace(b, keyEnd + 1, end);
+                if (pos >= end || b.get(pos) != ':') {
+                    return MALFORMED_JSON;
+                }
+                pos = skipWhitespace(b, pos + 1, end);
+                if (pos >= end) {
+                    return MALFORMED_JSON;
+                }
+                int valueStart;
+                int valueEnd;
+                byte first = b.get(pos);
+                if (first == '"') {
+                    valueStart = pos + 1;
+                    valueEnd = valueStart;
+                    while (valueEnd < end && b.get(valueEnd) != '"') {
+                        if (b.get(valueEnd) == '\\') {
+                            return ESCAPED_STRING;
+                        }
+                        valueEnd++;
+                    }
+                    if (valueEnd >= end) {
+                        return MALFORMED_JSON;
+                    }
+                    pos = valueEnd + 1;
+                } else if (first == '{' || first == '[') {
+                    return NESTED_VALUE;
+                } else {
+                    valueStart = pos;
+                    while (pos < end && !isJsonDelimiter(b.get(pos))) {
+                        pos++;
+                    }
+                    valueEnd = pos;
+                    if (equalsIgnoreCase(b, valueStart, valueEnd, NULL)) {
+                        field = -1;
+                    }
+                }
+                if (field >= 0) {
+                    starts[field] = valueStart;
+                    ends[field] = valueEnd;
+                }
+                pos = skipWhitespace(b, pos, end);
+                if (pos >= end) {
+                    return MALFORMED_JSON;
+                }
+                if (b.get(pos) == '}') {
+                    pos++;
+                    break;
+                }
+                if (b.get(pos) != ',') {
+                    return MALFORMED_JSON;
+                }
+                pos = skipWhitespace(b, pos + 1, end);
+            }
+        }
+        if (skipWhitespace(b, pos, end) != end) {
+            return MALFORMED_JSON;
+        }
+        return missingField();
+    }
+
+    private String missingField() {
+        for (int field = 0; field < FIELDS; field++) {
+            if (starts[field] < 0) {
+                return MISSING_FIELD;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Validates the located fields and appends one COPY row in {@link #FIELD_NAMES} order.
+     *
+     * @return null, or the reason the row was rejected (nothing is appended then)
+     */
+    private String appendRow(ByteBuffer b) {
+        ensureCapacity(ends[EXTERNAL_ID] - starts[EXTERNAL_ID] + ends[USER_ID] - starts[USER_ID]
+                + ends[AMOUNT] - starts[AMOUNT] + 128);
+        int rowStart = outLength;
+        String error = appendExternalId(b);
+        if (error == null) {
+            error = appendUserId(b);
+        }
+        if (error == null) {
+            error = appendAmount(b);
+        }
+        if (error == null) {
+            error = appendCurrency(b);
+        }
+        if (error == null) {
+            error = appendName(b, TYPE, TYPE_NAMES, BAD_TYPE);
+        }
+        if (error == null) {
+            error = appendName(b, STATUS, STATUS_NAMES, BAD_STATUS);
+        }
+        if (error == null) {
+            error = appendName(b, PAYMENT_METHOD, PAYMENT_METHOD_NAMES, BAD_PAYMENT_METHOD);
+        }
+        if (error == null) {
+            error = appendCreatedAt(b);
+        }
+        if (error != null) {
+            outLength = rowStart;
+        }
+        return error;
+    }
+
+    private String appendExternalId(ByteBuffer b) {
+        int start = starts[EXTERNAL_ID];
+        int end = ends[EXTERNAL_ID];
+        if (end <= start || end - start > MAX_EXTERNAL_ID_LENGTH) {
+            return BAD_EXTERNAL_ID;
+        }
+        byte[] o = out;
+        int n = outLength;
+        for (int i = start; i < end; i++) {
+            byte c = b.get(i);
+            if (!EXTERNAL_ID_CHARS[c & 0xFF]) {
+                return BAD_EXTERNAL_ID;
+            }
+            o[n++] = c;
+        }
+        o[n++] = '\t';
+        outLength = n;
+        return null;
+    }
+
+    private String appendUserId(ByteBuffer b) {
+        int start = starts[USER_ID];
+        int end = ends[USER_ID];
+        if (end <= start || end - start > 18) {
+            return BAD_USER_ID;
+        }
+        byte[] o = out;
+        int n = outLength;
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            byte c = b.get(i);
+            if (!isDigit(c)) {
+                return BAD_USER_ID;
+            }
+            id = id * 10 + (c - '0');
+            o[n++] = c;
+        }
+        if (!userIds.contains(id)) {
+            return UNKNOWN_USER;
+        }
+        o[n++] = '\t';
+        outLength = n;
+        return null;
+    }
+
+    private String appendAmount(ByteBuffer b) {
+        int pos = starts[AMOUNT];
+        int end = ends[AMOUNT];
+        byte[] o = out;
+        int n = outLength;
+        if (pos < end && b.get(pos) == '-') {
+            o[n++] = '-';
+            pos++;
+        }
+        int integerStart = pos;
+        byte c = 0;
+        while (pos < end && isDigit(c = b.get(pos))) {
+            o[n++] = c;
+            pos++;
+        }
+        int integerDigits = pos - integerStart;
+        if (integerDigits == 0 || integerDigits > MAX_INTEGER_DIGITS) {
+            return BAD_AMOUNT;
+        }
+        if (pos < end) {
+            int fractionDigits = end - pos - 1;
+            if (c != '.' || fractionDigits < 1 || fractionDigits > 2) {
+                return BAD_AMOUNT;
+            }
+            o[n++] = '.';
+            for (pos++; pos < end; pos++) {
+                c = b.get(pos);
+                if (!isDigit(c)) {
+                    return BAD_AMOUNT;
+                }
+                o[n++] = c;
+            }
+        }
+        o[n++] = '\t';
+        outLength = n;
+        return null;
+    }
+
+    private String appendCurrency(ByteBuffer b) {
+        int start = starts[CURRENCY];
+        if (ends[CURRENCY] - start != 3) {
+            return BAD_CURRENCY;
+        }
+        for (int i = start; i < start + 3; i++) {
+            byte c = b.get(i);
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            if (c < 'A' || c > 'Z') {
+                return BAD_CURRENCY;
+            }
+            out[outLength++] = c;
+        }
+        out[outLength++] = '\t';
+        return null;
+    }
+
+    /**
+     * Matches an enum constant name (ASCII case-insensitive) and appends its canonical form.
+     */
+    private String appendName(ByteBuffer b, int field, byte[][] names, String error) {
+        for (byte[] name : names) {
+            if (equalsIgnoreCase(b, starts[field], ends[field], name)) {
+                System.arraycopy(name, 0, out, outLength, name.length);
+                outLength += name.length;
+                out[outLength++] = '\t';
+                return null;
+            }
+        }
+        return error;
+    }
+
+    private String appendCreatedAt(ByteBuffer b) {
+        int p = starts[CREATED_AT];
+        int end = ends[CREATED_AT];
+        int length = end - p;
+        if (length < 19 || length == 20 || length > 26
+                || b.get(p + 4) != '-' || b.get(p + 7) != '-'
+                || (b.get(p + 10) != 'T' && b.get(p + 10) != ' ')
+                || b.get(p + 13) != ':' || b.get(p + 16) != ':'
+                || (length > 19 && b.get(p + 19) != '.')) {
+            return BAD_CREATED_AT;
+        }
+        int year = digits(b, p, 4);
+        int month = digits(b, p + 5, 2);
+        int day = digits(b, p + 8, 2);
+        int hour = digits(b, p + 11, 2);
+        int minute = digits(b, p + 14, 2);
+        int second = digits(b, p + 17, 2);
+        int fraction = length > 19 ? digits(b, p + 20, length - 20) : 0;
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || fraction < 0) {
+            return BAD_CREATED_AT;
+        }
+        byte[] o = out;
+        int n = outLength;
+        for (int i = p; i < p + 10; i++) {
+            o[n++] = b.get(i);
+        }
+        o[n++] = ' ';
+        for (int i = p + 11; i < end; i++) {
+            o[n++] = b.get(i);
+        }
+        o[n++] = '\n';
+        outLength = n;
+        long epochDay = epochDay(year, month, day);
+        minDay = Math.min(minDay, epochDay);
+        maxDay = Math.max(maxDay, epochDay);
+        return null;
+    }
+
+    private void ensureCapacity(int rowBytes) {
+        if (outLength + rowBytes > out.length) {
+            out = Arrays.copyOf(out, Math.max(out.length * 2, outLength + rowBytes));
+        }
+    }
+
+    private static int fieldForKey(ByteBuffer b, int start, int end) {
+        for (int field = 0; field < FIELDS; field++) {
+            if (equalsIgnoreCase(b, start, end, FIELD_KEYS[field])) {
+                return field;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the value of {@code count} ASCII digits, or -1 if any is not a digit
+     */
+    private static int digits(ByteBuffer b, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte c = b.get(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date, without allocating a LocalDate.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /**
+     * ASCII case-insensitive comparison with an upper-case {@code expected}.
+     */
+    private static boolean equalsIgnoreCase(ByteBuffer b, int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            byte c = b.get(start + i);
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            if (c != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int indexOf(ByteBuffer b, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(ByteBuffer b, int pos, int end) {
+        while (pos < end && (b.get(pos) == ' ' || b.get(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isJsonDelimiter(byte c) {
+        return c == ',' || c == '}' || c == ' ' || c == '\t';
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static byte[][] ascii(String[] values) {
+        byte[][] bytes = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = values[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        return ascii(Arrays.stream(values).map(Enum::name).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,63 @@
+package com.toucanus.analytics_dashboard.service.settlement;
+
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable snapshot of all user ids, for validating user references without a query per
+ * row. Ids are kept as a bitset when they are dense enough for it to be no larger than a
+ * sorted array (the usual case for identity ids), otherwise as a sorted array.
+ */
+final class UserIdSet {
+
+    private final long[] bits;
+    private final long[] sorted;
+    private final int size;
+
+    private UserIdSet(long[] ids, int size) {
+        this.size = size;
+        long max = size == 0 ? 0 : ids[size - 1];
+        if (max / 64 < size) {
+            bits = new long[(int) (max / 64) + 1];
+            for (int i = 0; i < size; i++) {
+                bits[(int) (ids[i] >>> 6)] |= 1L << ids[i];
+            }
+            sorted = null;
+        } else {
+            bits = null;
+            sorted = Arrays.copyOf(ids, size);
+        }
+    }
+
+    static UserIdSet load(UserRepository userRepository, int pageSize) {
+        long[] ids = new long[1024];
+        int size = 0;
+        long after = 0;
+        List<Long> page;
+        do {
+            page = userRepository.selectIdsAfter(after, PageRequest.ofSize(pageSize));
+            if (size + page.size() > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + page.size()));
+            }
+            for (Long id : page) {
+                ids[size++] = id;
+                after = id;
+            }
+        } while (page.size() == pageSize);
+        return new UserIdSet(ids, size);
+    }
+
+    boolean contains(long id) {
+        if (bits != null) {
+            return id >= 0 && (id >>> 6) < bits.length && (bits[(int) (id >>> 6)] & (1L << id)) != 0;
+        }
+        return Arrays.binarySearch(sorted, id) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+}
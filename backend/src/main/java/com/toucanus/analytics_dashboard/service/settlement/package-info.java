@@ -0,0 +1,4 @@
+/**
+ * Bulk import of processor settlement files into the transactions table.
+ */
+package com.toucanus.analytics_dashboard.service.settlement;
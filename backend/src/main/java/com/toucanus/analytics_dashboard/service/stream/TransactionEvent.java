@@ -0,0 +1,22 @@
+package com.toucanus.analytics_dashboard.service.stream;
+
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Flat, immutable view of a newly created transaction.
+ */
+public record TransactionEvent(
+        UUID id,
+        Long userId,
+        BigDecimal amount,
+        TxnType type,
+        TxnStatus status,
+        PaymentMethod paymentMethod,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,10 @@
+package com.toucanus.analytics_dashboard.service.stream;
+
+/**
+ * Consumer of {@link TransactionEvent}s. Implementations are called from the feed thread
+ * for every new transaction and must be O(1) and must not touch the database.
+ */
+public interface TransactionEventListener {
+
+    void onTransaction(TransactionEvent event);
+}
@@ -0,0 +1,81 @@
+package com.toucanus.analytics_dashboard.service.stream;
+
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tails the transactions table by (created_at, id) keyset and hands every new row to the
+ * registered {@link TransactionEventListener}s. One batched query per poll, never a query
+ * per event. Starts at "now", so history is not replayed; rows committed later with an
+ * older created_at than the watermark are not seen.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "stream.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionTailService {
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final TransactionRepository transactionRepository;
+    private final List<TransactionEventListener> listeners;
+    private final int batchSize;
+
+    private LocalDateTime watermarkCreatedAt = LocalDateTime.now();
+    private UUID watermarkId = MIN_UUID;
+
+    public TransactionTailService(TransactionRepository transactionRepository,
+                                  List<TransactionEventListener> listeners,
+                                  @Value("${stream.batch-size:5000}") int batchSize) {
+        this.transactionRepository = transactionRepository;
+        this.listeners = listeners;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${stream.poll-interval:PT2S}")
+    public void poll() {
+        List<Object[]> rows;
+        do {
+            rows = transactionRepository.selectCreatedAfter(watermarkCreatedAt, watermarkId, batchSize);
+            for (Object[] row : rows) {
+                TransactionEvent event = toEvent(row);
+                dispatch(event);
+                watermarkCreatedAt = event.createdAt();
+                watermarkId = event.id();
+            }
+        } while (rows.size() == batchSize);
+    }
+
+    private void dispatch(TransactionEvent event) {
+        for (TransactionEventListener listener : listeners) {
+            try {
+                listener.onTransaction(event);
+            } catch (RuntimeException e) {
+                log.warn("Listener {} failed on transaction {}", listener.getClass().getSimpleName(), event.id(), e);
+            }
+        }
+    }
+
+    private TransactionEvent toEvent(Object[] row) {
+        return new TransactionEvent(
+                row[0] instanceof UUID uuid ? uuid : UUID.fromString(row[0].toString()),
+                ((Number) row[1]).longValue(),
+                row[2] instanceof BigDecimal bd ? bd : new BigDecimal(row[2].toString()),
+                TxnType.valueOf(row[3].toString()),
+                TxnStatus.valueOf(row[4].toString()),
+                PaymentMethod.valueOf(row[5].toString()),
+                row[6] instanceof Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) row[6]);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Feed of newly created transactions for in-memory, incremental consumers.
+ */
+package com.toucanus.analytics_dashboard.service.stream;
@@ -0,0 +1,143 @@
+package com.toucanus.analytics_dashboard.service.topn;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded heavy-hitter summary in Space-Saving form: at most {@code capacity} keys with
+ * their weights, plus a {@code floor} that bounds the weight of every key that was
+ * dropped. Summaries of disjoint inputs (days) merge by adding the floor of each part a
+ * key is missing from, which keeps every merged weight an upper bound.
+ * <p>
+ * Stored as primitive arrays so a day's summaries stay small.
+ */
+final class SpaceSavingSummary {
+
+    static final SpaceSavingSummary EMPTY = new SpaceSavingSummary(new long[0], new double[0], 0);
+
+    private final long[] keys;
+    private final double[] weights;
+    private final double floor;
+
+    private SpaceSavingSummary(long[] keys, double[] weights, double floor) {
+        this.keys = keys;
+        this.weights = weights;
+        this.floor = floor;
+    }
+
+    double floor() {
+        return floor;
+    }
+
+    long sizeInBytes() {
+        return 16L + keys.length * 16L;
+    }
+
+    /**
+     * Upper bounds over the union of the parts. Keys absent from the result are bounded
+     * by {@link Merged#floor()}.
+     */
+    static Merged merge(List<SpaceSavingSummary> parts) {
+        double floorSum = 0;
+        for (SpaceSavingSummary part : parts) {
+            floorSum += part.floor;
+        }
+        // Each key starts from the sum of all floors; a part that holds the key replaces
+        // its floor with the actual weight.
+        Map<Long, Double> upper = new HashMap<>();
+        for (SpaceSavingSummary part : parts) {
+            for (int i = 0; i < part.keys.length; i++) {
+                upper.merge(part.keys[i], part.weights[i] - part.floor, Double::sum);
+            }
+        }
+        double base = floorSum;
+        upper.replaceAll((key, excess) -> base + excess);
+        return new Merged(upper, floorSum);
+    }
+
+    record Merged(Map<Long, Double> upperBounds, double floor) {
+    }
+
+    /**
+     * Keeps the {@code capacity} heaviest of the offered keys in a min-heap; each key must
+     * be offered at most once, with its exact weight.
+     */
+    static final class Builder {
+
+        private final long[] keys;
+        private final double[] weights;
+        private int size;
+        private double floor;
+
+        Builder(int capacity) {
+            this.keys = new long[capacity];
+            this.weights = new double[capacity];
+        }
+
+        void offer(long key, double weight) {
+            if (size < keys.length) {
+                keys[size] = key;
+                weights[size] = weight;
+                siftUp(size++);
+            } else if (keys.length == 0 || weight <= weights[0]) {
+                floor = Math.max(floor, weight);
+            } else {
+                floor = Math.max(floor, weights[0]);
+                keys[0] = key;
+                weights[0] = weight;
+                siftDown(0);
+            }
+        }
+
+        SpaceSavingSummary build() {
+            if (size == 0) {
+                return floor == 0 ? EMPTY : new SpaceSavingSummary(new long[0], new double[0], floor);
+            }
+            long[] k = new long[size];
+            double[] w = new double[size];
+            System.arraycopy(keys, 0, k, 0, size);
+            System.arraycopy(weights, 0, w, 0, size);
+            return new SpaceSavingSummary(k, w, floor);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (weights[parent] <= weights[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && weights[left] < weights[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && weights[right] < weights[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            double weight = weights[a];
+            weights[a] = weights[b];
+            weights[b] = weight;
+        }
+    }
+}
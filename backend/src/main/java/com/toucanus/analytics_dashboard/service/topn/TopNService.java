@@ -0,0 +1,274 @@
+package com.toucanus.analytics_dashboard.service.topn;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.toucanus.analytics_dashboard.dto.top.TopUserDTO;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TopMetric;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.service.user.UserDirectory;
+import com.toucanus.analytics_dashboard.service.user.UserDisplay;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Top users and merchants by transaction count or GTV.
+ * <p>
+ * Each day is summarised once into {@link SpaceSavingSummary} heavy-hitter lists, one per
+ * (status or any) x (payment method or any) x (all users or merchants) x metric. A range
+ * query merges the day summaries, re-checks the strongest candidates against the
+ * transactions table, and returns those exact totals. When the merged error bound says a
+ * user outside the candidate set could still make the top N, the ranking falls back to an
+ * exact GROUP BY (counted in {@code topn.fallbacks}).
+ * <p>
+ * Closed days are cached up to {@code topn.max-cached-days}; today is rebuilt at most
+ * every {@code topn.today-refresh}. A range longer than the cache goes straight to the
+ * exact query, since summarising it would evict and rebuild most of its days every time.
+ */
+@Slf4j
+@Service
+public class TopNService {
+
+    private static final int ANY = 3;
+    private static final int SLOTS = 4 * 4 * 2 * 2;
+
+    private final TransactionRepository transactionRepository;
+    private final UserDirectory userDirectory;
+    private final TransactionTemplate readOnlyTx;
+    private final int dayCapacity;
+    private final int oversample;
+    private final int maxCachedDays;
+    private final Counter fallbacks;
+    private final Counter longRangeFallbacks;
+    private final LoadingCache<LocalDate, SpaceSavingSummary[]> days;
+
+    public TopNService(TransactionRepository transactionRepository,
+                       UserDirectory userDirectory,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${topn.day-capacity:256}") int dayCapacity,
+                       @Value("${topn.oversample:4}") int oversample,
+                       @Value("${topn.max-cached-days:120}") int maxCachedDays,
+                       @Value("${topn.today-refresh:PT1M}") Duration todayRefresh) {
+        this.transactionRepository = transactionRepository;
+        this.userDirectory = userDirectory;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.dayCapacity = dayCapacity;
+        this.oversample = oversample;
+        this.maxCachedDays = maxCachedDays;
+        this.fallbacks = Counter.builder("topn.fallbacks")
+                .description("Top-N queries answered by an exact GROUP BY instead of the summaries")
+                .tag("reason", "inconclusive")
+                .register(meterRegistry);
+        this.longRangeFallbacks = Counter.builder("topn.fallbacks")
+                .description("Top-N queries answered by an exact GROUP BY instead of the summaries")
+                .tag("reason", "long-range")
+                .register(meterRegistry);
+
+        // A summary built while its day was still open expires quickly; closed days stay.
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maxCachedDays)
+                .expireAfter(new Expiry<LocalDate, SpaceSavingSummary[]>() {
+                    @Override
+                    public long expireAfterCreate(LocalDate day, SpaceSavingSummary[] value, long currentTime) {
+                        return day.isBefore(LocalDate.now()) ? Long.MAX_VALUE : todayRefresh.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(LocalDate day, SpaceSavingSummary[] value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(day, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(LocalDate day, SpaceSavingSummary[] value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build(this::buildDay);
+
+        Gauge.builder("topn.summary.bytes", this, TopNService::sizeInBytes)
+                .description("Approximate heap used by per-day heavy-hitter summaries")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drops the cached summaries of [startDate, endDate], e.g. after rows were added to closed days.
+     */
+    public void invalidate(LocalDate startDate, LocalDate endDate) {
+        days.invalidateAll(days.asMap().keySet().stream()
+                .filter(day -> !day.isBefore(startDate) && !day.isAfter(endDate))
+                .toList());
+    }
+
+    /**
+     * @param startDate     the start date (inclusive); defaults to 29 days before endDate if null
+     * @param endDate       the end date (inclusive); defaults to today if null
+     * @param merchantsOnly rank only users with {@code Role.MERCHANT}
+     * @param status        optional status filter; GTV defaults to SUCCESS
+     * @param paymentMethod optional payment method filter
+     */
+    public List<TopUserDTO> getTopUsers(LocalDate startDate, LocalDate endDate, boolean merchantsOnly,
+                                        TopMetric metric, TxnStatus status, PaymentMethod paymentMethod,
+                                        int limit) {
+        if (endDate == null) {
+            endDate = LocalDate.now();
+        }
+        if (startDate == null) {
+            startDate = endDate.minusDays(29);
+        }
+        if (metric == TopMetric.GTV && status == null) {
+            status = TxnStatus.SUCCESS;
+        }
+        LocalDate lastDay = endDate.isAfter(LocalDate.now()) ? LocalDate.now() : endDate;
+        String statusName = status != null ? status.name() : null;
+        String methodName = paymentMethod != null ? paymentMethod.name() : null;
+
+        if (ChronoUnit.DAYS.between(startDate, lastDay) >= maxCachedDays) {
+            longRangeFallbacks.increment();
+            return toDtos(transactionRepository.selectTopUsers(startDate.atStartOfDay(),
+                    endDate.plusDays(1).atStartOfDay(), merchantsOnly, statusName, methodName,
+                    metric == TopMetric.GTV, limit));
+        }
+        int slot = slot(status != null ? status.ordinal() : ANY,
+                paymentMethod != null ? paymentMethod.ordinal() : ANY, merchantsOnly, metric);
+        List<SpaceSavingSummary> parts = new ArrayList<>();
+        for (LocalDate d = startDate; !d.isAfter(lastDay); d = d.plusDays(1)) {
+            parts.add(days.get(d)[slot]);
+        }
+        SpaceSavingSummary.Merged merged = SpaceSavingSummary.merge(parts);
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(merged.upperBounds().entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+        int candidateCount = Math.min(ranked.size(), limit * oversample);
+        List<Long> candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            candidates.add(ranked.get(i).getKey());
+        }
+        // Anyone not re-checked is bounded by the next upper bound, or by the floor
+        double unchecked = candidateCount < ranked.size() ? ranked.get(candidateCount).getValue() : merged.floor();
+
+        List<Object[]> rows = candidates.isEmpty() ? List.of()
+                : transactionRepository.selectUserTotals(candidates, startDate.atStartOfDay(),
+                        endDate.plusDays(1).atStartOfDay(), statusName, methodName);
+        Comparator<Object[]> order = Comparator.comparingDouble(row -> weight(row, metric));
+        rows = new ArrayList<>(rows);
+        rows.sort(order.reversed());
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+        }
+
+        boolean guaranteed = rows.size() == limit
+                ? weight(rows.get(rows.size() - 1), metric) >= unchecked
+                : unchecked <= 0;
+        if (!guaranteed) {
+            log.debug("Top-N summaries inconclusive for {}..{} (slot {}), running exact query", startDate, endDate, slot);
+            fallbacks.increment();
+            rows = transactionRepository.selectTopUsers(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay(),
+                    merchantsOnly, statusName, methodName, metric == TopMetric.GTV, limit);
+        }
+        return toDtos(rows);
+    }
+
+    private SpaceSavingSummary[] buildDay(LocalDate day) {
+        if (day.isAfter(LocalDate.now())) {
+            return emptyDay();
+        }
+        SpaceSavingSummary.Builder[] builders = new SpaceSavingSummary.Builder[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            builders[i] = new SpaceSavingSummary.Builder(dayCapacity);
+        }
+        readOnlyTx.executeWithoutResult(tx -> {
+            try (Stream<Object[]> rows = transactionRepository.streamUserAggregatesInRange(
+                    day.atStartOfDay(), day.plusDays(1).atStartOfDay())) {
+                rows.forEach(row -> {
+                    long userId = ((Number) row[0]).longValue();
+                    boolean merchant = Boolean.TRUE.equals(row[1]);
+                    int status = row[2] != null ? TxnStatus.valueOf((String) row[2]).ordinal() : ANY;
+                    int method = row[3] != null ? PaymentMethod.valueOf((String) row[3]).ordinal() : ANY;
+                    double count = ((Number) row[4]).doubleValue();
+                    double amount = ((Number) row[5]).doubleValue();
+
+                    builders[slot(status, method, false, TopMetric.COUNT)].offer(userId, count);
+                    builders[slot(status, method, false, TopMetric.GTV)].offer(userId, amount);
+                    if (merchant) {
+                        builders[slot(status, method, true, TopMetric.COUNT)].offer(userId, count);
+                        builders[slot(status, method, true, TopMetric.GTV)].offer(userId, amount);
+                    }
+                });
+            }
+        });
+        SpaceSavingSummary[] summaries = new SpaceSavingSummary[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            summaries[i] = builders[i].build();
+        }
+        return summaries;
+    }
+
+    private List<TopUserDTO> toDtos(List<Object[]> rows) {
+        List<Long> ids = rows.stream().map(row -> ((Number) row[0]).longValue()).toList();
+        Map<Long, UserDisplay> users = userDirectory.getAll(ids);
+        List<TopUserDTO> result = new ArrayList<>(rows.size());
+        int rank = 1;
+        for (Object[] row : rows) {
+            Long userId = ((Number) row[0]).longValue();
+            UserDisplay user = users.get(userId);
+            result.add(new TopUserDTO(rank++, userId,
+                    user != null ? user.email() : null,
+                    user != null ? user.fullName() : null,
+                    user != null ? user.role() : null,
+                    ((Number) row[1]).longValue(),
+                    toBigDecimal(row[2])));
+        }
+        return result;
+    }
+
+    private static double weight(Object[] row, TopMetric metric) {
+        return ((Number) (metric == TopMetric.GTV ? row[2] : row[1])).doubleValue();
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static int slot(int status, int method, boolean merchantsOnly, TopMetric metric) {
+        return ((status * 4 + method) * 2 + (merchantsOnly ? 1 : 0)) * 2 + metric.ordinal();
+    }
+
+    private static SpaceSavingSummary[] emptyDay() {
+        SpaceSavingSummary[] summaries = new SpaceSavingSummary[SLOTS];
+        Arrays.fill(summaries, SpaceSavingSummary.EMPTY);
+        return summaries;
+    }
+
+    private long sizeInBytes() {
+        long bytes = 0;
+        for (SpaceSavingSummary[] summaries : days.asMap().values()) {
+            for (SpaceSavingSummary summary : summaries) {
+                bytes += summary.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+}
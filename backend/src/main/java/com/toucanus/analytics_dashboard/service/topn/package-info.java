@@ -0,0 +1,4 @@
+/**
+ * Top-N users and merchants backed by heavy-hitter summaries.
+ */
+package com.toucanus.analytics_dashboard.service.topn;
@@ -0,0 +1,212 @@
+package com.toucanus.analytics_dashboard.service.user;
+
+import com.toucanus.analytics_dashboard.dto.user.UserSuggestionDTO;
+import com.toucanus.analytics_dashboard.enums.Role;
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory user dimension: id to display data plus a trigram index over email and name.
+ * <p>
+ * The full table is loaded in keyset pages on a schedule ({@code users.dimension.resync-interval})
+ * into a fresh {@link UserIndex} that replaces the current one, which also picks up edits
+ * and deletes. In between, users with ids above the last loaded one are appended every
+ * {@code users.dimension.poll-interval}. Writes from this process can be applied directly
+ * with {@link #put} and {@link #remove}. Until the first load completes, lookups return
+ * empty so callers fall back to the database.
+ */
+@Slf4j
+@Service
+public class UserDimension {
+
+    private final UserRepository userRepository;
+    private final int pageSize;
+    private final int maxScan;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile UserIndex index;
+    private volatile long lastId;
+
+    public UserDimension(UserRepository userRepository,
+                         MeterRegistry meterRegistry,
+                         @Value("${users.dimension.page-size:50000}") int pageSize,
+                         @Value("${users.dimension.max-scan:200000}") int maxScan) {
+        this.userRepository = userRepository;
+        this.pageSize = pageSize;
+        this.maxScan = maxScan;
+        Gauge.builder("user.dimension.bytes", this, UserDimension::sizeInBytes)
+                .description("Approximate heap used by the in-memory user dimension")
+                .register(meterRegistry);
+        Gauge.builder("user.dimension.users", this, UserDimension::size)
+                .description("Users held in the in-memory user dimension")
+                .register(meterRegistry);
+    }
+
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    /**
+     * Ids of users with exactly this email; empty if not loaded.
+     */
+    public Optional<List<Long>> idsByEmail(String email) {
+        UserIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(current.idsByEmail(email, maxScan));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Autocomplete over email and full name. Before the first load, falls back to a
+     * prefix query on the users table.
+     */
+    public List<UserSuggestionDTO> suggest(String query, int limit) {
+        UserIndex current = index;
+        if (current == null) {
+            return userRepository.selectDisplayDataByPrefix(query.trim().toLowerCase(Locale.ROOT),
+                            PageRequest.ofSize(limit)).stream()
+                    .map(row -> new UserSuggestionDTO((Long) row[0], (String) row[1], (String) row[2], (Role) row[3]))
+                    .toList();
+        }
+        List<UserIndex.Match> matches;
+        lock.readLock().lock();
+        try {
+            matches = current.suggest(query, limit, maxScan);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches.stream()
+                .map(match -> new UserSuggestionDTO(match.id(), match.email(), match.fullName(), match.role()))
+                .toList();
+    }
+
+    /**
+     * Display data for one user; null if unknown or not loaded.
+     */
+    public UserDisplay get(long id) {
+        UserIndex current = index;
+        if (current == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return current.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(long id, String email, String fullName, Role role) {
+        UserIndex current = index;
+        if (current == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            current.put(id, email, fullName, role);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        UserIndex current = index;
+        if (current == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            current.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${users.dimension.initial-delay:PT0S}",
+            fixedDelayString = "${users.dimension.resync-interval:PT1H}")
+    public void resync() {
+        long started = System.nanoTime();
+        UserIndex fresh = new UserIndex();
+        long after = 0;
+        List<Object[]> page;
+        do {
+            page = userRepository.selectDisplayDataAfter(after, PageRequest.ofSize(pageSize));
+            for (Object[] row : page) {
+                fresh.put((Long) row[0], (String) row[1], (String) row[2], (Role) row[3]);
+                after = (Long) row[0];
+            }
+        } while (page.size() == pageSize);
+
+        lock.writeLock().lock();
+        try {
+            // Rows appended by a concurrent poll are re-read by the next poll
+            index = fresh;
+            lastId = after;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("User dimension loaded: {} users, ~{} MB, {} ms", fresh.size(),
+                fresh.sizeInBytes() / (1024 * 1024), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Scheduled(initialDelayString = "${users.dimension.poll-interval:PT10S}",
+            fixedDelayString = "${users.dimension.poll-interval:PT10S}")
+    public void pollNewUsers() {
+        UserIndex current = index;
+        if (current == null) {
+            return;
+        }
+        List<Object[]> page = userRepository.selectDisplayDataAfter(lastId, PageRequest.ofSize(pageSize));
+        if (page.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (current != index) {
+                return; // replaced by a resync meanwhile
+            }
+            for (Object[] row : page) {
+                current.put((Long) row[0], (String) row[1], (String) row[2], (Role) row[3]);
+                lastId = Math.max(lastId, (Long) row[0]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private double size() {
+        UserIndex current = index;
+        return current == null ? 0 : current.size();
+    }
+
+    private double sizeInBytes() {
+        UserIndex current = index;
+        if (current == null) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            return current.sizeInBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
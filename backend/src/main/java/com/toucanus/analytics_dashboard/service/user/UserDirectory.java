@@ -0,0 +1,58 @@
+package com.toucanus.analytics_dashboard.service.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.toucanus.analytics_dashboard.enums.Role;
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Id to display data lookups. Served from the {@link UserDimension} once it is loaded;
+ * otherwise cached and loaded in bulk with a projection query.
+ */
+@Service
+public class UserDirectory {
+
+    private final UserRepository userRepository;
+    private final UserDimension userDimension;
+    private final Cache<Long, UserDisplay> cache = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    public UserDirectory(UserRepository userRepository, UserDimension userDimension) {
+        this.userRepository = userRepository;
+        this.userDimension = userDimension;
+    }
+
+    public Map<Long, UserDisplay> getAll(Collection<Long> ids) {
+        Map<Long, UserDisplay> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            UserDisplay display = userDimension.get(id);
+            if (display == null) {
+                display = cache.getIfPresent(id);
+            }
+            if (display != null) {
+                result.put(id, display);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Object[] row : userRepository.selectDisplayData(missing)) {
+                UserDisplay display = new UserDisplay((Long) row[0], (String) row[1], (String) row[2], (Role) row[3]);
+                cache.put(display.id(), display);
+                result.put(display.id(), display);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,9 @@
+package com.toucanus.analytics_dashboard.service.user;
+
+import com.toucanus.analytics_dashboard.enums.Role;
+
+/**
+ * The user columns shown next to analytics rows.
+ */
+public record UserDisplay(Long id, String email, String fullName, Role role) {
+}
@@ -0,0 +1,425 @@
+package com.toucanus.analytics_dashboard.service.user;
+
+import com.toucanus.analytics_dashboard.enums.Role;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Columnar id to (email, full name, role) dictionary with a trigram index over the
+ * lower-cased email and name. Not thread-safe; {@link UserDimension} guards it.
+ * <p>
+ * Every version of a user gets a new slot: the old slot is tombstoned and the id map
+ * points at the new one. Slots therefore only grow, which keeps posting lists sorted so
+ * they can be stored as varint deltas, and stale postings are filtered by the tombstone
+ * check. Strings are kept as UTF-8 byte arrays. Besides the plain trigrams of each string,
+ * word starts are indexed with anchor trigrams ({@code ^^a}, {@code ^ab}) so one- and
+ * two-character queries match word prefixes.
+ */
+final class UserIndex {
+
+    private static final byte ANCHOR = 1;
+    private static final long TOMBSTONE = -1L;
+    private static final Role[] ROLES = Role.values();
+
+    private long[] ids = new long[1024];
+    private byte[][] emails = new byte[1024][];
+    private byte[][] names = new byte[1024][];
+    private byte[] roles = new byte[1024];
+    private int slots;
+    private int live;
+
+    private final LongIntMap slotById = new LongIntMap(1024);
+    private final Map<Integer, PostingList> postings = new HashMap<>();
+
+    record Match(long id, String email, String fullName, Role role, int rank) {
+    }
+
+    int size() {
+        return live;
+    }
+
+    void put(long id, String email, String fullName, Role role) {
+        remove(id);
+        if (slots == ids.length) {
+            int capacity = slots + (slots >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+            names = Arrays.copyOf(names, capacity);
+            roles = Arrays.copyOf(roles, capacity);
+        }
+        int slot = slots++;
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        byte[] nameBytes = fullName.getBytes(StandardCharsets.UTF_8);
+        ids[slot] = id;
+        emails[slot] = emailBytes;
+        names[slot] = nameBytes;
+        roles[slot] = (byte) (role != null ? role.ordinal() : -1);
+        slotById.put(id, slot);
+        live++;
+
+        int[] trigrams = trigrams(lower(emailBytes), lower(nameBytes));
+        for (int trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new PostingList()).append(slot);
+        }
+    }
+
+    void remove(long id) {
+        int slot = slotById.remove(id);
+        if (slot >= 0) {
+            ids[slot] = TOMBSTONE;
+            emails[slot] = null;
+            names[slot] = null;
+            live--;
+        }
+    }
+
+    UserDisplay get(long id) {
+        int slot = slotById.get(id);
+        return slot < 0 ? null : display(slot);
+    }
+
+    /**
+     * Ids whose email equals {@code email} exactly, like the {@code users.email = ?} it
+     * replaces; the trigram lookup is case-insensitive, the final comparison is not.
+     */
+    List<Long> idsByEmail(String email, int maxScan) {
+        byte[] exact = email.trim().getBytes(StandardCharsets.UTF_8);
+        List<Long> result = new ArrayList<>(1);
+        for (int slot : candidates(lower(exact), maxScan)) {
+            if (Arrays.equals(emails[slot], exact)) {
+                result.add(ids[slot]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Users whose email or name contains the query (word prefixes for queries shorter than
+     * three characters). Ranked: email or name prefix, then word prefix, then substring.
+     */
+    List<Match> suggest(String query, int limit, int maxScan) {
+        byte[] needle = lower(query.trim().getBytes(StandardCharsets.UTF_8));
+        if (needle.length == 0) {
+            return List.of();
+        }
+        // Bounded max-heap of (rank, slot) with the worst match on top; only the final
+        // matches are decoded into strings
+        Comparator<long[]> order = Comparator.<long[]>comparingLong(m -> m[0])
+                .thenComparingInt(m -> emails[(int) m[1]].length)
+                .thenComparing((x, y) -> Arrays.compareUnsigned(emails[(int) x[1]], emails[(int) y[1]]));
+        PriorityQueue<long[]> best = new PriorityQueue<>(limit + 1, order.reversed());
+        for (int slot : candidates(needle, maxScan)) {
+            if (ids[slot] == TOMBSTONE) {
+                continue;
+            }
+            int rank = Math.min(rank(emails[slot], needle), rank(names[slot], needle));
+            if (rank == Integer.MAX_VALUE) {
+                continue;
+            }
+            long[] match = {rank, slot};
+            if (best.size() < limit) {
+                best.add(match);
+            } else if (order.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+        List<long[]> ranked = new ArrayList<>(best);
+        ranked.sort(order);
+        List<Match> matches = new ArrayList<>(ranked.size());
+        for (long[] match : ranked) {
+            UserDisplay user = display((int) match[1]);
+            matches.add(new Match(user.id(), user.email(), user.fullName(), user.role(), (int) match[0]));
+        }
+        return matches;
+    }
+
+    /**
+     * Approximate heap footprint in bytes (arrays, strings, id map, posting lists).
+     */
+    long sizeInBytes() {
+        long bytes = 16L + ids.length * 8L;
+        bytes += 2 * (16L + emails.length * 4L) + 16L + roles.length;
+        for (int slot = 0; slot < slots; slot++) {
+            if (emails[slot] != null) {
+                bytes += 16L + emails[slot].length + 16L + names[slot].length;
+            }
+        }
+        bytes += slotById.sizeInBytes();
+        for (PostingList posting : postings.values()) {
+            // HashMap node + boxed key + list object
+            bytes += 48L + 16L + posting.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private int[] candidates(byte[] needle, int maxScan) {
+        PostingList best;
+        if (needle.length == 1) {
+            best = postings.get(trigram(ANCHOR, ANCHOR, needle[0]));
+        } else if (needle.length == 2) {
+            best = postings.get(trigram(ANCHOR, needle[0], needle[1]));
+        } else {
+            best = null;
+            for (int i = 0; i + 2 < needle.length; i++) {
+                PostingList posting = postings.get(trigram(needle[i], needle[i + 1], needle[i + 2]));
+                if (posting == null) {
+                    return new int[0];
+                }
+                if (best == null || posting.count() < best.count()) {
+                    best = posting;
+                }
+            }
+        }
+        return best == null ? new int[0] : best.decode(maxScan);
+    }
+
+    private UserDisplay display(int slot) {
+        int role = roles[slot];
+        return new UserDisplay(ids[slot],
+                new String(emails[slot], StandardCharsets.UTF_8),
+                new String(names[slot], StandardCharsets.UTF_8),
+                role >= 0 ? ROLES[role] : null);
+    }
+
+    /**
+     * 0 = whole-string prefix, 1 = word prefix, 2 = substring, MAX_VALUE = no match.
+     */
+    private static int rank(byte[] value, byte[] needle) {
+        int at = indexOf(value, needle);
+        if (at < 0) {
+            return Integer.MAX_VALUE;
+        }
+        if (at == 0) {
+            return 0;
+        }
+        while (at >= 0) {
+            if (!isWordByte(value[at - 1])) {
+                return 1;
+            }
+            at = indexOf(value, needle, at + 1);
+        }
+        // Short queries only come from word-start postings, so they must match a word start
+        return needle.length < 3 ? Integer.MAX_VALUE : 2;
+    }
+
+    private static int indexOf(byte[] value, byte[] needle) {
+        return indexOf(value, needle, 0);
+    }
+
+    /**
+     * Case-insensitive (ASCII) search of an already lower-cased needle.
+     */
+    private static int indexOf(byte[] value, byte[] needle, int from) {
+        outer:
+        for (int i = from; i + needle.length <= value.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (lower(value[i + j]) != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int[] trigrams(byte[] email, byte[] name) {
+        int[] buffer = new int[2 * (email.length + name.length) + 4];
+        int n = addTrigrams(email, buffer, 0);
+        n = addTrigrams(name, buffer, n);
+        Arrays.sort(buffer, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || buffer[unique - 1] != buffer[i]) {
+                buffer[unique++] = buffer[i];
+            }
+        }
+        return Arrays.copyOf(buffer, unique);
+    }
+
+    private static int addTrigrams(byte[] value, int[] out, int n) {
+        for (int i = 0; i < value.length; i++) {
+            if (isWordByte(value[i]) && (i == 0 || !isWordByte(value[i - 1]))) {
+                out[n++] = trigram(ANCHOR, ANCHOR, value[i]);
+                if (i + 1 < value.length) {
+                    out[n++] = trigram(ANCHOR, value[i], value[i + 1]);
+                }
+            }
+            if (i + 2 < value.length) {
+                out[n++] = trigram(value[i], value[i + 1], value[i + 2]);
+            }
+        }
+        return n;
+    }
+
+    private static boolean isWordByte(byte b) {
+        return b != ' ' && b != '.' && b != '@' && b != '_' && b != '-' && b != '+';
+    }
+
+    private static int trigram(byte a, byte b, byte c) {
+        return (a & 0xff) << 16 | (b & 0xff) << 8 | (c & 0xff);
+    }
+
+    private static byte[] lower(byte[] value) {
+        byte[] result = new byte[value.length];
+        for (int i = 0; i < value.length; i++) {
+            result[i] = lower(value[i]);
+        }
+        return result;
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Ascending slot numbers stored as varint-encoded deltas.
+     */
+    private static final class PostingList {
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int last = -1;
+
+        void append(int slot) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            int delta = slot - last;
+            last = slot;
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        /**
+         * The most recent {@code max} slots (newest users win when a posting is huge).
+         */
+        int[] decode(int max) {
+            int[] all = new int[count];
+            int value = -1;
+            int pos = 0;
+            for (int i = 0; i < count; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value += delta;
+                all[i] = value;
+            }
+            return count <= max ? all : Arrays.copyOfRange(all, count - max, count);
+        }
+
+        long sizeInBytes() {
+            return 32L + 16L + data.length;
+        }
+    }
+
+    /**
+     * Open-addressing long to int map; -1 means absent.
+     */
+    private static final class LongIntMap {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+        private static final long DELETED = Long.MIN_VALUE + 1;
+
+        private long[] keys;
+        private int[] values;
+        private int used;
+
+        LongIntMap(int capacity) {
+            keys = new long[Integer.highestOneBit(capacity * 2 - 1) << 1];
+            values = new int[keys.length];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((used + 1) * 4L > keys.length * 3L) {
+                rehash(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            int firstDeleted = -1;
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == DELETED && firstDeleted < 0) {
+                    firstDeleted = i;
+                }
+                i = (i + 1) & mask;
+            }
+            if (firstDeleted >= 0) {
+                i = firstDeleted;
+            } else {
+                used++;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int remove(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    keys[i] = DELETED;
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        long sizeInBytes() {
+            return 32L + keys.length * 12L;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            used = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY && oldKeys[i] != DELETED) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Cached user dimension data.
+ */
+package com.toucanus.analytics_dashboard.service.user;
@@ -0,0 +1,374 @@
+package com.toucanus.analytics_dashboard.service.velocity;
+
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Sliding-window counters (count and amount per {@link TxnType}) for many users. Each stripe
+ * holds dense rows of primitive arrays behind an open-addressing id index, so updates
+ * allocate nothing and a user costs about 250 bytes plus index slack.
+ * <p>
+ * Each window keeps the current and the previous fixed interval of its length; the
+ * trailing-window estimate is {@code previous * (1 - elapsed fraction) + current}, which
+ * assumes events in the previous interval were spread evenly. Events older than the
+ * previous interval are ignored.
+ * <p>
+ * Each stripe has a {@link StampedLock}: the feed (a single writer) takes the write lock,
+ * point reads are optimistic and only fall back to the read lock if a write overlapped.
+ * Amounts are in minor units.
+ */
+final class VelocityCounters {
+
+    static final VelocityWindow[] WINDOWS = VelocityWindow.values();
+    static final int TYPES = TxnType.values().length;
+
+    private static final int W = WINDOWS.length;
+    private static final int CELLS = W * TYPES * 2;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 64;
+
+    private final Stripe[] stripes;
+    private final int maxUsersPerStripe;
+
+    VelocityCounters(int stripeCount, int maxUsers) {
+        int count = stripeCount <= 1 ? 1 : Integer.highestOneBit((stripeCount - 1) << 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(MIN_CAPACITY);
+        }
+        this.maxUsersPerStripe = Math.max(1, maxUsers / count);
+    }
+
+    /**
+     * @return false if the user is new and its stripe is full
+     */
+    boolean add(long userId, int type, long amount, long epochSecond) {
+        return stripe(userId).add(userId, type, amount, epochSecond, maxUsersPerStripe);
+    }
+
+    /**
+     * Trailing-window estimates for one user as {@code [window][type] -> count} and
+     * {@code [window][type] -> amount}; false if the user is not tracked.
+     */
+    boolean read(long userId, long now, double[][] counts, double[][] amounts) {
+        return stripe(userId).read(userId, now, counts, amounts);
+    }
+
+    /**
+     * Visits every tracked user whose estimate for {@code window} and {@code type}
+     * (-1 for all types) reaches either limit.
+     */
+    void scan(VelocityWindow window, int type, long now, double minCount, double minAmount, Visitor visitor) {
+        for (Stripe stripe : stripes) {
+            stripe.scan(window.ordinal(), type, now, minCount, minAmount, visitor);
+        }
+    }
+
+    /**
+     * Drops users whose last event is before {@code cutoff}, shrinking stripes as needed.
+     *
+     * @return users evicted
+     */
+    int evictIdle(long cutoff) {
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            evicted += stripe.evictIdle(cutoff);
+        }
+        return evicted;
+    }
+
+    long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    long sizeInBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += stripe.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    interface Visitor {
+
+        void visit(long userId, double count, double amount);
+    }
+
+    private Stripe stripe(long userId) {
+        return stripes[(int) mix(userId) & (stripes.length - 1)];
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static final class Stripe {
+
+        private final StampedLock lock = new StampedLock();
+
+        // Open-addressing index: user id -> row
+        private long[] keys;
+        private int[] rows;
+
+        // Dense rows 0..size-1
+        private long[] users;
+        private long[] lastSeen;
+        private int[] epochs;
+        private int[] counts;
+        private long[] amounts;
+        private int size;
+
+        Stripe(int capacity) {
+            index(capacity);
+            users = new long[capacity];
+            lastSeen = new long[capacity];
+            epochs = new int[capacity * W];
+            counts = new int[capacity * CELLS];
+            amounts = new long[capacity * CELLS];
+        }
+
+        boolean add(long userId, int type, long amount, long second, int maxUsers) {
+            long stamp = lock.writeLock();
+            try {
+                int row = find(userId);
+                if (row < 0) {
+                    if (size >= maxUsers) {
+                        return false;
+                    }
+                    row = append(userId);
+                }
+                lastSeen[row] = Math.max(lastSeen[row], second);
+                for (int w = 0; w < W; w++) {
+                    int interval = (int) (second / WINDOWS[w].getSeconds());
+                    int current = rotate(row, w, interval);
+                    int cell = row * CELLS + (w * TYPES + type) * 2;
+                    if (interval == current) {
+                        counts[cell + 1]++;
+                        amounts[cell + 1] += amount;
+                    } else if (interval == current - 1) {
+                        counts[cell]++;
+                        amounts[cell] += amount;
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        boolean read(long userId, long now, double[][] outCounts, double[][] outAmounts) {
+            long stamp = lock.tryOptimisticRead();
+            boolean found;
+            try {
+                found = readRow(userId, now, outCounts, outAmounts);
+            } catch (RuntimeException e) {
+                // arrays swapped by a concurrent resize; retried below
+                found = false;
+                stamp = 0;
+            }
+            if (stamp != 0 && lock.validate(stamp)) {
+                return found;
+            }
+            stamp = lock.readLock();
+            try {
+                return readRow(userId, now, outCounts, outAmounts);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void scan(int w, int type, long now, double minCount, double minAmount, Visitor visitor) {
+            long stamp = lock.readLock();
+            try {
+                int seconds = WINDOWS[w].getSeconds();
+                long interval = now / seconds;
+                double fraction = (double) (now % seconds) / seconds;
+                for (int row = 0; row < size; row++) {
+                    int epoch = epochs[row * W + w];
+                    double count = 0;
+                    double amount = 0;
+                    for (int t = 0; t < TYPES; t++) {
+                        if (type >= 0 && t != type) {
+                            continue;
+                        }
+                        int cell = row * CELLS + (w * TYPES + t) * 2;
+                        count += estimate(counts[cell], counts[cell + 1], epoch, interval, fraction);
+                        amount += estimate(amounts[cell], amounts[cell + 1], epoch, interval, fraction);
+                    }
+                    if (count >= minCount || amount >= minAmount) {
+                        visitor.visit(users[row], count, amount);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Compacts live rows to the front, then rebuilds the index and trims the arrays.
+         */
+        int evictIdle(long cutoff) {
+            long stamp = lock.writeLock();
+            try {
+                int live = 0;
+                for (int row = 0; row < size; row++) {
+                    if (lastSeen[row] < cutoff) {
+                        continue;
+                    }
+                    if (row != live) {
+                        users[live] = users[row];
+                        lastSeen[live] = lastSeen[row];
+                        System.arraycopy(epochs, row * W, epochs, live * W, W);
+                        System.arraycopy(counts, row * CELLS, counts, live * CELLS, CELLS);
+                        System.arraycopy(amounts, row * CELLS, amounts, live * CELLS, CELLS);
+                    }
+                    live++;
+                }
+                int evicted = size - live;
+                if (evicted == 0) {
+                    return 0;
+                }
+                size = live;
+                int capacity = Math.max(MIN_CAPACITY, live + (live >> 1));
+                if (capacity < users.length) {
+                    resizeRows(capacity);
+                }
+                int slots = MIN_CAPACITY;
+                while (live * 4 > slots * 3) {
+                    slots <<= 1;
+                }
+                index(slots);
+                for (int row = 0; row < live; row++) {
+                    insert(users[row], row);
+                }
+                return evicted;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        long sizeInBytes() {
+            return 7 * 16L + keys.length * (8L + 4L) + users.length * (8L + 8L + W * 4L + CELLS * (4L + 8L));
+        }
+
+        private boolean readRow(long userId, long now, double[][] outCounts, double[][] outAmounts) {
+            int row = find(userId);
+            if (row < 0) {
+                return false;
+            }
+            for (int w = 0; w < W; w++) {
+                int seconds = WINDOWS[w].getSeconds();
+                long interval = now / seconds;
+                double fraction = (double) (now % seconds) / seconds;
+                int epoch = epochs[row * W + w];
+                for (int t = 0; t < TYPES; t++) {
+                    int cell = row * CELLS + (w * TYPES + t) * 2;
+                    outCounts[w][t] = estimate(counts[cell], counts[cell + 1], epoch, interval, fraction);
+                    outAmounts[w][t] = estimate(amounts[cell], amounts[cell + 1], epoch, interval, fraction);
+                }
+            }
+            return true;
+        }
+
+        private static double estimate(long previous, long current, int epoch, long interval, double fraction) {
+            if (epoch == interval) {
+                return previous * (1 - fraction) + current;
+            }
+            if (epoch == interval - 1) {
+                return current * (1 - fraction);
+            }
+            return 0;
+        }
+
+        /**
+         * Moves the window's current interval forward to {@code interval} if it is newer.
+         *
+         * @return the row's current interval afterwards
+         */
+        private int rotate(int row, int w, int interval) {
+            int current = epochs[row * W + w];
+            if (interval <= current) {
+                return current;
+            }
+            boolean adjacent = interval == current + 1;
+            for (int t = 0; t < TYPES; t++) {
+                int cell = row * CELLS + (w * TYPES + t) * 2;
+                counts[cell] = adjacent ? counts[cell + 1] : 0;
+                amounts[cell] = adjacent ? amounts[cell + 1] : 0;
+                counts[cell + 1] = 0;
+                amounts[cell + 1] = 0;
+            }
+            epochs[row * W + w] = interval;
+            return interval;
+        }
+
+        private int append(long userId) {
+            if (size == users.length) {
+                resizeRows(size + (size >> 1));
+            }
+            if ((size + 1) * 4 > keys.length * 3) {
+                long[] oldKeys = keys;
+                int[] oldRows = rows;
+                index(keys.length * 2);
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != EMPTY) {
+                        insert(oldKeys[i], oldRows[i]);
+                    }
+                }
+            }
+            int row = size++;
+            users[row] = userId;
+            lastSeen[row] = Long.MIN_VALUE;
+            Arrays.fill(epochs, row * W, row * W + W, 0);
+            Arrays.fill(counts, row * CELLS, row * CELLS + CELLS, 0);
+            Arrays.fill(amounts, row * CELLS, row * CELLS + CELLS, 0);
+            insert(userId, row);
+            return row;
+        }
+
+        private int find(long key) {
+            long[] keys = this.keys;
+            int mask = keys.length - 1;
+            int i = (int) mix(key) & mask;
+            // Bounded so that an optimistic reader seeing a half-built index cannot spin
+            for (int probes = 0; probes <= mask && keys[i] != EMPTY; probes++, i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return rows[i];
+                }
+            }
+            return -1;
+        }
+
+        private void insert(long key, int row) {
+            int mask = keys.length - 1;
+            int i = (int) mix(key) & mask;
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            rows[i] = row;
+        }
+
+        private void index(int slots) {
+            keys = new long[slots];
+            Arrays.fill(keys, EMPTY);
+            rows = new int[slots];
+        }
+
+        private void resizeRows(int capacity) {
+            users = Arrays.copyOf(users, capacity);
+            lastSeen = Arrays.copyOf(lastSeen, capacity);
+            epochs = Arrays.copyOf(epochs, capacity * W);
+            counts = Arrays.copyOf(counts, capacity * CELLS);
+            amounts = Arrays.copyOf(amounts, capacity * CELLS);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.toucanus.analytics_dashboard.service.velocity;
+
+import com.toucanus.analytics_dashboard.config.VelocityProperties;
+import com.toucanus.analytics_dashboard.dto.velocity.UserVelocityDTO;
+import com.toucanus.analytics_dashboard.dto.velocity.VelocityBreachDTO;
+import com.toucanus.analytics_dashboard.dto.velocity.VelocityWindowDTO;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEvent;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Per-user transaction velocity over the trailing minute, hour and day, by {@link TxnType}.
+ * <p>
+ * Counters are updated from the transaction feed without touching the database and are
+ * not persisted, so after a restart they fill up again over the longest window. Users
+ * idle for {@code velocity.idle-after} are evicted every {@code velocity.sweep-interval};
+ * when {@code velocity.max-users} are tracked, events for further users are dropped and
+ * counted in {@code velocity.dropped}.
+ */
+@Slf4j
+@Service
+public class VelocityService implements TransactionEventListener {
+
+    private static final TxnType[] TYPES = TxnType.values();
+
+    private final VelocityProperties properties;
+    private final VelocityCounters counters;
+    private final Counter dropped;
+
+    public VelocityService(VelocityProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.counters = new VelocityCounters(properties.getStripes(), properties.getMaxUsers());
+        this.dropped = Counter.builder("velocity.dropped")
+                .description("Transactions not counted because the velocity table was full")
+                .register(meterRegistry);
+        Gauge.builder("velocity.users", counters, VelocityCounters::size)
+                .description("Users tracked by the velocity counters")
+                .register(meterRegistry);
+        Gauge.builder("velocity.bytes", counters, VelocityCounters::sizeInBytes)
+                .description("Approximate heap used by the velocity counters")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onTransaction(TransactionEvent event) {
+        long second = event.createdAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+        long amount = event.amount().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        if (!counters.add(event.userId(), event.type().ordinal(), amount, second)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Velocity of one user; empty if the user has no transaction within the last day
+     * (or was never seen since startup).
+     */
+    public Optional<UserVelocityDTO> getUserVelocity(long userId) {
+        VelocityWindow[] windows = VelocityCounters.WINDOWS;
+        double[][] counts = new double[windows.length][TYPES.length];
+        double[][] amounts = new double[windows.length][TYPES.length];
+        if (!counters.read(userId, Instant.now().getEpochSecond(), counts, amounts)) {
+            return Optional.empty();
+        }
+        List<VelocityWindowDTO> result = new ArrayList<>(windows.length);
+        for (VelocityWindow window : windows) {
+            int w = window.ordinal();
+            Map<TxnType, Long> countByType = new EnumMap<>(TxnType.class);
+            Map<TxnType, BigDecimal> amountByType = new EnumMap<>(TxnType.class);
+            double totalCount = 0;
+            double totalAmount = 0;
+            for (TxnType type : TYPES) {
+                countByType.put(type, Math.round(counts[w][type.ordinal()]));
+                amountByType.put(type, toAmount(amounts[w][type.ordinal()]));
+                totalCount += counts[w][type.ordinal()];
+                totalAmount += amounts[w][type.ordinal()];
+            }
+            result.add(new VelocityWindowDTO(window, Math.round(totalCount), toAmount(totalAmount),
+                    countByType, amountByType));
+        }
+        return Optional.of(new UserVelocityDTO(userId, result));
+    }
+
+    /**
+     * Users at or over {@code minCount} transactions or {@code minAmount} in the window,
+     * highest count first. Missing limits default to {@code velocity.thresholds.<window>};
+     * a null type means all types together.
+     */
+    public List<VelocityBreachDTO> getBreaches(VelocityWindow window, TxnType type, Long minCount,
+                                               BigDecimal minAmount, int limit) {
+        VelocityProperties.Threshold defaults = properties.getThresholds()
+                .getOrDefault(window, new VelocityProperties.Threshold());
+        long countLimit = minCount != null ? minCount : defaults.getCount();
+        BigDecimal amountLimit = minAmount != null ? minAmount : defaults.getAmount();
+        double amountMinor = amountLimit != null ? amountLimit.movePointRight(2).doubleValue() : Double.POSITIVE_INFINITY;
+
+        // Estimates are fractional; a breach is a rounded count at or over the limit
+        Comparator<VelocityBreachDTO> order = Comparator.comparingLong(VelocityBreachDTO::getTxnCount)
+                .thenComparing(VelocityBreachDTO::getAmount);
+        PriorityQueue<VelocityBreachDTO> top = new PriorityQueue<>(limit + 1, order);
+        counters.scan(window, type != null ? type.ordinal() : -1, Instant.now().getEpochSecond(),
+                countLimit - 0.5, amountMinor, (userId, count, amount) -> {
+                    top.add(new VelocityBreachDTO(userId, window, type, Math.round(count), toAmount(amount)));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                });
+        List<VelocityBreachDTO> result = new ArrayList<>(top);
+        result.sort(order.reversed());
+        return result;
+    }
+
+    @Scheduled(initialDelayString = "${velocity.sweep-interval:PT5M}",
+            fixedDelayString = "${velocity.sweep-interval:PT5M}")
+    public void evictIdleUsers() {
+        long idleSeconds = Math.max(properties.getIdleAfter().toSeconds(), VelocityWindow.ONE_DAY.getSeconds());
+        long started = System.nanoTime();
+        int evicted = counters.evictIdle(Instant.now().getEpochSecond() - idleSeconds);
+        if (evicted > 0) {
+            log.info("Velocity sweep evicted {} idle users ({} tracked) in {} ms", evicted, counters.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    private static BigDecimal toAmount(double minorUnits) {
+        return BigDecimal.valueOf(Math.round(minorUnits), 2);
+    }
+}
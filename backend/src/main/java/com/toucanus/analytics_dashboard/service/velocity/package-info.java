@@ -0,0 +1,4 @@
+/**
+ * Per-user sliding-window transaction velocity, fed from the transaction feed.
+ */
+package com.toucanus.analytics_dashboard.service.velocity;
@@ -0,0 +1,125 @@
+package com.toucanus.analytics_dashboard.service.warmup;
+
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.approx.ApproximateAnalyticsService;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Fills the caches behind the default dashboard requests (all-time KPIs, last 30 days of
+ * KPIs and payment methods, last 7 days, today's hourly traffic) before the instance
+ * reports ready. Application runners complete before the readiness state switches to
+ * ACCEPTING_TRAFFIC, so {@code /actuator/health/readiness} stays OUT_OF_SERVICE until
+ * the warm-up has finished or {@code warmup.timeout} has passed.
+ * <p>
+ * The calls go through the same entry points as the controllers with null dates, so they
+ * populate exactly the keys the first requests will look up. A failed warm-up is logged
+ * and does not block startup. {@code warmup.caches} picks which of these caches are warmed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    static final List<String> CACHES = List.of(
+            "dashboardStats", "filteredDashboardStats", "dailyAnalytics", "paymentStats", "hourlyTraffic");
+
+    private final DashboardService dashboardService;
+    private final ApproximateAnalyticsService analyticsService;
+    private final QueryExecutionService queries;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final List<String> caches;
+
+    public CacheWarmupRunner(DashboardService dashboardService,
+                             ApproximateAnalyticsService analyticsService,
+                             QueryExecutionService queries,
+                             MeterRegistry meterRegistry,
+                             @Value("${warmup.timeout:PT60S}") Duration timeout,
+                             @Value("${warmup.caches:dashboardStats,filteredDashboardStats,dailyAnalytics,paymentStats,hourlyTraffic}")
+                             List<String> caches) {
+        for (String cache : caches) {
+            if (!CACHES.contains(cache)) {
+                throw new IllegalArgumentException("warmup.caches must be among " + CACHES + ", got " + cache);
+            }
+        }
+        this.dashboardService = dashboardService;
+        this.analyticsService = analyticsService;
+        this.queries = queries;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.caches = List.copyOf(new LinkedHashSet<>(caches));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        Map<String, CompletableFuture<?>> tasks = new LinkedHashMap<>();
+        for (String cache : caches) {
+            tasks.put(cache, warm(cache));
+        }
+
+        long deadline = started + timeout.toNanos();
+        int warmed = 0;
+        for (Map.Entry<String, CompletableFuture<?>> task : tasks.entrySet()) {
+            try {
+                task.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                warmed++;
+            } catch (TimeoutException e) {
+                log.warn("Cache warm-up of {} did not finish within {}", task.getKey(), timeout);
+                queries.cancel(task.getValue(), "warmup");
+            } catch (ExecutionException e) {
+                log.warn("Cache warm-up of {} failed", task.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        long elapsed = System.nanoTime() - started;
+        Timer.builder("cache.warmup")
+                .description("Time spent warming caches before reporting ready")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Cache warm-up: {}/{} entries in {} ms", warmed, tasks.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private CompletableFuture<?> warm(String cache) {
+        return switch (cache) {
+            case "dashboardStats" -> submit(QueryLane.HEAVY, dashboardService::getDashboardStats);
+            case "filteredDashboardStats" -> submit(QueryLane.ANALYTICS,
+                    () -> analyticsService.getDashboardStats(null, null, null));
+            case "dailyAnalytics" -> submit(QueryLane.ANALYTICS,
+                    () -> analyticsService.getDailyStatusStats(null, null, null));
+            case "paymentStats" -> submit(QueryLane.ANALYTICS,
+                    () -> analyticsService.getPaymentStats(null, null, null));
+            case "hourlyTraffic" -> submit(QueryLane.ANALYTICS,
+                    () -> analyticsService.getHourlyTrafficStats(null, null, null));
+            default -> throw new IllegalArgumentException("Unknown warm-up cache " + cache);
+        };
+    }
+
+    private CompletableFuture<?> submit(QueryLane lane, Supplier<?> work) {
+        return queries.submit(lane, null, work);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Startup cache warm-up.
+ */
+package com.toucanus.analytics_dashboard.service.warmup;
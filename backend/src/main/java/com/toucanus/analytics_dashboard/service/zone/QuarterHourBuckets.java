@@ -0,0 +1,571 @@
+package com.toucanus.analytics_dashboard.service.zone;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.toucanus.analytics_dashboard.dto.graph.PaymentStatDTO;
+import com.toucanus.analytics_dashboard.entity.SettlementImport;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.repository.SettlementImportRepository;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Transaction aggregates bucketed by the calendar of any time zone.
+ * <p>
+ * {@code created_at} holds wall-clock time in the server's zone, so grouping by its date or
+ * hour only suits that zone. Instead each server-zone day is summarised once into 96
+ * quarter-hour buckets per payment method and status. A request for another zone turns its
+ * local day bounds into instants, loads the days covering them (one range scan on the plain
+ * column per run of uncached days), and re-buckets every quarter hour by its local date and
+ * hour in that zone, so DST days come out 23 or 25 hours long. All zones in use today are
+ * offset from UTC by whole quarter hours, so no bucket straddles a local hour.
+ * <p>
+ * Closed days are cached up to {@code zone-buckets.max-cached-days}; today is rebuilt at
+ * most every {@code zone-buckets.today-refresh}. Every {@code zone-buckets.revalidate-interval}
+ * the cached closed days are checked against a change marker, their row count per status
+ * and latest {@code created_at} (an index-only scan on {@code (created_at, status)}, about
+ * half the cost of reloading), and only days whose marker moved are reloaded. That catches
+ * late rows, deletes and status updates; an edit that keeps both (e.g. a changed amount) is
+ * only picked up through {@link #invalidate}, which settlement imports call. With
+ * {@code zone-buckets.snapshot.enabled} the closed days are also written to a
+ * {@link QuarterHourSnapshot} every {@code zone-buckets.snapshot.interval} and on shutdown;
+ * after a restart a mapped day is checked against its marker when first requested and
+ * served from the file if it still matches. Ranges longer than
+ * {@code zone-buckets.max-range-days} are rejected, since each request walks every quarter
+ * hour in range.
+ * <p>
+ * The server zone is one of those zones: requests without a zone use the same buckets for
+ * ranges they cover (see {@link #covers}).
+ */
+@Slf4j
+@Service
+public class QuarterHourBuckets {
+
+    static final int SLOTS_PER_DAY = 24 * 4;
+    static final int STATUSES = TxnStatus.values().length;
+    static final int CELLS = PaymentMethod.values().length * STATUSES;
+    static final int CELLS_PER_DAY = SLOTS_PER_DAY * CELLS;
+    static final int AMOUNT_SCALE = 2;
+    private static final int SUCCESS = TxnStatus.SUCCESS.ordinal();
+    private static final int FAILED = TxnStatus.FAILED.ordinal();
+    private static final int PENDING = TxnStatus.PENDING.ordinal();
+
+    private final TransactionRepository transactionRepository;
+    private final SettlementImportRepository importRepository;
+    private final ZoneId storageZone = ZoneId.systemDefault();
+    private final int maxCachedDays;
+    private final int maxRangeDays;
+    private final Duration revalidateInterval;
+    private final LoadingCache<LocalDate, Day> days;
+    private final Path snapshotPath;
+    private final Map<LocalDate, Day> snapshotDays = new ConcurrentHashMap<>();
+    private final AtomicBoolean snapshotDirty = new AtomicBoolean();
+    private volatile long fingerprint;
+
+    public QuarterHourBuckets(TransactionRepository transactionRepository,
+                              SettlementImportRepository importRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${zone-buckets.max-cached-days:400}") int maxCachedDays,
+                              @Value("${zone-buckets.today-refresh:PT1M}") Duration todayRefresh,
+                              @Value("${zone-buckets.revalidate-interval:PT5M}") Duration revalidateInterval,
+                              @Value("${zone-buckets.max-range-days:366}") int maxRangeDays,
+                              @Value("${zone-buckets.snapshot.enabled:false}") boolean snapshotEnabled,
+                              @Value("${zone-buckets.snapshot.path:snapshots/quarter-hour-buckets.bin}") Path snapshotPath) {
+        this.transactionRepository = transactionRepository;
+        this.importRepository = importRepository;
+        this.maxCachedDays = maxCachedDays;
+        this.revalidateInterval = revalidateInterval;
+        this.maxRangeDays = maxRangeDays;
+        this.snapshotPath = snapshotEnabled ? snapshotPath : null;
+
+        // A day loaded while it was still open expires quickly, even once it has closed;
+        // closed days stay until their change marker moves (see revalidate).
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maxCachedDays)
+                .expireAfter(new Expiry<LocalDate, Day>() {
+                    @Override
+                    public long expireAfterCreate(LocalDate date, Day day, long currentTime) {
+                        return day.closed ? Long.MAX_VALUE : todayRefresh.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(LocalDate date, Day day, long currentTime, long currentDuration) {
+                        return expireAfterCreate(date, day, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(LocalDate date, Day day, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build(new CacheLoader<LocalDate, Day>() {
+                    @Override
+                    public Day load(LocalDate date) {
+                        return loadAll(Set.of(date)).get(date);
+                    }
+
+                    @Override
+                    public Map<LocalDate, Day> loadAll(Set<? extends LocalDate> keys) {
+                        return loadDays(keys);
+                    }
+                });
+
+        if (this.snapshotPath != null) {
+            openSnapshot();
+            Gauge.builder("zone.buckets.snapshot.days", snapshotDays, Map::size)
+                    .description("Closed days available from the mapped snapshot")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Longest range of local days a request may cover.
+     */
+    public int maxRangeDays() {
+        return maxRangeDays;
+    }
+
+    /**
+     * Whether local days [startDate, endDate] are within {@code zone-buckets.max-range-days}.
+     */
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        return ChronoUnit.DAYS.between(startDate, endDate) < maxRangeDays;
+    }
+
+    /**
+     * The zone {@code created_at} is written in; its days are the ones that are bucketed.
+     */
+    public ZoneId storageZone() {
+        return storageZone;
+    }
+
+    /**
+     * Drops the cached buckets of server-zone days [startDate, endDate], e.g. after rows
+     * were added to closed days.
+     */
+    public void invalidate(LocalDate startDate, LocalDate endDate) {
+        days.invalidateAll(days.asMap().keySet().stream()
+                .filter(day -> !day.isBefore(startDate) && !day.isAfter(endDate))
+                .toList());
+        snapshotDays.keySet().removeIf(day -> !day.isBefore(startDate) && !day.isAfter(endDate));
+        snapshotDirty.set(true);
+    }
+
+    /**
+     * Returns [totalTxns, successCount, pendingCount, failedCount, successAmount, failedAmount]
+     * for local days [startDate, endDate] in {@code zone}.
+     */
+    public Object[] aggregatedStats(LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        long[] counts = new long[STATUSES];
+        long[] amounts = new long[STATUSES];
+        scan(startDate, endDate, zone, (local, cell, count, amount) -> {
+            counts[cell % STATUSES] += count;
+            amounts[cell % STATUSES] += amount;
+        });
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return new Object[] { total, counts[SUCCESS], counts[PENDING], counts[FAILED],
+                money(amounts[SUCCESS]), money(amounts[FAILED]) };
+    }
+
+    /**
+     * Returns [date, txnCount, totalAmount, successCount, failedCount, pendingCount] for each
+     * local day in {@code zone} that has transactions.
+     */
+    public List<Object[]> dailyStats(LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        // [txnCount, amount, counts by status...]
+        Map<LocalDate, long[]> byDay = new TreeMap<>();
+        scan(startDate, endDate, zone, (local, cell, count, amount) -> {
+            long[] day = byDay.computeIfAbsent(local.toLocalDate(), d -> new long[2 + STATUSES]);
+            day[0] += count;
+            day[1] += amount;
+            day[2 + cell % STATUSES] += count;
+        });
+        List<Object[]> rows = new ArrayList<>(byDay.size());
+        byDay.forEach((date, day) -> rows.add(new Object[] { date, day[0], money(day[1]),
+                day[2 + SUCCESS], day[2 + FAILED], day[2 + PENDING] }));
+        return rows;
+    }
+
+    /**
+     * Returns [hour, successCount, failedCount, pendingCount] for each local hour of day in
+     * {@code zone} that has transactions. The repeated hour of a DST fall-back counts twice.
+     */
+    public List<Object[]> hourlyStats(LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        long[][] byHour = new long[24][STATUSES];
+        scan(startDate, endDate, zone,
+                (local, cell, count, amount) -> byHour[local.getHour()][cell % STATUSES] += count);
+        List<Object[]> rows = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            long[] counts = byHour[hour];
+            if (counts[SUCCESS] + counts[FAILED] + counts[PENDING] > 0) {
+                rows.add(new Object[] { hour, counts[SUCCESS], counts[FAILED], counts[PENDING] });
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Transaction count per payment method for local days [startDate, endDate] in {@code zone}.
+     */
+    public List<PaymentStatDTO> paymentMethodStats(LocalDate startDate, LocalDate endDate, ZoneId zone) {
+        long[] byMethod = new long[PaymentMethod.values().length];
+        scan(startDate, endDate, zone, (local, cell, count, amount) -> byMethod[cell / STATUSES] += count);
+        List<PaymentStatDTO> stats = new ArrayList<>();
+        for (PaymentMethod method : PaymentMethod.values()) {
+            if (byMethod[method.ordinal()] > 0) {
+                stats.add(new PaymentStatDTO(method, byMethod[method.ordinal()]));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Checks the cached closed days not validated within {@code zone-buckets.revalidate-interval}
+     * against their change markers, one query per run of consecutive days, and drops those
+     * that changed so the next request reloads them.
+     */
+    @Scheduled(initialDelayString = "${zone-buckets.revalidate-interval:PT5M}",
+            fixedDelayString = "${zone-buckets.revalidate-interval:PT5M}")
+    public void revalidate() {
+        long staleBefore = System.currentTimeMillis() - revalidateInterval.toMillis();
+        TreeMap<LocalDate, Day> stale = new TreeMap<>();
+        days.asMap().forEach((date, day) -> {
+            if (day.closed && day.validatedAt <= staleBefore) {
+                stale.put(date, day);
+            }
+        });
+        List<LocalDate> changed = validate(stale);
+        if (!changed.isEmpty()) {
+            days.invalidateAll(changed);
+            snapshotDirty.set(true);
+            log.info("Reloading {} of {} closed days whose transactions changed", changed.size(), stale.size());
+        }
+    }
+
+    /**
+     * Rewrites the snapshot when closed days were loaded or invalidated since the last write.
+     */
+    @Scheduled(initialDelayString = "${zone-buckets.snapshot.interval:PT10M}",
+            fixedDelayString = "${zone-buckets.snapshot.interval:PT10M}")
+    public void writeSnapshot() {
+        if (snapshotPath == null || !snapshotDirty.getAndSet(false)) {
+            return;
+        }
+        // Taken before reading the days, so an import committed meanwhile discards the file
+        Instant writtenAt = Instant.now();
+        // Mapped days not requested yet are carried over; they are validated when used
+        TreeMap<LocalDate, Day> closed = new TreeMap<>(snapshotDays);
+        days.asMap().forEach((date, day) -> {
+            if (day.closed) {
+                closed.put(date, day);
+            }
+        });
+        while (closed.size() > maxCachedDays) {
+            closed.pollFirstEntry();
+        }
+        try {
+            if (fingerprint == 0) {
+                // The database was unavailable at startup
+                fingerprint = QuarterHourSnapshot.fingerprint(layout());
+            }
+            QuarterHourSnapshot.write(snapshotPath, fingerprint, writtenAt, closed);
+            log.debug("Wrote {} closed days to {}", closed.size(), snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            snapshotDirty.set(true);
+            log.warn("Could not write bucket snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeSnapshot();
+    }
+
+    /**
+     * Maps the snapshot left by the previous run, unless it was written for another layout,
+     * enum set, server zone or {@code transactions} schema, or rows were imported since.
+     */
+    private void openSnapshot() {
+        try {
+            fingerprint = QuarterHourSnapshot.fingerprint(layout());
+            QuarterHourSnapshot snapshot = QuarterHourSnapshot.open(snapshotPath, fingerprint);
+            if (snapshot == null) {
+                return;
+            }
+            LocalDateTime lastImport = importRepository.findFirstByOrderByUpdatedAtDesc()
+                    .map(SettlementImport::getUpdatedAt)
+                    .orElse(null);
+            if (lastImport != null && !lastImport.atZone(storageZone).toInstant().isBefore(snapshot.writtenAt())) {
+                log.info("Ignoring bucket snapshot {}: settlement rows were imported after it was written",
+                        snapshotPath);
+                return;
+            }
+            snapshotDays.putAll(snapshot.days());
+            log.info("Mapped {} closed days from bucket snapshot {}", snapshotDays.size(), snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read bucket snapshot {}, loading days from the database: {}",
+                    snapshotPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Everything the meaning of a snapshot depends on.
+     */
+    private String layout() {
+        return "slots=" + SLOTS_PER_DAY
+                + ";scale=" + AMOUNT_SCALE
+                + ";zone=" + storageZone.getId()
+                + ";methods=" + Arrays.stream(PaymentMethod.values()).map(Enum::name).collect(Collectors.joining(","))
+                + ";statuses=" + Arrays.stream(TxnStatus.values()).map(Enum::name).collect(Collectors.joining(","))
+                + ";columns=" + String.join(",", transactionRepository.selectTransactionColumns());
+    }
+
+    /**
+     * Visits every non-empty (quarter hour, payment method, status) cell whose instant falls
+     * within local days [startDate, endDate] of {@code zone}, with its local start time.
+     */
+    private void scan(LocalDate startDate, LocalDate endDate, ZoneId zone, CellVisitor visitor) {
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxRangeDays) {
+            throw new IllegalArgumentException("Range of " + (ChronoUnit.DAYS.between(startDate, endDate) + 1)
+                    + " days exceeds zone-buckets.max-range-days=" + maxRangeDays);
+        }
+        LocalDateTime from = storageTime(startDate.atStartOfDay(zone));
+        LocalDateTime to = storageTime(endDate.plusDays(1).atStartOfDay(zone));
+        LocalDate today = LocalDate.now(storageZone);
+        LocalDate first = from.toLocalDate();
+        LocalDate last = to.minusNanos(1).toLocalDate();
+        if (last.isAfter(today)) {
+            last = today;
+        }
+        if (last.isBefore(first)) {
+            return;
+        }
+        List<LocalDate> keys = first.datesUntil(last.plusDays(1)).toList();
+        Map<LocalDate, Day> loaded = days.getAll(keys);
+        for (LocalDate date : keys) {
+            Day day = loaded.get(date);
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                LocalDateTime start = date.atStartOfDay().plusMinutes(15L * slot);
+                if (start.isBefore(from) || !start.isBefore(to)) {
+                    continue;
+                }
+                LocalDateTime local = null;
+                for (int cell = 0; cell < CELLS; cell++) {
+                    int i = slot * CELLS + cell;
+                    long count = day.counts.get(i);
+                    if (count == 0) {
+                        continue;
+                    }
+                    if (local == null) {
+                        local = start.atZone(storageZone).withZoneSameInstant(zone).toLocalDateTime();
+                    }
+                    visitor.visit(local, cell, count, day.amounts.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes mapped snapshot days whose change marker still matches and loads each run of the
+     * remaining consecutive days with one range query.
+     */
+    private Map<LocalDate, Day> loadDays(Set<? extends LocalDate> keys) {
+        Map<LocalDate, Day> result = new HashMap<>();
+        TreeMap<LocalDate, Day> mapped = new TreeMap<>();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate date : keys) {
+            Day day = snapshotDays.remove(date);
+            if (day != null) {
+                mapped.put(date, day);
+            } else {
+                missing.add(date);
+            }
+        }
+        if (!mapped.isEmpty()) {
+            List<LocalDate> changed = validate(mapped);
+            missing.addAll(changed);
+            changed.forEach(mapped::remove);
+            result.putAll(mapped);
+        }
+        missing.sort(null);
+        for (List<LocalDate> run : runs(missing)) {
+            loadRun(run, result);
+        }
+        return result;
+    }
+
+    /**
+     * Compares each day with its change marker, stamping those that match as validated now.
+     *
+     * @return the days that changed
+     */
+    private List<LocalDate> validate(SortedMap<LocalDate, Day> candidates) {
+        List<LocalDate> changed = new ArrayList<>();
+        for (List<LocalDate> run : runs(new ArrayList<>(candidates.keySet()))) {
+            Map<LocalDate, long[]> markers = new HashMap<>();
+            for (Object[] row : transactionRepository.selectDailyChangeMarkers(run.get(0).atStartOfDay(),
+                    run.get(run.size() - 1).plusDays(1).atStartOfDay())) {
+                LocalDate date = row[0] instanceof Date d ? d.toLocalDate() : (LocalDate) row[0];
+                long[] marker = markers.computeIfAbsent(date, d -> new long[STATUSES + 1]);
+                marker[TxnStatus.valueOf(String.valueOf(row[1])).ordinal()] = ((Number) row[2]).longValue();
+                marker[STATUSES] = Math.max(marker[STATUSES], micros(row[3]));
+            }
+            long now = System.currentTimeMillis();
+            for (LocalDate date : run) {
+                Day day = candidates.get(date);
+                if (Arrays.equals(day.marker(), markers.getOrDefault(date, new long[STATUSES + 1]))) {
+                    day.validatedAt = now;
+                } else {
+                    changed.add(date);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Splits ascending dates into runs of consecutive days.
+     */
+    private static List<List<LocalDate>> runs(List<LocalDate> dates) {
+        List<List<LocalDate>> runs = new ArrayList<>();
+        int runStart = 0;
+        for (int i = 1; i <= dates.size(); i++) {
+            if (i == dates.size() || !dates.get(i).equals(dates.get(i - 1).plusDays(1))) {
+                runs.add(dates.subList(runStart, i));
+                runStart = i;
+            }
+        }
+        return runs;
+    }
+
+    private void loadRun(List<LocalDate> run, Map<LocalDate, Day> result) {
+        LocalDate today = LocalDate.now(storageZone);
+        long loadedAt = System.currentTimeMillis();
+        for (LocalDate date : run) {
+            result.put(date, new Day(date.isBefore(today), loadedAt));
+        }
+        List<Object[]> rows = transactionRepository.selectQuarterHourStats(run.get(0).atStartOfDay(),
+                run.get(run.size() - 1).plusDays(1).atStartOfDay());
+        for (Object[] row : rows) {
+            LocalDateTime bucket = toLocalDateTime(row[0]);
+            Day day = result.get(bucket.toLocalDate());
+            if (day == null) {
+                continue;
+            }
+            day.maxCreatedAt = Math.max(day.maxCreatedAt, micros(row[5]));
+            int slot = (bucket.getHour() * 60 + bucket.getMinute()) / 15;
+            int i = slot * CELLS + PaymentMethod.valueOf(String.valueOf(row[1])).ordinal() * STATUSES
+                    + TxnStatus.valueOf(String.valueOf(row[2])).ordinal();
+            BigDecimal amount = row[4] instanceof BigDecimal bd ? bd : new BigDecimal(row[4].toString());
+            day.counts.put(i, day.counts.get(i) + ((Number) row[3]).longValue());
+            day.amounts.put(i, day.amounts.get(i) + amount.setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY)
+                    .unscaledValue().longValueExact());
+        }
+        if (result.get(run.get(0)).closed) {
+            snapshotDirty.set(true);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    /**
+     * {@code created_at} as microseconds since 1970-01-01T00:00 on its own wall clock.
+     */
+    private static long micros(Object createdAt) {
+        LocalDateTime time = toLocalDateTime(createdAt);
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private LocalDateTime storageTime(ZonedDateTime time) {
+        return time.withZoneSameInstant(storageZone).toLocalDateTime();
+    }
+
+    private static BigDecimal money(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, AMOUNT_SCALE);
+    }
+
+    @FunctionalInterface
+    private interface CellVisitor {
+        void visit(LocalDateTime local, int cell, long count, long amount);
+    }
+
+    /**
+     * Counts and amounts (in minor units) per quarter hour x payment method x status, on the
+     * heap or read straight from the mapped snapshot. {@code closed} if the day had ended
+     * when it was loaded; {@code maxCreatedAt} is the latest row's {@code created_at} in
+     * {@link #micros} (0 for an empty day), and {@code validatedAt} (epoch millis) when the
+     * day last matched its change marker.
+     */
+    static final class Day {
+        final LongBuffer counts;
+        final LongBuffer amounts;
+        final boolean closed;
+        long maxCreatedAt;
+        volatile long validatedAt;
+
+        Day(boolean closed, long validatedAt) {
+            this(LongBuffer.allocate(CELLS_PER_DAY), LongBuffer.allocate(CELLS_PER_DAY), closed, 0, validatedAt);
+        }
+
+        Day(LongBuffer counts, LongBuffer amounts, boolean closed, long maxCreatedAt, long validatedAt) {
+            this.counts = counts;
+            this.amounts = amounts;
+            this.closed = closed;
+            this.maxCreatedAt = maxCreatedAt;
+            this.validatedAt = validatedAt;
+        }
+
+        /**
+         * Row count per status, then {@code maxCreatedAt}.
+         */
+        long[] marker() {
+            long[] marker = new long[STATUSES + 1];
+            for (int i = 0; i < CELLS_PER_DAY; i++) {
+                marker[i % STATUSES] += counts.get(i);
+            }
+            marker[STATUSES] = maxCreatedAt;
+            return marker;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.toucanus.analytics_dashboard.service.zone;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.zip.CRC32C;
+
+import static com.toucanus.analytics_dashboard.service.zone.QuarterHourBuckets.CELLS_PER_DAY;
+
+/**
+ * Closed days of {@link QuarterHourBuckets} in a file that is mapped read-only and used in
+ * place. Everything is little-endian and 8-byte aligned:
+ * <pre>
+ *  0  magic "QHBSNAP1"          long
+ *  8  format version            int
+ * 12  cells per day             int
+ * 16  layout fingerprint        long   (slots, amount scale, server zone, enum names, columns)
+ * 24  written at, epoch millis  long
+ * 32  day count n               int
+ * 36  reserved                  int
+ * 40  CRC32C of all other bytes long
+ * 48  per day, ascending:       epoch day, latest created_at (micros)   n x 2 x long
+ *     per day: counts, then amounts in minor units   2 x cells x long
+ * </pre>
+ * A file with another magic, version, cell count or fingerprint, a wrong length or a bad
+ * checksum is ignored, so format, enum and schema changes cannot be misread.
+ */
+@Slf4j
+final class QuarterHourSnapshot {
+
+    static final int FORMAT_VERSION = 3;
+    private static final long MAGIC = 0x3150414E53424851L;
+    private static final int HEADER_BYTES = 48;
+    private static final int CHECKSUM_OFFSET = 40;
+    private static final int INDEX_ENTRY_BYTES = 2 * Long.BYTES;
+    private static final long DAY_BYTES = 2L * CELLS_PER_DAY * Long.BYTES;
+
+    private final Instant writtenAt;
+    private final Map<LocalDate, QuarterHourBuckets.Day> days;
+
+    private QuarterHourSnapshot(Instant writtenAt, Map<LocalDate, QuarterHourBuckets.Day> days) {
+        this.writtenAt = writtenAt;
+        this.days = days;
+    }
+
+    Instant writtenAt() {
+        return writtenAt;
+    }
+
+    /**
+     * The days, backed by the mapping (which stays valid after the file is replaced).
+     */
+    Map<LocalDate, QuarterHourBuckets.Day> days() {
+        return days;
+    }
+
+    static long fingerprint(String layout) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((FORMAT_VERSION + ";" + layout).getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(hash).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Maps and validates the file; null (logged) if it is missing or unusable.
+     */
+    static QuarterHourSnapshot open(Path path, long fingerprint) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                log.info("Ignoring bucket snapshot {}: unexpected size {}", path, channel.size());
+                return null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != FORMAT_VERSION
+                || buffer.getInt(12) != CELLS_PER_DAY) {
+            log.info("Ignoring bucket snapshot {}: written in another format", path);
+            return null;
+        }
+        if (buffer.getLong(16) != fingerprint) {
+            log.info("Ignoring bucket snapshot {}: enums, server zone or transactions schema changed", path);
+            return null;
+        }
+        int dayCount = buffer.getInt(32);
+        if (dayCount < 0 || buffer.capacity() != HEADER_BYTES + dayCount * (INDEX_ENTRY_BYTES + DAY_BYTES)) {
+            log.info("Ignoring bucket snapshot {}: truncated", path);
+            return null;
+        }
+        if (buffer.getLong(CHECKSUM_OFFSET) != checksum(buffer)) {
+            log.info("Ignoring bucket snapshot {}: checksum mismatch", path);
+            return null;
+        }
+
+        Map<LocalDate, QuarterHourBuckets.Day> days = new LinkedHashMap<>();
+        int dataOffset = HEADER_BYTES + dayCount * INDEX_ENTRY_BYTES;
+        for (int i = 0; i < dayCount; i++) {
+            LocalDate date = LocalDate.ofEpochDay(buffer.getLong(HEADER_BYTES + i * INDEX_ENTRY_BYTES));
+            long maxCreatedAt = buffer.getLong(HEADER_BYTES + i * INDEX_ENTRY_BYTES + Long.BYTES);
+            int offset = (int) (dataOffset + i * DAY_BYTES);
+            // Never validated in this run, so checked against its change marker before use
+            days.put(date, new QuarterHourBuckets.Day(longs(buffer, offset),
+                    longs(buffer, offset + CELLS_PER_DAY * Long.BYTES), true, maxCreatedAt, 0));
+        }
+        return new QuarterHourSnapshot(Instant.ofEpochMilli(buffer.getLong(24)), days);
+    }
+
+    /**
+     * Writes to a temporary file and moves it over {@code path}, so readers never see a
+     * partial snapshot.
+     */
+    static void write(Path path, long fingerprint, Instant writtenAt,
+                      SortedMap<LocalDate, QuarterHourBuckets.Day> days) throws IOException {
+        int dayCount = days.size();
+        long size = HEADER_BYTES + dayCount * (INDEX_ENTRY_BYTES + DAY_BYTES);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + dayCount + " days exceeds 2 GB");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, MAGIC)
+                .putInt(8, FORMAT_VERSION)
+                .putInt(12, CELLS_PER_DAY)
+                .putLong(16, fingerprint)
+                .putLong(24, writtenAt.toEpochMilli())
+                .putInt(32, dayCount);
+        int i = 0;
+        int dataOffset = HEADER_BYTES + dayCount * INDEX_ENTRY_BYTES;
+        for (Map.Entry<LocalDate, QuarterHourBuckets.Day> entry : days.entrySet()) {
+            buffer.putLong(HEADER_BYTES + i * INDEX_ENTRY_BYTES, entry.getKey().toEpochDay());
+            buffer.putLong(HEADER_BYTES + i * INDEX_ENTRY_BYTES + Long.BYTES, entry.getValue().maxCreatedAt);
+            int offset = (int) (dataOffset + i * DAY_BYTES);
+            longs(buffer, offset).put(entry.getValue().counts.duplicate().clear());
+            longs(buffer, offset + CELLS_PER_DAY * Long.BYTES).put(entry.getValue().amounts.duplicate().clear());
+            i++;
+        }
+        buffer.putLong(CHECKSUM_OFFSET, checksum(buffer));
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, CHECKSUM_OFFSET));
+        crc.update(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+        return crc.getValue();
+    }
+
+    private static LongBuffer longs(ByteBuffer buffer, int offset) {
+        return buffer.slice(offset, CELLS_PER_DAY * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Time zone aware bucketing from cached quarter-hour aggregates, and their warm-restart snapshot.
+ */
+package com.toucanus.analytics_dashboard.service.zone;
@@ -0,0 +1,144 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.toucanus.analytics_dashboard.dto.DashboardComparisonDTO;
+import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.dto.graph.DailyComparisonDTO;
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.approx.ApproximateAnalyticsService;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadRegistry;
+import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import com.toucanus.analytics_dashboard.service.zone.QuarterHourBuckets;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DashboardControllerTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate END = LocalDate.of(2025, 3, 31);
+
+    private final QueryExecutionService queries = mock(QueryExecutionService.class);
+    private final QuarterHourBuckets quarterHourBuckets = mock(QuarterHourBuckets.class);
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final GraphAnalyticsService graphAnalyticsService = mock(GraphAnalyticsService.class);
+    private final BulkheadRegistry bulkheads = mock(BulkheadRegistry.class);
+    private final DashboardController controller = new DashboardController(dashboardService,
+            graphAnalyticsService, mock(ApproximateAnalyticsService.class), bulkheads, queries, quarterHourBuckets);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        when(queries.responseTimeout(any())).thenReturn(Duration.ofSeconds(10));
+        when(queries.submit(any(), any(), any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(2).get()));
+        when(bulkheads.laneFor(any(), any())).thenReturn(QueryLane.ANALYTICS);
+        when(quarterHourBuckets.maxRangeDays()).thenReturn(366);
+        // Dates as ISO strings, as with Boot's ObjectMapper
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build()))
+                .build();
+    }
+
+    @Test
+    void statsComparisonDefaultsToThePreviousPeriod() throws Exception {
+        DashboardStatsDTO current = new DashboardStatsDTO();
+        current.setTotalTxns(150L);
+        DashboardStatsDTO previous = new DashboardStatsDTO();
+        previous.setTotalTxns(0L);
+        when(dashboardService.getDashboardStatsComparison(START, END, ComparisonPeriod.PREVIOUS_PERIOD))
+                .thenReturn(new DashboardComparisonDTO(ComparisonPeriod.PREVIOUS_PERIOD, START, END,
+                        START.minusDays(31), START.minusDays(1), current, previous,
+                        Map.of("totalTxns", BigDecimal.valueOf(150)), Collections.singletonMap("totalTxns", null)));
+
+        MvcResult started = mvc.perform(get("/api/dashboard/stats/compare")
+                        .param("startDate", "2025-03-01").param("endDate", "2025-03-31"))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.compareTo").value("PREVIOUS_PERIOD"))
+                .andExpect(jsonPath("$.previousStartDate").value("2025-01-29"))
+                .andExpect(jsonPath("$.current.totalTxns").value(150))
+                .andExpect(jsonPath("$.deltas.totalTxns").value(150))
+                .andExpect(jsonPath("$.percentChanges.totalTxns").value(nullValue()));
+        verify(queries).submit(eq(QueryLane.ANALYTICS), isNull(), any());
+        verify(bulkheads).laneFor(START, END);
+    }
+
+    @Test
+    void dailyComparisonPassesCompareToAndZone() throws Exception {
+        ZoneId zone = ZoneId.of("America/New_York");
+        when(graphAnalyticsService.getDailyStatusComparison(START, END, ComparisonPeriod.PREVIOUS_YEAR, zone))
+                .thenReturn(new DailyComparisonDTO(ComparisonPeriod.PREVIOUS_YEAR, START, END,
+                        START.minusYears(1), END.minusYears(1), List.of(), List.of(), Map.of(), Map.of()));
+
+        MvcResult started = mvc.perform(get("/api/dashboard/analytics/daily/compare")
+                        .param("startDate", "2025-03-01").param("endDate", "2025-03-31")
+                        .param("compareTo", "PREVIOUS_YEAR").param("tz", "America/New_York"))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.compareTo").value("PREVIOUS_YEAR"))
+                .andExpect(jsonPath("$.previousStartDate").value("2024-03-01"));
+        verify(graphAnalyticsService, never()).getDailyStatusComparison(any(), any(), any());
+    }
+
+    @Test
+    void unknownComparisonPeriodIsABadRequest() throws Exception {
+        mvc.perform(get("/api/dashboard/stats/compare").param("compareTo", "YESTERDAY"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(queries);
+    }
+
+    @Test
+    void zonedRangeOverTheLimitIsABadRequest() {
+        when(quarterHourBuckets.maxRangeDays()).thenReturn(366);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+
+        assertThatThrownBy(() -> controller.getDailyAnalytics(start, start.plusDays(366), null,
+                ZoneId.of("America/New_York"), mock(HttpServletRequest.class)))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        verify(queries, never()).submit(any(), any(), any());
+    }
+}
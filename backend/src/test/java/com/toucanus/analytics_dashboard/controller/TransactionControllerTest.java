@@ -0,0 +1,117 @@
+package com.toucanus.analytics_dashboard.controller;
+
+import com.toucanus.analytics_dashboard.config.BulkheadProperties;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import com.toucanus.analytics_dashboard.service.TransactionService;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadFullException;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadRegistry;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TransactionControllerTest {
+
+    private final QueryExecutionService queries = mock(QueryExecutionService.class);
+    private final BulkheadRegistry bulkheads = mock(BulkheadRegistry.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties.Lane interactive = new BulkheadProperties.Lane();
+        interactive.setMaxWait(Duration.ofMillis(1_500));
+        when(bulkheads.settings(QueryLane.INTERACTIVE)).thenReturn(interactive);
+        when(queries.responseTimeout(any())).thenReturn(Duration.ofSeconds(10));
+        mvc = MockMvcBuilders
+                .standaloneSetup(new TransactionController(mock(TransactionService.class), queries))
+                .setControllerAdvice(new BulkheadExceptionHandler(bulkheads))
+                .build();
+    }
+
+    @Test
+    void laneRejectionIsTooManyRequestsWithRetryAfter() throws Exception {
+        when(queries.submit(eq(QueryLane.INTERACTIVE), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new BulkheadFullException(QueryLane.INTERACTIVE, "queue full")));
+
+        MvcResult started = mvc.perform(get("/api/transactions")).andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.detail").value("Lane INTERACTIVE rejected request: queue full"));
+    }
+
+    @Test
+    void clientDisconnectCancelsTheQuery() throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        when(queries.submit(eq(QueryLane.INTERACTIVE), any(), any())).thenReturn(future);
+
+        MvcResult started = mvc.perform(get("/api/transactions")).andExpect(request().asyncStarted()).andReturn();
+        MockAsyncContext context = (MockAsyncContext) started.getRequest().getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onError(new AsyncEvent(context, new IOException("Broken pipe")));
+        }
+
+        verify(queries).cancel(future, "disconnected");
+    }
+
+    @Test
+    void asyncTimeoutCancelsTheQueryAndAnswersGatewayTimeout() throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        when(queries.submit(eq(QueryLane.INTERACTIVE), any(), any())).thenReturn(future);
+
+        MvcResult started = mvc.perform(get("/api/transactions")).andExpect(request().asyncStarted()).andReturn();
+        MockAsyncContext context = (MockAsyncContext) started.getRequest().getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+
+        verify(queries).cancel(future, "timeout");
+        mvc.perform(asyncDispatch(started)).andExpect(status().isGatewayTimeout());
+    }
+
+    @Test
+    void supersededQueryIsConflict() throws Exception {
+        when(queries.submit(eq(QueryLane.INTERACTIVE), eq("tab-1:analytics:/api/transactions"), any()))
+                .thenReturn(CompletableFuture.failedFuture(new CancellationException("superseded")));
+
+        MvcResult started = mvc.perform(get("/api/transactions").param("page", "2")
+                        .header(QueryResponses.SUPERSEDE_HEADER, "tab-1:analytics"))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        mvc.perform(asyncDispatch(started)).andExpect(status().isConflict());
+    }
+
+    @Test
+    void requestsWithoutTheHeaderAreNeverSuperseded() throws Exception {
+        when(queries.submit(eq(QueryLane.INTERACTIVE), isNull(), any())).thenReturn(new CompletableFuture<>());
+
+        mvc.perform(get("/api/transactions")).andExpect(request().asyncStarted());
+
+        verify(queries).submit(eq(QueryLane.INTERACTIVE), isNull(), any());
+    }
+}
@@ -0,0 +1,125 @@
+package com.toucanus.analytics_dashboard.repository;
+
+import com.toucanus.analytics_dashboard.dto.TransactionListItemDTO;
+import com.toucanus.analytics_dashboard.dto.TransactionSearchCriteria;
+import com.toucanus.analytics_dashboard.entity.Transaction;
+import com.toucanus.analytics_dashboard.entity.User;
+import com.toucanus.analytics_dashboard.repository.specification.TransactionSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transaction list pages read as managed entities (the previous path: fetch join on user,
+ * then a copy into the DTO) against the constructor projection, on the configured
+ * database. Both run in a read-only transaction like the service and share the count
+ * query, whose cost is printed separately. Not part of the normal build:
+ * {@code mvn test -Dbenchmark=true -Dtest=TransactionListBenchmark}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransactionListBenchmark {
+
+    private static final int[] PAGE_SIZES = { 10, 100, 1_000 };
+    private static final int ROUNDS = 30;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void entitiesAgainstProjection() {
+        TransactionSearchCriteria criteria = new TransactionSearchCriteria();
+        // The latest few hours, so a 1,000-row page is full but the count stays cheap
+        LocalDateTime latest = jdbcTemplate.queryForObject("select max(created_at) from transactions",
+                LocalDateTime.class);
+        criteria.setStartDate(latest.minusHours(3));
+        Specification<Transaction> spec = TransactionSpecification.getSpec(criteria);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        long[] count = measure(readOnly, pageable -> new PageImpl<>(List.of(), pageable, transactionRepository.count(spec)),
+                PageRequest.of(0, 10));
+        System.out.printf("Transaction list, last 3 hours (%,d rows); count query alone: %.2f ms%n", transactionRepository.count(spec), count[0] / 1e6);
+        for (int size : PAGE_SIZES) {
+            Pageable pageable = PageRequest.of(0, size);
+            long[] entities = measure(readOnly, p -> entityPage(spec, p), pageable);
+            long[] projection = measure(readOnly, p -> transactionRepository.findListItems(spec, p), pageable);
+            System.out.printf("  page %,5d  entities:   %7.2f ms  %,9.0f rows/s  %,11d bytes allocated%n",
+                    size, entities[0] / 1e6, size * 1e9 / entities[0], entities[1]);
+            System.out.printf("  page %,5d  projection: %7.2f ms  %,9.0f rows/s  %,11d bytes allocated%n",
+                    size, projection[0] / 1e6, size * 1e9 / projection[0], projection[1]);
+        }
+    }
+
+    /**
+     * Median time and allocation per page, after as many warm-up rounds.
+     */
+    private long[] measure(TransactionTemplate readOnly, Function<Pageable, Page<?>> read, Pageable pageable) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] nanos = new long[ROUNDS];
+        long[] bytes = new long[ROUNDS];
+        for (int round = -ROUNDS; round < ROUNDS; round++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            Page<?> page = readOnly.execute(status -> read.apply(pageable));
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            assertThat(page).isNotNull();
+            if (round >= 0) {
+                nanos[round] = elapsed;
+                bytes[round] = allocated;
+            }
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(bytes);
+        return new long[] { nanos[ROUNDS / 2], bytes[ROUNDS / 2] };
+    }
+
+    private Page<TransactionListItemDTO> entityPage(Specification<Transaction> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        root.fetch("user", JoinType.INNER);
+        query.where(spec.toPredicate(root, query, cb));
+        List<TransactionListItemDTO> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList().stream()
+                .map(txn -> {
+                    User user = txn.getUser();
+                    return new TransactionListItemDTO(txn.getId(), user.getId(), user.getEmail(), user.getFullName(),
+                            txn.getAmount(), txn.getCurrency(), txn.getType(), txn.getStatus(),
+                            txn.getPaymentMethod(), txn.getCreatedAt());
+                })
+                .toList();
+        return new PageImpl<>(content, pageable, transactionRepository.count(spec));
+    }
+}
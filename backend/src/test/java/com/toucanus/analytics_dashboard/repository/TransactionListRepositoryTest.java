@@ -0,0 +1,135 @@
+package com.toucanus.analytics_dashboard.repository;
+
+import com.toucanus.analytics_dashboard.dto.TransactionListItemDTO;
+import com.toucanus.analytics_dashboard.dto.TransactionSearchCriteria;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.repository.specification.TransactionSpecification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The list projection against the configured database. Rows use external ids starting
+ * with {@code list-test-} and dates in 2001, and are deleted afterwards.
+ */
+@SpringBootTest
+class TransactionListRepositoryTest {
+
+    private static final String PREFIX = "list-test-";
+    private static final LocalDateTime DAY = LocalDateTime.of(2001, 2, 3, 0, 0);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<UUID> ids = new ArrayList<>();
+    private List<Map<String, Object>> users;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        users = jdbcTemplate.queryForList("select id, email, full_name from users order by id limit 2");
+        // amount i * 10, alternating users, every third one failed, the last one by card
+        for (int i = 1; i <= 6; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            jdbcTemplate.update("""
+                    insert into transactions (id, external_id, user_id, amount, currency, type, status, payment_method, created_at)
+                    values (?, ?, ?, ?, 'INR', 'PAYIN', ?, ?, ?)
+                    """, id, PREFIX + i, users.get(i % 2).get("id"), BigDecimal.valueOf(i * 10L),
+                    i % 3 == 0 ? "FAILED" : "SUCCESS", i == 6 ? "CARD" : "UPI", DAY.plusMinutes(i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    void columnsAreProjectedIntoTheListItem() {
+        Page<TransactionListItemDTO> page = find(criteria(), PageRequest.of(0, 1, Sort.by("createdAt")));
+
+        TransactionListItemDTO first = page.getContent().getFirst();
+        Map<String, Object> user = users.get(1);
+        assertThat(first.getId()).isEqualTo(ids.getFirst());
+        assertThat(first.getUserId()).isEqualTo(((Number) user.get("id")).longValue());
+        assertThat(first.getUserEmail()).isEqualTo(user.get("email"));
+        assertThat(first.getUserFullName()).isEqualTo(user.get("full_name"));
+        assertThat(first.getAmount()).isEqualByComparingTo("10");
+        assertThat(first.getCurrency()).isEqualTo("INR");
+        assertThat(first.getType()).isEqualTo(TxnType.PAYIN);
+        assertThat(first.getStatus()).isEqualTo(TxnStatus.SUCCESS);
+        assertThat(first.getPaymentMethod()).isEqualTo(PaymentMethod.UPI);
+        assertThat(first.getCreatedAt()).isEqualTo(DAY.plusMinutes(1));
+    }
+
+    @Test
+    void sortAndPagingApplyToTheProjection() {
+        Page<TransactionListItemDTO> first = find(criteria(), PageRequest.of(0, 4, Sort.by("amount").descending()));
+        Page<TransactionListItemDTO> second = find(criteria(), PageRequest.of(1, 4, Sort.by("amount").descending()));
+
+        assertThat(first.getContent()).extracting(item -> item.getAmount().intValue()).containsExactly(60, 50, 40, 30);
+        assertThat(second.getContent()).extracting(item -> item.getAmount().intValue()).containsExactly(20, 10);
+        assertThat(first.getTotalElements()).isEqualTo(6);
+        assertThat(second.getTotalElements()).isEqualTo(6);
+        assertThat(first.getTotalPages()).isEqualTo(2);
+    }
+
+    @Test
+    void specificationFiltersApply() {
+        TransactionSearchCriteria failed = criteria();
+        failed.setStatus(TxnStatus.FAILED);
+        TransactionSearchCriteria byCard = criteria();
+        byCard.setPaymentMethod(PaymentMethod.CARD);
+        TransactionSearchCriteria amounts = criteria();
+        amounts.setMinAmount(BigDecimal.valueOf(20));
+        amounts.setMaxAmount(BigDecimal.valueOf(40));
+        TransactionSearchCriteria byEmail = criteria();
+        byEmail.setUserEmail((String) users.getFirst().get("email"));
+
+        Sort byAmount = Sort.by("amount");
+        assertThat(amounts(find(failed, PageRequest.of(0, 10, byAmount)))).containsExactly(30, 60);
+        assertThat(amounts(find(byCard, PageRequest.of(0, 10, byAmount)))).containsExactly(60);
+        assertThat(amounts(find(amounts, PageRequest.of(0, 10, byAmount)))).containsExactly(20, 30, 40);
+        assertThat(amounts(find(byEmail, PageRequest.of(0, 10, byAmount)))).containsExactly(20, 40, 60);
+        assertThat(find(failed, PageRequest.of(0, 1, byAmount)).getTotalElements()).isEqualTo(2);
+    }
+
+    private Page<TransactionListItemDTO> find(TransactionSearchCriteria criteria, PageRequest pageable) {
+        return transactionRepository.findListItems(TransactionSpecification.getSpec(criteria), pageable);
+    }
+
+    private static TransactionSearchCriteria criteria() {
+        TransactionSearchCriteria criteria = new TransactionSearchCriteria();
+        criteria.setStartDate(DAY);
+        criteria.setEndDate(DAY.plusDays(1));
+        return criteria;
+    }
+
+    private static List<Integer> amounts(Page<TransactionListItemDTO> page) {
+        return page.getContent().stream().map(item -> item.getAmount().intValue()).toList();
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("delete from transactions where external_id like ?", PREFIX + "%");
+    }
+}
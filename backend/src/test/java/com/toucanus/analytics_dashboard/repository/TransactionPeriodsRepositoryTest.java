@@ -0,0 +1,156 @@
+package com.toucanus.analytics_dashboard.repository;
+
+import com.toucanus.analytics_dashboard.dto.DashboardComparisonDTO;
+import com.toucanus.analytics_dashboard.dto.graph.DailyComparisonDTO;
+import com.toucanus.analytics_dashboard.dto.graph.DailyStatusDTO;
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.DateRange;
+import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The two-period comparison queries against the configured database. The current range is
+ * 2001-03-08..14 and the previous period 2001-03-01..07; rows use external ids starting with
+ * {@code periods-test-} and are deleted afterwards.
+ */
+@SpringBootTest
+class TransactionPeriodsRepositoryTest {
+
+    private static final String PREFIX = "periods-test-";
+    private static final DateRange CURRENT = new DateRange(LocalDate.of(2001, 3, 8), LocalDate.of(2001, 3, 14));
+    private static final DateRange PREVIOUS = CURRENT.previous(ComparisonPeriod.PREVIOUS_PERIOD);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private DashboardService dashboardService;
+    @Autowired
+    private GraphAnalyticsService graphAnalyticsService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        userId = jdbcTemplate.queryForObject("select min(id) from users", Long.class);
+        // Outside both periods
+        insert("2001-02-28T23:00:00", "SUCCESS", 999);
+        insert("2001-03-15T00:00:00", "SUCCESS", 999);
+        // Previous period, its last instant included
+        insert("2001-03-01T10:00:00", "SUCCESS", 100);
+        insert("2001-03-07T23:59:59", "FAILED", 40);
+        // Current period, its first instant included
+        insert("2001-03-08T00:00:00", "SUCCESS", 200);
+        insert("2001-03-10T09:00:00", "SUCCESS", 300);
+        insert("2001-03-10T12:00:00", "PENDING", 50);
+        insert("2001-03-14T23:00:00", "FAILED", 70);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+    }
+
+    @Test
+    void aggregatesBothPeriodsInOneRow() {
+        List<Object[]> result = transactionRepository.getAggregatedStatsForPeriods(
+                CURRENT.startDateTime(), CURRENT.endDateTime(), PREVIOUS.startDateTime(), PREVIOUS.endDateTime());
+
+        // [total, success, pending, failed, successAmount, failedAmount] current, then previous
+        assertThat(longs(result.getFirst())).containsExactly(4, 2, 1, 1, 500, 70, 2, 1, 0, 1, 100, 40);
+    }
+
+    @Test
+    void overlappingPeriodsCountSharedRowsInBoth() {
+        DateRange twoWeeks = new DateRange(LocalDate.of(2001, 3, 1), LocalDate.of(2001, 3, 14));
+        DateRange weekBefore = twoWeeks.previous(ComparisonPeriod.PREVIOUS_WEEK);
+
+        List<Object[]> result = transactionRepository.getAggregatedStatsForPeriods(twoWeeks.startDateTime(),
+                twoWeeks.endDateTime(), weekBefore.startDateTime(), weekBefore.endDateTime());
+
+        // 02-22..03-07 holds the Feb 28 row and the two previous-period rows of March
+        assertThat(longs(result.getFirst())).containsExactly(6, 3, 1, 2, 600, 110, 3, 2, 0, 1, 1099, 40);
+    }
+
+    @Test
+    void dailyRowsCoverTheUnionOfBothPeriods() {
+        List<Object[]> rows = transactionRepository.selectOptimizedDailyStatsForPeriods(
+                CURRENT.startDateTime(), CURRENT.endDateTime(), PREVIOUS.startDateTime(), PREVIOUS.endDateTime());
+
+        // [day, txnCount, totalAmount, successCount, failedCount, pendingCount]
+        assertThat(rows).extracting(row -> ((Date) row[0]).toLocalDate().toString()).containsExactly(
+                "2001-03-01", "2001-03-07", "2001-03-08", "2001-03-10", "2001-03-14");
+        assertThat(longs(rows.get(3))).containsExactly(2, 350, 1, 0, 1);
+        assertThat(longs(rows.get(1))).containsExactly(1, 40, 0, 1, 0);
+    }
+
+    @Test
+    void dashboardComparisonSplitsThePeriods() {
+        DashboardComparisonDTO comparison = dashboardService.getDashboardStatsComparison(
+                CURRENT.start(), CURRENT.end(), ComparisonPeriod.PREVIOUS_PERIOD);
+
+        assertThat(comparison.getPreviousStartDate()).isEqualTo(PREVIOUS.start());
+        assertThat(comparison.getPreviousEndDate()).isEqualTo(PREVIOUS.end());
+        assertThat(comparison.getCurrent().getTotalTxns()).isEqualTo(4);
+        assertThat(comparison.getPrevious().getTotalTxns()).isEqualTo(2);
+        assertThat(comparison.getCurrent().getTotalGtv()).isEqualByComparingTo("500");
+        assertThat(comparison.getDeltas().get("totalGtv")).isEqualByComparingTo("400");
+        assertThat(comparison.getPercentChanges()).containsEntry("totalGtv", 400.0)
+                .containsEntry("totalTxns", 100.0)
+                .containsEntry("pendingTrxns", null);
+    }
+
+    @Test
+    void dailyComparisonIsZeroFilledPerPeriod() {
+        DailyComparisonDTO comparison = graphAnalyticsService.getDailyStatusComparison(
+                CURRENT.start(), CURRENT.end(), ComparisonPeriod.PREVIOUS_PERIOD);
+
+        assertThat(comparison.getCurrent()).hasSize(7);
+        assertThat(comparison.getPrevious()).hasSize(7);
+        assertThat(comparison.getCurrent()).extracting(DailyStatusDTO::getTxnCount)
+                .containsExactly(1L, 0L, 2L, 0L, 0L, 0L, 1L);
+        assertThat(comparison.getPrevious()).extracting(DailyStatusDTO::getTxnCount)
+                .containsExactly(1L, 0L, 0L, 0L, 0L, 0L, 1L);
+        assertThat(comparison.getDeltas().get("txnCount")).isEqualByComparingTo("2");
+        assertThat(comparison.getDeltas().get("totalAmount")).isEqualByComparingTo("480");
+        assertThat(comparison.getPercentChanges()).containsEntry("txnCount", 100.0);
+    }
+
+    private void insert(String createdAt, String status, long amount) {
+        jdbcTemplate.update("""
+                insert into transactions (id, external_id, user_id, amount, currency, type, status, payment_method, created_at)
+                values (?, ?, ?, ?, 'INR', 'PAYIN', ?, 'UPI', ?)
+                """, UUID.randomUUID(), PREFIX + createdAt + "-" + status, userId, BigDecimal.valueOf(amount),
+                status, LocalDateTime.parse(createdAt));
+    }
+
+    private static long[] longs(Object[] row) {
+        int from = row[0] instanceof Date ? 1 : 0;
+        long[] values = new long[row.length - from];
+        for (int i = from; i < row.length; i++) {
+            values[i - from] = ((Number) row[i]).longValue();
+        }
+        return values;
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("delete from transactions where external_id like ?", PREFIX + "%");
+    }
+}
@@ -0,0 +1,61 @@
+package com.toucanus.analytics_dashboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ComparisonsTest {
+
+    private final Map<String, BigDecimal> deltas = new LinkedHashMap<>();
+    private final Map<String, Double> percentChanges = new LinkedHashMap<>();
+
+    @Test
+    void deltaAndPercentAgainstThePreviousValue() {
+        Comparisons.put(deltas, percentChanges, "totalGtv", new BigDecimal("150.00"), new BigDecimal("120.00"));
+        Comparisons.put(deltas, percentChanges, "totalTxns", 90L, 120L);
+        Comparisons.put(deltas, percentChanges, "successRate", 97.5, 95.0);
+
+        assertThat(deltas.get("totalGtv")).isEqualByComparingTo("30.00");
+        assertThat(percentChanges.get("totalGtv")).isEqualTo(25.0);
+        assertThat(deltas.get("totalTxns")).isEqualByComparingTo("-30");
+        assertThat(percentChanges.get("totalTxns")).isEqualTo(-25.0);
+        assertThat(deltas.get("successRate")).isEqualByComparingTo("2.5");
+        assertThat(percentChanges.get("successRate")).isCloseTo(2.6315789, within(1e-6));
+        assertThat(deltas).containsOnlyKeys("totalGtv", "totalTxns", "successRate");
+    }
+
+    @Test
+    void zeroBaselineHasADeltaButNoPercentChange() {
+        Comparisons.put(deltas, percentChanges, "totalTxns", 42L, 0L);
+        Comparisons.put(deltas, percentChanges, "totalGtv", BigDecimal.ZERO, new BigDecimal("0.00"));
+
+        assertThat(deltas.get("totalTxns")).isEqualByComparingTo("42");
+        assertThat(percentChanges).containsEntry("totalTxns", null);
+        assertThat(deltas.get("totalGtv")).isEqualByComparingTo("0");
+        assertThat(percentChanges).containsEntry("totalGtv", null);
+    }
+
+    @Test
+    void missingValuesCountAsZero() {
+        Comparisons.put(deltas, percentChanges, "averageTicketSize", (BigDecimal) null, new BigDecimal("40"));
+        Comparisons.put(deltas, percentChanges, "pendingTrxns", 3L, (Long) null);
+
+        assertThat(deltas.get("averageTicketSize")).isEqualByComparingTo("-40");
+        assertThat(percentChanges.get("averageTicketSize")).isEqualTo(-100.0);
+        assertThat(deltas.get("pendingTrxns")).isEqualByComparingTo("3");
+        assertThat(percentChanges).containsEntry("pendingTrxns", null);
+    }
+
+    @Test
+    void negativeBaselineKeepsTheDirectionOfTheChange() {
+        Comparisons.put(deltas, percentChanges, "net", new BigDecimal("-50"), new BigDecimal("-100"));
+
+        assertThat(deltas.get("net")).isEqualByComparingTo("50");
+        assertThat(percentChanges.get("net")).isEqualTo(50.0);
+    }
+}
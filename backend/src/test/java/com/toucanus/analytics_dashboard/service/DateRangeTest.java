@@ -0,0 +1,77 @@
+package com.toucanus.analytics_dashboard.service;
+
+import com.toucanus.analytics_dashboard.enums.ComparisonPeriod;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DateRangeTest {
+
+    @Test
+    void previousPeriodIsTheSameNumberOfDaysRightBefore() {
+        DateRange week = range("2025-03-10", "2025-03-16");
+
+        assertThat(week.days()).isEqualTo(7);
+        assertThat(week.previous(ComparisonPeriod.PREVIOUS_PERIOD)).isEqualTo(range("2025-03-03", "2025-03-09"));
+        assertThat(range("2025-03-10", "2025-03-10").previous(ComparisonPeriod.PREVIOUS_PERIOD))
+                .isEqualTo(range("2025-03-09", "2025-03-09"));
+    }
+
+    @Test
+    void previousPeriodCountsTheLeapDayLikeAnyOther() {
+        // March 2024 has 31 days, so the previous period starts in January and ends on Feb 29
+        DateRange march = range("2024-03-01", "2024-03-31");
+
+        DateRange previous = march.previous(ComparisonPeriod.PREVIOUS_PERIOD);
+
+        assertThat(previous).isEqualTo(range("2024-01-30", "2024-02-29"));
+        assertThat(previous.days()).isEqualTo(march.days());
+    }
+
+    @Test
+    void previousWeekShiftsBothEndsBySevenDays() {
+        assertThat(range("2025-03-10", "2025-03-12").previous(ComparisonPeriod.PREVIOUS_WEEK))
+                .isEqualTo(range("2025-03-03", "2025-03-05"));
+        // Longer than a week: the two ranges overlap
+        DateRange month = range("2025-03-01", "2025-03-31");
+        DateRange previous = month.previous(ComparisonPeriod.PREVIOUS_WEEK);
+        assertThat(previous).isEqualTo(range("2025-02-22", "2025-03-24"));
+        assertThat(month.contains(previous.end())).isTrue();
+    }
+
+    @Test
+    void previousYearKeepsCalendarDatesAcrossLeapYears() {
+        assertThat(range("2025-06-01", "2025-06-30").previous(ComparisonPeriod.PREVIOUS_YEAR))
+                .isEqualTo(range("2024-06-01", "2024-06-30"));
+
+        // Feb 29 maps to Feb 28, so the previous year's range can be a day shorter ...
+        DateRange leapWeekEnd = range("2024-02-28", "2024-02-29");
+        assertThat(leapWeekEnd.previous(ComparisonPeriod.PREVIOUS_YEAR)).isEqualTo(range("2023-02-28", "2023-02-28"));
+        assertThat(range("2024-02-29", "2024-03-01").previous(ComparisonPeriod.PREVIOUS_YEAR))
+                .isEqualTo(range("2023-02-28", "2023-03-01"));
+
+        // ... or, looking back at a leap year, a day longer
+        DateRange end = range("2025-02-28", "2025-03-01");
+        DateRange previous = end.previous(ComparisonPeriod.PREVIOUS_YEAR);
+        assertThat(previous).isEqualTo(range("2024-02-28", "2024-03-01"));
+        assertThat(previous.days()).isEqualTo(end.days() + 1);
+    }
+
+    @Test
+    void boundsAreInclusiveDaysAndAnExclusiveEndInstant() {
+        DateRange range = range("2025-03-10", "2025-03-12");
+
+        assertThat(range.startDateTime()).isEqualTo(LocalDate.parse("2025-03-10").atStartOfDay());
+        assertThat(range.endDateTime()).isEqualTo(LocalDate.parse("2025-03-13").atStartOfDay());
+        assertThat(range.contains(LocalDate.parse("2025-03-10"))).isTrue();
+        assertThat(range.contains(LocalDate.parse("2025-03-12"))).isTrue();
+        assertThat(range.contains(LocalDate.parse("2025-03-09"))).isFalse();
+        assertThat(range.contains(LocalDate.parse("2025-03-13"))).isFalse();
+    }
+
+    private static DateRange range(String start, String end) {
+        return new DateRange(LocalDate.parse(start), LocalDate.parse(end));
+    }
+}
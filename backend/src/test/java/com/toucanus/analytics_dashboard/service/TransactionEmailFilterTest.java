@@ -0,0 +1,145 @@
+package com.toucanus.analytics_dashboard.service;
+
+import com.toucanus.analytics_dashboard.dto.TransactionListItemDTO;
+import com.toucanus.analytics_dashboard.dto.TransactionSearchCriteria;
+import com.toucanus.analytics_dashboard.service.user.UserDimension;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The email filter of the transaction list against the configured database, with the SQL
+ * Hibernate sends from the test thread captured. Rows use external ids starting with
+ * {@code email-test-} and dates in 2001, and are deleted afterwards.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.toucanus.analytics_dashboard.service.TransactionEmailFilterTest$CapturedSql")
+class TransactionEmailFilterTest {
+
+    private static final String PREFIX = "email-test-";
+    private static final LocalDateTime DAY = LocalDateTime.of(2001, 4, 5, 0, 0);
+    private static final Pattern USERS_TABLE = Pattern.compile("\\busers\\b");
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserDimension userDimension;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String email;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        if (!userDimension.isLoaded()) {
+            userDimension.resync();
+        }
+        Map<String, Object> user = jdbcTemplate.queryForMap("select id, email from users order by id limit 1");
+        email = (String) user.get("email");
+        for (int i = 1; i <= 3; i++) {
+            jdbcTemplate.update("""
+                    insert into transactions (id, external_id, user_id, amount, currency, type, status, payment_method, created_at)
+                    values (?, ?, ?, ?, 'INR', 'PAYIN', 'SUCCESS', 'UPI', ?)
+                    """, UUID.randomUUID(), PREFIX + i, user.get("id"), BigDecimal.valueOf(i * 10L), DAY.plusMinutes(i));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        CapturedSql.stop();
+        cleanUp();
+    }
+
+    @Test
+    void emailInTheDimensionFiltersOnUserIdWithoutJoiningUsers() {
+        CapturedSql.start();
+        Page<TransactionListItemDTO> page = find(email);
+        List<String> statements = CapturedSql.stop();
+
+        assertThat(page.getContent()).extracting(item -> item.getAmount().intValue()).containsExactly(10, 20);
+        assertThat(page.getContent()).allSatisfy(item -> assertThat(item.getUserEmail()).isEqualTo(email));
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        // The page query still joins users once for the display columns; the count needs no join
+        assertThat(count(statements)).doesNotContainPattern(USERS_TABLE).contains("user_id in");
+    }
+
+    @Test
+    void emailMatchStaysExact() {
+        String otherCase = email.toUpperCase(Locale.ROOT);
+        assertThat(otherCase).isNotEqualTo(email);
+
+        assertThat(userDimension.idsByEmail(otherCase)).hasValue(List.of());
+        assertThat(userDimension.idsByEmail(" " + email + " ")).hasValueSatisfying(ids -> assertThat(ids).hasSize(1));
+        // A miss falls back to the join, which compares the column exactly as well
+        CapturedSql.start();
+        Page<TransactionListItemDTO> page = find(otherCase);
+        List<String> statements = CapturedSql.stop();
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(statements).anySatisfy(sql -> assertThat(sql).containsPattern(USERS_TABLE.pattern() + ".*email"));
+    }
+
+    private Page<TransactionListItemDTO> find(String userEmail) {
+        TransactionSearchCriteria criteria = new TransactionSearchCriteria();
+        criteria.setStartDate(DAY);
+        criteria.setEndDate(DAY.plusDays(1));
+        criteria.setUserEmail(userEmail);
+        // A page smaller than the result, so the count query runs too
+        return transactionService.getTransactions(criteria, PageRequest.of(0, 2, Sort.by("amount")));
+    }
+
+    private static String count(List<String> statements) {
+        return statements.stream().filter(sql -> sql.contains("count(")).findFirst().orElseThrow();
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("delete from transactions where external_id like ?", PREFIX + "%");
+    }
+
+    /**
+     * Records the SQL prepared on the thread that called {@link #start}, so scheduled jobs
+     * running meanwhile do not leak into the assertions.
+     */
+    public static class CapturedSql implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+        private static volatile Thread recording;
+
+        static void start() {
+            STATEMENTS.clear();
+            recording = Thread.currentThread();
+        }
+
+        static List<String> stop() {
+            recording = null;
+            return List.copyOf(STATEMENTS);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == recording) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.toucanus.analytics_dashboard.service;
+
+import com.toucanus.analytics_dashboard.dto.TransactionSearchCriteria;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.repository.specification.TransactionSpecification;
+import com.toucanus.analytics_dashboard.service.user.UserDimension;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final UserDimension userDimension = mock(UserDimension.class);
+    private final TransactionService service = new TransactionService(transactionRepository, userDimension);
+    private final Pageable pageable = PageRequest.of(0, 20);
+    private final TransactionSearchCriteria criteria = new TransactionSearchCriteria();
+
+    TransactionServiceTest() {
+        criteria.setUserEmail("new.user@example.com");
+        when(transactionRepository.findListItems(any(), any())).thenReturn(Page.empty(pageable));
+    }
+
+    @Test
+    void emailMissInTheDimensionFallsBackToTheUsersJoin() {
+        when(userDimension.idsByEmail("new.user@example.com")).thenReturn(Optional.of(List.of()));
+
+        try (MockedStatic<TransactionSpecification> specs = mockStatic(TransactionSpecification.class, CALLS_REAL_METHODS)) {
+            service.getTransactions(criteria, pageable);
+
+            specs.verify(() -> TransactionSpecification.getSpec(criteria, null));
+        }
+        verify(transactionRepository).findListItems(any(), any());
+    }
+
+    @Test
+    void dimensionNotLoadedFallsBackToTheUsersJoin() {
+        when(userDimension.idsByEmail("new.user@example.com")).thenReturn(Optional.empty());
+
+        try (MockedStatic<TransactionSpecification> specs = mockStatic(TransactionSpecification.class, CALLS_REAL_METHODS)) {
+            service.getTransactions(criteria, pageable);
+
+            specs.verify(() -> TransactionSpecification.getSpec(criteria, null));
+        }
+    }
+
+    @Test
+    void emailHitBecomesAUserIdFilter() {
+        when(userDimension.idsByEmail("new.user@example.com")).thenReturn(Optional.of(List.of(7L)));
+
+        try (MockedStatic<TransactionSpecification> specs = mockStatic(TransactionSpecification.class, CALLS_REAL_METHODS)) {
+            service.getTransactions(criteria, pageable);
+
+            specs.verify(() -> TransactionSpecification.getSpec(criteria, List.of(7L)));
+        }
+    }
+}
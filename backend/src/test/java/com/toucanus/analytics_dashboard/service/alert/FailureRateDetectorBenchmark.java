@@ -0,0 +1,141 @@
+package com.toucanus.analytics_dashboard.service.alert;
+
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.toucanus.analytics_dashboard.service.alert.FailureRateDetectorTest.START;
+import static com.toucanus.analytics_dashboard.service.alert.FailureRateDetectorTest.event;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CPU cost per event and per evaluation tick, and detection latency (in evaluation ticks,
+ * i.e. seconds) for step changes of the UPI failure rate on 200 txns/s with a 2% baseline,
+ * using the default alert settings. Not part of the normal build: {@code mvn test
+ * -Dbenchmark=true -Dtest=FailureRateDetectorBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FailureRateDetectorBenchmark {
+
+    private static final int EVENTS = 20_000_000;
+    private static final int EVENTS_PER_SECOND = 200;
+    private static final double BASE_RATE = 0.02;
+    private static final int WARMUP_SECONDS = 600;
+    private static final int TRIALS = 25;
+
+    @Test
+    void costPerEvent() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        FailureRateDetector detector = detector();
+        Random random = new Random(42);
+        TransactionEvent[][] seconds = new TransactionEvent[64][EVENTS_PER_SECOND * 5];
+        for (int s = 0; s < seconds.length; s++) {
+            LocalDateTime createdAt = at(START + s);
+            for (int i = 0; i < seconds[s].length; i++) {
+                seconds[s][i] = event(random.nextDouble() < BASE_RATE ? TxnStatus.FAILED : TxnStatus.SUCCESS, createdAt);
+            }
+        }
+
+        long wallNanos = Long.MAX_VALUE;
+        long cpuNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            long start = System.nanoTime();
+            int perSecond = seconds[0].length;
+            for (int i = 0; i < EVENTS; i++) {
+                int s = (i / perSecond) % seconds.length;
+                detector.onTransaction(seconds[s][i % perSecond], START + s);
+            }
+            wallNanos = Math.min(wallNanos, System.nanoTime() - start);
+            cpuNanos = Math.min(cpuNanos, threads.getCurrentThreadCpuTime() - cpuStart);
+        }
+
+        long tickNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 10_000; round++) {
+            long start = System.nanoTime();
+            detector.evaluate(START + seconds.length);
+            tickNanos = Math.min(tickNanos, System.nanoTime() - start);
+        }
+        detector.shutdown();
+
+        System.out.printf("onTransaction: %.1f ns/event wall, %.1f ns/event CPU (%,d events)%n",
+                (double) wallNanos / EVENTS, (double) cpuNanos / EVENTS, EVENTS);
+        System.out.printf("evaluate tick: %.1f us%n", tickNanos / 1000.0);
+    }
+
+    @Test
+    void detectionLatency() {
+        System.out.printf("%-8s %-8s %-8s %-8s%n", "rate", "median", "max", "missed");
+        for (double spike : new double[] { 0.05, 0.07, 0.10, 0.20, 0.50 }) {
+            int[] latencies = new int[TRIALS];
+            int missed = 0;
+            for (int trial = 0; trial < TRIALS; trial++) {
+                latencies[trial] = secondsToDetect(spike, new Random(trial));
+                if (latencies[trial] == Integer.MAX_VALUE) {
+                    missed++;
+                }
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%-8.2f %-8s %-8s %-8d%n", spike, seconds(latencies[TRIALS / 2]),
+                    seconds(latencies[TRIALS - 1]), missed);
+        }
+
+        FailureRateDetector steady = detector();
+        Random random = new Random(7);
+        for (long now = START; now < START + 6 * 3600; now++) {
+            second(steady, now, BASE_RATE, random);
+        }
+        steady.shutdown();
+        System.out.printf("false alerts in 6 h of steady traffic: %d%n", steady.getRecentAlerts().size());
+        assertThat(steady.getRecentAlerts()).isEmpty();
+    }
+
+    private static int secondsToDetect(double spike, Random random) {
+        FailureRateDetector detector = detector();
+        long now = START;
+        for (; now < START + WARMUP_SECONDS; now++) {
+            second(detector, now, BASE_RATE, random);
+        }
+        int latency = Integer.MAX_VALUE;
+        for (int elapsed = 1; elapsed <= 120; elapsed++, now++) {
+            second(detector, now, spike, random);
+            if (!detector.getActiveAlerts().isEmpty()) {
+                latency = elapsed;
+                break;
+            }
+        }
+        detector.shutdown();
+        return latency;
+    }
+
+    private static void second(FailureRateDetector detector, long now, double failureRate, Random random) {
+        LocalDateTime createdAt = at(now);
+        for (int i = 0; i < EVENTS_PER_SECOND; i++) {
+            detector.onTransaction(event(random.nextDouble() < failureRate ? TxnStatus.FAILED : TxnStatus.SUCCESS,
+                    createdAt), now);
+        }
+        detector.evaluate(now);
+    }
+
+    private static FailureRateDetector detector() {
+        return new FailureRateDetector(Duration.ofSeconds(60), 0.05, 4, 50, 0.05);
+    }
+
+    private static LocalDateTime at(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+
+    private static String seconds(int latency) {
+        return latency == Integer.MAX_VALUE ? "-" : latency + " s";
+    }
+}
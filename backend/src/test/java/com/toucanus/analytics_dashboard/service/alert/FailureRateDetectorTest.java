@@ -0,0 +1,124 @@
+package com.toucanus.analytics_dashboard.service.alert;
+
+import com.toucanus.analytics_dashboard.dto.alert.AlertDTO;
+import com.toucanus.analytics_dashboard.enums.AlertMetric;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Drives the detector on simulated seconds: {@link #second} records one second of UPI
+ * traffic and then runs the evaluation tick for it.
+ */
+class FailureRateDetectorTest {
+
+    static final long START = 1_700_000_000L;
+
+    private final FailureRateDetector detector = new FailureRateDetector(Duration.ofSeconds(60), 0.05, 4, 50, 0.05);
+    private long now = START;
+
+    @AfterEach
+    void shutdown() {
+        detector.shutdown();
+    }
+
+    @Test
+    void spikeRaisesAndRecoveryResolves() {
+        for (int i = 0; i < 120; i++) {
+            second(100, 2);
+        }
+        assertThat(detector.getActiveAlerts()).isEmpty();
+
+        int seconds = 0;
+        while (detector.getActiveAlerts().isEmpty() && seconds < 60) {
+            second(100, 50);
+            seconds++;
+        }
+        assertThat(seconds).isLessThan(10);
+        AlertDTO alert = detector.getActiveAlerts().get(0);
+        assertThat(alert.getPaymentMethod()).isEqualTo(PaymentMethod.UPI);
+        assertThat(alert.getMetric()).isEqualTo(AlertMetric.FAILURE_RATE);
+        assertThat(alert.getBaselineRate()).isCloseTo(0.02, offset(0.005));
+
+        for (int i = 0; i < 120 && !detector.getActiveAlerts().isEmpty(); i++) {
+            second(100, 2);
+        }
+        assertThat(detector.getActiveAlerts()).isEmpty();
+        assertThat(detector.getRecentAlerts()).hasSize(2);
+        assertThat(detector.getRecentAlerts().get(0).getResolvedAt()).isNotNull();
+    }
+
+    @Test
+    void quietTrafficNeverAlerts() {
+        for (int i = 0; i < 120; i++) {
+            second(100, 2);
+        }
+        for (int i = 0; i < 60; i++) {
+            second(0, 0);
+        }
+        // Under min-window-txns (50 over 60 s) even an all-failed window is ignored
+        for (int i = 0; i < 40; i++) {
+            second(1, 1);
+        }
+
+        assertThat(detector.getRecentAlerts()).isEmpty();
+    }
+
+    @Test
+    void slowSubscriberDoesNotDelayTheTick() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<AlertDTO> received = new LinkedBlockingQueue<>();
+        detector.subscribe(alert -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(alert);
+        });
+        for (int i = 0; i < 120; i++) {
+            second(100, 2);
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (detector.getActiveAlerts().isEmpty()) {
+                second(100, 50);
+            }
+        });
+        release.countDown();
+
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    private void second(int total, int failed) {
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(now), ZoneId.systemDefault());
+        for (int i = 0; i < total; i++) {
+            detector.onTransaction(event(i < failed ? TxnStatus.FAILED : TxnStatus.SUCCESS, createdAt), now);
+        }
+        detector.evaluate(now);
+        now++;
+    }
+
+    static TransactionEvent event(TxnStatus status, LocalDateTime createdAt) {
+        return new TransactionEvent(UUID.randomUUID(), 1L, BigDecimal.TEN, TxnType.PAYIN, status,
+                PaymentMethod.UPI, createdAt);
+    }
+}
@@ -0,0 +1,191 @@
+package com.toucanus.analytics_dashboard.service.approx;
+
+import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.dto.report.ReportJobDTO;
+import com.toucanus.analytics_dashboard.dto.report.ReportRequestDTO;
+import com.toucanus.analytics_dashboard.enums.ReportPriority;
+import com.toucanus.analytics_dashboard.enums.ReportType;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import com.toucanus.analytics_dashboard.service.report.ReportJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * A table of 10M rows spread evenly over 100 days (100k a day), a target of 200k sampled
+ * rows and the auto threshold at 5M.
+ */
+class ApproximateAnalyticsServiceTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final double RATE_30_DAYS = 200_000 / 3_000_000.0;
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final ReportJobService reportJobService = mock(ReportJobService.class);
+    private ApproximateAnalyticsService approx;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionRepository.estimateTotalRows()).thenReturn(10_000_000L);
+        when(transactionRepository.selectCreatedAtBounds()).thenReturn(List.<Object[]>of(new Object[] {
+                FIRST_DAY.atStartOfDay(), FIRST_DAY.plusDays(100).atStartOfDay()}));
+        ReportJobDTO job = new ReportJobDTO();
+        job.setId("exact-1");
+        when(reportJobService.submit(any())).thenReturn(job);
+        approx = service(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void autoModeOnlySamplesRangesAboveTheThreshold() {
+        // 30 days is 3M rows, 60 days 6M
+        assertThat(approx.samplingRate(null, FIRST_DAY, FIRST_DAY.plusDays(29))).isEqualTo(1.0);
+        assertThat(approx.samplingRate(null, FIRST_DAY, FIRST_DAY.plusDays(59)))
+                .isCloseTo(200_000 / 6_000_000.0, within(1e-9));
+        assertThat(approx.samplingRate(false, FIRST_DAY, FIRST_DAY.plusDays(59))).isEqualTo(1.0);
+    }
+
+    @Test
+    void rangesTooSmallForTheTableAreAnsweredExactly() {
+        // SYSTEM reads rate x 10M rows; sampling 30 days reads 667k of the 3M exact rows
+        assertThat(approx.samplingRate(true, FIRST_DAY, FIRST_DAY.plusDays(29)))
+                .isCloseTo(RATE_30_DAYS, within(1e-9));
+        // ...but a 3 day range would read 6.7M rows of blocks instead of 300k through the index
+        assertThat(approx.samplingRate(true, FIRST_DAY, FIRST_DAY.plusDays(2))).isEqualTo(1.0);
+        // Outside the table's time span there is nothing to sample
+        assertThat(approx.samplingRate(true, FIRST_DAY.minusDays(30), FIRST_DAY.minusDays(1))).isEqualTo(1.0);
+
+        when(transactionRepository.estimateTotalRows()).thenReturn(-1L);
+        assertThat(service(Duration.ZERO).samplingRate(true, FIRST_DAY, FIRST_DAY.plusDays(29))).isEqualTo(1.0);
+    }
+
+    @Test
+    void tableEstimateIsReusedUntilItsTtl() {
+        approx.samplingRate(null, FIRST_DAY, FIRST_DAY.plusDays(29));
+        approx.samplingRate(true, FIRST_DAY, FIRST_DAY.plusDays(59));
+        verify(transactionRepository, times(1)).estimateTotalRows();
+        verify(transactionRepository, times(1)).selectCreatedAtBounds();
+
+        ApproximateAnalyticsService uncached = service(Duration.ZERO);
+        uncached.samplingRate(null, FIRST_DAY, FIRST_DAY.plusDays(29));
+        uncached.samplingRate(null, FIRST_DAY, FIRST_DAY.plusDays(29));
+        verify(transactionRepository, times(3)).estimateTotalRows();
+    }
+
+    @Test
+    void exactAnswersGoToTheDashboardService() {
+        LocalDate end = FIRST_DAY.plusDays(29);
+        approx.getDashboardStats(FIRST_DAY, end, false);
+
+        verify(dashboardService).getDashboardStats(FIRST_DAY, end);
+        verify(transactionRepository, never()).getSampledAggregatedStatsInRange(anyDouble(), any(), any());
+        verifyNoInteractions(reportJobService);
+    }
+
+    @Test
+    void sampledTotalsAreScaledAndComeWithTheExactJob() {
+        // Ten blocks of 100 rows each: 80 SUCCESS at 10, 5 PENDING, 15 FAILED at 10
+        sample(1000, 800, 50, 8000, 1500, 100_000, 64_000, 250, 6_400_000, 225_000, 80_000, 640_000);
+        LocalDate end = FIRST_DAY.plusDays(29);
+
+        DashboardStatsDTO stats = approx.getDashboardStats(FIRST_DAY, end, true);
+
+        ArgumentCaptor<Double> percent = ArgumentCaptor.forClass(Double.class);
+        verify(transactionRepository).getSampledAggregatedStatsInRange(percent.capture(),
+                eq(FIRST_DAY.atStartOfDay()), eq(end.plusDays(1).atStartOfDay()));
+        assertThat(percent.getValue()).isCloseTo(RATE_30_DAYS * 100, within(1e-9));
+
+        assertThat(stats.getTotalTxns()).isEqualTo(15_000);
+        assertThat(stats.getPendingTrxns()).isEqualTo(750);
+        assertThat(stats.getTotalGtv()).isEqualByComparingTo("120000.00");
+        assertThat(stats.getTotalFailedVolume()).isEqualByComparingTo("22500.00");
+        assertThat(stats.getAverageTicketSize()).isEqualByComparingTo("10");
+        assertThat(stats.getSuccessRate()).isEqualTo(80.0);
+        assertThat(stats.getApproximation().getSampleRate()).isCloseTo(RATE_30_DAYS, within(1e-9));
+        assertThat(stats.getApproximation().getConfidenceLevel()).isEqualTo(0.95);
+        assertThat(stats.getApproximation().getExactJobId()).isEqualTo("exact-1");
+
+        ArgumentCaptor<ReportRequestDTO> request = ArgumentCaptor.forClass(ReportRequestDTO.class);
+        verify(reportJobService).submit(request.capture());
+        assertThat(request.getValue().getType()).isEqualTo(ReportType.FILTERED_STATS);
+        assertThat(request.getValue().getStartDate()).isEqualTo(FIRST_DAY);
+        assertThat(request.getValue().getEndDate()).isEqualTo(end);
+        assertThat(request.getValue().getPriority()).isEqualTo(ReportPriority.LOW);
+
+        // Served from the cache afterwards, with the same exact job
+        approx.getDashboardStats(FIRST_DAY, end, true);
+        verify(transactionRepository, times(1)).getSampledAggregatedStatsInRange(anyDouble(), any(), any());
+        verify(reportJobService, times(1)).submit(any());
+    }
+
+    @Test
+    void marginsFollowHowRowsClusterInBlocks() {
+        // The same 1000 sampled rows in ten blocks of 100 ...
+        sample(1000, 800, 50, 8000, 1500, 100_000, 64_000, 250, 6_400_000, 225_000, 80_000, 640_000);
+        DashboardStatsDTO clustered = approx.getDashboardStats(FIRST_DAY, FIRST_DAY.plusDays(29), true);
+        // ... or in 1000 blocks of one
+        sample(1000, 800, 50, 8000, 1500, 1_000, 800, 50, 80_000, 15_000, 800, 8_000);
+        DashboardStatsDTO spread = service(Duration.ofMinutes(1)).getDashboardStats(FIRST_DAY, FIRST_DAY.plusDays(29), true);
+
+        // 1.96 * sqrt((1 - rate) * sum of squared block counts) / rate
+        assertThat(clustered.getApproximation().getMargins().get("totalTxns")).isEqualByComparingTo("8981.85");
+        assertThat(spread.getApproximation().getMargins().get("totalTxns")).isEqualByComparingTo("898.18");
+        // Every clustered block has the same success ratio, so its margin is zero up to rounding
+        assertThat(clustered.getApproximation().getMargins().get("successRate"))
+                .isCloseTo(BigDecimal.ZERO, within(new BigDecimal("0.001")));
+        assertThat(spread.getApproximation().getMargins().get("successRate")).isPositive();
+    }
+
+    @Test
+    void rejectedExactJobLeavesNoJobId() {
+        when(reportJobService.submit(any())).thenThrow(new RejectedExecutionException("full"));
+        sample(1000, 800, 50, 8000, 1500, 100_000, 64_000, 250, 6_400_000, 225_000, 80_000, 640_000);
+
+        DashboardStatsDTO stats = approx.getDashboardStats(FIRST_DAY, FIRST_DAY.plusDays(29), true);
+
+        assertThat(stats.getTotalTxns()).isEqualTo(15_000);
+        assertThat(stats.getApproximation().getExactJobId()).isNull();
+    }
+
+    /**
+     * [t, s, p, g, h, tt, ss, pp, gg, hh, st, gs] of the next sampled query.
+     */
+    private void sample(double... sums) {
+        Object[] row = new Object[sums.length + 1];
+        row[0] = 0L;
+        for (int i = 0; i < sums.length; i++) {
+            row[i + 1] = sums[i];
+        }
+        when(transactionRepository.getSampledAggregatedStatsInRange(anyDouble(), any(), any()))
+                .thenReturn(List.<Object[]>of(row));
+    }
+
+    private ApproximateAnalyticsService service(Duration estimateTtl) {
+        return new ApproximateAnalyticsService(transactionRepository, mock(UserRepository.class), dashboardService,
+                mock(GraphAnalyticsService.class), reportJobService,
+                new ConcurrentMapCacheManager("approximateAnalytics"),
+                200_000, 0.001, 5_000_000, 0.5, estimateTtl);
+    }
+}
@@ -0,0 +1,118 @@
+package com.toucanus.analytics_dashboard.service.bulkhead;
+
+import com.toucanus.analytics_dashboard.config.BulkheadProperties;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadRegistryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rangesLongerThanHeavyRangeDaysGoToTheHeavyLane() {
+        BulkheadRegistry bulkheads = registry(new BulkheadProperties());
+        LocalDate start = LocalDate.of(2025, 1, 1);
+
+        // heavy-range-days is 92, counting both ends
+        assertThat(bulkheads.laneFor(start, start)).isEqualTo(QueryLane.ANALYTICS);
+        assertThat(bulkheads.laneFor(start, start.plusDays(91))).isEqualTo(QueryLane.ANALYTICS);
+        assertThat(bulkheads.laneFor(start, start.plusDays(92))).isEqualTo(QueryLane.HEAVY);
+        assertThat(bulkheads.laneFor(null, start)).isEqualTo(QueryLane.ANALYTICS);
+        assertThat(bulkheads.laneFor(null, null)).isEqualTo(QueryLane.ANALYTICS);
+        assertThat(bulkheads.laneFor(LocalDate.now().minusDays(91), null)).isEqualTo(QueryLane.ANALYTICS);
+        assertThat(bulkheads.laneFor(LocalDate.now().minusDays(92), null)).isEqualTo(QueryLane.HEAVY);
+    }
+
+    @Test
+    void requestsBeyondPermitsAndQueueAreRejected() throws Exception {
+        BulkheadProperties properties = new BulkheadProperties();
+        BulkheadProperties.Lane heavy = new BulkheadProperties.Lane();
+        heavy.setMaxConcurrent(1);
+        heavy.setMaxQueue(1);
+        heavy.setMaxWait(Duration.ofMillis(300));
+        properties.getLanes().put(QueryLane.HEAVY, heavy);
+        BulkheadRegistry bulkheads = registry(properties);
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> bulkheads.execute(QueryLane.HEAVY, () -> {
+            holding.countDown();
+            await(release);
+            return "done";
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() -> bulkheads.execute(QueryLane.HEAVY, () -> "late"));
+        while (meterRegistry.get("bulkhead.queued").tag("lane", "heavy").gauge().value() < 1) {
+            Thread.sleep(5);
+        }
+
+        // Permit taken and the one queue slot used: rejected without waiting
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> bulkheads.execute(QueryLane.HEAVY, () -> "rejected"))
+                .isInstanceOfSatisfying(BulkheadFullException.class, e -> assertThat(e.getLane()).isEqualTo(QueryLane.HEAVY))
+                .hasMessageContaining("queue full");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // The queued one gives up after max-wait
+        assertThatThrownBy(() -> waiter.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(BulkheadFullException.class)
+                .hasMessageContaining("timed out");
+        assertThat(rejected("queue_full")).isEqualTo(1);
+        assertThat(rejected("timeout")).isEqualTo(1);
+
+        // Other lanes are unaffected
+        assertThat(bulkheads.execute(QueryLane.INTERACTIVE, () -> "list")).isEqualTo("list");
+        release.countDown();
+        assertThat(holder.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(bulkheads.execute(QueryLane.HEAVY, () -> "again")).isEqualTo("again");
+    }
+
+    /**
+     * Every lane permit, report thread and settlement worker can hold a connection at once,
+     * so together they must fit in the Hikari pool.
+     */
+    @Test
+    void configuredLanesAndWorkersFitTheConnectionPool() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+
+        int lanes = 0;
+        for (QueryLane lane : QueryLane.values()) {
+            lanes += Integer.parseInt(properties.getProperty(
+                    "bulkhead.lanes." + lane.name().toLowerCase() + ".max-concurrent"));
+        }
+        int reports = Integer.parseInt(properties.getProperty("reports.executor.threads"));
+        int settlement = Integer.parseInt(properties.getProperty("settlement.parallelism"));
+        int pool = Integer.parseInt(properties.getProperty("spring.datasource.hikari.maximum-pool-size"));
+
+        assertThat(lanes + reports + settlement).isEqualTo(pool);
+    }
+
+    private BulkheadRegistry registry(BulkheadProperties properties) {
+        return new BulkheadRegistry(properties, meterRegistry);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("bulkhead.rejected").tags("lane", "heavy", "reason", reason).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.toucanus.analytics_dashboard.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.toucanus.analytics_dashboard.service.query.QueryContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Another instance holds the lease and never writes, so every load has to wait.
+ */
+class TwoLevelCacheTest {
+
+    private final SharedCacheStore store = mock(SharedCacheStore.class);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Cache<Object, Object> near = Caffeine.newBuilder().build();
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        when(store.lease()).thenReturn(Duration.ofMinutes(2));
+        when(store.read(anyString(), anyString())).thenReturn(null);
+        when(store.tryLease(anyString(), anyString())).thenReturn(false);
+        when(store.changeOf(anyString(), anyString())).thenAnswer(invocation -> new CompletableFuture<Void>());
+        when(store.await(any(), anyLong())).thenAnswer(invocation -> {
+            CompletableFuture<?> change = invocation.getArgument(0);
+            long deadline = invocation.getArgument(1);
+            long timeout = Math.min(TimeUnit.MILLISECONDS.toNanos(20), deadline - System.nanoTime());
+            if (timeout <= 0) {
+                return false;
+            }
+            try {
+                change.get(timeout, TimeUnit.NANOSECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            } catch (ExecutionException | CancellationException e) {
+                return true;
+            }
+        });
+        cache = new TwoLevelCache("test", near, store, new ObjectMapper(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void waitIsCappedByTheRequestDeadlineThenComputedLocally() {
+        QueryContext query = new QueryContext(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(400),
+                new CompletableFuture<>());
+
+        long start = System.nanoTime();
+        String value = query.run(() -> cache.get("key", this::load));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(value).isEqualTo("computed");
+        assertThat(loads).hasValue(1);
+        // Half of the remaining 400 ms, far below twice the two-minute lease
+        assertThat(elapsedMs).isBetween(150L, 390L);
+    }
+
+    @Test
+    void cancellationEndsTheWaitWithoutComputing() {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        QueryContext query = new QueryContext(System.nanoTime() + TimeUnit.SECONDS.toNanos(30), future);
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> future.cancel(false));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> query.run(() -> cache.get("key", this::load)))
+                .isInstanceOf(CancellationException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000);
+        assertThat(loads).hasValue(0);
+        assertThat(near.getIfPresent("key")).isNull();
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "computed";
+    }
+}
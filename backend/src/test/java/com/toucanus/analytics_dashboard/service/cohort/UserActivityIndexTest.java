@@ -0,0 +1,80 @@
+package com.toucanus.analytics_dashboard.service.cohort;
+
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.repository.UserActivityBitmapRepository;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserActivityIndexTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final UserActivityBitmapRepository bitmapRepository = mock(UserActivityBitmapRepository.class);
+    private UserActivityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(bitmapRepository.findByDayGreaterThanEqual(any())).thenReturn(List.of());
+        when(transactionRepository.selectDistinctUserIdsInRange(any(), any())).thenReturn(List.of(1L, 2L));
+        index = new UserActivityIndex(transactionRepository, bitmapRepository, new SimpleMeterRegistry(), 3);
+    }
+
+    @Test
+    void todayIsRebuiltFromTheTableEvenWhenTheFeedCreatedIt() {
+        LocalDate today = LocalDate.now();
+        index.onTransaction(event(5L, today.atStartOfDay().plusHours(1)));
+
+        index.backfill();
+
+        UserBitmap bitmap = index.get(today);
+        assertThat(bitmap.cardinality()).isEqualTo(3);
+        assertThat(bitmap.andCardinality(UserBitmapTest.bitmapOf(Set.of(1L, 2L, 5L)))).isEqualTo(3);
+    }
+
+    @Test
+    void mergingAClosedDayDoesNotMutateTheBitmapReadersHold() {
+        LocalDate closedDay = LocalDate.now().minusDays(2);
+        index.backfill();
+        UserBitmap held = index.get(closedDay);
+        assertThat(held.cardinality()).isEqualTo(2);
+
+        when(transactionRepository.selectDistinctUserIdsInRange(any(), any())).thenReturn(List.of(2L, 3L, 4L));
+        index.invalidate(closedDay, closedDay);
+        index.backfill();
+
+        assertThat(held.cardinality()).isEqualTo(2);
+        assertThat(index.get(closedDay).cardinality()).isEqualTo(4);
+    }
+
+    @Test
+    void feedUpdatesAfterAMergeLandInThePublishedBitmap() {
+        LocalDate today = LocalDate.now();
+        index.onTransaction(event(5L, today.atStartOfDay()));
+        index.backfill();
+
+        index.onTransaction(event(6L, today.atStartOfDay()));
+
+        assertThat(index.get(today).cardinality()).isEqualTo(4);
+    }
+
+    private static TransactionEvent event(long userId, LocalDateTime createdAt) {
+        return new TransactionEvent(UUID.randomUUID(), userId, BigDecimal.ONE, TxnType.values()[0],
+                TxnStatus.SUCCESS, PaymentMethod.UPI, createdAt);
+    }
+}
@@ -0,0 +1,82 @@
+package com.toucanus.analytics_dashboard.service.cohort;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cohort-sized operations on a synthetic base of 10M users with 1M daily actives and a
+ * 200k signup cohort. Not part of the normal build: {@code mvn test -Dbenchmark=true
+ * -Dtest=UserBitmapBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserBitmapBenchmark {
+
+    private static final int USERS = 10_000_000;
+    private static final int DAILY_ACTIVE = 1_000_000;
+    private static final int COHORT = 200_000;
+    private static final int DAYS = 30;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void cohortOperations() {
+        Random random = new Random(42);
+        UserBitmap[] days = new UserBitmap[DAYS];
+        long addNanos = 0;
+        for (int d = 0; d < DAYS; d++) {
+            long[] ids = random.longs(DAILY_ACTIVE, 0, USERS).toArray();
+            long start = System.nanoTime();
+            UserBitmap day = new UserBitmap();
+            for (long id : ids) {
+                day.add(id);
+            }
+            addNanos += System.nanoTime() - start;
+            days[d] = day;
+        }
+        UserBitmap cohort = new UserBitmap();
+        random.longs(COHORT, 0, USERS).forEach(cohort::add);
+
+        long andNanos = Long.MAX_VALUE;
+        long orNanos = Long.MAX_VALUE;
+        long serializeNanos = Long.MAX_VALUE;
+        long deserializeNanos = Long.MAX_VALUE;
+        long checksum = 0;
+        int bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (UserBitmap day : days) {
+                checksum += cohort.andCardinality(day);
+            }
+            andNanos = Math.min(andNanos, (System.nanoTime() - start) / DAYS);
+
+            start = System.nanoTime();
+            UserBitmap union = new UserBitmap();
+            for (UserBitmap day : days) {
+                union.or(day);
+            }
+            orNanos = Math.min(orNanos, System.nanoTime() - start);
+            checksum += union.cardinality();
+
+            start = System.nanoTime();
+            byte[] serialized = days[0].serialize();
+            serializeNanos = Math.min(serializeNanos, System.nanoTime() - start);
+            bytes = serialized.length;
+
+            start = System.nanoTime();
+            checksum += UserBitmap.deserialize(serialized).cardinality();
+            deserializeNanos = Math.min(deserializeNanos, System.nanoTime() - start);
+        }
+
+        System.out.printf("UserBitmap, %,d users, %,d daily actives, %,d cohort%n", USERS, DAILY_ACTIVE, COHORT);
+        System.out.printf("  add:                 %.1f ns/id%n", (double) addNanos / DAYS / DAILY_ACTIVE);
+        System.out.printf("  cohort x day count:  %.3f ms%n", andNanos / 1e6);
+        System.out.printf("  union of %d days:    %.1f ms%n", DAYS, orNanos / 1e6);
+        System.out.printf("  day heap / on disk:  %,d / %,d bytes (%.2f bytes/user)%n",
+                days[0].sizeInBytes(), bytes, (double) bytes / days[0].cardinality());
+        System.out.printf("  serialize / read:    %.2f / %.2f ms%n", serializeNanos / 1e6, deserializeNanos / 1e6);
+        assertThat(checksum).isPositive();
+    }
+}
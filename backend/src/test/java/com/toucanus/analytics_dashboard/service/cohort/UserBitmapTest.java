@@ -0,0 +1,137 @@
+package com.toucanus.analytics_dashboard.service.cohort;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * UserBitmap against a {@link HashSet} oracle. Densities run from a few ids per container
+ * (array containers) to most of a container (bitmap containers), so array/array,
+ * array/bitmap and bitmap/bitmap paths and the array-to-bitmap switch are all exercised.
+ */
+class UserBitmapTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = { 10, 3_000, 5_000, 60_000 })
+    void addAndCardinalityMatchOracle(int perContainer) {
+        Random random = new Random(perContainer);
+        Set<Long> oracle = randomIds(random, perContainer);
+        UserBitmap bitmap = bitmapOf(oracle);
+
+        assertThat(bitmap.cardinality()).isEqualTo(oracle.size());
+        // Adding again changes nothing
+        oracle.forEach(bitmap::add);
+        assertThat(bitmap.cardinality()).isEqualTo(oracle.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 10, 3_000, 5_000, 60_000 })
+    void andCardinalityMatchesOracle(int perContainer) {
+        Random random = new Random(perContainer + 1);
+        for (int otherDensity : new int[] { 10, 2_000, 8_000, 50_000 }) {
+            Set<Long> a = randomIds(random, perContainer);
+            Set<Long> b = randomIds(random, otherDensity);
+            Set<Long> intersection = new HashSet<>(a);
+            intersection.retainAll(b);
+
+            assertThat(bitmapOf(a).andCardinality(bitmapOf(b))).isEqualTo(intersection.size());
+            assertThat(bitmapOf(b).andCardinality(bitmapOf(a))).isEqualTo(intersection.size());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 10, 3_000, 5_000, 60_000 })
+    void orMatchesOracle(int perContainer) {
+        Random random = new Random(perContainer + 2);
+        for (int otherDensity : new int[] { 10, 2_000, 8_000, 50_000 }) {
+            Set<Long> a = randomIds(random, perContainer);
+            Set<Long> b = randomIds(random, otherDensity);
+            Set<Long> union = new HashSet<>(a);
+            union.addAll(b);
+            UserBitmap bitmapB = bitmapOf(b);
+            long bBefore = bitmapB.cardinality();
+
+            UserBitmap result = bitmapOf(a);
+            result.or(bitmapB);
+
+            assertThat(result.cardinality()).isEqualTo(union.size());
+            assertThat(result.andCardinality(bitmapOf(union))).isEqualTo(union.size());
+            assertThat(bitmapB.cardinality()).as("argument of or is unchanged").isEqualTo(bBefore);
+            assertThat(bitmapB.andCardinality(bitmapOf(b))).isEqualTo(b.size());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 10, 3_000, 5_000, 60_000 })
+    void serializeRoundTrips(int perContainer) {
+        Random random = new Random(perContainer + 3);
+        Set<Long> oracle = randomIds(random, perContainer);
+        UserBitmap bitmap = bitmapOf(oracle);
+
+        UserBitmap copy = UserBitmap.deserialize(bitmap.serialize());
+
+        assertThat(copy.cardinality()).isEqualTo(oracle.size());
+        assertThat(copy.andCardinality(bitmap)).isEqualTo(oracle.size());
+        assertThat(copy.serialize()).isEqualTo(bitmap.serialize());
+        // A deserialized bitmap is still mutable
+        copy.add(Integer.MAX_VALUE);
+        assertThat(copy.cardinality()).isEqualTo(oracle.size() + (oracle.contains((long) Integer.MAX_VALUE) ? 0 : 1));
+    }
+
+    @Test
+    void copyIsIndependent() {
+        Set<Long> oracle = randomIds(new Random(4), 5_000);
+        UserBitmap bitmap = bitmapOf(oracle);
+        UserBitmap copy = bitmap.copy();
+
+        for (long id = 0; id < 200_000; id += 7) {
+            copy.add(id);
+        }
+        copy.or(bitmapOf(randomIds(new Random(5), 60_000)));
+
+        assertThat(bitmap.cardinality()).isEqualTo(oracle.size());
+        assertThat(bitmap.andCardinality(bitmapOf(oracle))).isEqualTo(oracle.size());
+    }
+
+    @Test
+    void rejectsIdsOutsideIntRange() {
+        UserBitmap bitmap = new UserBitmap();
+
+        assertThatThrownBy(() -> bitmap.add(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bitmap.add(Integer.MAX_VALUE + 1L)).isInstanceOf(IllegalArgumentException.class);
+        bitmap.add(0);
+        bitmap.add(Integer.MAX_VALUE);
+        assertThat(bitmap.cardinality()).isEqualTo(2);
+    }
+
+    /**
+     * Ids in a handful of random containers, including the first and last, with about
+     * {@code perContainer} ids drawn in each.
+     */
+    static Set<Long> randomIds(Random random, int perContainer) {
+        Set<Long> ids = new HashSet<>();
+        int[] highs = { 0, 1, 2 + random.nextInt(100), 200 + random.nextInt(30_000), 32_767 };
+        for (int high : highs) {
+            if (random.nextInt(5) == 0) {
+                continue;
+            }
+            for (int k = 0; k < perContainer; k++) {
+                ids.add(((long) high << 16) | random.nextInt(1 << 16));
+            }
+        }
+        return ids;
+    }
+
+    static UserBitmap bitmapOf(Set<Long> ids) {
+        UserBitmap bitmap = new UserBitmap();
+        ids.forEach(bitmap::add);
+        return bitmap;
+    }
+}
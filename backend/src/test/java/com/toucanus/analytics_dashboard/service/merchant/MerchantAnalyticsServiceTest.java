@@ -0,0 +1,88 @@
+package com.toucanus.analytics_dashboard.service.merchant;
+
+import com.toucanus.analytics_dashboard.config.MerchantCacheProperties;
+import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.cache.SharedCacheStore;
+import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import com.toucanus.analytics_dashboard.service.user.UserDirectory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MerchantAnalyticsServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final SharedCacheStore store = mock(SharedCacheStore.class);
+    private MerchantAnalyticsService merchants;
+    private SharedCacheStore.Listener listener;
+
+    @BeforeEach
+    void setUp() {
+        when(dashboardService.getMerchantDashboardStats(anyLong(), any(), any())).thenReturn(new DashboardStatsDTO());
+        @SuppressWarnings("unchecked")
+        ObjectProvider<SharedCacheStore> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(store);
+        merchants = new MerchantAnalyticsService(dashboardService, mock(GraphAnalyticsService.class),
+                mock(UserDirectory.class), new MerchantCacheProperties(), provider, new SimpleMeterRegistry());
+        ArgumentCaptor<SharedCacheStore.Listener> captor = ArgumentCaptor.forClass(SharedCacheStore.Listener.class);
+        verify(store).addListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    void invalidateAllIsAnnouncedToOtherInstances() {
+        merchants.getDashboardStats(1, DAY, DAY);
+
+        merchants.invalidateAll();
+        merchants.getDashboardStats(1, DAY, DAY);
+
+        verify(store).deleteAll(MerchantAnalyticsService.SHARED_CACHE_NAME);
+        verify(dashboardService, times(2)).getMerchantDashboardStats(1, DAY, DAY);
+    }
+
+    @Test
+    void clearFromAnotherInstanceDropsTheLocalCache() {
+        merchants.getDashboardStats(1, DAY, DAY);
+
+        listener.cleared("dashboardStats");
+        merchants.getDashboardStats(1, DAY, DAY);
+        verify(dashboardService, times(1)).getMerchantDashboardStats(1, DAY, DAY);
+
+        listener.cleared(MerchantAnalyticsService.SHARED_CACHE_NAME);
+        merchants.getDashboardStats(1, DAY, DAY);
+        verify(dashboardService, times(2)).getMerchantDashboardStats(1, DAY, DAY);
+
+        // Missed notifications may have included a clear
+        listener.reset();
+        merchants.getDashboardStats(1, DAY, DAY);
+        verify(dashboardService, times(3)).getMerchantDashboardStats(1, DAY, DAY);
+    }
+
+    @Test
+    void sharedTierFailureStillClearsLocally() {
+        RuntimeException failure = new RuntimeException("down");
+        doThrow(failure).when(store).deleteAll(MerchantAnalyticsService.SHARED_CACHE_NAME);
+        merchants.getDashboardStats(1, DAY, DAY);
+
+        merchants.invalidateAll();
+        merchants.getDashboardStats(1, DAY, DAY);
+
+        verify(store).recordError("clear", failure);
+        verify(dashboardService, times(2)).getMerchantDashboardStats(1, DAY, DAY);
+    }
+}
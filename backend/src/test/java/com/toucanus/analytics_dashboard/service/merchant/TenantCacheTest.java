@@ -0,0 +1,137 @@
+package com.toucanus.analytics_dashboard.service.merchant;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void busyTenantOnlyEvictsWhatItBorrowed() {
+        TenantCache<Integer, String> cache = cache(100, 4);
+        for (long tenant = 1; tenant <= 3; tenant++) {
+            fill(cache, tenant, 0, 10);
+        }
+
+        // Four tenants, so a share of 25; the busy one borrows what the quiet ones leave
+        fill(cache, 4, 0, 1_000);
+
+        assertThat(cache.share()).isEqualTo(25);
+        assertThat(cache.entryCount()).isEqualTo(100);
+        assertThat(cache.entryCount(4)).isEqualTo(70);
+        int before = loads.get();
+        for (long tenant = 1; tenant <= 3; tenant++) {
+            assertThat(cache.entryCount(tenant)).isEqualTo(10);
+            fill(cache, tenant, 0, 10);
+        }
+        assertThat(loads).hasValue(before);
+    }
+
+    @Test
+    void tenantsGrowingBackToTheirShareReclaimBorrowedEntries() {
+        TenantCache<Integer, String> cache = cache(100, 4);
+        for (long tenant = 1; tenant <= 3; tenant++) {
+            fill(cache, tenant, 0, 5);
+        }
+        fill(cache, 4, 0, 1_000);
+        assertThat(cache.entryCount(4)).isEqualTo(85);
+
+        for (long tenant = 1; tenant <= 3; tenant++) {
+            fill(cache, tenant, 5, 40);
+        }
+
+        // The quiet tenants only lose entries once they in turn go over their share
+        for (long tenant = 1; tenant <= 4; tenant++) {
+            assertThat(cache.entryCount(tenant)).as("tenant %d", tenant).isEqualTo(25);
+        }
+        assertThat(cache.entryCount()).isEqualTo(100);
+    }
+
+    @Test
+    void tenantsWithinTheFloorAreNotEvictedEvenWhenOverMaxEntries() {
+        TenantCache<Integer, String> cache = cache(100, 4);
+        for (long tenant = 1; tenant <= 50; tenant++) {
+            fill(cache, tenant, 0, 4);
+        }
+
+        // 100 / 50 tenants is 2 each, below the floor of 4
+        assertThat(cache.share()).isEqualTo(4);
+        assertThat(cache.entryCount()).isEqualTo(200);
+
+        fill(cache, 51, 0, 10);
+        assertThat(cache.entryCount(51)).isEqualTo(4);
+        for (long tenant = 1; tenant <= 50; tenant++) {
+            assertThat(cache.entryCount(tenant)).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void concurrentChurnNeverEvictsQuietTenants() throws Exception {
+        TenantCache<Integer, String> cache = cache(1_000, 4);
+        for (long tenant = 1; tenant <= 8; tenant++) {
+            fill(cache, tenant, 0, 50);
+        }
+
+        // Share is 1000 / 10 = 100; two busy tenants fight over the 600 entries left
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> first = executor.submit(() -> fill(cache, 9, 0, 50_000));
+            Future<?> second = executor.submit(() -> fill(cache, 10, 0, 50_000));
+            Future<?> quiet = executor.submit(() -> {
+                for (int round = 0; round < 200; round++) {
+                    for (long tenant = 1; tenant <= 8; tenant++) {
+                        fill(cache, tenant, 0, 50);
+                    }
+                }
+            });
+            first.get();
+            second.get();
+            quiet.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        for (long tenant = 1; tenant <= 8; tenant++) {
+            assertThat(cache.entryCount(tenant)).as("tenant %d", tenant).isEqualTo(50);
+        }
+        assertThat(cache.entryCount()).isLessThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void idleTenantsAreDroppedWhole() {
+        TenantCache<Integer, String> cache = cache(100, 4);
+        fill(cache, 1, 0, 10);
+        nanos.addAndGet(Duration.ofSeconds(20).toNanos());
+        fill(cache, 2, 0, 10);
+        nanos.addAndGet(Duration.ofSeconds(20).toNanos());
+        fill(cache, 2, 0, 10);
+
+        assertThat(cache.tenantCount()).isEqualTo(1);
+        assertThat(cache.entryCount(1)).isZero();
+        assertThat(cache.entryCount()).isEqualTo(10);
+    }
+
+    private TenantCache<Integer, String> cache(int maxEntries, int minEntriesPerTenant) {
+        return new TenantCache<>(maxEntries, 1_000, minEntriesPerTenant, Duration.ofSeconds(30), nanos::get);
+    }
+
+    private void fill(TenantCache<Integer, String> cache, long tenant, int fromKey, int toKey) {
+        for (int key = fromKey; key < toKey; key++) {
+            String value = cache.get(tenant, key, k -> {
+                loads.incrementAndGet();
+                return tenant + ":" + k;
+            });
+            assertThat(value).isEqualTo(tenant + ":" + key);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.toucanus.analytics_dashboard.service.query;
+
+import com.toucanus.analytics_dashboard.config.BulkheadProperties;
+import com.toucanus.analytics_dashboard.enums.QueryLane;
+import com.toucanus.analytics_dashboard.service.bulkhead.BulkheadRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Timeouts and cancellation against the configured database, on a service of its own whose
+ * ANALYTICS lane has a single permit.
+ */
+@SpringBootTest
+class QueryExecutionServiceTest {
+
+    private static final String SLEEP = "select pg_sleep(20) /* query-execution-test */";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private QueryExecutionService queries;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties properties = new BulkheadProperties();
+        BulkheadProperties.Lane analytics = new BulkheadProperties.Lane();
+        analytics.setMaxConcurrent(1);
+        analytics.setMaxWait(Duration.ofSeconds(10));
+        analytics.setStatementTimeout(Duration.ofSeconds(30));
+        properties.getLanes().put(QueryLane.ANALYTICS, analytics);
+        BulkheadProperties.Lane interactive = new BulkheadProperties.Lane();
+        interactive.setStatementTimeout(Duration.ofMillis(300));
+        properties.getLanes().put(QueryLane.INTERACTIVE, interactive);
+        queries = new QueryExecutionService(new BulkheadRegistry(properties, meterRegistry), transactionManager,
+                dataSourceProperties, meterRegistry, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queries.shutdown();
+    }
+
+    @Test
+    void laneStatementTimeoutEndsTheQuery() {
+        long start = System.nanoTime();
+        CompletableFuture<Object> future = queries.submit(QueryLane.INTERACTIVE, null,
+                () -> jdbcTemplate.queryForList(SLEEP));
+
+        assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StatementTimeoutException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(meterRegistry.get("query.timeouts").tag("lane", "interactive").counter().count()).isEqualTo(1);
+
+        // The timeout was local to that transaction, not left on the pooled session
+        assertThat(queries.submit(QueryLane.INTERACTIVE, null,
+                () -> jdbcTemplate.queryForObject("select current_setting('statement_timeout')", String.class)))
+                .succeedsWithin(Duration.ofSeconds(5)).isEqualTo("300ms");
+        assertThat(jdbcTemplate.queryForObject("select current_setting('statement_timeout')", String.class))
+                .isEqualTo("0");
+    }
+
+    @Test
+    void workWithoutStatementsTakesNoPermit() {
+        assertThat(queries.submit(QueryLane.ANALYTICS, null, () -> "cached"))
+                .succeedsWithin(Duration.ofSeconds(5)).isEqualTo("cached");
+        assertThat(permitsTaken()).isZero();
+
+        assertThat(queries.submit(QueryLane.ANALYTICS, null,
+                () -> jdbcTemplate.queryForObject("select 1", Integer.class)))
+                .succeedsWithin(Duration.ofSeconds(5)).isEqualTo(1);
+        assertThat(permitsTaken()).isEqualTo(1);
+    }
+
+    @Test
+    void newerRequestWithTheSameKeyCancelsTheRunningQuery() throws Exception {
+        long start = System.nanoTime();
+        CompletableFuture<Object> older = queries.submit(QueryLane.ANALYTICS, "tab:analytics",
+                () -> jdbcTemplate.queryForList(SLEEP));
+        awaitSleeping();
+
+        // The older query holds the lane's only permit, so the newer one only runs once it is gone
+        CompletableFuture<Integer> newer = queries.submit(QueryLane.ANALYTICS, "tab:analytics",
+                () -> jdbcTemplate.queryForObject("select 1", Integer.class));
+
+        assertThat(newer).succeedsWithin(Duration.ofSeconds(10)).isEqualTo(1);
+        assertThat(older).isCancelled();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+        assertThat(sleeping()).isZero();
+        assertThat(meterRegistry.get("query.cancelled").tag("reason", "superseded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelledRequestGivesItsPermitBack() {
+        CompletableFuture<Object> future = queries.submit(QueryLane.ANALYTICS, null,
+                () -> jdbcTemplate.queryForList(SLEEP));
+        queries.cancel(future, "disconnected");
+
+        assertThatThrownBy(future::join).isInstanceOf(CancellationException.class);
+        assertThat(meterRegistry.get("query.cancelled").tag("reason", "disconnected").counter().count()).isEqualTo(1);
+        // Whether it was cancelled before or during its statement, the single permit is free again
+        assertThat(queries.submit(QueryLane.ANALYTICS, null,
+                () -> jdbcTemplate.queryForObject("select 1", Integer.class)))
+                .succeedsWithin(Duration.ofSeconds(10)).isEqualTo(1);
+    }
+
+    @Test
+    void cancelOnlyHitsTheTransactionItWasMeantFor() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            int pid;
+            OffsetDateTime transactionStart;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select pg_backend_pid(), now()")) {
+                rs.next();
+                pid = rs.getInt(1);
+                transactionStart = rs.getObject(2, OffsetDateTime.class);
+            }
+            CompletableFuture<Void> sleep = CompletableFuture.runAsync(() -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(SLEEP);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            awaitSleeping();
+
+            // Same session, but a transaction that has since ended
+            queries.cancelBackend(pid, transactionStart.minusSeconds(1));
+            Thread.sleep(300);
+            assertThat(sleep).isNotDone();
+
+            queries.cancelBackend(pid, transactionStart);
+            assertThatThrownBy(() -> sleep.get(5, TimeUnit.SECONDS))
+                    .hasRootCauseInstanceOf(SQLException.class)
+                    .hasMessageContaining("canceling statement");
+            connection.rollback();
+        }
+    }
+
+    private double permitsTaken() {
+        return meterRegistry.get("bulkhead.wait").tag("lane", "analytics").timer().count();
+    }
+
+    private int sleeping() {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from pg_stat_activity where query = ? and state = 'active'", Integer.class, SLEEP);
+    }
+
+    private void awaitSleeping() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sleeping() == 0) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
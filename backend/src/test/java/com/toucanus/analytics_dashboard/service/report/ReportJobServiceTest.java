@@ -0,0 +1,166 @@
+package com.toucanus.analytics_dashboard.service.report;
+
+import com.toucanus.analytics_dashboard.dto.DashboardStatsDTO;
+import com.toucanus.analytics_dashboard.dto.report.ReportJobDTO;
+import com.toucanus.analytics_dashboard.dto.report.ReportRequestDTO;
+import com.toucanus.analytics_dashboard.enums.ReportJobStatus;
+import com.toucanus.analytics_dashboard.enums.ReportPriority;
+import com.toucanus.analytics_dashboard.enums.ReportType;
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.graph.GraphAnalyticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * One report thread (two in the expiry test). An hourly-traffic report for {@code BLOCKED} holds it until
+ * released, so that later jobs stay queued.
+ */
+class ReportJobServiceTest {
+
+    private static final LocalDate END = LocalDate.of(2025, 3, 31);
+    private static final LocalDate BLOCKED = LocalDate.of(2000, 1, 1);
+
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final GraphAnalyticsService graphAnalyticsService = mock(GraphAnalyticsService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<LocalDate> computedStarts = new CopyOnWriteArrayList<>();
+    private ReportJobService reports;
+
+    ReportJobServiceTest() {
+        when(graphAnalyticsService.getHourlyTrafficStats(BLOCKED, BLOCKED)).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        when(dashboardService.getDashboardStats(any(LocalDate.class), any(LocalDate.class))).thenAnswer(invocation -> {
+            LocalDate start = invocation.getArgument(0);
+            computedStarts.add(start);
+            if (start.getYear() == 1999) {
+                throw new IllegalStateException("statement timeout");
+            }
+            return new DashboardStatsDTO();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        reports.shutdown();
+    }
+
+    @Test
+    void identicalRequestsShareOneJob() throws Exception {
+        reports = reports(10, Duration.ofHours(1));
+
+        ReportJobDTO first = reports.submit(request(ReportType.FILTERED_STATS, null, END, ReportPriority.LOW));
+        // Same resolved range (the 30-day default), different priority: still the same job
+        ReportJobDTO second = reports.submit(request(ReportType.FILTERED_STATS, END.minusDays(30), END, null));
+        ReportJobDTO otherRange = reports.submit(request(ReportType.FILTERED_STATS, END.minusDays(7), END, null));
+        ReportJobDTO otherType = reports.submit(request(ReportType.PAYMENT_METHODS, END.minusDays(30), END, null));
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(otherRange.getId()).isNotEqualTo(first.getId());
+        assertThat(otherType.getId()).isNotIn(first.getId(), otherRange.getId());
+
+        // Finished and retained: still deduplicated
+        awaitFinished(first.getId());
+        assertThat(reports.submit(request(ReportType.FILTERED_STATS, null, END, null)).getId()).isEqualTo(first.getId());
+        verify(dashboardService, times(1)).getDashboardStats(END.minusDays(30), END);
+    }
+
+    @Test
+    void queuedJobsRunByPriorityThenSubmissionOrder() throws Exception {
+        reports = reports(10, Duration.ofHours(1));
+        reports.submit(request(ReportType.HOURLY_TRAFFIC, BLOCKED, BLOCKED, ReportPriority.LOW));
+
+        LocalDate low = END.minusDays(1);
+        LocalDate normal1 = END.minusDays(2);
+        LocalDate high = END.minusDays(3);
+        LocalDate normal2 = END.minusDays(4);
+        // Submitted first but runs last
+        String last = reports.submit(request(ReportType.FILTERED_STATS, low, END, ReportPriority.LOW)).getId();
+        reports.submit(request(ReportType.FILTERED_STATS, normal1, END, null));
+        reports.submit(request(ReportType.FILTERED_STATS, high, END, ReportPriority.HIGH));
+        reports.submit(request(ReportType.FILTERED_STATS, normal2, END, ReportPriority.NORMAL));
+        release.countDown();
+
+        awaitFinished(last);
+        reports.shutdown();
+        assertThat(computedStarts).containsExactly(high, normal1, normal2, low);
+    }
+
+    @Test
+    void failedJobKeepsTheErrorAndIsNotReused() throws Exception {
+        reports = reports(10, Duration.ofHours(1));
+        LocalDate start = LocalDate.of(1999, 6, 1);
+
+        ReportJobDTO failed = awaitFinished(reports.submit(request(ReportType.FILTERED_STATS, start, END, null)).getId());
+
+        assertThat(failed.getStatus()).isEqualTo(ReportJobStatus.FAILED);
+        assertThat(failed.getError()).isEqualTo("statement timeout");
+        assertThat(reports.getResult(failed.getId())).isEmpty();
+        assertThat(reports.getJob(failed.getId())).get().extracting(ReportJobDTO::getStatus)
+                .isEqualTo(ReportJobStatus.FAILED);
+        ReportJobDTO retry = reports.submit(request(ReportType.FILTERED_STATS, start, END, null));
+        assertThat(retry.getId()).isNotEqualTo(failed.getId());
+    }
+
+    @Test
+    void finishedJobsExpireAfterTheResultTtlWhileActiveOnesDoNot() throws Exception {
+        reports = new ReportJobService(dashboardService, graphAnalyticsService, 2, 10, Duration.ofMillis(300));
+        String running = reports.submit(request(ReportType.HOURLY_TRAFFIC, BLOCKED, BLOCKED, null)).getId();
+        ReportJobDTO done = awaitFinished(reports.submit(request(ReportType.FILTERED_STATS, null, END, null)).getId());
+        assertThat(done.getStatus()).isEqualTo(ReportJobStatus.COMPLETED);
+        assertThat(done.getExpiresAt()).isEqualTo(done.getCompletedAt().plusMillis(300));
+        assertThat(reports.getResult(done.getId())).isPresent();
+
+        Thread.sleep(500);
+
+        assertThat(reports.getJob(done.getId())).isEmpty();
+        assertThat(reports.getResult(done.getId())).isEmpty();
+        assertThat(reports.getJob(running)).get().extracting(ReportJobDTO::getStatus).isEqualTo(ReportJobStatus.RUNNING);
+        assertThat(reports.submit(request(ReportType.FILTERED_STATS, null, END, null)).getId())
+                .isNotEqualTo(done.getId());
+    }
+
+    @Test
+    void submitIsRejectedWhenTheQueueIsFull() {
+        reports = reports(2, Duration.ofHours(1));
+        reports.submit(request(ReportType.HOURLY_TRAFFIC, BLOCKED, BLOCKED, null));
+        reports.submit(request(ReportType.FILTERED_STATS, END.minusDays(1), END, null));
+        reports.submit(request(ReportType.FILTERED_STATS, END.minusDays(2), END, null));
+
+        assertThatThrownBy(() -> reports.submit(request(ReportType.FILTERED_STATS, END.minusDays(3), END, null)))
+                .isInstanceOf(RejectedExecutionException.class);
+        // A duplicate of a queued job is still answered
+        assertThat(reports.submit(request(ReportType.FILTERED_STATS, END.minusDays(1), END, null)).getStatus())
+                .isEqualTo(ReportJobStatus.QUEUED);
+    }
+
+    private ReportJobService reports(int queueCapacity, Duration resultTtl) {
+        return new ReportJobService(dashboardService, graphAnalyticsService, 1, queueCapacity, resultTtl);
+    }
+
+    private ReportJobDTO awaitFinished(String id) throws Exception {
+        return reports.onFinished(id).orElseThrow().get(10, TimeUnit.SECONDS);
+    }
+
+    private static ReportRequestDTO request(ReportType type, LocalDate start, LocalDate end, ReportPriority priority) {
+        return new ReportRequestDTO(type, start, end, priority);
+    }
+}
@@ -0,0 +1,195 @@
+package com.toucanus.analytics_dashboard.service.settlement;
+
+import com.toucanus.analytics_dashboard.dto.settlement.SettlementImportDTO;
+import com.toucanus.analytics_dashboard.dto.settlement.SettlementImportRequestDTO;
+import com.toucanus.analytics_dashboard.entity.SettlementImport;
+import com.toucanus.analytics_dashboard.enums.ImportStatus;
+import com.toucanus.analytics_dashboard.enums.SettlementFormat;
+import com.toucanus.analytics_dashboard.repository.SettlementImportRepository;
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import com.toucanus.analytics_dashboard.service.cohort.UserActivityIndex;
+import com.toucanus.analytics_dashboard.service.merchant.MerchantAnalyticsService;
+import com.toucanus.analytics_dashboard.service.topn.TopNService;
+import com.toucanus.analytics_dashboard.service.zone.QuarterHourBuckets;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Imports small files in 512-byte chunks against the configured database, so that lines
+ * straddle chunk boundaries. Rows use external ids starting with {@code settlement-test-}
+ * and dates in 2001, and are deleted afterwards.
+ */
+@SpringBootTest
+class SettlementImportServiceTest {
+
+    private static final String PREFIX = "settlement-test-";
+    private static final String HEADER = "external_id,user_id,amount,currency,type,status,payment_method,created_at\n";
+    private static final int CHUNK_SIZE = 512;
+
+    @Autowired
+    private SettlementImportRepository importRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    private SettlementImportService imports;
+    private List<Long> userIds;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        userIds = jdbcTemplate.queryForList("select id from users order by id limit 3", Long.class);
+        imports = new SettlementImportService(importRepository, userRepository, dataSource, mock(TopNService.class),
+                mock(UserActivityIndex.class), mock(QuarterHourBuckets.class), mock(CacheManager.class),
+                mock(MerchantAnalyticsService.class), new SimpleMeterRegistry(), directory.toString(),
+                2, CHUNK_SIZE, 256, 128, 10, Duration.ofMinutes(5), 100_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imports.shutdown();
+        cleanUp();
+    }
+
+    @Test
+    void linesAcrossChunkBoundariesAreImportedOnce() throws Exception {
+        String text = HEADER + lines(0, 60);
+        assertThat(splitsALine(text)).isTrue();
+        write("settlement-test-a.csv", text);
+
+        SettlementImportDTO done = importAndWait("settlement-test-a.csv");
+
+        assertThat(done.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+        assertThat(done.getRowsImported()).isEqualTo(60);
+        assertThat(done.getRowsDuplicate()).isZero();
+        assertThat(done.getRowsRejected()).isZero();
+        assertThat(importedRows()).isEqualTo(60);
+    }
+
+    @Test
+    void reimportingTheSameRowsOnlyCountsDuplicates() throws Exception {
+        write("settlement-test-a.csv", HEADER + lines(0, 40));
+        write("settlement-test-b.csv", HEADER + lines(20, 60));
+
+        importAndWait("settlement-test-a.csv");
+        SettlementImportDTO second = importAndWait("settlement-test-b.csv");
+
+        assertThat(second.getRowsImported()).isEqualTo(20);
+        assertThat(second.getRowsDuplicate()).isEqualTo(20);
+        assertThat(importedRows()).isEqualTo(60);
+        // A completed file is not imported again
+        assertThat(importAndWait("settlement-test-b.csv").getId()).isEqualTo(second.getId());
+    }
+
+    @Test
+    void resumeStartsAtTheCommittedOffsetAndSkipsRowsCommittedPastIt() throws Exception {
+        // Line 5 would be rejected, but it lies before the committed offset and is never read
+        String committed = lines(0, 5) + "settlement-test-bad,0,1.00,INR,PAYIN,SUCCESS,UPI,2001-01-01 00:00:00\n"
+                + lines(6, 20);
+        String text = HEADER + committed + lines(20, 40);
+        Path file = write("settlement-test-a.csv", text);
+        // A previous run committed lines 0-19 and the chunk holding 20-24, but died before
+        // the chunk in between, so the offset stayed at line 20
+        insertDirectly(0, 25);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        LocalDateTime now = LocalDateTime.now();
+        importRepository.save(new SettlementImport(null, "settlement-test-a.csv", attributes.size(),
+                LocalDateTime.ofInstant(attributes.lastModifiedTime().toInstant(), ZoneId.systemDefault()),
+                SettlementFormat.CSV, ImportStatus.FAILED, (HEADER + committed).length(), 20, 0, 0,
+                "interrupted", now, now, now));
+
+        SettlementImportDTO resumed = importAndWait("settlement-test-a.csv");
+
+        assertThat(resumed.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+        assertThat(resumed.getRowsImported()).isEqualTo(20 + 15);
+        assertThat(resumed.getRowsDuplicate()).isEqualTo(5);
+        assertThat(resumed.getRowsRejected()).isZero();
+        assertThat(importRepository.findById(resumed.getId()).orElseThrow().getCommittedOffset())
+                .isEqualTo(text.length());
+        assertThat(importedRows()).isEqualTo(40);
+    }
+
+    private SettlementImportDTO importAndWait(String fileName) throws InterruptedException {
+        SettlementImportRequestDTO request = new SettlementImportRequestDTO();
+        request.setFileName(fileName);
+        long id = imports.submit(request).getId();
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        SettlementImportDTO current = imports.getImport(id).orElseThrow();
+        while (current.getStatus() != ImportStatus.COMPLETED && current.getStatus() != ImportStatus.FAILED
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            current = imports.getImport(id).orElseThrow();
+        }
+        assertThat(current.getError()).isNull();
+        return current;
+    }
+
+    private String lines(int from, int to) {
+        StringBuilder text = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            text.append(PREFIX).append(i).append(',').append(userIds.get(i % userIds.size()))
+                    .append(',').append(i).append(".25,INR,PAYIN,SUCCESS,UPI,2001-01-01 00:00:")
+                    .append(String.format("%02d", i % 60)).append('\n');
+        }
+        return text.toString();
+    }
+
+    private void insertDirectly(int from, int to) {
+        for (int i = from; i < to; i++) {
+            jdbcTemplate.update("""
+                    insert into transactions (id, external_id, user_id, amount, currency, type, status, payment_method, created_at)
+                    values (gen_random_uuid(), ?, ?, 1, 'INR', 'PAYIN', 'SUCCESS', 'UPI', '2001-01-01 00:00:00')
+                    """, PREFIX + i, userIds.get(i % userIds.size()));
+        }
+    }
+
+    private static boolean splitsALine(String text) {
+        for (int boundary = HEADER.length() + CHUNK_SIZE; boundary < text.length(); boundary += CHUNK_SIZE) {
+            if (text.charAt(boundary - 1) != '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.writeString(directory.resolve(name), text, StandardCharsets.US_ASCII);
+    }
+
+    private long importedRows() {
+        return jdbcTemplate.queryForObject("select count(*) from transactions where external_id like ?", Long.class,
+                PREFIX + "%");
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("delete from transactions where external_id like ?", PREFIX + "%");
+        jdbcTemplate.update("delete from settlement_imports where file_name like ?", PREFIX + "%");
+    }
+}
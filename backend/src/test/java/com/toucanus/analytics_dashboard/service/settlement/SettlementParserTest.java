@@ -0,0 +1,220 @@
+package com.toucanus.analytics_dashboard.service.settlement;
+
+import com.toucanus.analytics_dashboard.enums.SettlementFormat;
+import com.toucanus.analytics_dashboard.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SettlementParserTest {
+
+    private static final String HEADER = "external_id,user_id,amount,currency,type,status,payment_method,created_at";
+    private static final int[] COLUMNS = SettlementParser.csvColumns(HEADER);
+    private static final UserIdSet USERS = users(1, 2, 3);
+
+    static Stream<Arguments> csvLines() {
+        return Stream.of(
+                arguments("ext-1,1,10.50,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00",
+                        "ext-1\t1\t10.50\tINR\tPAYIN\tSUCCESS\tUPI\t2024-05-01 10:00:00\n"),
+                arguments("a.b_c:d/e-f,2,7,inr,payout,failed,card,2024-02-29T23:59:59.123456",
+                        "a.b_c:d/e-f\t2\t7\tINR\tPAYOUT\tFAILED\tCARD\t2024-02-29 23:59:59.123456\n"),
+                arguments("\"ext-2\",\"3\",\"-3.5\",\"USD\",\"REFUND\",\"PENDING\",\"WALLET\",\"2024-12-31 00:00:00.1\"",
+                        "ext-2\t3\t-3.5\tUSD\tREFUND\tPENDING\tWALLET\t2024-12-31 00:00:00.1\n"),
+                arguments("ext-3,1,0.01,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00,ignored,columns",
+                        "ext-3\t1\t0.01\tINR\tPAYIN\tSUCCESS\tUPI\t2024-05-01 10:00:00\n"));
+    }
+
+    static Stream<Arguments> rejectedCsvLines() {
+        return Stream.of(
+                arguments("ext-1,9,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "unknown user_id"),
+                arguments("ext-1,x1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "user_id is not a positive integer"),
+                arguments("ext-1,-1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "user_id is not a positive integer"),
+                arguments("ext-1,1,1.234,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "amount is not a decimal"),
+                arguments("ext-1,1,1.,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "amount is not a decimal"),
+                arguments("ext-1,1,1e3,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "amount is not a decimal"),
+                arguments("ext-1,1,,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "amount is not a decimal"),
+                arguments("ext-1,1,1.00,RUPEE,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "currency is not a 3-letter code"),
+                arguments("ext-1,1,1.00,IN1,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "currency is not a 3-letter code"),
+                arguments("ext-1,1,1.00,INR,GIFT,SUCCESS,UPI,2024-05-01 10:00:00", "unknown type"),
+                arguments("ext-1,1,1.00,INR,PAYIN,DONE,UPI,2024-05-01 10:00:00", "unknown status"),
+                arguments("ext-1,1,1.00,INR,PAYIN,SUCCESS,CHEQUE,2024-05-01 10:00:00", "unknown payment_method"),
+                arguments("ext-1,1,1.00,INR,PAYIN,SUCCESS,UPI,2023-02-29 10:00:00", "created_at is not a valid"),
+                arguments("ext-1,1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 24:00:00", "created_at is not a valid"),
+                arguments("ext-1,1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01", "created_at is not a valid"),
+                arguments("ext-1,1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00.", "created_at is not a valid"),
+                arguments("ext 1,1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "external_id must be"),
+                arguments(",1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "external_id must be"),
+                arguments("x".repeat(65) + ",1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "external_id must be"),
+                arguments("ext-1,1,1.00,INR,PAYIN,SUCCESS,UPI", "missing field"),
+                arguments("\"ext-1,1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "malformed quoted field"),
+                arguments("\"ext\"-1,1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00", "malformed quoted field"));
+    }
+
+    static Stream<Arguments> jsonLines() {
+        return Stream.of(
+                arguments("{\"external_id\":\"j-1\",\"user_id\":1,\"amount\":12.5,\"currency\":\"INR\",\"type\":\"PAYIN\","
+                                + "\"status\":\"SUCCESS\",\"payment_method\":\"UPI\",\"created_at\":\"2024-05-01T00:00:00\"}",
+                        "j-1\t1\t12.5\tINR\tPAYIN\tSUCCESS\tUPI\t2024-05-01 00:00:00\n"),
+                arguments(" { \"CREATED_AT\" : \"2024-05-01 00:00:00\" , \"payment_method\":\"card\", \"status\":\"failed\","
+                                + " \"type\":\"refund\", \"currency\":\"usd\", \"amount\":\"3\", \"user_id\":\"2\","
+                                + " \"external_id\":\"j-2\", \"note\": null, \"extra\": 5 } ",
+                        "j-2\t2\t3\tUSD\tREFUND\tFAILED\tCARD\t2024-05-01 00:00:00\n"));
+    }
+
+    static Stream<Arguments> rejectedJsonLines() {
+        String valid = "\"user_id\":1,\"amount\":1,\"currency\":\"INR\",\"type\":\"PAYIN\","
+                + "\"status\":\"SUCCESS\",\"payment_method\":\"UPI\",\"created_at\":\"2024-05-01 00:00:00\"";
+        return Stream.of(
+                arguments("{\"external_id\":\"j\\\"1\"," + valid + "}", "escaped JSON strings are not supported"),
+                arguments("{\"external_id\":\"j-1\",\"meta\":{\"a\":1}," + valid + "}", "nested JSON values are not supported"),
+                arguments("{\"external_id\":\"j-1\",\"tags\":[1]," + valid + "}", "nested JSON values are not supported"),
+                arguments("{\"external_id\":null," + valid + "}", "missing field"),
+                arguments("{" + valid + "}", "missing field"),
+                arguments("{\"external_id\":\"j-1\"," + valid + "} x", "malformed JSON object"),
+                arguments("{\"external_id\":\"j-1\"," + valid, "malformed JSON object"),
+                arguments("[\"j-1\"]", "malformed JSON object"),
+                arguments("{\"external_id\":\"j-1\" " + valid + "}", "malformed JSON object"),
+                arguments("{\"external_id\":\"j-1\"," + valid.replace("\"INR\"", "\"IN\"") + "}",
+                        "currency is not a 3-letter code"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("csvLines")
+    void parsesCsvLine(String line, String copyRow) {
+        Parsed parsed = parse(SettlementFormat.CSV, line + "\n");
+
+        assertThat(parsed.rejections).isEmpty();
+        assertThat(parsed.copy).isEqualTo(copyRow);
+        assertThat(parsed.parser.rows()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @MethodSource("rejectedCsvLines")
+    void rejectsCsvLine(String line, String reason) {
+        Parsed parsed = parse(SettlementFormat.CSV, line + "\n");
+
+        assertThat(parsed.copy).isEmpty();
+        assertThat(parsed.rejections).singleElement().asString().startsWith("0: " + reason);
+        assertThat(parsed.parser.rejected()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @MethodSource("jsonLines")
+    void parsesJsonLine(String line, String copyRow) {
+        Parsed parsed = parse(SettlementFormat.NDJSON, line + "\n");
+
+        assertThat(parsed.rejections).isEmpty();
+        assertThat(parsed.copy).isEqualTo(copyRow);
+    }
+
+    @ParameterizedTest
+    @MethodSource("rejectedJsonLines")
+    void rejectsJsonLine(String line, String reason) {
+        Parsed parsed = parse(SettlementFormat.NDJSON, line + "\n");
+
+        assertThat(parsed.copy).isEmpty();
+        assertThat(parsed.rejections).singleElement().asString().startsWith("0: " + reason);
+    }
+
+    @Test
+    void crlfAndBlankLinesAreHandledAndRejectionsCarryFileOffsets() {
+        String good = "ext-1,1,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00\r\n";
+        String bad = "ext-2,9,1.00,INR,PAYIN,SUCCESS,UPI,2024-05-03 10:00:00\r\n";
+        String last = "ext-3,2,2.00,INR,PAYIN,SUCCESS,UPI,2024-05-02 10:00:00";
+        String text = good + "\r\n" + bad + "\n" + last;
+
+        Parsed parsed = parse(SettlementFormat.CSV, text);
+
+        assertThat(parsed.copy).isEqualTo("ext-1\t1\t1.00\tINR\tPAYIN\tSUCCESS\tUPI\t2024-05-01 10:00:00\n"
+                + "ext-3\t2\t2.00\tINR\tPAYIN\tSUCCESS\tUPI\t2024-05-02 10:00:00\n");
+        assertThat(parsed.rejections).containsExactly((good.length() + 2) + ": unknown user_id");
+        assertThat(parsed.parser.rows()).isEqualTo(2);
+        // Rejected rows do not widen the imported day range
+        assertThat(LocalDate.ofEpochDay(parsed.parser.minDay())).isEqualTo(LocalDate.of(2024, 5, 1));
+        assertThat(LocalDate.ofEpochDay(parsed.parser.maxDay())).isEqualTo(LocalDate.of(2024, 5, 2));
+    }
+
+    @Test
+    void splittingAtLineBoundariesAndFlushingOftenGiveTheSameRows() throws SQLException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("ext-").append(i).append(',').append(1 + i % 4).append(",1.0").append(i % 10)
+                    .append(",INR,PAYIN,SUCCESS,UPI,2024-05-01 10:00:00\r\n");
+        }
+        String whole = parse(SettlementFormat.CSV, text.toString()).copy;
+
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int split = SettlementParser.indexOf(buffer, (byte) '\n', bytes.length / 2, bytes.length) + 1;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<String> rejections = new ArrayList<>();
+        LongAdder parsedRows = new LongAdder();
+        LongAdder parsedBytes = new LongAdder();
+        for (int[] range : new int[][] { { 0, split }, { split, bytes.length } }) {
+            SettlementParser parser = new SettlementParser(SettlementFormat.CSV, COLUMNS, USERS,
+                    (offset, reason) -> rejections.add(offset + ": " + reason), parsedRows, parsedBytes, 64);
+            parser.parse(buffer, range[0], range[1], 0, out::write);
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(whole);
+        assertThat(rejections).allMatch(r -> r.endsWith("unknown user_id")).hasSize(50);
+        assertThat(parsedRows.sum()).isEqualTo(150);
+        assertThat(parsedBytes.sum()).isEqualTo(bytes.length);
+    }
+
+    @Test
+    void csvHeaderMapsColumnsByName() {
+        int[] columns = SettlementParser.csvColumns(
+                "\uFEFF\"created_at\",note,payment_method,status,type,currency,amount,user_id,EXTERNAL_ID\r\n");
+
+        assertThat(columns).containsExactly(SettlementParser.CREATED_AT, -1, SettlementParser.PAYMENT_METHOD,
+                SettlementParser.STATUS, SettlementParser.TYPE, SettlementParser.CURRENCY, SettlementParser.AMOUNT,
+                SettlementParser.USER_ID, SettlementParser.EXTERNAL_ID);
+        assertThatThrownBy(() -> SettlementParser.csvColumns("external_id,user_id,amount"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("currency");
+    }
+
+    private static Parsed parse(SettlementFormat format, String text) {
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<String> rejections = new ArrayList<>();
+        SettlementParser parser = new SettlementParser(format, format == SettlementFormat.CSV ? COLUMNS : null, USERS,
+                (offset, reason) -> rejections.add(offset + ": " + reason), new LongAdder(), new LongAdder(), 1024);
+        try {
+            parser.parse(buffer, 0, buffer.limit(), 0, out::write);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Parsed(out.toString(StandardCharsets.UTF_8), rejections, parser);
+    }
+
+    private static UserIdSet users(long... ids) {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.selectIdsAfter(anyLong(), any())).thenReturn(Arrays.stream(ids).boxed().toList());
+        return UserIdSet.load(userRepository, 100);
+    }
+
+    private record Parsed(String copy, List<String> rejections, SettlementParser parser) {
+    }
+}
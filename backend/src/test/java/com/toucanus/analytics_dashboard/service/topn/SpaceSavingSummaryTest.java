@@ -0,0 +1,123 @@
+package com.toucanus.analytics_dashboard.service.topn;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingSummaryTest {
+
+    @Test
+    void keepsTheHeaviestKeysAndBoundsTheRest() {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; key <= 1000; key++) {
+            keys.add(key);
+        }
+        Collections.shuffle(keys, new Random(1));
+        SpaceSavingSummary.Builder builder = new SpaceSavingSummary.Builder(10);
+        keys.forEach(key -> builder.offer(key, key));
+
+        SpaceSavingSummary summary = builder.build();
+        SpaceSavingSummary.Merged merged = SpaceSavingSummary.merge(List.of(summary));
+
+        assertThat(summary.floor()).isEqualTo(990.0);
+        assertThat(merged.floor()).isEqualTo(990.0);
+        assertThat(merged.upperBounds()).hasSize(10);
+        merged.upperBounds().forEach((key, weight) -> {
+            assertThat(key).isGreaterThan(990L);
+            assertThat(weight).isEqualTo(key.doubleValue());
+        });
+    }
+
+    @Test
+    void zeroCapacityKeepsOnlyTheFloor() {
+        SpaceSavingSummary.Builder builder = new SpaceSavingSummary.Builder(0);
+        builder.offer(1, 5);
+        builder.offer(2, 7);
+
+        SpaceSavingSummary.Merged merged = SpaceSavingSummary.merge(List.of(builder.build()));
+
+        assertThat(merged.upperBounds()).isEmpty();
+        assertThat(merged.floor()).isEqualTo(7.0);
+    }
+
+    @Test
+    void mergingEmptyPartsBoundsNothing() {
+        SpaceSavingSummary.Merged merged = SpaceSavingSummary.merge(
+                List.of(SpaceSavingSummary.EMPTY, new SpaceSavingSummary.Builder(4).build()));
+
+        assertThat(merged.upperBounds()).isEmpty();
+        assertThat(merged.floor()).isZero();
+    }
+
+    /**
+     * Every merged weight is an upper bound that overshoots by at most the floors of the
+     * days the key was dropped from, and every key left out is bounded by the merged floor.
+     */
+    @Test
+    void mergedBoundsHoldOnSkewedDays() {
+        Random random = new Random(42);
+        int days = 30;
+        List<SpaceSavingSummary> parts = new ArrayList<>();
+        Map<Long, Double> exact = new HashMap<>();
+        for (int d = 0; d < days; d++) {
+            Map<Long, Double> day = zipfDay(random, 5_000, 20_000);
+            SpaceSavingSummary.Builder builder = new SpaceSavingSummary.Builder(64);
+            day.forEach(builder::offer);
+            parts.add(builder.build());
+            day.forEach((key, weight) -> exact.merge(key, weight, Double::sum));
+        }
+
+        SpaceSavingSummary.Merged merged = SpaceSavingSummary.merge(parts);
+
+        double floorSum = parts.stream().mapToDouble(SpaceSavingSummary::floor).sum();
+        assertThat(merged.floor()).isEqualTo(floorSum);
+        exact.forEach((key, weight) -> {
+            Double upper = merged.upperBounds().get(key);
+            if (upper == null) {
+                assertThat(weight).isLessThanOrEqualTo(merged.floor());
+                return;
+            }
+            double slack = 0;
+            for (int d = 0; d < days; d++) {
+                if (SpaceSavingSummary.merge(List.of(parts.get(d))).upperBounds().get(key) == null) {
+                    slack += parts.get(d).floor();
+                }
+            }
+            assertThat(upper).isBetween(weight, weight + slack);
+        });
+        // The heaviest users of the whole range survive in every day and are exact
+        List<Map.Entry<Long, Double>> top = new ArrayList<>(exact.entrySet());
+        top.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+        for (Map.Entry<Long, Double> entry : top.subList(0, 10)) {
+            assertThat(merged.upperBounds().get(entry.getKey())).isEqualTo(entry.getValue());
+        }
+    }
+
+    /**
+     * {@code events} draws from a Zipf(1.1) over {@code users}, with ranks spread over the
+     * keys so that keys are not sorted by weight.
+     */
+    static Map<Long, Double> zipfDay(Random random, int users, int events) {
+        double[] cumulative = new double[users];
+        double total = 0;
+        for (int rank = 0; rank < users; rank++) {
+            total += 1 / Math.pow(rank + 1, 1.1);
+            cumulative[rank] = total;
+        }
+        Map<Long, Double> day = new HashMap<>();
+        for (int i = 0; i < events; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            long key = rank < 0 ? -rank - 1 : rank;
+            day.merge(key * 7919 % users, 1.0, Double::sum);
+        }
+        return day;
+    }
+}
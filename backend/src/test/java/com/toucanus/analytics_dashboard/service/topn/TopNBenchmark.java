@@ -0,0 +1,93 @@
+package com.toucanus.analytics_dashboard.service.topn;
+
+import com.toucanus.analytics_dashboard.dto.top.TopUserDTO;
+import com.toucanus.analytics_dashboard.enums.TopMetric;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Top 10 users by count and GTV from the day summaries (cold, i.e. every day summarised
+ * first, and warm) against the exact GROUP BY, over ranges ending on the latest day of the
+ * configured database. Not part of the normal build:
+ * {@code mvn test -Dbenchmark=true -Dtest=TopNBenchmark}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TopNBenchmark {
+
+    private static final int[] RANGE_DAYS = { 7, 30, 90 };
+    private static final int LIMIT = 10;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private TopNService topNService;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void summariesAgainstGroupBy() {
+        LocalDate end = jdbcTemplate.queryForObject("select max(created_at)::date from transactions", LocalDate.class);
+        long rows = jdbcTemplate.queryForObject("select count(*) from transactions", Long.class);
+        System.out.printf("Top %d users, %,d transactions up to %s%n", LIMIT, rows, end);
+
+        for (TopMetric metric : TopMetric.values()) {
+            String status = metric == TopMetric.GTV ? TxnStatus.SUCCESS.name() : null;
+            for (int days : RANGE_DAYS) {
+                LocalDate start = end.minusDays(days - 1);
+                double fallbacksBefore = fallbacks();
+
+                topNService.invalidate(start, end);
+                long begin = System.nanoTime();
+                List<TopUserDTO> summarised = topNService.getTopUsers(start, end, false, metric, null, null, LIMIT);
+                long coldNanos = System.nanoTime() - begin;
+
+                long warmNanos = Long.MAX_VALUE;
+                long exactNanos = Long.MAX_VALUE;
+                List<Object[]> exact = List.of();
+                for (int round = 0; round < ROUNDS; round++) {
+                    begin = System.nanoTime();
+                    summarised = topNService.getTopUsers(start, end, false, metric, null, null, LIMIT);
+                    warmNanos = Math.min(warmNanos, System.nanoTime() - begin);
+
+                    begin = System.nanoTime();
+                    exact = transactionRepository.selectTopUsers(start.atStartOfDay(), end.plusDays(1).atStartOfDay(),
+                            false, status, null, metric == TopMetric.GTV, LIMIT);
+                    exactNanos = Math.min(exactNanos, System.nanoTime() - begin);
+                }
+
+                // Ties may be ordered differently, so compare the ranked totals
+                List<Double> fromSummaries = summarised.stream()
+                        .map(user -> metric == TopMetric.GTV ? user.getGtv().doubleValue() : user.getTxnCount())
+                        .map(Number::doubleValue).toList();
+                List<Double> fromGroupBy = exact.stream()
+                        .map(row -> ((Number) (metric == TopMetric.GTV ? row[2] : row[1])).doubleValue()).toList();
+                System.out.printf("  %-5s %2d days: cold %7.1f ms, warm %6.1f ms, GROUP BY %7.1f ms, "
+                                + "fallbacks %.0f, same ranking %s%n",
+                        metric, days, coldNanos / 1e6, warmNanos / 1e6, exactNanos / 1e6,
+                        fallbacks() - fallbacksBefore, fromSummaries.equals(fromGroupBy));
+                assertThat(fromSummaries).isEqualTo(fromGroupBy);
+            }
+        }
+        System.out.printf("  summaries held: %,d bytes%n",
+                (long) meterRegistry.get("topn.summary.bytes").gauge().value());
+    }
+
+    private double fallbacks() {
+        return meterRegistry.get("topn.fallbacks").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,198 @@
+package com.toucanus.analytics_dashboard.service.topn;
+
+import com.toucanus.analytics_dashboard.dto.top.TopUserDTO;
+import com.toucanus.analytics_dashboard.enums.TopMetric;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import com.toucanus.analytics_dashboard.service.user.UserDirectory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rankings from the summaries against exact totals, over skewed days (flat in one test)
+ * where every transaction succeeds and every fifth user is a merchant. The fake
+ * repository answers the day scans, candidate re-checks and exact fallback from the same
+ * data.
+ */
+class TopNServiceTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int DAYS = 40;
+    private static final int USERS = 3_000;
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /** day -> user -> {count, amount} */
+    private final Map<LocalDate, Map<Long, long[]>> data = new TreeMap<>();
+    private TopNService topN;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        for (int d = 0; d < DAYS; d++) {
+            Map<Long, long[]> day = new HashMap<>();
+            SpaceSavingSummaryTest.zipfDay(random, USERS, 20_000).forEach((user, count) ->
+                    day.put(user, new long[] { count.longValue(), count.longValue() * (1 + random.nextInt(500)) }));
+            // A few one-day bursts, so that candidates differ from day to day
+            for (int i = 0; i < 5; i++) {
+                long[] totals = day.computeIfAbsent((long) random.nextInt(USERS), user -> new long[2]);
+                totals[0] += 300;
+                totals[1] += 300L * (1 + random.nextInt(500));
+            }
+            data.put(FIRST_DAY.plusDays(d), day);
+        }
+
+        when(transactionRepository.streamUserAggregatesInRange(any(), any())).thenAnswer(invocation -> {
+            LocalDate day = invocation.<LocalDateTime>getArgument(0).toLocalDate();
+            List<Object[]> rows = new ArrayList<>();
+            data.getOrDefault(day, Map.of()).forEach((user, totals) -> {
+                boolean merchant = user % 5 == 0;
+                rows.add(new Object[] { user, merchant, null, null, totals[0], BigDecimal.valueOf(totals[1]) });
+                rows.add(new Object[] { user, merchant, "SUCCESS", null, totals[0], BigDecimal.valueOf(totals[1]) });
+            });
+            return rows.stream();
+        });
+        when(transactionRepository.selectUserTotals(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Collection<Long> users = invocation.getArgument(0);
+            Map<Long, long[]> totals = totals(invocation.getArgument(1), invocation.getArgument(2), false);
+            return users.stream().filter(totals::containsKey).map(user -> row(user, totals.get(user))).toList();
+        });
+        when(transactionRepository.selectTopUsers(any(), any(), anyBoolean(), any(), any(), anyBoolean(), anyInt()))
+                .thenAnswer(invocation -> {
+                    Map<Long, long[]> totals = totals(invocation.getArgument(0), invocation.getArgument(1),
+                            invocation.getArgument(2));
+                    int index = invocation.<Boolean>getArgument(5) ? 1 : 0;
+                    return totals.entrySet().stream()
+                            .sorted((a, b) -> Long.compare(b.getValue()[index], a.getValue()[index]))
+                            .limit(invocation.<Integer>getArgument(6))
+                            .map(entry -> row(entry.getKey(), entry.getValue()))
+                            .toList();
+                });
+
+        topN = new TopNService(transactionRepository, mock(UserDirectory.class),
+                mock(PlatformTransactionManager.class), meterRegistry, 32, 4, 120, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void rankingMatchesExactTotals() {
+        Random random = new Random(11);
+        int queries = 200;
+        for (int q = 0; q < queries; q++) {
+            LocalDate start = FIRST_DAY.plusDays(random.nextInt(DAYS));
+            LocalDate end = start.plusDays(random.nextInt((int) (FIRST_DAY.plusDays(DAYS).toEpochDay() - start.toEpochDay())));
+            TopMetric metric = random.nextBoolean() ? TopMetric.COUNT : TopMetric.GTV;
+            boolean merchantsOnly = random.nextInt(4) == 0;
+            int limit = new int[] { 5, 10, 20 }[random.nextInt(3)];
+
+            List<TopUserDTO> top = topN.getTopUsers(start, end, merchantsOnly, metric, null, null, limit);
+
+            List<Long> expected = exactTop(start, end, merchantsOnly, metric, limit);
+            List<Long> actual = top.stream()
+                    .map(user -> metric == TopMetric.GTV ? user.getGtv().longValue() : user.getTxnCount())
+                    .toList();
+            assertThat(actual).as("%s..%s %s merchants=%s top %d", start, end, metric, merchantsOnly, limit)
+                    .isEqualTo(expected);
+        }
+
+        // Skewed days are always answered from the summaries; flat ones are covered below
+        assertThat(meterRegistry.get("topn.fallbacks").tag("reason", "inconclusive").counter().count()).isZero();
+    }
+
+    @Test
+    void flatDaysFallBackToTheExactQuery() {
+        Random random = new Random(3);
+        data.replaceAll((day, users) -> {
+            Map<Long, long[]> flat = new HashMap<>();
+            for (long user = 0; user < USERS; user++) {
+                long count = 5 + random.nextInt(3);
+                flat.put(user, new long[] { count, count * 100 });
+            }
+            return flat;
+        });
+        LocalDate end = FIRST_DAY.plusDays(DAYS - 1);
+
+        List<TopUserDTO> top = topN.getTopUsers(FIRST_DAY, end, false, TopMetric.COUNT, null, null, 10);
+
+        assertThat(top).extracting(TopUserDTO::getTxnCount)
+                .isEqualTo(exactTop(FIRST_DAY, end, false, TopMetric.COUNT, 10));
+        assertThat(meterRegistry.get("topn.fallbacks").tag("reason", "inconclusive").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void statusFilterUsesItsOwnSummaries() {
+        LocalDate end = FIRST_DAY.plusDays(DAYS - 1);
+
+        List<TopUserDTO> top = topN.getTopUsers(FIRST_DAY, end, false, TopMetric.COUNT, TxnStatus.SUCCESS, null, 10);
+
+        assertThat(top).extracting(TopUserDTO::getTxnCount)
+                .isEqualTo(exactTop(FIRST_DAY, end, false, TopMetric.COUNT, 10));
+    }
+
+    @Test
+    void rangeLongerThanTheCacheGoesStraightToTheExactQuery() {
+        LocalDate start = FIRST_DAY.minusDays(200);
+        LocalDate end = FIRST_DAY.plusDays(DAYS - 1);
+
+        List<TopUserDTO> top = topN.getTopUsers(start, end, false, TopMetric.COUNT, null, null, 10);
+
+        assertThat(top).extracting(TopUserDTO::getTxnCount).isEqualTo(exactTop(start, end, false, TopMetric.COUNT, 10));
+        verify(transactionRepository, never()).streamUserAggregatesInRange(any(), any());
+        verify(transactionRepository, times(1))
+                .selectTopUsers(any(), any(), anyBoolean(), any(), any(), anyBoolean(), anyInt());
+        assertThat(meterRegistry.get("topn.fallbacks").tag("reason", "long-range").counter().count()).isEqualTo(1);
+    }
+
+    private List<Long> exactTop(LocalDate start, LocalDate end, boolean merchantsOnly, TopMetric metric, int limit) {
+        int index = metric == TopMetric.GTV ? 1 : 0;
+        return totals(start.atStartOfDay(), end.plusDays(1).atStartOfDay(), merchantsOnly).values().stream()
+                .map(totals -> totals[index])
+                .sorted((a, b) -> Long.compare(b, a))
+                .limit(limit)
+                .toList();
+    }
+
+    private Map<Long, long[]> totals(LocalDateTime start, LocalDateTime end, boolean merchantsOnly) {
+        Map<Long, long[]> totals = new HashMap<>();
+        data.forEach((day, users) -> {
+            if (day.atStartOfDay().isBefore(start) || !day.atStartOfDay().isBefore(end)) {
+                return;
+            }
+            users.forEach((user, t) -> {
+                if (!merchantsOnly || user % 5 == 0) {
+                    long[] sum = totals.computeIfAbsent(user, u -> new long[2]);
+                    sum[0] += t[0];
+                    sum[1] += t[1];
+                }
+            });
+        });
+        return totals;
+    }
+
+    private static Object[] row(long user, long[] totals) {
+        return new Object[] { user, totals[0], BigDecimal.valueOf(totals[1]) };
+    }
+}
@@ -0,0 +1,121 @@
+package com.toucanus.analytics_dashboard.service.user;
+
+import com.toucanus.analytics_dashboard.enums.Role;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The user index on a synthetic base of 1M users against a plain {@code HashMap} of
+ * records: heap retained, exact email lookups and autocomplete at several query lengths
+ * (the map answers autocomplete by scanning). Not part of the normal build:
+ * {@code mvn test -Dbenchmark=true -Dtest=UserDimensionBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserDimensionBenchmark {
+
+    private static final int USERS = 1_000_000;
+    private static final int LOOKUPS = 100_000;
+    private static final int SUGGESTS = 200;
+    private static final int MAX_SCAN = 200_000;
+    private static final String[] FIRST = {"aarav", "vivaan", "aditya", "diya", "ananya", "ishaan", "saanvi",
+            "arjun", "kavya", "rohan", "meera", "kabir", "anika", "reyansh", "tara", "vihaan"};
+    private static final String[] LAST = {"sharma", "verma", "iyer", "nair", "reddy", "gupta", "mehta", "das",
+            "kapoor", "joshi", "patel", "rao", "singh", "bose", "menon", "khan"};
+    private static final String[] DOMAINS = {"example.com", "mail.test", "corp.example", "pay.example"};
+
+    private record Row(String email, String fullName, Role role) {
+    }
+
+    @Test
+    void indexAgainstHashMap() {
+        Random random = new Random(42);
+        String[] emails = new String[USERS];
+        String[] names = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            String first = FIRST[random.nextInt(FIRST.length)];
+            String last = LAST[random.nextInt(LAST.length)];
+            names[i] = capitalize(first) + " " + capitalize(last);
+            emails[i] = first + "." + last + i + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        }
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        UserIndex index = new UserIndex();
+        for (int i = 0; i < USERS; i++) {
+            index.put(i + 1, emails[i], names[i], Role.CUSTOMER);
+        }
+        long buildNanos = System.nanoTime() - start;
+        long indexHeap = usedHeap() - before;
+
+        before = usedHeap();
+        Map<Long, Row> map = new HashMap<>();
+        for (int i = 0; i < USERS; i++) {
+            // Copies, so the map does not share the index's source strings
+            map.put(i + 1L, new Row(new String(emails[i]), new String(names[i]), Role.CUSTOMER));
+        }
+        long mapHeap = usedHeap() - before;
+
+        int[] probes = random.ints(LOOKUPS, 0, USERS).toArray();
+        long checksum = 0;
+        start = System.nanoTime();
+        for (int probe : probes) {
+            checksum += index.idsByEmail(emails[probe], MAX_SCAN).size();
+        }
+        long lookupNanos = (System.nanoTime() - start) / LOOKUPS;
+
+        System.out.printf("UserIndex, %,d users%n", USERS);
+        System.out.printf("  build:               %.0f ms%n", buildNanos / 1e6);
+        System.out.printf("  heap (estimate):     %,d bytes (%.0f bytes/user)%n",
+                index.sizeInBytes(), (double) index.sizeInBytes() / USERS);
+        System.out.printf("  heap (measured):     %,d bytes, HashMap of records %,d bytes%n", indexHeap, mapHeap);
+        System.out.printf("  email lookup:        %.2f us%n", lookupNanos / 1e3);
+
+        for (String query : List.of("a", "ka", "meh", "rohan.iyer", "iyer12345")) {
+            start = System.nanoTime();
+            for (int i = 0; i < SUGGESTS; i++) {
+                checksum += index.suggest(query, 10, MAX_SCAN).size();
+            }
+            long indexNanos = (System.nanoTime() - start) / SUGGESTS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < SUGGESTS / 10; i++) {
+                checksum += scan(map, query);
+            }
+            long scanNanos = (System.nanoTime() - start) / (SUGGESTS / 10);
+            System.out.printf("  suggest %-12s %.3f ms, HashMap scan %.1f ms%n",
+                    "\"" + query + "\":", indexNanos / 1e6, scanNanos / 1e6);
+        }
+        assertThat(checksum).isPositive();
+        assertThat(map).hasSize(USERS);
+    }
+
+    private static int scan(Map<Long, Row> map, String query) {
+        int matches = 0;
+        for (Row row : map.values()) {
+            if (row.email().contains(query) || row.fullName().toLowerCase(Locale.ROOT).contains(query)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static String capitalize(String value) {
+        return Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,119 @@
+package com.toucanus.analytics_dashboard.service.velocity;
+
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The velocity table at its default size: 1M users in 64 stripes fed 20M events spread over
+ * one day by a single writer (only the lower half of the users is active after midday),
+ * then point reads with and without that writer running, a threshold scan and an idle
+ * sweep at midday. Not part of the normal build:
+ * {@code mvn test -Dbenchmark=true -Dtest=VelocityCountersBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VelocityCountersBenchmark {
+
+    private static final int USERS = 1_000_000;
+    private static final int STRIPES = 64;
+    private static final int EVENTS = 20_000_000;
+    private static final int READS = 2_000_000;
+    private static final int ROUNDS = 5;
+    private static final long DAY_START = 1_800_000_000L / 86_400 * 86_400;
+
+    @Test
+    void fillReadScanEvict() throws Exception {
+        Random random = new Random(42);
+        long[] users = random.longs(EVENTS, 1, USERS + 1).toArray();
+        for (int i = EVENTS / 2; i < EVENTS; i++) {
+            users[i] = (users[i] + 1) / 2;
+        }
+        long[] amounts = random.longs(EVENTS, 100, 1_000_000).toArray();
+        int[] types = random.ints(EVENTS, 0, VelocityCounters.TYPES).toArray();
+
+        long before = usedHeap();
+        VelocityCounters counters = new VelocityCounters(STRIPES, USERS);
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            counters.add(users[i], types[i], amounts[i], DAY_START + (long) i * 86_400 / EVENTS);
+        }
+        long addNanos = System.nanoTime() - start;
+        long measuredHeap = usedHeap() - before;
+        long estimatedHeap = counters.sizeInBytes();
+        long now = DAY_START + 86_399;
+
+        double[][] counts = new double[VelocityCounters.WINDOWS.length][VelocityCounters.TYPES];
+        double[][] sums = new double[VelocityCounters.WINDOWS.length][VelocityCounters.TYPES];
+        long[] probes = random.longs(READS, 1, USERS + 1).toArray();
+        long checksum = 0;
+        long readNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            for (long probe : probes) {
+                checksum += counters.read(probe, now, counts, sums) ? 1 : 0;
+            }
+            readNanos = Math.min(readNanos, (System.nanoTime() - start) / READS);
+        }
+
+        // The feed keeps writing the last second (for the active half) while the same reads run
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong written = new AtomicLong();
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = EVENTS / 2; running.get(); i = i + 1 < EVENTS ? i + 1 : EVENTS / 2) {
+                counters.add(users[i], types[i], amounts[i], now);
+                written.incrementAndGet();
+            }
+        });
+        long contendedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            start = System.nanoTime();
+            for (long probe : probes) {
+                checksum += counters.read(probe, now, counts, sums) ? 1 : 0;
+            }
+            contendedNanos = Math.min(contendedNanos, (System.nanoTime() - start) / READS);
+        }
+        running.set(false);
+        writer.join();
+
+        long scanNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            AtomicLong breaches = new AtomicLong();
+            start = System.nanoTime();
+            counters.scan(VelocityWindow.ONE_HOUR, -1, now, 100, 50_000_00,
+                    (userId, count, amount) -> breaches.incrementAndGet());
+            scanNanos = Math.min(scanNanos, System.nanoTime() - start);
+            checksum += breaches.get();
+        }
+
+        // Users last seen before midday
+        start = System.nanoTime();
+        int evicted = counters.evictIdle(DAY_START + 43_200);
+        long evictNanos = System.nanoTime() - start;
+
+        System.out.printf("VelocityCounters, %,d users, %d stripes, %,d events over a day%n", USERS, STRIPES, EVENTS);
+        System.out.printf("  add:                 %.1f ns/event (single writer)%n", (double) addNanos / EVENTS);
+        System.out.printf("  heap (estimate):     %,d bytes (%.0f bytes/user)%n",
+                estimatedHeap, (double) estimatedHeap / USERS);
+        System.out.printf("  heap (measured):     %,d bytes%n", measuredHeap);
+        System.out.printf("  point read:          %.1f ns, %.1f ns with the writer running (%,d writes)%n",
+                (double) readNanos, (double) contendedNanos, written.get());
+        System.out.printf("  one-hour scan:       %.1f ms%n", scanNanos / 1e6);
+        System.out.printf("  idle sweep:          %.1f ms, %,d of %,d users evicted, %,d bytes left%n",
+                evictNanos / 1e6, evicted, USERS, counters.sizeInBytes());
+        assertThat(checksum).isPositive();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,161 @@
+package com.toucanus.analytics_dashboard.service.velocity;
+
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VelocityCountersTest {
+
+    /** Start of a minute and of an hour */
+    private static final long T0 = 3_600L * 472_222;
+    private static final int MINUTE = VelocityWindow.ONE_MINUTE.ordinal();
+    private static final int HOUR = VelocityWindow.ONE_HOUR.ordinal();
+    private static final int DAY = VelocityWindow.ONE_DAY.ordinal();
+    private static final int PAYIN = TxnType.PAYIN.ordinal();
+    private static final int PAYOUT = TxnType.PAYOUT.ordinal();
+
+    private final VelocityCounters counters = new VelocityCounters(4, 1_000_000);
+
+    @Test
+    void currentIntervalCountsInFull() {
+        for (int i = 0; i < 3; i++) {
+            counters.add(1, PAYIN, 250, T0 + 10);
+        }
+        counters.add(1, PAYOUT, 1_000, T0 + 20);
+
+        Estimates at = read(1, T0 + 30);
+
+        assertThat(at.counts[MINUTE][PAYIN]).isEqualTo(3.0);
+        assertThat(at.amounts[MINUTE][PAYIN]).isEqualTo(750.0);
+        assertThat(at.counts[MINUTE][PAYOUT]).isEqualTo(1.0);
+        assertThat(at.counts[HOUR][PAYIN]).isEqualTo(3.0);
+        assertThat(at.counts[DAY][PAYIN]).isEqualTo(3.0);
+    }
+
+    @Test
+    void previousIntervalFadesOutAcrossTheNextOne() {
+        for (int i = 0; i < 4; i++) {
+            counters.add(1, PAYIN, 100, T0 + 50);
+        }
+
+        // A quarter into the next minute, three quarters of the previous one still count
+        assertThat(read(1, T0 + 75).counts[MINUTE][PAYIN]).isEqualTo(3.0);
+
+        counters.add(1, PAYIN, 100, T0 + 75);
+        counters.add(1, PAYIN, 100, T0 + 75);
+        Estimates rolled = read(1, T0 + 75);
+        assertThat(rolled.counts[MINUTE][PAYIN]).isEqualTo(4 * 0.75 + 2);
+        assertThat(rolled.amounts[MINUTE][PAYIN]).isEqualTo(400 * 0.75 + 200);
+
+        // Two minutes on, the minute window is empty but the hour still has everything
+        Estimates later = read(1, T0 + 180);
+        assertThat(later.counts[MINUTE][PAYIN]).isZero();
+        assertThat(later.counts[HOUR][PAYIN]).isEqualTo(6.0);
+    }
+
+    @Test
+    void skippingAnIntervalDropsThePreviousCounts() {
+        counters.add(1, PAYIN, 100, T0 + 10);
+        counters.add(1, PAYIN, 100, T0 + 130);
+
+        assertThat(read(1, T0 + 130).counts[MINUTE][PAYIN]).isEqualTo(1.0);
+    }
+
+    @Test
+    void lateEventsCountInThePreviousIntervalOnly() {
+        counters.add(1, PAYIN, 100, T0 + 70);
+        counters.add(1, PAYIN, 100, T0 + 30);
+        counters.add(1, PAYIN, 100, T0 - 30);
+
+        Estimates at = read(1, T0 + 90);
+        assertThat(at.counts[MINUTE][PAYIN]).isEqualTo(1 * 0.5 + 1);
+        // T0 - 30 is in the previous hour, so the hour window keeps it too
+        assertThat(at.counts[HOUR][PAYIN]).isEqualTo(2 + 1 * (1 - 90.0 / 3_600));
+    }
+
+    @Test
+    void unknownUsersAreNotTracked() {
+        assertThat(counters.read(42, T0, new double[3][3], new double[3][3])).isFalse();
+    }
+
+    @Test
+    void scanVisitsUsersReachingEitherLimit() {
+        counters.add(1, PAYIN, 100, T0);
+        counters.add(1, PAYIN, 100, T0);
+        counters.add(2, PAYOUT, 100, T0);
+        counters.add(2, PAYOUT, 100, T0);
+        counters.add(2, PAYOUT, 100, T0);
+        counters.add(3, PAYIN, 50_000, T0);
+
+        assertThat(scan(VelocityWindow.ONE_MINUTE, -1, 3, Double.POSITIVE_INFINITY)).containsOnlyKeys(2L);
+        assertThat(scan(VelocityWindow.ONE_MINUTE, -1, 2, 10_000)).containsOnlyKeys(1L, 2L, 3L);
+        assertThat(scan(VelocityWindow.ONE_MINUTE, PAYIN, 2, Double.POSITIVE_INFINITY)).containsOnlyKeys(1L);
+        assertThat(scan(VelocityWindow.ONE_MINUTE, PAYIN, 1, 0)).containsOnlyKeys(1L, 2L, 3L);
+    }
+
+    @Test
+    void evictionDropsIdleUsersAndKeepsTheRest() {
+        int users = 10_000;
+        for (long user = 1; user <= users; user++) {
+            long second = user % 2 == 0 ? T0 : T0 + 100;
+            for (int i = 0; i < user % 5 + 1; i++) {
+                counters.add(user, PAYIN, user, second);
+            }
+        }
+        assertThat(counters.size()).isEqualTo(users);
+        long bytesBefore = counters.sizeInBytes();
+
+        assertThat(counters.evictIdle(T0 + 50)).isEqualTo(users / 2);
+
+        assertThat(counters.size()).isEqualTo(users / 2);
+        assertThat(counters.sizeInBytes()).isLessThan(bytesBefore);
+        for (long user = 1; user <= users; user++) {
+            double[][] counts = new double[3][3];
+            boolean tracked = counters.read(user, T0 + 100, counts, new double[3][3]);
+            assertThat(tracked).isEqualTo(user % 2 == 1);
+            if (tracked) {
+                assertThat(counts[HOUR][PAYIN]).isEqualTo(user % 5 + 1);
+            }
+        }
+        assertThat(counters.evictIdle(T0 + 50)).isZero();
+
+        // An evicted user starts again from zero
+        counters.add(2, PAYIN, 1, T0 + 100);
+        assertThat(read(2, T0 + 100).counts[HOUR][PAYIN]).isEqualTo(1.0);
+    }
+
+    @Test
+    void newUsersAreRefusedWhenTheStripeIsFull() {
+        VelocityCounters small = new VelocityCounters(1, 2);
+
+        assertThat(small.add(1, PAYIN, 100, T0)).isTrue();
+        assertThat(small.add(2, PAYIN, 100, T0 + 10)).isTrue();
+        assertThat(small.add(3, PAYIN, 100, T0)).isFalse();
+        assertThat(small.add(1, PAYIN, 100, T0)).isTrue();
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.read(3, T0, new double[3][3], new double[3][3])).isFalse();
+
+        small.evictIdle(T0 + 5);
+        assertThat(small.add(3, PAYIN, 100, T0 + 10)).isTrue();
+    }
+
+    private Estimates read(long userId, long now) {
+        Estimates estimates = new Estimates(new double[3][3], new double[3][3]);
+        assertThat(counters.read(userId, now, estimates.counts, estimates.amounts)).isTrue();
+        return estimates;
+    }
+
+    private Map<Long, Double> scan(VelocityWindow window, int type, double minCount, double minAmount) {
+        Map<Long, Double> visited = new HashMap<>();
+        counters.scan(window, type, T0 + 30, minCount, minAmount, (userId, count, amount) -> visited.put(userId, count));
+        return visited;
+    }
+
+    private record Estimates(double[][] counts, double[][] amounts) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.toucanus.analytics_dashboard.service.velocity;
+
+import com.toucanus.analytics_dashboard.config.VelocityProperties;
+import com.toucanus.analytics_dashboard.dto.velocity.VelocityBreachDTO;
+import com.toucanus.analytics_dashboard.enums.PaymentMethod;
+import com.toucanus.analytics_dashboard.enums.TxnStatus;
+import com.toucanus.analytics_dashboard.enums.TxnType;
+import com.toucanus.analytics_dashboard.enums.VelocityWindow;
+import com.toucanus.analytics_dashboard.service.stream.TransactionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VelocityServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void eventsForUsersBeyondMaxUsersAreDroppedAndCounted() {
+        VelocityService velocity = velocity(2);
+
+        velocity.onTransaction(event(1, "10.00"));
+        velocity.onTransaction(event(2, "10.00"));
+        velocity.onTransaction(event(3, "10.00"));
+        velocity.onTransaction(event(1, "10.00"));
+
+        assertThat(meterRegistry.get("velocity.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("velocity.users").gauge().value()).isEqualTo(2);
+        assertThat(velocity.getUserVelocity(3)).isEmpty();
+        assertThat(velocity.getUserVelocity(1)).get()
+                .satisfies(user -> assertThat(user.getWindows().get(VelocityWindow.ONE_HOUR.ordinal()).getTxnCount())
+                        .isEqualTo(2));
+    }
+
+    @Test
+    void amountsAreKeptInMinorUnits() {
+        VelocityService velocity = velocity(100);
+        velocity.onTransaction(event(1, "12.345"));
+        velocity.onTransaction(event(1, "0.01"));
+
+        List<VelocityBreachDTO> breaches = velocity.getBreaches(VelocityWindow.ONE_HOUR, null, 2L, null, 10);
+
+        assertThat(breaches).singleElement().satisfies(breach -> {
+            assertThat(breach.getUserId()).isEqualTo(1);
+            assertThat(breach.getTxnCount()).isEqualTo(2);
+            assertThat(breach.getAmount()).isEqualByComparingTo("12.36");
+        });
+    }
+
+    private VelocityService velocity(int maxUsers) {
+        VelocityProperties properties = new VelocityProperties();
+        properties.setMaxUsers(maxUsers);
+        properties.setStripes(1);
+        return new VelocityService(properties, meterRegistry);
+    }
+
+    private static TransactionEvent event(long userId, String amount) {
+        return new TransactionEvent(UUID.randomUUID(), userId, new BigDecimal(amount), TxnType.PAYIN,
+                TxnStatus.SUCCESS, PaymentMethod.UPI, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,69 @@
+package com.toucanus.analytics_dashboard.service.warmup;
+
+import com.toucanus.analytics_dashboard.service.DashboardService;
+import com.toucanus.analytics_dashboard.service.approx.ApproximateAnalyticsService;
+import com.toucanus.analytics_dashboard.service.query.QueryExecutionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheWarmupRunnerTest {
+
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final ApproximateAnalyticsService analyticsService = mock(ApproximateAnalyticsService.class);
+    private final QueryExecutionService queries = mock(QueryExecutionService.class);
+
+    @BeforeEach
+    void setUp() {
+        when(queries.submit(any(), isNull(), any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(2).get()));
+    }
+
+    @Test
+    void onlyConfiguredCachesAreWarmed() {
+        runner(List.of("paymentStats", "dashboardStats", "paymentStats")).run(null);
+
+        verify(dashboardService).getDashboardStats();
+        verify(analyticsService, times(1)).getPaymentStats(null, null, null);
+        verify(analyticsService, never()).getDashboardStats(any(), any(), any());
+        verify(analyticsService, never()).getDailyStatusStats(any(), any(), any());
+        verify(analyticsService, never()).getHourlyTrafficStats(any(), any(), any());
+    }
+
+    @Test
+    void everyKnownCacheIsWarmedByDefault() {
+        runner(CacheWarmupRunner.CACHES).run(null);
+
+        verify(dashboardService).getDashboardStats();
+        verify(analyticsService).getDashboardStats(null, null, null);
+        verify(analyticsService).getDailyStatusStats(null, null, null);
+        verify(analyticsService).getPaymentStats(null, null, null);
+        verify(analyticsService).getHourlyTrafficStats(null, null, null);
+    }
+
+    @Test
+    void unknownCacheIsRejected() {
+        assertThatThrownBy(() -> runner(List.of("dashboardStats", "cohortRetention")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cohortRetention");
+    }
+
+    private CacheWarmupRunner runner(List<String> caches) {
+        return new CacheWarmupRunner(dashboardService, analyticsService, queries, new SimpleMeterRegistry(),
+                Duration.ofSeconds(5), caches);
+    }
+}
@@ -0,0 +1,225 @@
+package com.toucanus.analytics_dashboard.service.zone;
+
+import com.toucanus.analytics_dashboard.repository.SettlementImportRepository;
+import com.toucanus.analytics_dashboard.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Re-bucketing into zones with DST and non-hour offsets, change markers and the snapshot.
+ * The server zone is UTC and the fake table holds one successful 1.00 UPI payment per
+ * quarter hour, unless a test puts rows at chosen instants or deletes some.
+ */
+class QuarterHourBucketsTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final ZoneId KOLKATA = ZoneId.of("Asia/Kolkata");
+    private static final ZoneId KATHMANDU = ZoneId.of("Asia/Kathmandu");
+
+    private final TimeZone originalZone = TimeZone.getDefault();
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final Set<LocalDateTime> deleted = new HashSet<>();
+    private Set<LocalDateTime> onlyAt;
+    private QuarterHourBuckets buckets;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        when(transactionRepository.selectQuarterHourStats(any(), any())).thenAnswer(invocation -> {
+            LocalDateTime start = invocation.getArgument(0);
+            LocalDateTime end = invocation.getArgument(1);
+            List<Object[]> rows = new ArrayList<>();
+            for (LocalDateTime t : rows(start, end)) {
+                rows.add(new Object[] { t, "UPI", "SUCCESS", 1L, new BigDecimal("1.00"), t });
+            }
+            return rows;
+        });
+        when(transactionRepository.selectDailyChangeMarkers(any(), any())).thenAnswer(invocation -> {
+            Map<LocalDate, Object[]> markers = new TreeMap<>();
+            for (LocalDateTime t : rows(invocation.getArgument(0), invocation.getArgument(1))) {
+                Object[] marker = markers.computeIfAbsent(t.toLocalDate(),
+                        day -> new Object[] { day, "SUCCESS", 0L, t });
+                marker[2] = (Long) marker[2] + 1;
+                marker[3] = t;
+            }
+            return new ArrayList<>(markers.values());
+        });
+        buckets = buckets(Duration.ofMinutes(30), false);
+    }
+
+    @AfterEach
+    void restoreZone() {
+        TimeZone.setDefault(originalZone);
+    }
+
+    @Test
+    void springForwardDayHas23Hours() {
+        LocalDate day = LocalDate.of(2024, 3, 10);
+
+        assertThat(dailyCount(day, NEW_YORK)).isEqualTo(23 * 4);
+        assertThat(buckets.aggregatedStats(day, day, NEW_YORK)[0]).isEqualTo(23L * 4);
+        assertThat(hourlyCount(day, NEW_YORK, 2)).isZero();
+        assertThat(hourlyCount(day, NEW_YORK, 3)).isEqualTo(4);
+    }
+
+    @Test
+    void fallBackDayHas25HoursAndRepeatsOneAm() {
+        LocalDate day = LocalDate.of(2024, 11, 3);
+
+        assertThat(dailyCount(day, NEW_YORK)).isEqualTo(25 * 4);
+        assertThat(buckets.aggregatedStats(day, day, NEW_YORK)[4]).isEqualTo(new BigDecimal("100.00"));
+        assertThat(hourlyCount(day, NEW_YORK, 1)).isEqualTo(8);
+        assertThat(hourlyCount(day, NEW_YORK, 2)).isEqualTo(4);
+    }
+
+    @Test
+    void ordinaryDaysHave24Hours() {
+        LocalDate day = LocalDate.of(2024, 6, 15);
+
+        assertThat(dailyCount(day, NEW_YORK)).isEqualTo(96);
+        assertThat(dailyCount(day, KOLKATA)).isEqualTo(96);
+        assertThat(dailyCount(day, KATHMANDU)).isEqualTo(96);
+        assertThat(buckets.dailyStats(day, day.plusDays(6), KATHMANDU)).hasSize(7);
+    }
+
+    @Test
+    void halfHourOffsetSplitsAtLocalMidnight() {
+        // 18:15 and 18:30 UTC are 23:45 on the 1st and 00:00 on the 2nd in Kolkata (+05:30)
+        onlyAt = Set.of(LocalDateTime.of(2024, 1, 1, 18, 15), LocalDateTime.of(2024, 1, 1, 18, 30));
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        LocalDate second = first.plusDays(1);
+
+        assertThat(dailyCount(first, KOLKATA)).isEqualTo(1);
+        assertThat(dailyCount(second, KOLKATA)).isEqualTo(1);
+        assertThat(hourlyCount(first, KOLKATA, 23)).isEqualTo(1);
+        assertThat(hourlyCount(second, KOLKATA, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void quarterHourOffsetSplitsAtLocalMidnight() {
+        // 18:00 and 18:15 UTC are 23:45 on the 1st and 00:00 on the 2nd in Kathmandu (+05:45)
+        onlyAt = Set.of(LocalDateTime.of(2024, 1, 1, 18, 0), LocalDateTime.of(2024, 1, 1, 18, 15));
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        LocalDate second = first.plusDays(1);
+
+        assertThat(dailyCount(first, KATHMANDU)).isEqualTo(1);
+        assertThat(dailyCount(second, KATHMANDU)).isEqualTo(1);
+        assertThat(hourlyCount(first, KATHMANDU, 23)).isEqualTo(1);
+        assertThat(hourlyCount(second, KATHMANDU, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void unchangedClosedDaysStayCached() {
+        LocalDate day = LocalDate.of(2024, 6, 15);
+        QuarterHourBuckets revalidating = buckets(Duration.ZERO, false);
+        revalidating.dailyStats(day, day, ZoneOffset.UTC);
+        revalidating.revalidate();
+
+        assertThat(revalidating.aggregatedStats(day, day, ZoneOffset.UTC)[0]).isEqualTo(96L);
+        verify(transactionRepository, times(1)).selectQuarterHourStats(any(), any());
+        verify(transactionRepository, times(1)).selectDailyChangeMarkers(any(), any());
+    }
+
+    @Test
+    void changedClosedDaysAreReloadedAfterRevalidation() {
+        LocalDate day = LocalDate.of(2024, 6, 15);
+        QuarterHourBuckets revalidating = buckets(Duration.ZERO, false);
+        revalidating.dailyStats(day, day, ZoneOffset.UTC);
+        deleted.add(day.atTime(12, 0));
+
+        // Not checked until the next revalidation
+        assertThat(revalidating.aggregatedStats(day, day, ZoneOffset.UTC)[0]).isEqualTo(96L);
+        revalidating.revalidate();
+        assertThat(revalidating.aggregatedStats(day, day, ZoneOffset.UTC)[0]).isEqualTo(95L);
+        verify(transactionRepository, times(2)).selectQuarterHourStats(any(), any());
+    }
+
+    @Test
+    void snapshotDaysAreServedAfterARestartUnlessTheyChanged() {
+        LocalDate first = LocalDate.of(2024, 6, 14);
+        LocalDate second = first.plusDays(1);
+        QuarterHourBuckets before = buckets(Duration.ofMinutes(30), true);
+        before.dailyStats(first, second, ZoneOffset.UTC);
+        before.writeSnapshot();
+        deleted.add(second.atTime(12, 0));
+        clearInvocations(transactionRepository);
+
+        QuarterHourBuckets after = buckets(Duration.ofMinutes(30), true);
+
+        assertThat(after.aggregatedStats(first, first, ZoneOffset.UTC)[0]).isEqualTo(96L);
+        assertThat(after.aggregatedStats(second, second, ZoneOffset.UTC)[0]).isEqualTo(95L);
+        // The first day came from the file; only the second was scanned again
+        verify(transactionRepository, times(1)).selectQuarterHourStats(any(), any());
+        verify(transactionRepository).selectQuarterHourStats(second.atStartOfDay(), second.plusDays(1).atStartOfDay());
+        verify(transactionRepository, times(2)).selectDailyChangeMarkers(any(), any());
+    }
+
+    @Test
+    void rangesLongerThanTheLimitAreRejected() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+
+        assertThat(buckets.dailyStats(start, start.plusDays(365), NEW_YORK)).hasSize(366);
+        assertThatThrownBy(() -> buckets.dailyStats(start, start.plusDays(366), NEW_YORK))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private QuarterHourBuckets buckets(Duration revalidateInterval, boolean snapshot) {
+        return new QuarterHourBuckets(transactionRepository, mock(SettlementImportRepository.class),
+                new SimpleMeterRegistry(), 400, Duration.ofMinutes(1), revalidateInterval,
+                366, snapshot, dir.resolve("buckets.bin"));
+    }
+
+    private List<LocalDateTime> rows(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> rows = new ArrayList<>();
+        for (LocalDateTime t = start; t.isBefore(end); t = t.plusMinutes(15)) {
+            if ((onlyAt == null || onlyAt.contains(t)) && !deleted.contains(t)) {
+                rows.add(t);
+            }
+        }
+        return rows;
+    }
+
+    private long dailyCount(LocalDate day, ZoneId zone) {
+        return buckets.dailyStats(day, day, zone).stream()
+                .filter(row -> row[0].equals(day))
+                .mapToLong(row -> (Long) row[1])
+                .sum();
+    }
+
+    private long hourlyCount(LocalDate day, ZoneId zone, int hour) {
+        return buckets.hourlyStats(day, day, zone).stream()
+                .filter(row -> row[0].equals(hour))
+                .mapToLong(row -> (Long) row[1])
+                .sum();
+    }
+}
@@ -0,0 +1,129 @@
+package com.toucanus.analytics_dashboard.service.zone;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.toucanus.analytics_dashboard.service.zone.QuarterHourBuckets.CELLS_PER_DAY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuarterHourSnapshotTest {
+
+    private static final long FINGERPRINT = QuarterHourSnapshot.fingerprint("test-layout");
+    private static final Instant WRITTEN_AT = Instant.parse("2026-03-01T10:15:30Z");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void openReturnsWhatWasWritten() throws IOException {
+        SortedMap<LocalDate, QuarterHourBuckets.Day> days = randomDays(5);
+        Path file = write(days);
+
+        QuarterHourSnapshot snapshot = QuarterHourSnapshot.open(file, FINGERPRINT);
+
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.writtenAt()).isEqualTo(WRITTEN_AT);
+        assertThat(snapshot.days()).containsOnlyKeys(days.keySet());
+        for (Map.Entry<LocalDate, QuarterHourBuckets.Day> entry : days.entrySet()) {
+            QuarterHourBuckets.Day read = snapshot.days().get(entry.getKey());
+            QuarterHourBuckets.Day written = entry.getValue();
+            assertThat(read.closed).isTrue();
+            assertThat(read.maxCreatedAt).isEqualTo(written.maxCreatedAt);
+            for (int i = 0; i < CELLS_PER_DAY; i++) {
+                assertThat(read.counts.get(i)).isEqualTo(written.counts.get(i));
+                assertThat(read.amounts.get(i)).isEqualTo(written.amounts.get(i));
+            }
+        }
+    }
+
+    @Test
+    void emptySnapshotRoundTrips() throws IOException {
+        Path file = write(new TreeMap<>());
+
+        QuarterHourSnapshot snapshot = QuarterHourSnapshot.open(file, FINGERPRINT);
+
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.days()).isEmpty();
+    }
+
+    @Test
+    void missingFileIsIgnored() throws IOException {
+        assertThat(QuarterHourSnapshot.open(dir.resolve("absent.bin"), FINGERPRINT)).isNull();
+    }
+
+    @Test
+    void corruptedByteFailsChecksum() throws IOException {
+        Path file = write(randomDays(3));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long position = raf.length() - 100;
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 0x01);
+        }
+
+        assertThat(QuarterHourSnapshot.open(file, FINGERPRINT)).isNull();
+    }
+
+    @Test
+    void otherFingerprintIsIgnored() throws IOException {
+        Path file = write(randomDays(2));
+
+        assertThat(QuarterHourSnapshot.open(file, QuarterHourSnapshot.fingerprint("other-layout"))).isNull();
+    }
+
+    @Test
+    void truncatedFileIsIgnored() throws IOException {
+        Path file = write(randomDays(2));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - Long.BYTES);
+        }
+
+        assertThat(QuarterHourSnapshot.open(file, FINGERPRINT)).isNull();
+    }
+
+    @Test
+    void fileShorterThanHeaderIsIgnored() throws IOException {
+        Path file = dir.resolve("short.bin");
+        Files.write(file, new byte[16]);
+
+        assertThat(QuarterHourSnapshot.open(file, FINGERPRINT)).isNull();
+    }
+
+    private Path write(SortedMap<LocalDate, QuarterHourBuckets.Day> days) throws IOException {
+        Path file = dir.resolve("snapshots").resolve("buckets.bin");
+        QuarterHourSnapshot.write(file, FINGERPRINT, WRITTEN_AT, days);
+        return file;
+    }
+
+    private static SortedMap<LocalDate, QuarterHourBuckets.Day> randomDays(int count) {
+        Random random = new Random(count);
+        SortedMap<LocalDate, QuarterHourBuckets.Day> days = new TreeMap<>();
+        LocalDate date = LocalDate.of(2026, 1, 1);
+        for (int d = 0; d < count; d++) {
+            QuarterHourBuckets.Day day = new QuarterHourBuckets.Day(true, 0);
+            day.maxCreatedAt = 1_700_000_000_000_000L + d;
+            for (int i = 0; i < CELLS_PER_DAY; i++) {
+                if (random.nextInt(4) == 0) {
+                    day.counts.put(i, random.nextInt(1000));
+                    day.amounts.put(i, random.nextLong(1_000_000_000L));
+                }
+            }
+            // Gaps between days, so the index is not just consecutive dates
+            days.put(date, day);
+            date = date.plusDays(1 + random.nextInt(3));
+        }
+        return days;
+    }
+}
@@ -7,40 +7,55 @@ const api = axios.create({
   },
 });
 
+// Per-tab id. Calls made with a `supersede` scope send X-Supersede-Key, and the backend
+// cancels an in-flight call with the same key and endpoint, whatever its params. Only pass
+// it where a newer call replaces the older one, e.g. a page reloading on a range change.
+const clientId = Math.random().toString(36).slice(2);
+const supersedeHeaders = (supersede) =>
+  supersede ? { 'X-Supersede-Key': `${clientId}:${supersede}` } : undefined;
+
 export const getDashboardStats = async () => {
   const response = await api.get('/dashboard/stats');
   return response.data;
 };
 
-export const getFilteredDashboardStats = async (startDate, endDate) => {
+export const getFilteredDashboardStats = async (startDate, endDate, { signal, supersede } = {}) => {
   const params = {};
   if (startDate) params.startDate = startDate;
   if (endDate) params.endDate = endDate;
-  const response = await api.get('/dashboard/stats/filtered', { params });
+  const response = await api.get('/dashboard/stats/filtered', { params, signal, headers: supersedeHeaders(supersede) });
   return response.data;
 };
 
-export const getDailyAnalytics = async (startDate, endDate) => {
+export const getDailyAnalytics = async (startDate, endDate, { signal, supersede } = {}) => {
   const params = {};
   if (startDate) params.startDate = startDate;
   if (endDate) params.endDate = endDate;
-  const response = await api.get('/dashboard/analytics/daily', { params });
+  const response = await api.get('/dashboard/analytics/daily', { params, signal, headers: supersedeHeaders(supersede) });
   return response.data;
 };
 
-export const getPaymentStats = async (startDate, endDate) => {
+export const getPaymentStats = async (startDate, endDate, { signal, supersede } = {}) => {
   const params = {};
   if (startDate) params.startDate = startDate;
   if (endDate) params.endDate = endDate;
-  const response = await api.get('/dashboard/analytics/payment-methods', { params });
+  const response = await api.get('/dashboard/analytics/payment-methods', { params, signal, headers: supersedeHeaders(supersede) });
   return response.data;
 };
 
-export const getHourlyTraffic = async (startDate, endDate) => {
+export const getHourlyTraffic = async (startDate, endDate, { signal, supersede } = {}) => {
   const params = {};
   if (startDate) params.startDate = startDate;
   if (endDate) params.endDate = endDate;
-  const response = await api.get('/dashboard/analytics/hourly-traffic', { params });
+  const response = await api.get('/dashboard/analytics/hourly-traffic', { params, signal, headers: supersedeHeaders(supersede) });
+  return response.data;
+};
+
+export const getDashboardComparison = async (startDate, endDate, compareTo = 'PREVIOUS_PERIOD', { signal, supersede } = {}) => {
+  const params = { compareTo };
+  if (startDate) params.startDate = startDate;
+  if (endDate) params.endDate = endDate;
+  const response = await api.get('/dashboard/stats/compare', { params, signal, headers: supersedeHeaders(supersede) });
   return response.data;
 };
 
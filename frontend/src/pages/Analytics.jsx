@@ -20,7 +20,7 @@ import {
 import { Calendar, DollarSign, CheckCircle, TrendingUp, Activity, Filter, Download, FileJson, FileSpreadsheet, ChevronDown } from 'lucide-react';
 import {
   getDashboardStats,
-  getFilteredDashboardStats,
+  getDashboardComparison,
   getDailyAnalytics,
   getPaymentStats,
   getHourlyTraffic,
@@ -66,7 +66,7 @@ function CustomTooltip({ active, payload, label, formatter }) {
 }
 
 // Mini Stat Card - Modern Design (matches Overview.jsx style)
-function MiniStatCard({ icon: Icon, label, value, cardColorClass = 'blue' }) {
+function MiniStatCard({ icon: Icon, label, value, change, cardColorClass = 'blue' }) {
   // Gradient and color mappings based on card type
   const gradientMap = {
     blue: 'from-blue-100 to-blue-50 dark:from-blue-900/30 dark:to-blue-800/10 border-blue-100 dark:border-blue-800/50',
@@ -110,6 +110,11 @@ function MiniStatCard({ icon: Icon, label, value, cardColorClass = 'blue' }) {
         <p className="text-3xl md:text-4xl font-bold text-gray-800 dark:text-white transition-transform duration-200 group-hover:scale-105">
           {value}
         </p>
+        {change != null && (
+          <p className={`mt-1 text-sm font-medium ${change >= 0 ? 'text-green-600 dark:text-green-400' : 'text-red-600 dark:text-red-400'}`}>
+            {change >= 0 ? '▲' : '▼'} {Math.abs(change).toFixed(1)}% vs previous period
+          </p>
+        )}
       </div>
     </motion.div>
   );
@@ -175,6 +180,8 @@ const renderCustomLegend = (props, activeIndex) => {
 
 export default function Analytics() {
   const [stats, setStats] = useState(null);
+  // Percent change per KPI against the previous period of equal length; null entries when it was zero
+  const [changes, setChanges] = useState({});
   const [dailyData, setDailyData] = useState([]);
   const [paymentData, setPaymentData] = useState([]);
   const [hourlyData, setHourlyData] = useState([]);
@@ -201,26 +208,32 @@ export default function Analytics() {
   // API calls depend ONLY on applied dates, NOT draft dates
   // This ensures date selection in the calendar does not trigger API calls
   useEffect(() => {
+    // Abort the previous range's requests when the range changes or the page unmounts
+    const controller = new AbortController();
+    const options = { signal: controller.signal, supersede: 'analytics' };
     async function fetchData() {
       try {
         setLoading(true);
-        const [statsRes, dailyRes, paymentRes, hourlyRes] = await Promise.all([
-          getFilteredDashboardStats(appliedStartDate, appliedEndDate),
-          getDailyAnalytics(appliedStartDate, appliedEndDate),
-          getPaymentStats(appliedStartDate, appliedEndDate),
-          getHourlyTraffic(appliedStartDate, appliedEndDate),
+        const [comparisonRes, dailyRes, paymentRes, hourlyRes] = await Promise.all([
+          getDashboardComparison(appliedStartDate, appliedEndDate, 'PREVIOUS_PERIOD', options),
+          getDailyAnalytics(appliedStartDate, appliedEndDate, options),
+          getPaymentStats(appliedStartDate, appliedEndDate, options),
+          getHourlyTraffic(appliedStartDate, appliedEndDate, options),
         ]);
-        setStats(statsRes);
+        setStats(comparisonRes.current);
+        setChanges(comparisonRes.percentChanges || {});
         setDailyData(dailyRes);
         setPaymentData(paymentRes);
         setHourlyData(hourlyRes);
       } catch (error) {
+        if (controller.signal.aborted) return;
         console.error('Failed to fetch analytics:', error);
       } finally {
-        setLoading(false);
+        if (!controller.signal.aborted) setLoading(false);
       }
     }
     fetchData();
+    return () => controller.abort();
   }, [appliedStartDate, appliedEndDate]); // Only applied dates trigger API
 
   const formatCurrency = (value) => {
@@ -463,12 +476,14 @@ export default function Analytics() {
           icon={DollarSign}
           label="Total GTV"
           value={formatCurrency(stats?.totalGtv)}
+          change={changes.totalGtv}
           cardColorClass="blue"
         />
         <MiniStatCard
           icon={CheckCircle}
           label="Success Rate"
           value={`${stats?.successRate?.toFixed(1) || 0}%`}
+          change={changes.successRate}
           cardColorClass={
             stats?.successRate >= 95 ? 'green' : stats?.successRate >= 90 ? 'amber' : 'red'
           }
@@ -477,12 +492,14 @@ export default function Analytics() {
           icon={TrendingUp}
           label="Transactions"
           value={stats?.totalTxns?.toLocaleString() || 0}
+          change={changes.totalTxns}
           cardColorClass="indigo"
         />
         <MiniStatCard
           icon={Activity}
           label="Avg Ticket"
           value={formatCurrency(stats?.averageTicketSize)}
+          change={changes.averageTicketSize}
           cardColorClass="cyan"
         />
       </div>
@@ -0,0 +1,90 @@
+package com.toucanus.analytics_dashboard.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads Caffeine hit/miss counters from {@code /actuator/metrics/cache.gets} so hit
+ * ratios can be reported for the measured interval only.
+ */
+final class CacheMetrics {
+
+    /**
+     * The service-level cache each endpoint is answered from.
+     */
+    static final Map<String, String> CACHE_BY_ENDPOINT = Map.of(
+            "/api/dashboard/stats", "dashboardStats",
+            "/api/dashboard/stats/filtered", "filteredDashboardStats",
+            "/api/dashboard/analytics/daily", "dailyAnalytics",
+            "/api/dashboard/analytics/payment-methods", "paymentStats",
+            "/api/dashboard/analytics/hourly-traffic", "hourlyTraffic");
+
+    private static final List<String> CACHES = List.of(
+            "dashboardStats", "filteredDashboardStats", "dailyAnalytics", "paymentStats", "hourlyTraffic",
+            "approximateAnalytics");
+
+    private final DashboardClient client;
+    private final ObjectMapper mapper;
+
+    CacheMetrics(DashboardClient client, ObjectMapper mapper) {
+        this.client = client;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Cumulative [hits, misses] per cache; caches whose metrics are unavailable are absent.
+     */
+    Map<String, long[]> snapshot() {
+        Map<String, long[]> result = new LinkedHashMap<>();
+        for (String cache : CACHES) {
+            Long hits = read(cache, "hit");
+            Long misses = read(cache, "miss");
+            if (hits != null && misses != null) {
+                result.put(cache, new long[]{hits, misses});
+            }
+        }
+        return result;
+    }
+
+    static Map<String, Object> delta(Map<String, long[]> before, Map<String, long[]> after) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        after.forEach((cache, end) -> {
+            long[] start = before.getOrDefault(cache, new long[2]);
+            long hits = end[0] - start[0];
+            long misses = end[1] - start[1];
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("hits", hits);
+            entry.put("misses", misses);
+            entry.put("hitRatio", hits + misses == 0 ? null : (double) hits / (hits + misses));
+            result.put(cache, entry);
+        });
+        return result;
+    }
+
+    private Long read(String cache, String result) {
+        HttpRequest request = HttpRequest.newBuilder(client.baseUrl().resolve(
+                        "/actuator/metrics/cache.gets?tag=cache:" + cache + "&tag=result:" + result))
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = client.http().send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            JsonNode measurements = mapper.readTree(response.body()).path("measurements");
+            return measurements.isEmpty() ? 0L : measurements.get(0).path("value").asLong();
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
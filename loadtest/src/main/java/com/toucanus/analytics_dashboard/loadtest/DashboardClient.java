@@ -0,0 +1,150 @@
+package com.toucanus.analytics_dashboard.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Issues backend calls the way the frontend does (including the {@code X-Supersede-Key}
+ * header) and records each outcome under its endpoint path.
+ */
+final class DashboardClient implements AutoCloseable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final URI baseUrl;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    DashboardClient(URI baseUrl) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * A GET to {@code path} with optional query parameters (null values are skipped).
+     */
+    record Call(String path, Map<String, Object> params) {
+
+        static Call of(String path, Object... keyValues) {
+            Map<String, Object> params = new TreeMap<>();
+            for (int i = 0; i < keyValues.length; i += 2) {
+                if (keyValues[i + 1] != null) {
+                    params.put((String) keyValues[i], keyValues[i + 1]);
+                }
+            }
+            return new Call(path, params);
+        }
+
+        String pathAndQuery() {
+            StringBuilder sb = new StringBuilder(path);
+            char sep = '?';
+            for (Map.Entry<String, Object> param : params.entrySet()) {
+                sb.append(sep).append(param.getKey()).append('=').append(param.getValue());
+                sep = '&';
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Sends one call and records it; returns true unless it failed or was superseded.
+     *
+     * @param supersedeKey sent as {@code X-Supersede-Key} unless null, as the frontend only
+     *                     does for calls a range change replaces
+     */
+    boolean send(Call call, String supersedeKey) {
+        EndpointStats endpoint = stats.computeIfAbsent(call.path(), p -> new EndpointStats());
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUrl.resolve(call.pathAndQuery()))
+                .timeout(REQUEST_TIMEOUT);
+        if (supersedeKey != null) {
+            builder.header("X-Supersede-Key", supersedeKey);
+        }
+        HttpRequest request = builder.GET().build();
+        long started = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            long elapsed = System.nanoTime() - started;
+            int status = response.statusCode();
+            if (status < 400) {
+                endpoint.recordSuccess(elapsed);
+                return true;
+            }
+            if (status == 409) {
+                endpoint.recordSuperseded();
+            } else {
+                endpoint.recordError("http_" + status, elapsed);
+            }
+        } catch (IOException e) {
+            endpoint.recordError(e.getClass().getSimpleName(), System.nanoTime() - started);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            endpoint.recordError("interrupted", System.nanoTime() - started);
+        }
+        return false;
+    }
+
+    /**
+     * Sends the calls concurrently, like a page's {@code Promise.all}, and waits for all.
+     */
+    boolean sendAll(List<Call> calls, String supersedeKey) {
+        List<Future<Boolean>> futures = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            futures.add(executor.submit(() -> send(call, supersedeKey)));
+        }
+        boolean ok = true;
+        for (Future<Boolean> future : futures) {
+            try {
+                ok &= future.get();
+            } catch (ExecutionException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Fires the calls without waiting, for page loads that a range change abandons.
+     */
+    void sendAllAsync(List<Call> calls, String supersedeKey) {
+        for (Call call : calls) {
+            executor.submit(() -> send(call, supersedeKey));
+        }
+    }
+
+    Map<String, EndpointStats> stats() {
+        return stats;
+    }
+
+    HttpClient http() {
+        return http;
+    }
+
+    URI baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
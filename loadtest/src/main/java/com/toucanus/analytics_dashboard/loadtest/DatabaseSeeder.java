@@ -0,0 +1,74 @@
+package com.toucanus.analytics_dashboard.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Fills an existing schema (start the backend once so Hibernate creates it) with
+ * synthetic users and transactions spread uniformly over the configured data range.
+ * Inserts run server-side with generate_series, in chunks so each commit stays bounded.
+ */
+final class DatabaseSeeder {
+
+    private static final int CHUNK = 1_000_000;
+
+    private static final String INSERT_USERS = """
+            INSERT INTO users (full_name, email, role, status, created_at)
+            SELECT 'Load User ' || g,
+                   'load.user' || g || '@example.com',
+                   CASE WHEN g % 20 = 0 THEN 'MERCHANT' ELSE 'CUSTOMER' END,
+                   'ACTIVE',
+                   ?::timestamp + random() * (?::timestamp - ?::timestamp)
+            FROM generate_series(1, ?) g
+            ON CONFLICT (email) DO NOTHING
+            """;
+
+    private static final String INSERT_TRANSACTIONS = """
+            WITH ids AS (SELECT array_agg(id) AS a FROM users)
+            INSERT INTO transactions (id, user_id, amount, currency, type, status, payment_method, created_at)
+            SELECT gen_random_uuid(),
+                   ids.a[1 + floor(random() * cardinality(ids.a))::int],
+                   round((10 + random() * 4990)::numeric, 2),
+                   'INR',
+                   (ARRAY['PAYIN', 'PAYIN', 'PAYIN', 'PAYOUT', 'REFUND'])[1 + floor(random() * 5)::int],
+                   (ARRAY['SUCCESS', 'SUCCESS', 'SUCCESS', 'SUCCESS', 'SUCCESS', 'SUCCESS', 'SUCCESS',
+                          'SUCCESS', 'FAILED', 'PENDING'])[1 + floor(random() * 10)::int],
+                   (ARRAY['UPI', 'UPI', 'CARD', 'WALLET'])[1 + floor(random() * 4)::int],
+                   ?::timestamp + random() * (?::timestamp - ?::timestamp)
+            FROM ids, generate_series(1, ?)
+            """;
+
+    private DatabaseSeeder() {
+    }
+
+    static void seed(LoadTestConfig config) throws SQLException {
+        Timestamp start = Timestamp.valueOf(config.dataStart().atStartOfDay());
+        Timestamp end = Timestamp.valueOf(config.dataEnd().plusDays(1).atStartOfDay());
+        try (Connection connection = DriverManager.getConnection(
+                config.jdbcUrl(), config.jdbcUser(), config.jdbcPassword())) {
+            execute(connection, INSERT_USERS, start, end, config.seedUsers());
+            for (int done = 0; done < config.seedTransactions(); done += CHUNK) {
+                int rows = Math.min(CHUNK, config.seedTransactions() - done);
+                execute(connection, INSERT_TRANSACTIONS, start, end, rows);
+                System.err.printf("seeded %d/%d transactions%n", done + rows, config.seedTransactions());
+            }
+            try (PreparedStatement analyze = connection.prepareStatement("ANALYZE users, transactions")) {
+                analyze.execute();
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql, Timestamp start, Timestamp end, int rows)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setTimestamp(1, start);
+            statement.setTimestamp(2, end);
+            statement.setTimestamp(3, start);
+            statement.setInt(4, rows);
+            statement.executeUpdate();
+        }
+    }
+}
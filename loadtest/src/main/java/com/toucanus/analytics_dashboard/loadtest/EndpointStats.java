@@ -0,0 +1,82 @@
+package com.toucanus.analytics_dashboard.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters for one endpoint (or one scenario). Recording is
+ * lock-free; {@link #reset()} discards everything recorded so far (end of warm-up).
+ */
+final class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Recorder latency = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void recordSuccess(long latencyNanos) {
+        requests.increment();
+        latency.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    /**
+     * A 409 from a newer request with the same supersede key; expected during range changes.
+     */
+    void recordSuperseded() {
+        requests.increment();
+        superseded.increment();
+    }
+
+    void recordError(String cause, long latencyNanos) {
+        requests.increment();
+        errors.computeIfAbsent(cause, c -> new LongAdder()).increment();
+        latency.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    void reset() {
+        latency.getIntervalHistogram();
+        requests.reset();
+        superseded.reset();
+        errors.clear();
+    }
+
+    Map<String, Object> report(double seconds) {
+        Histogram histogram = latency.getIntervalHistogram();
+        long total = requests.sum();
+        long errorCount = errors.values().stream().mapToLong(LongAdder::sum).sum();
+
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", microsToMillis(histogram.getValueAtPercentile(50)));
+        percentiles.put("p90", microsToMillis(histogram.getValueAtPercentile(90)));
+        percentiles.put("p95", microsToMillis(histogram.getValueAtPercentile(95)));
+        percentiles.put("p99", microsToMillis(histogram.getValueAtPercentile(99)));
+        percentiles.put("p99.9", microsToMillis(histogram.getValueAtPercentile(99.9)));
+        percentiles.put("max", microsToMillis(histogram.getMaxValue()));
+        percentiles.put("mean", histogram.getTotalCount() == 0 ? 0.0 : histogram.getMean() / 1000.0);
+
+        Map<String, Long> errorsByCause = new TreeMap<>();
+        errors.forEach((cause, count) -> errorsByCause.put(cause, count.sum()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", total);
+        report.put("throughputPerSecond", seconds > 0 ? total / seconds : 0.0);
+        report.put("errorRate", total == 0 ? 0.0 : (double) errorCount / total);
+        report.put("errors", errorsByCause);
+        report.put("superseded", superseded.sum());
+        report.put("latencyMs", percentiles);
+        return report;
+    }
+
+    private static double microsToMillis(long micros) {
+        return micros / 1000.0;
+    }
+}
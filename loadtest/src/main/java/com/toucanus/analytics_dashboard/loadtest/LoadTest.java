@@ -0,0 +1,160 @@
+package com.toucanus.analytics_dashboard.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test: scenarios arrive at a constant rate regardless of how quickly
+ * earlier ones complete, each on its own virtual thread. Scenario latency is measured
+ * from the scheduled arrival time, so a stalled server shows up as latency instead of
+ * silently lowering the offered load (no coordinated omission). Endpoint latency is
+ * measured per request.
+ * <p>
+ * Example:
+ * <pre>
+ * mvn -q compile exec:java -Dexec.args="--rate=50 --duration=PT2M --output=report.json"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        if (config.jdbcUrl() != null && config.seedTransactions() > 0) {
+            DatabaseSeeder.seed(config);
+        }
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        try (DashboardClient client = new DashboardClient(config.baseUrl())) {
+            Map<String, Object> report = run(config, client, mapper);
+            String json = mapper.writeValueAsString(report);
+            if (config.output() != null) {
+                Files.writeString(config.output(), json);
+            } else {
+                System.out.println(json);
+            }
+        }
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, DashboardClient client, ObjectMapper mapper)
+            throws IOException {
+        Map<Scenario, EndpointStats> scenarioStats = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            scenarioStats.put(scenario, new EndpointStats());
+        }
+        List<Scenario> weighted = new ArrayList<>();
+        config.mix().forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The scenario mix is empty");
+        }
+
+        AtomicInteger inFlight = new AtomicInteger();
+        LongAdder dropped = new LongAdder();
+        CacheMetrics cacheMetrics = new CacheMetrics(client, mapper);
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / config.rate());
+        long warmupEnd = System.nanoTime() + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+        boolean measuring = config.warmup().isZero();
+        Map<String, long[]> cachesBefore = measuring ? cacheMetrics.snapshot() : null;
+        Instant measuredFrom = measuring ? Instant.now() : null;
+
+        try (ExecutorService arrivals = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = System.nanoTime();
+            while (next < end) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!measuring && next >= warmupEnd) {
+                    scenarioStats.values().forEach(EndpointStats::reset);
+                    client.stats().values().forEach(EndpointStats::reset);
+                    dropped.reset();
+                    cachesBefore = cacheMetrics.snapshot();
+                    measuredFrom = Instant.now();
+                    measuring = true;
+                }
+
+                long scheduled = next;
+                next += interval;
+                if (inFlight.get() >= config.maxInFlight()) {
+                    dropped.increment();
+                    continue;
+                }
+                Scenario scenario = weighted.get(ThreadLocalRandom.current().nextInt(weighted.size()));
+                EndpointStats stats = scenarioStats.get(scenario);
+                inFlight.incrementAndGet();
+                arrivals.submit(() -> {
+                    try {
+                        boolean ok = scenario.run(client, config, UUID.randomUUID().toString());
+                        long latency = System.nanoTime() - scheduled;
+                        if (ok) {
+                            stats.recordSuccess(latency);
+                        } else {
+                            stats.recordError("failed_call", latency);
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+            }
+            // Scenarios still running at the end are allowed to finish and are counted
+        }
+        double seconds = config.duration().toMillis() / 1000.0;
+        Map<String, long[]> cachesAfter = cacheMetrics.snapshot();
+
+        Map<String, Object> caches = CacheMetrics.delta(cachesBefore != null ? cachesBefore : Map.of(), cachesAfter);
+        Map<String, Object> endpoints = new TreeMap<>();
+        client.stats().forEach((path, stats) -> {
+            Map<String, Object> entry = stats.report(seconds);
+            String cache = CacheMetrics.CACHE_BY_ENDPOINT.get(path);
+            if (cache != null && caches.get(cache) instanceof Map<?, ?> cacheEntry) {
+                entry.put("cacheHitRatio", cacheEntry.get("hitRatio"));
+            }
+            endpoints.put(path, entry);
+        });
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        scenarioStats.forEach((scenario, stats) -> scenarios.put(scenario.name(), stats.report(seconds)));
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("baseUrl", config.baseUrl().toString());
+        settings.put("arrivalRatePerSecond", config.rate());
+        settings.put("warmup", config.warmup().toString());
+        settings.put("duration", config.duration().toString());
+        settings.put("mix", config.mix());
+        settings.put("transactionPageSize", config.pageSize());
+        settings.put("dataRange", config.dataStart() + "/" + config.dataEnd());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", String.valueOf(measuredFrom));
+        report.put("settings", settings);
+        report.put("droppedArrivals", dropped.sum());
+        report.put("scenarios", scenarios);
+        report.put("endpoints", endpoints);
+        report.put("caches", caches);
+        return report;
+    }
+}
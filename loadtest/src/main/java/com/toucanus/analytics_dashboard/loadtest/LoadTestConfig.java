@@ -0,0 +1,83 @@
+package com.toucanus.analytics_dashboard.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}.
+ *
+ * @param baseUrl          backend root, e.g. http://localhost:8080
+ * @param rate             scenario arrivals per second (open model: independent of latency)
+ * @param warmup           run time discarded before measuring
+ * @param duration         measured run time
+ * @param mix              relative weight per scenario
+ * @param dataStart        first day the seeded data covers; ranges are drawn from here
+ * @param dataEnd          last day the seeded data covers
+ * @param maxInFlight      arrivals beyond this many running scenarios are dropped and counted
+ * @param pageSize         page size for /api/transactions browsing (the UI uses 10)
+ * @param output           report file; stdout if null
+ * @param jdbcUrl          if set together with seedTransactions, the database is seeded first
+ * @param seedUsers        users to insert when seeding
+ * @param seedTransactions transactions to insert when seeding
+ */
+record LoadTestConfig(URI baseUrl,
+                      double rate,
+                      Duration warmup,
+                      Duration duration,
+                      Map<Scenario, Integer> mix,
+                      LocalDate dataStart,
+                      LocalDate dataEnd,
+                      int maxInFlight,
+                      int pageSize,
+                      Path output,
+                      String jdbcUrl,
+                      String jdbcUser,
+                      String jdbcPassword,
+                      int seedUsers,
+                      int seedTransactions) {
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        LocalDate dataEnd = LocalDate.parse(options.getOrDefault("data-end", LocalDate.now().toString()));
+        LocalDate dataStart = LocalDate.parse(options.getOrDefault("data-start", dataEnd.minusDays(89).toString()));
+        String output = options.get("output");
+        return new LoadTestConfig(
+                URI.create(options.getOrDefault("base-url", "http://localhost:8080")),
+                Double.parseDouble(options.getOrDefault("rate", "20")),
+                Duration.parse(options.getOrDefault("warmup", "PT30S")),
+                Duration.parse(options.getOrDefault("duration", "PT2M")),
+                parseMix(options.getOrDefault("mix", "OVERVIEW=30,ANALYTICS=30,RANGE_CHANGE=10,TRANSACTIONS=30")),
+                dataStart,
+                dataEnd,
+                Integer.parseInt(options.getOrDefault("max-in-flight", "10000")),
+                Integer.parseInt(options.getOrDefault("page-size", "10")),
+                output != null ? Path.of(output) : null,
+                options.get("jdbc-url"),
+                options.getOrDefault("jdbc-user", "postgres"),
+                options.getOrDefault("jdbc-password", "postgres"),
+                Integer.parseInt(options.getOrDefault("seed-users", "10000")),
+                Integer.parseInt(options.getOrDefault("seed-transactions", "0")));
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.split("=");
+            mix.put(Scenario.valueOf(kv[0].trim()), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,118 @@
+package com.toucanus.analytics_dashboard.loadtest;
+
+import com.toucanus.analytics_dashboard.loadtest.DashboardClient.Call;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One simulated user action, mirroring what the frontend pages send.
+ */
+enum Scenario {
+
+    /**
+     * Overview/Dashboard page load: four default-range calls in parallel.
+     */
+    OVERVIEW {
+        @Override
+        boolean run(DashboardClient client, LoadTestConfig config, String clientId) {
+            return client.sendAll(List.of(
+                    Call.of("/api/dashboard/stats"),
+                    Call.of("/api/dashboard/analytics/daily"),
+                    Call.of("/api/dashboard/analytics/payment-methods"),
+                    Call.of("/api/dashboard/analytics/hourly-traffic")), null);
+        }
+    },
+
+    /**
+     * Analytics page load for a random range: four calls in parallel.
+     */
+    ANALYTICS {
+        @Override
+        boolean run(DashboardClient client, LoadTestConfig config, String clientId) {
+            return client.sendAll(analyticsPage(randomRange(config)), analyticsKey(clientId));
+        }
+    },
+
+    /**
+     * The user changes the range while the previous page load is still running; the
+     * backend supersedes the first batch (answered with 409).
+     */
+    RANGE_CHANGE {
+        @Override
+        boolean run(DashboardClient client, LoadTestConfig config, String clientId) {
+            client.sendAllAsync(analyticsPage(randomRange(config)), analyticsKey(clientId));
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(20_000_000, 300_000_000));
+            return client.sendAll(analyticsPage(randomRange(config)), analyticsKey(clientId));
+        }
+    },
+
+    /**
+     * Paginated browsing of /api/transactions with a random filter: one to five pages.
+     */
+    TRANSACTIONS {
+        @Override
+        boolean run(DashboardClient client, LoadTestConfig config, String clientId) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String status = random.nextInt(3) == 0 ? pick(random, "SUCCESS", "FAILED", "PENDING") : null;
+            String method = random.nextInt(3) == 0 ? pick(random, "UPI", "CARD", "WALLET") : null;
+            LocalDate[] range = random.nextBoolean() ? randomRange(config) : null;
+            int pages = random.nextInt(1, 6);
+            boolean ok = true;
+            for (int page = 0; page < pages; page++) {
+                ok &= client.send(Call.of("/api/transactions",
+                        "page", page,
+                        "size", config.pageSize(),
+                        "status", status,
+                        "paymentMethod", method,
+                        "startDate", range != null ? range[0].atStartOfDay() : null,
+                        "endDate", range != null ? range[1].plusDays(1).atStartOfDay() : null), null);
+            }
+            return ok;
+        }
+    };
+
+    abstract boolean run(DashboardClient client, LoadTestConfig config, String clientId);
+
+    /**
+     * The Analytics page's supersede scope, as in frontend/src/pages/Analytics.jsx.
+     */
+    private static String analyticsKey(String clientId) {
+        return clientId + ":analytics";
+    }
+
+    private static List<Call> analyticsPage(LocalDate[] range) {
+        Object[] dates = {"startDate", range[0], "endDate", range[1]};
+        return List.of(
+                Call.of("/api/dashboard/stats/filtered", dates),
+                Call.of("/api/dashboard/analytics/daily", dates),
+                Call.of("/api/dashboard/analytics/payment-methods", dates),
+                Call.of("/api/dashboard/analytics/hourly-traffic", dates));
+    }
+
+    /**
+     * Mostly the preset ranges (7 and 30 days ending on the last data day), sometimes an
+     * arbitrary range inside the seeded data.
+     */
+    private static LocalDate[] randomRange(LoadTestConfig config) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate end = config.dataEnd();
+        int roll = random.nextInt(10);
+        if (roll < 4) {
+            return new LocalDate[]{end.minusDays(6), end};
+        }
+        if (roll < 7) {
+            return new LocalDate[]{end.minusDays(29), end};
+        }
+        long span = Math.max(1, config.dataEnd().toEpochDay() - config.dataStart().toEpochDay());
+        LocalDate a = config.dataStart().plusDays(random.nextLong(span + 1));
+        LocalDate b = config.dataStart().plusDays(random.nextLong(span + 1));
+        return a.isAfter(b) ? new LocalDate[]{b, a} : new LocalDate[]{a, b};
+    }
+
+    private static String pick(ThreadLocalRandom random, String... values) {
+        return values[random.nextInt(values.length)];
+    }
+}
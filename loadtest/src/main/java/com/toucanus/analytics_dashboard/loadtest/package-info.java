@@ -0,0 +1,6 @@
+/**
+ * Open-model load generator that replays the dashboard's request mix against a running
+ * backend and reports per-endpoint latency percentiles, throughput, errors and cache hit
+ * ratios as JSON.
+ */
+package com.toucanus.analytics_dashboard.loadtest;